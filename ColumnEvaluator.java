@@ -0,0 +1,242 @@
+import java.util.stream.IntStream;
+
+// Element-wise calculator operations and expressions over whole columns of data. Rows are
+// processed in blocks sized so the operand and result slices of a block stay in cache, with
+// blocks spread across the common pool. Failures do not throw: each row gets an error code in
+// a mask and a NaN value, so one bad row does not lose the other million. The operation
+// kernels are branch-free straight-line loops that C2 unrolls and vectorizes.
+final class ColumnEvaluator {
+    static final byte OK = 0;
+    static final byte DIVISION_BY_ZERO = 1;
+    static final byte NEGATIVE_SQUARE_ROOT = 2;
+    static final byte UNDEFINED = 3;
+
+    private static final int BLOCK = 1 << 13;
+
+    enum Operation {
+        ADD("Add", 2),
+        SUBTRACT("Subtract", 2),
+        MULTIPLY("Multiply", 2),
+        DIVIDE("Divide", 2),
+        POWER("Power", 2),
+        SQUARE_ROOT("Square Root", 1);
+
+        private final String label;
+        final int operands;
+
+        Operation(String label, int operands) {
+            this.label = label;
+            this.operands = operands;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    static final class Result {
+        final double[] values;
+        final byte[] errors;
+        final int errorCount;
+
+        private Result(double[] values, byte[] errors, int errorCount) {
+            this.values = values;
+            this.errors = errors;
+            this.errorCount = errorCount;
+        }
+
+        int rows() {
+            return values.length;
+        }
+
+        int count(byte code) {
+            int count = 0;
+            for (byte error : errors) {
+                if (error == code) count++;
+            }
+            return count;
+        }
+
+        // Index of the first failed row, or -1 if every row succeeded.
+        int firstError() {
+            if (errorCount == 0) return -1;
+            for (int i = 0; i < errors.length; i++) {
+                if (errors[i] != OK) return i;
+            }
+            return -1;
+        }
+    }
+
+    private ColumnEvaluator() {
+    }
+
+    static String describe(byte code) {
+        switch (code) {
+            case OK:
+                return "ok";
+            case DIVISION_BY_ZERO:
+                return "division by zero";
+            case NEGATIVE_SQUARE_ROOT:
+                return "negative square root";
+            default:
+                return "undefined result";
+        }
+    }
+
+    // Unary operations ignore b, which may be null.
+    static Result apply(Operation operation, double[] a, double[] b) {
+        int count = a.length;
+        if (operation.operands == 2 && (b == null || b.length != count)) {
+            throw new IllegalArgumentException("Operand columns must have equal length");
+        }
+        double[] values = new double[count];
+        byte[] errors = new byte[count];
+        int errorCount = forEachBlock(count, (from, to) -> operationKernel(operation, a, b, values, errors, from, to));
+        return new Result(values, errors, errorCount);
+    }
+
+    // columns[slot] is the data for the expression's variable in that slot; slots whose
+    // column is null take constants[slot] on every row. Rows whose value is not finite are
+    // marked UNDEFINED.
+    static Result evaluate(Expression expression, double[][] columns, double[] constants) {
+        int slots = expression.variableCount();
+        if (columns.length < slots || constants.length < slots) {
+            throw new IllegalArgumentException("Expression needs " + slots + " variable bindings");
+        }
+        int count = -1;
+        for (int s = 0; s < slots; s++) {
+            if (columns[s] == null) continue;
+            if (count >= 0 && columns[s].length != count) {
+                throw new IllegalArgumentException("Data columns must have equal length");
+            }
+            count = columns[s].length;
+        }
+        if (count < 0) throw new IllegalArgumentException("The expression uses no data columns");
+        double[] values = new double[count];
+        byte[] errors = new byte[count];
+        int errorCount = forEachBlock(count,
+                (from, to) -> expressionKernel(expression, columns, constants, values, errors, from, to));
+        return new Result(values, errors, errorCount);
+    }
+
+    // Columns are referred to as c1, c2, ...; returns the zero-based column or -1 for any
+    // other name.
+    static int columnIndex(String variable) {
+        if (variable.length() < 2 || variable.charAt(0) != 'c') return -1;
+        int index = 0;
+        for (int i = 1; i < variable.length(); i++) {
+            char c = variable.charAt(i);
+            if (c < '0' || c > '9' || index > 100_000_000) return -1;
+            index = index * 10 + (c - '0');
+        }
+        return index - 1;
+    }
+
+    // Maps the expression's cN variables onto the data columns, leaving other slots null.
+    static double[][] bindColumns(Expression expression, double[][] data) {
+        String[] names = expression.variables();
+        double[][] bound = new double[names.length][];
+        for (int s = 0; s < names.length; s++) {
+            int column = columnIndex(names[s]);
+            if (column < 0) continue;
+            if (column >= data.length) {
+                throw new IllegalArgumentException(names[s] + " refers to a missing column; the data has "
+                        + data.length + " column(s)");
+            }
+            bound[s] = data[column];
+        }
+        return bound;
+    }
+
+    private static int operationKernel(Operation operation, double[] a, double[] b, double[] values, byte[] errors,
+                                       int from, int to) {
+        int errorCount = 0;
+        switch (operation) {
+            case ADD:
+                for (int i = from; i < to; i++) {
+                    values[i] = a[i] + b[i];
+                }
+                break;
+            case SUBTRACT:
+                for (int i = from; i < to; i++) {
+                    values[i] = a[i] - b[i];
+                }
+                break;
+            case MULTIPLY:
+                for (int i = from; i < to; i++) {
+                    values[i] = a[i] * b[i];
+                }
+                break;
+            case POWER:
+                for (int i = from; i < to; i++) {
+                    double value = Math.pow(a[i], b[i]);
+                    boolean undefined = Double.isNaN(value) || Double.isInfinite(value);
+                    values[i] = undefined ? Double.NaN : value;
+                    errors[i] = undefined ? UNDEFINED : OK;
+                    errorCount += undefined ? 1 : 0;
+                }
+                break;
+            case DIVIDE:
+                for (int i = from; i < to; i++) {
+                    boolean zero = b[i] == 0;
+                    values[i] = zero ? Double.NaN : a[i] / b[i];
+                    errors[i] = zero ? DIVISION_BY_ZERO : OK;
+                    errorCount += zero ? 1 : 0;
+                }
+                break;
+            case SQUARE_ROOT:
+                for (int i = from; i < to; i++) {
+                    boolean negative = a[i] < 0;
+                    values[i] = negative ? Double.NaN : Math.sqrt(a[i]);
+                    errors[i] = negative ? NEGATIVE_SQUARE_ROOT : OK;
+                    errorCount += negative ? 1 : 0;
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported operation " + operation);
+        }
+        return errorCount;
+    }
+
+    // One bindings array per block; each row only overwrites the column slots.
+    private static int expressionKernel(Expression expression, double[][] columns, double[] constants,
+                                        double[] values, byte[] errors, int from, int to) {
+        double[] bindings = constants.clone();
+        int slots = expression.variableCount();
+        int errorCount = 0;
+        for (int i = from; i < to; i++) {
+            for (int s = 0; s < slots; s++) {
+                double[] column = columns[s];
+                if (column != null) bindings[s] = column[i];
+            }
+            double value = expression.evaluate(bindings);
+            boolean undefined = Double.isNaN(value) || Double.isInfinite(value);
+            values[i] = undefined ? Double.NaN : value;
+            errors[i] = undefined ? UNDEFINED : OK;
+            errorCount += undefined ? 1 : 0;
+        }
+        return errorCount;
+    }
+
+    private interface Kernel {
+        int run(int from, int to);
+    }
+
+    // The caller's task context is captured here because pool threads do not inherit it.
+    private static int forEachBlock(int count, Kernel kernel) {
+        TaskContext context = TaskContext.current();
+        context.begin(count);
+        int blocks = (count + BLOCK - 1) / BLOCK;
+        IntStream range = IntStream.range(0, blocks);
+        if (blocks > 1) range = range.parallel();
+        return range.map(block -> {
+            context.checkCancelled();
+            int from = block * BLOCK;
+            int to = Math.min(count, from + BLOCK);
+            int errors = kernel.run(from, to);
+            context.worked(to - from);
+            return errors;
+        }).sum();
+    }
+}
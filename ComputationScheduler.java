@@ -0,0 +1,165 @@
+import javax.swing.SwingUtilities;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Runs computations on a dedicated pool so the Event Dispatch Thread only parses input and
+// renders results. Completion, failure and progress callbacks are delivered on the EDT;
+// progress updates are coalesced so a busy task posts at most one pending repaint.
+final class ComputationScheduler {
+    interface Computation<T> {
+        T compute() throws Exception;
+    }
+
+    interface Listener {
+        void tasksChanged(List<Task> active);
+
+        void progressChanged(Task task);
+    }
+
+    private final ExecutorService executor;
+    private final List<Task> active = new CopyOnWriteArrayList<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    ComputationScheduler() {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    ComputationScheduler(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "math-solver-compute-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        };
+        executor = Executors.newFixedThreadPool(threads, factory);
+    }
+
+    void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    <T> Task submit(String name, Computation<T> computation, Consumer<T> onSuccess, Consumer<Exception> onFailure) {
+        Task task = new Task(name);
+        active.add(task);
+        fireTasksChanged();
+        executor.execute(() -> {
+            try {
+                T result = task.isCancelled() ? null : TaskContext.callWith(task, computation::compute);
+                SwingUtilities.invokeLater(() -> {
+                    finish(task);
+                    if (!task.isCancelled()) onSuccess.accept(result);
+                });
+            } catch (CancellationException ex) {
+                SwingUtilities.invokeLater(() -> finish(task));
+            } catch (Exception ex) {
+                SwingUtilities.invokeLater(() -> {
+                    finish(task);
+                    if (!task.isCancelled()) onFailure.accept(ex);
+                });
+            } catch (OutOfMemoryError error) {
+                SwingUtilities.invokeLater(() -> {
+                    finish(task);
+                    onFailure.accept(new IllegalStateException("Not enough memory for " + task.getName()));
+                });
+            } catch (Error error) {
+                // StackOverflowError from deep recursion and the like: still finish the task so
+                // the status bar stops, and report it like any other failure.
+                SwingUtilities.invokeLater(() -> {
+                    finish(task);
+                    onFailure.accept(new IllegalStateException(task.getName() + " failed: " + error, error));
+                });
+            }
+        });
+        return task;
+    }
+
+    void cancelAll() {
+        for (Task task : active) {
+            task.cancel();
+        }
+    }
+
+    List<Task> activeTasks() {
+        return active;
+    }
+
+    void shutdown() {
+        cancelAll();
+        executor.shutdownNow();
+    }
+
+    private void finish(Task task) {
+        active.remove(task);
+        fireTasksChanged();
+    }
+
+    private void fireTasksChanged() {
+        for (Listener listener : listeners) {
+            listener.tasksChanged(active);
+        }
+    }
+
+    final class Task extends TaskContext {
+        private final String name;
+        private final AtomicLong done = new AtomicLong();
+        private final AtomicBoolean refreshPending = new AtomicBoolean();
+        private volatile long total;
+        private volatile boolean cancelled;
+
+        private Task(String name) {
+            this.name = name;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        void begin(long totalWork) {
+            done.set(0);
+            total = totalWork;
+            postProgress();
+        }
+
+        @Override
+        void worked(long work) {
+            done.addAndGet(work);
+            postProgress();
+        }
+
+        // Fraction complete in [0, 1], or -1 while the total is unknown.
+        double progress() {
+            long t = total;
+            return t <= 0 ? -1 : Math.min(1.0, (double) done.get() / t);
+        }
+
+        private void postProgress() {
+            if (refreshPending.compareAndSet(false, true)) {
+                SwingUtilities.invokeLater(() -> {
+                    refreshPending.set(false);
+                    for (Listener listener : listeners) {
+                        listener.progressChanged(this);
+                    }
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import java.awt.BorderLayout;
+import java.util.List;
+
+// Busy indicator for the ComputationScheduler: the running task, its progress and a Cancel
+// button. Hidden while nothing is running.
+final class ComputationStatusBar extends JPanel implements ComputationScheduler.Listener {
+    private final JLabel label = new JLabel();
+    private final JProgressBar progressBar = new JProgressBar(0, 1000);
+
+    ComputationStatusBar(ComputationScheduler scheduler) {
+        super(new BorderLayout(5, 0));
+        setBorder(BorderFactory.createEmptyBorder(2, 5, 2, 5));
+        JButton cancelButton = new JButton("Cancel");
+        cancelButton.addActionListener(e -> scheduler.cancelAll());
+        add(label, BorderLayout.WEST);
+        add(progressBar, BorderLayout.CENTER);
+        add(cancelButton, BorderLayout.EAST);
+        setVisible(false);
+        scheduler.addListener(this);
+    }
+
+    @Override
+    public void tasksChanged(List<ComputationScheduler.Task> active) {
+        if (active.isEmpty()) {
+            setVisible(false);
+            return;
+        }
+        ComputationScheduler.Task task = active.get(0);
+        label.setText(active.size() == 1 ? task.getName() + "..."
+                : task.getName() + "... (+" + (active.size() - 1) + " queued)");
+        showProgress(task);
+        setVisible(true);
+    }
+
+    @Override
+    public void progressChanged(ComputationScheduler.Task task) {
+        if (isVisible()) showProgress(task);
+    }
+
+    private void showProgress(ComputationScheduler.Task task) {
+        double fraction = task.progress();
+        progressBar.setIndeterminate(fraction < 0);
+        if (fraction >= 0) progressBar.setValue((int) (fraction * 1000));
+    }
+}
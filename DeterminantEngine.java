@@ -0,0 +1,195 @@
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+// O(n^3) determinants: fraction-free Bareiss elimination for exact integer input,
+// LUDecomposition for floating point input. Integer input whose minors outgrow a long is
+// finished modulo word-size primes instead, so no intermediate grows with the determinant.
+final class DeterminantEngine {
+    // Residues stay below 2^28, so a long absorbs 127 products of two before it must be reduced.
+    private static final int PRIME_BITS = 28;
+    private static final int LAZY_STEPS = 127;
+    private static final List<Integer> PRIMES = new ArrayList<>();
+
+    private DeterminantEngine() {
+    }
+
+    static BigInteger determinant(int[][] matrix) {
+        return determinant(IntMatrix.of(matrix));
+    }
+
+    static BigInteger determinant(IntMatrix matrix) {
+        return exactDeterminant(matrix.toLongMatrix().rowMajorData(), matrix.rows());
+    }
+
+    static BigInteger determinant(LongMatrix matrix) {
+        return exactDeterminant(matrix.toRowMajor(), matrix.rows());
+    }
+
+    static double determinant(double[][] matrix) {
+        return determinant(DoubleMatrix.of(matrix));
+    }
+
+    static double determinant(DoubleMatrix matrix) {
+        return LUDecomposition.of(matrix).determinant();
+    }
+
+    private static BigInteger exactDeterminant(long[] values, int n) {
+        if (n == 0) return BigInteger.ONE;
+        try {
+            return BigInteger.valueOf(bareiss(values.clone(), n));
+        } catch (ArithmeticException overflow) {
+            return multimodular(values, n);
+        }
+    }
+
+    // Every intermediate is a minor of the input, so the divisions are exact.
+    // Throws ArithmeticException when an intermediate no longer fits in a long.
+    private static long bareiss(long[] m, int n) {
+        TaskContext context = TaskContext.current();
+        context.begin(n - 1);
+        long sign = 1;
+        long previous = 1;
+        for (int k = 0; k < n - 1; k++) {
+            context.checkCancelled();
+            context.worked(1);
+            int kk = k * n;
+            if (m[kk + k] == 0) {
+                int swap = findNonZero(m, n, k);
+                if (swap < 0) return 0;
+                swapRows(m, n, swap, k);
+                sign = -sign;
+            }
+            long pivot = m[kk + k];
+            for (int i = k + 1; i < n; i++) {
+                int ik = i * n;
+                long lead = m[ik + k];
+                for (int j = k + 1; j < n; j++) {
+                    long v = Math.subtractExact(Math.multiplyExact(m[ik + j], pivot),
+                            Math.multiplyExact(lead, m[kk + j]));
+                    m[ik + j] = v / previous;
+                }
+            }
+            previous = pivot;
+        }
+        return Math.multiplyExact(sign, m[n * n - 1]);
+    }
+
+    // The determinant modulo enough primes that their product exceeds twice the Hadamard bound
+    // (the smaller of the row and column products of Euclidean norms), one O(n^3) elimination
+    // per prime in parallel, combined by the Chinese remainder theorem into the symmetric range.
+    private static BigInteger multimodular(long[] values, int n) {
+        double log2Bound = Math.min(log2Hadamard(values, n, n, 1), log2Hadamard(values, n, 1, n));
+        int count = (int) Math.ceil((log2Bound + 2) / (PRIME_BITS - 1));
+        TaskContext context = TaskContext.current();
+        context.begin(count);
+        int[] primes = IntStream.range(0, count).map(DeterminantEngine::prime).toArray();
+        int[] residues = IntStream.range(0, count).parallel().map(k -> {
+            int residue = determinantModulo(values, n, primes[k], context);
+            context.worked(1);
+            return residue;
+        }).toArray();
+        BigInteger[] det = {BigInteger.ZERO};
+        BigInteger modulus = BigInteger.ONE;
+        for (int k = 0; k < count; k++) {
+            ModularSolver.combine(det, modulus, new int[] {residues[k]}, primes[k]);
+            modulus = modulus.multiply(BigInteger.valueOf(primes[k]));
+        }
+        return det[0].compareTo(modulus.shiftRight(1)) > 0 ? det[0].subtract(modulus) : det[0];
+    }
+
+    // log2 of the product of the norms of the lines of m; a line is n entries step apart, and
+    // consecutive lines start stride apart. Zero lines count as norm 1.
+    private static double log2Hadamard(long[] m, int n, int stride, int step) {
+        double log2 = 0;
+        for (int line = 0; line < n; line++) {
+            double sum = 0;
+            for (int k = 0; k < n; k++) {
+                double v = m[line * stride + k * step];
+                sum += v * v;
+            }
+            log2 += Math.log(Math.max(sum, 1)) / (2 * Math.log(2));
+        }
+        return log2;
+    }
+
+    // Gaussian elimination mod p. Entries are kept non-negative and reduced lazily: the pivot
+    // row and column when they are used, the rest every LAZY_STEPS eliminations, so the inner
+    // loop is a plain multiply-add.
+    private static int determinantModulo(long[] values, int n, int p, TaskContext context) {
+        long[] m = new long[n * n];
+        for (int i = 0; i < m.length; i++) {
+            m[i] = Math.floorMod(values[i], (long) p);
+        }
+        long det = 1;
+        for (int k = 0; k < n; k++) {
+            context.checkCancelled();
+            if (k % LAZY_STEPS == 0) {
+                for (int i = k; i < n; i++) {
+                    for (int j = i * n + k; j < (i + 1) * n; j++) {
+                        m[j] %= p;
+                    }
+                }
+            }
+            int kk = k * n;
+            int pivot = -1;
+            for (int i = k; i < n; i++) {
+                m[i * n + k] %= p;
+                if (pivot < 0 && m[i * n + k] != 0) pivot = i;
+            }
+            if (pivot < 0) return 0;
+            if (pivot != k) {
+                for (int j = k; j < n; j++) {
+                    long t = m[kk + j];
+                    m[kk + j] = m[pivot * n + j];
+                    m[pivot * n + j] = t;
+                }
+                det = p - det;
+            }
+            for (int j = kk + k + 1; j < kk + n; j++) {
+                m[j] %= p;
+            }
+            det = det * m[kk + k] % p;
+            long inverse = ModularSolver.inverse(m[kk + k], p);
+            for (int i = k + 1; i < n; i++) {
+                int row = i * n;
+                if (m[row + k] == 0) continue;
+                long negated = p - m[row + k] * inverse % p;
+                for (int j = k + 1; j < n; j++) {
+                    m[row + j] += negated * m[kk + j];
+                }
+            }
+        }
+        return (int) det;
+    }
+
+    // The k-th prime below 2^PRIME_BITS, in decreasing order.
+    private static int prime(int k) {
+        synchronized (PRIMES) {
+            int candidate = PRIMES.isEmpty() ? (1 << PRIME_BITS) - 1 : PRIMES.get(PRIMES.size() - 1) - 2;
+            while (PRIMES.size() <= k) {
+                if (BigInteger.valueOf(candidate).isProbablePrime(40)) PRIMES.add(candidate);
+                candidate -= 2;
+            }
+            return PRIMES.get(k);
+        }
+    }
+
+    private static int findNonZero(long[] m, int n, int k) {
+        for (int i = k + 1; i < n; i++) {
+            if (m[i * n + k] != 0) return i;
+        }
+        return -1;
+    }
+
+    private static void swapRows(long[] m, int n, int a, int b) {
+        int ra = a * n;
+        int rb = b * n;
+        for (int j = 0; j < n; j++) {
+            long t = m[ra + j];
+            m[ra + j] = m[rb + j];
+            m[rb + j] = t;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+import java.math.BigInteger;
+import java.util.Random;
+
+// Checks DeterminantEngine against determinants known exactly: cofactor expansion for small
+// integer matrices, and for large ones products L U with a known diagonal, so that the long
+// Bareiss pass overflows into the modular path. Singular, empty, extreme and floating point
+// input are covered too. Run with "java DeterminantEngineTest"; exits with status 1 on a failure.
+final class DeterminantEngineTest {
+    private static int failures;
+
+    private DeterminantEngineTest() {
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(11);
+        for (long range : new long[]{10, 1_000_000_000L, Long.MAX_VALUE / 8}) {
+            for (int n = 1; n <= 7; n++) {
+                long[][] a = new long[n][n];
+                for (int i = 0; i < n; i++) {
+                    for (int j = 0; j < n; j++) {
+                        a[i][j] = random.nextLong() % range;
+                    }
+                }
+                expect("random " + n + "x" + n + " within " + range, a, cofactor(a));
+            }
+        }
+        long min = Long.MIN_VALUE;
+        long max = Long.MAX_VALUE;
+        expect("extreme entries", new long[][]{{min, max}, {max, min}},
+                BigInteger.valueOf(min).pow(2).subtract(BigInteger.valueOf(max).pow(2)));
+        expect("empty", new long[0][0], BigInteger.ONE);
+        check("int overload", DeterminantEngine.determinant(new int[][]{{2, 1}, {7, 4}}).equals(BigInteger.ONE),
+                "det [[2, 1], [7, 4]]");
+
+        // A = P L U with unit lower L and upper U: det A = sign(P) * prod(diag U).
+        for (int n : new int[]{30, 80, 150}) {
+            long[][] lower = new long[n][n];
+            long[][] upper = new long[n][n];
+            BigInteger det = BigInteger.ONE;
+            for (int i = 0; i < n; i++) {
+                lower[i][i] = 1;
+                for (int j = 0; j < i; j++) {
+                    lower[i][j] = random.nextInt(7) - 3;
+                }
+                upper[i][i] = (random.nextInt(2_000_000) + 1) * (random.nextBoolean() ? 1L : -1L);
+                for (int j = i + 1; j < n; j++) {
+                    upper[i][j] = random.nextInt(2_000_001) - 1_000_000;
+                }
+                det = det.multiply(BigInteger.valueOf(upper[i][i]));
+            }
+            long[][] a = multiply(lower, upper);
+            expect("L U, n = " + n, a, det);
+            long[] row = a[0];
+            a[0] = a[n - 1];
+            a[n - 1] = row;
+            expect("row swapped L U, n = " + n, a, det.negate());
+
+            // Singular: one row a combination of two others, and a rank n - 1 product.
+            for (int j = 0; j < n; j++) {
+                a[n / 2][j] = 3 * a[0][j] - 2 * a[1][j];
+            }
+            expect("dependent row, n = " + n, a, BigInteger.ZERO);
+            long[][] tall = new long[n][n - 1];
+            long[][] wide = new long[n - 1][n];
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n - 1; j++) {
+                    tall[i][j] = random.nextInt(2001) - 1000;
+                    wide[j][i] = random.nextInt(2001) - 1000;
+                }
+            }
+            expect("rank " + (n - 1) + " product", multiply(tall, wide), BigInteger.ZERO);
+        }
+
+        // det(A B) = det(A) det(B) for dense random factors.
+        long[][] a = randomMatrix(random, 60, 100);
+        long[][] b = randomMatrix(random, 60, 100);
+        BigInteger product = det(a).multiply(det(b));
+        check("det(A B) = det(A) det(B)", det(multiply(a, b)).equals(product), "n = 60");
+
+        expectDouble("2x2", new double[][]{{1, 2}, {3, 4}}, -2);
+        expectDouble("permutation", new double[][]{{0, 1, 0}, {0, 0, 1}, {1, 0, 0}}, 1);
+        expectDouble("singular", new double[][]{{1, 2}, {2, 4}}, 0);
+        expectDouble("badly scaled diagonal", new double[][]{{1e20, 0}, {0, 1e-20}}, 1);
+        double[][] hilbert = new double[4][4];
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                hilbert[i][j] = 1.0 / (i + j + 1);
+            }
+        }
+        expectDouble("Hilbert 4", hilbert, 1.0 / 6_048_000);
+
+        System.out.println(failures == 0 ? "All checks passed" : failures + " checks failed");
+        if (failures > 0) System.exit(1);
+    }
+
+    private static BigInteger det(long[][] a) {
+        return DeterminantEngine.determinant(LongMatrix.of(a));
+    }
+
+    private static void expect(String name, long[][] a, BigInteger expected) {
+        BigInteger actual = det(a);
+        check(name, actual.equals(expected), "got " + actual + ", expected " + expected);
+    }
+
+    private static void expectDouble(String name, double[][] a, double expected) {
+        double actual = DeterminantEngine.determinant(a);
+        check(name, Math.abs(actual - expected) <= 1e-10 * Math.abs(expected), "got " + actual + ", expected " + expected);
+    }
+
+    // Laplace expansion along the first row.
+    private static BigInteger cofactor(long[][] a) {
+        int n = a.length;
+        if (n == 0) return BigInteger.ONE;
+        BigInteger sum = BigInteger.ZERO;
+        for (int j = 0; j < n; j++) {
+            long[][] minor = new long[n - 1][n - 1];
+            for (int i = 1; i < n; i++) {
+                for (int k = 0, c = 0; k < n; k++) {
+                    if (k != j) minor[i - 1][c++] = a[i][k];
+                }
+            }
+            BigInteger term = BigInteger.valueOf(a[0][j]).multiply(cofactor(minor));
+            sum = j % 2 == 0 ? sum.add(term) : sum.subtract(term);
+        }
+        return sum;
+    }
+
+    private static long[][] multiply(long[][] a, long[][] b) {
+        long[][] c = new long[a.length][b[0].length];
+        for (int i = 0; i < a.length; i++) {
+            for (int k = 0; k < b.length; k++) {
+                for (int j = 0; j < b[0].length; j++) {
+                    c[i][j] += a[i][k] * b[k][j];
+                }
+            }
+        }
+        return c;
+    }
+
+    private static long[][] randomMatrix(Random random, int n, int range) {
+        long[][] a = new long[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                a[i][j] = random.nextInt(2 * range + 1) - range;
+            }
+        }
+        return a;
+    }
+
+    private static void check(String name, boolean ok, String detail) {
+        if (ok) return;
+        System.out.println("FAIL " + name + ": " + detail);
+        failures++;
+    }
+}
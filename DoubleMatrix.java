@@ -0,0 +1,160 @@
+import java.util.Arrays;
+
+final class DoubleMatrix extends Matrix {
+    private final double[] data;
+
+    DoubleMatrix(int rows, int cols) {
+        this(new double[rows * cols], rows, cols, 0, cols, 1);
+    }
+
+    private DoubleMatrix(double[] data, int rows, int cols, int offset, int rowStride, int colStride) {
+        super(rows, cols, offset, rowStride, colStride);
+        this.data = data;
+    }
+
+    static DoubleMatrix wrap(double[] data, int rows, int cols) {
+        if (data.length != rows * cols) {
+            throw new IllegalArgumentException("Expected " + rows * cols + " values but got " + data.length);
+        }
+        return new DoubleMatrix(data, rows, cols, 0, cols, 1);
+    }
+
+    static DoubleMatrix of(double[][] values) {
+        int rows = values.length;
+        int cols = rows == 0 ? 0 : values[0].length;
+        double[] data = new double[rows * cols];
+        for (int i = 0; i < rows; i++) {
+            System.arraycopy(values[i], 0, data, i * cols, cols);
+        }
+        return new DoubleMatrix(data, rows, cols, 0, cols, 1);
+    }
+
+    double get(int row, int col) {
+        return data[index(row, col)];
+    }
+
+    void set(int row, int col, double value) {
+        data[index(row, col)] = value;
+    }
+
+    @Override
+    double getDouble(int row, int col) {
+        return get(row, col);
+    }
+
+    @Override
+    DoubleMatrix transpose() {
+        return new DoubleMatrix(data, cols, rows, offset, colStride, rowStride);
+    }
+
+    @Override
+    DoubleMatrix view(int row, int col, int viewRows, int viewCols) {
+        return new DoubleMatrix(data, viewRows, viewCols, viewOffset(row, col, viewRows, viewCols),
+                rowStride, colStride);
+    }
+
+    @Override
+    void appendEntry(StringBuilder sb, int row, int col) {
+        sb.append(get(row, col));
+    }
+
+    DoubleMatrix copy() {
+        return new DoubleMatrix(toRowMajor(), rows, cols, 0, cols, 1);
+    }
+
+    // The backing array, addressed through offset and the strides; for kernels that read views
+    // in place.
+    double[] storage() {
+        return data;
+    }
+
+    // Row-major contents; shares the backing array when the matrix is not a view.
+    double[] rowMajorData() {
+        return isCompact() && data.length == rows * cols ? data : toRowMajor();
+    }
+
+    double[] toRowMajor() {
+        double[] result = new double[rows * cols];
+        if (isCompact()) {
+            System.arraycopy(data, 0, result, 0, result.length);
+            return result;
+        }
+        int k = 0;
+        for (int i = 0; i < rows; i++) {
+            int base = offset + i * rowStride;
+            for (int j = 0; j < cols; j++) {
+                result[k++] = data[base + j * colStride];
+            }
+        }
+        return result;
+    }
+
+    double[][] toArray() {
+        double[][] result = new double[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            int base = offset + i * rowStride;
+            for (int j = 0; j < cols; j++) {
+                result[i][j] = data[base + j * colStride];
+            }
+        }
+        return result;
+    }
+
+    DoubleMatrix plus(DoubleMatrix other) {
+        checkSameShape(other);
+        double[] result = new double[rows * cols];
+        int k = 0;
+        for (int i = 0; i < rows; i++) {
+            int a = offset + i * rowStride;
+            int b = other.offset + i * other.rowStride;
+            for (int j = 0; j < cols; j++) {
+                result[k++] = data[a + j * colStride] + other.data[b + j * other.colStride];
+            }
+        }
+        return wrap(result, rows, cols);
+    }
+
+    DoubleMatrix minus(DoubleMatrix other) {
+        checkSameShape(other);
+        double[] result = new double[rows * cols];
+        int k = 0;
+        for (int i = 0; i < rows; i++) {
+            int a = offset + i * rowStride;
+            int b = other.offset + i * other.rowStride;
+            for (int j = 0; j < cols; j++) {
+                result[k++] = data[a + j * colStride] - other.data[b + j * other.colStride];
+            }
+        }
+        return wrap(result, rows, cols);
+    }
+
+    DoubleMatrix times(DoubleMatrix other) {
+        checkMultipliable(other);
+        double[] product = MatrixMultiplier.multiply(rowMajorData(), other.rowMajorData(), rows, cols, other.cols);
+        return wrap(product, rows, other.cols);
+    }
+
+    @Override
+    DoubleMatrix toDoubleMatrix() {
+        return copy();
+    }
+
+    double determinant() {
+        if (!isSquare()) throw new IllegalArgumentException("Matrix must be square to calculate determinant");
+        return DeterminantEngine.determinant(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DoubleMatrix)) return false;
+        DoubleMatrix other = (DoubleMatrix) o;
+        return rows == other.rows && cols == other.cols
+                && Arrays.equals(rowMajorData(), other.rowMajorData());
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * rows + cols) + Arrays.hashCode(rowMajorData());
+    }
+}
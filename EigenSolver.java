@@ -0,0 +1,741 @@
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+// Eigenvalues and singular values of dense matrices.
+//
+// Symmetric matrices are reduced to tridiagonal form by Householder reflectors, PANEL columns
+// at a time: each panel is reduced against the trailing matrix as it stood before the panel,
+// with the panel's own reflectors applied on the fly, and the trailing matrix then takes them
+// all in one rank-2k update (LAPACK's dsytrd). Implicit QL finds the eigenvalues. Eigenvectors,
+// when asked for, are the QL rotations applied to the identity, one sweep's rotations at a
+// time across column slices, and then the reflectors applied to groups of vectors at once.
+//
+// General matrices are balanced and reduced to upper Hessenberg form, and Francis double-shift
+// QR gives the eigenvalues, complex ones in conjugate pairs. PolynomialRootFinder uses the same
+// QR on its companion matrix.
+//
+// Singular values come from Golub-Kahan bidiagonalization A = U B V^T followed by the implicit
+// QL above on the 2n x 2n tridiagonal with zero diagonal and off-diagonal q1, f1, q2, f2, ...
+// (B's diagonal and superdiagonal interleaved), whose eigenvalues are the pairs +-sigma.
+final class EigenSolver {
+    private static final int PARALLEL_SIZE = 256;
+    private static final int PANEL = 32;
+    // Columns per task when rotations or one-sided reflectors are applied in parallel.
+    private static final int SLICE = 256;
+    // Eigenvectors back-transformed together, so each reflector is read once per group.
+    private static final int GROUP = 16;
+    private static final double EPS = Math.ulp(1.0);
+
+    private EigenSolver() {
+    }
+
+    static final class Symmetric {
+        // Ascending.
+        final double[] values;
+        // Column k is a unit eigenvector for values[k]; null unless requested.
+        final DoubleMatrix vectors;
+
+        Symmetric(double[] values, DoubleMatrix vectors) {
+            this.values = values;
+            this.vectors = vectors;
+        }
+    }
+
+    static boolean isSymmetric(Matrix m) {
+        if (!m.isSquare()) return false;
+        for (int i = 0; i < m.rows(); i++) {
+            for (int j = 0; j < i; j++) {
+                if (m.getDouble(i, j) != m.getDouble(j, i)) return false;
+            }
+        }
+        return true;
+    }
+
+    static Symmetric symmetric(DoubleMatrix m, boolean wantVectors) {
+        if (!m.isSquare()) throw new IllegalArgumentException("Matrix must be square to calculate eigenvalues");
+        int n = m.rows();
+        double[] a = m.toRowMajor();
+        double[] d = new double[n];
+        double[] e = new double[n];
+        double[] tau = new double[n];
+        tridiagonalize(a, n, d, e, tau);
+        double[] z = null;
+        if (wantVectors) {
+            z = new double[n * n];
+            for (int i = 0; i < n; i++) {
+                z[i * n + i] = 1;
+            }
+        }
+        tridiagonalQL(d, e, z, n);
+        if (z != null) applyReflectors(a, n, tau, z);
+
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (x, y) -> Double.compare(d[x], d[y]));
+        double[] values = new double[n];
+        double[] sorted = z == null ? null : new double[n * n];
+        for (int k = 0; k < n; k++) {
+            values[k] = d[order[k]];
+            if (z != null) System.arraycopy(z, order[k] * n, sorted, k * n, n);
+        }
+        // z holds one eigenvector per row; the transposed view puts them in columns.
+        return new Symmetric(values, sorted == null ? null : DoubleMatrix.wrap(sorted, n, n).transpose());
+    }
+
+    // Eigenvalues of any square matrix into re/im, ordered by real part; a complex conjugate
+    // pair is adjacent with the positive imaginary part first.
+    static void eigenvalues(DoubleMatrix m, double[] re, double[] im) {
+        if (!m.isSquare()) throw new IllegalArgumentException("Matrix must be square to calculate eigenvalues");
+        int n = m.rows();
+        if (re.length < n || im.length < n) throw new IllegalArgumentException("Eigenvalue arrays must hold " + n + " entries");
+        double[][] h = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                h[i][j] = m.get(i, j);
+            }
+        }
+        balance(h);
+        reduceToHessenberg(h);
+        double[] wr = new double[n];
+        double[] wi = new double[n];
+        hessenbergEigenvalues(h, wr, wi);
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (x, y) -> wr[x] != wr[y] ? Double.compare(wr[x], wr[y]) : Double.compare(wi[y], wi[x]));
+        for (int k = 0; k < n; k++) {
+            re[k] = wr[order[k]];
+            im[k] = wi[order[k]];
+        }
+    }
+
+    // min(rows, cols) values, descending.
+    static double[] singularValues(DoubleMatrix m) {
+        DoubleMatrix a = m.rows() >= m.cols() ? m : m.transpose();
+        int rows = a.rows();
+        int n = a.cols();
+        if (n == 0) return new double[0];
+        double[] data = a.toRowMajor();
+        double[] q = new double[n];
+        double[] f = new double[n];
+        bidiagonalize(data, rows, n, q, f);
+        double[] d = new double[2 * n];
+        double[] e = new double[2 * n];
+        for (int i = 0; i < n; i++) {
+            e[2 * i] = q[i];
+            if (i < n - 1) e[2 * i + 1] = f[i];
+        }
+        tridiagonalQL(d, e, null, 2 * n);
+        Arrays.sort(d);
+        double[] sigma = new double[n];
+        for (int k = 0; k < n; k++) {
+            sigma[k] = Math.abs(d[2 * n - 1 - k]);
+        }
+        return sigma;
+    }
+
+    // ---- Symmetric tridiagonal path ----
+
+    // A (row-major, both triangles) = Q T Q^T with T = tridiag(e, d, e): d the diagonal, e[i] =
+    // T[i][i+1]. The reflector that clears column c below the subdiagonal is I - tau[c] v v^T,
+    // with v left in row c of a, columns c+1 onwards.
+    private static void tridiagonalize(double[] a, int n, double[] d, double[] e, double[] tau) {
+        TaskContext context = TaskContext.current();
+        context.begin(n);
+        // Row t of vt and wt holds the panel's t-th reflector v and its update vector w, indexed
+        // like the rows of a, so the panel so far stands for A - V W^T - W V^T.
+        double[] vt = new double[PANEL * n];
+        double[] wt = new double[PANEL * n];
+        double[] p = new double[n];
+        for (int k0 = 0; k0 < n; k0 += PANEL) {
+            int nb = Math.min(PANEL, n - k0);
+            Arrays.fill(vt, 0);
+            Arrays.fill(wt, 0);
+            for (int t = 0; t < nb; t++) {
+                context.checkCancelled();
+                int c = k0 + t;
+                for (int i = c; i < n; i++) {
+                    double correction = 0;
+                    for (int s = 0; s < t; s++) {
+                        correction += vt[s * n + i] * wt[s * n + c] + wt[s * n + i] * vt[s * n + c];
+                    }
+                    a[i * n + c] -= correction;
+                }
+                d[c] = a[c * n + c];
+                double scale = 0;
+                for (int i = c + 1; i < n; i++) {
+                    scale = Math.max(scale, Math.abs(a[i * n + c]));
+                }
+                if (scale == 0) {
+                    e[c] = 0;
+                    tau[c] = 0;
+                    context.worked(1);
+                    continue;
+                }
+                double sum = 0;
+                for (int i = c + 1; i < n; i++) {
+                    double x = a[i * n + c] / scale;
+                    sum += x * x;
+                }
+                double x0 = a[(c + 1) * n + c];
+                double alpha = x0 > 0 ? -scale * Math.sqrt(sum) : scale * Math.sqrt(sum);
+                double beta = 1 / (alpha * (alpha - x0));
+                e[c] = alpha;
+                tau[c] = beta;
+                int v = t * n;
+                for (int i = c + 1; i < n; i++) {
+                    vt[v + i] = a[i * n + c];
+                }
+                vt[v + c + 1] = x0 - alpha;
+                System.arraycopy(vt, v + c + 1, a, c * n + c + 1, n - c - 1);
+
+                // p = beta (A - V W^T - W V^T) v over the trailing rows and columns.
+                double[] wv = new double[t];
+                double[] vv = new double[t];
+                for (int s = 0; s < t; s++) {
+                    double sw = 0;
+                    double sv = 0;
+                    for (int i = c + 1; i < n; i++) {
+                        sw += wt[s * n + i] * vt[v + i];
+                        sv += vt[s * n + i] * vt[v + i];
+                    }
+                    wv[s] = sw;
+                    vv[s] = sv;
+                }
+                int first = c + 1;
+                int panel = t;
+                rows(first, n).forEach(i -> {
+                    int row = i * n;
+                    double dot = 0;
+                    for (int j = first; j < n; j++) {
+                        dot += a[row + j] * vt[v + j];
+                    }
+                    for (int s = 0; s < panel; s++) {
+                        dot -= vt[s * n + i] * wv[s] + wt[s * n + i] * vv[s];
+                    }
+                    p[i] = beta * dot;
+                });
+                double pv = 0;
+                for (int i = first; i < n; i++) {
+                    pv += p[i] * vt[v + i];
+                }
+                double half = 0.5 * beta * pv;
+                for (int i = first; i < n; i++) {
+                    wt[v + i] = p[i] - half * vt[v + i];
+                }
+                context.worked(1);
+            }
+
+            // Rank-2nb update of the trailing matrix, a row per task.
+            int start = k0 + nb;
+            int width = nb;
+            rows(start, n).forEach(i -> {
+                int row = i * n;
+                for (int s = 0; s < width; s++) {
+                    double vi = vt[s * n + i];
+                    double wi = wt[s * n + i];
+                    if (vi == 0 && wi == 0) continue;
+                    int base = s * n;
+                    for (int j = start; j < n; j++) {
+                        a[row + j] -= vi * wt[base + j] + wi * vt[base + j];
+                    }
+                }
+            });
+        }
+    }
+
+    // Implicit QL with Wilkinson shifts (EISPACK tql2) on the tridiagonal (d, e), e[n-1] = 0.
+    // Eigenvalues replace d, unsorted. When z is given, each sweep's rotations are applied to
+    // its rows, so rows that start as the identity end as the eigenvectors of T.
+    private static void tridiagonalQL(double[] d, double[] e, double[] z, int n) {
+        TaskContext context = TaskContext.current();
+        double[] cs = z == null ? null : new double[n];
+        double[] sn = z == null ? null : new double[n];
+        double f = 0;
+        double tst1 = 0;
+        int iterations = 0;
+        for (int l = 0; l < n; l++) {
+            tst1 = Math.max(tst1, Math.abs(d[l]) + Math.abs(e[l]));
+            int m = l;
+            while (m < n - 1 && Math.abs(e[m]) > EPS * tst1) m++;
+            if (m > l) {
+                do {
+                    context.checkCancelled();
+                    if (++iterations > 30 * n) throw new ArithmeticException("Eigenvalue iteration did not converge");
+                    double g = d[l];
+                    double p = (d[l + 1] - g) / (2 * e[l]);
+                    double r = Math.hypot(p, 1);
+                    if (p < 0) r = -r;
+                    d[l] = e[l] / (p + r);
+                    d[l + 1] = e[l] * (p + r);
+                    double dl1 = d[l + 1];
+                    double h = g - d[l];
+                    for (int i = l + 2; i < n; i++) {
+                        d[i] -= h;
+                    }
+                    f += h;
+
+                    p = d[m];
+                    double c = 1;
+                    double c2 = c;
+                    double c3 = c;
+                    double el1 = e[l + 1];
+                    double s = 0;
+                    double s2 = 0;
+                    for (int i = m - 1; i >= l; i--) {
+                        c3 = c2;
+                        c2 = c;
+                        s2 = s;
+                        g = c * e[i];
+                        h = c * p;
+                        r = Math.hypot(p, e[i]);
+                        e[i + 1] = s * r;
+                        s = e[i] / r;
+                        c = p / r;
+                        p = c * d[i] - s * g;
+                        d[i + 1] = h + s * (c * g + s * d[i]);
+                        if (z != null) {
+                            cs[i] = c;
+                            sn[i] = s;
+                        }
+                    }
+                    p = -s * s2 * c3 * el1 * e[l] / dl1;
+                    e[l] = s * p;
+                    d[l] = c * p;
+                    if (z != null) rotate(z, n, cs, sn, l, m);
+                } while (Math.abs(e[l]) > EPS * tst1);
+            }
+            d[l] += f;
+            e[l] = 0;
+        }
+    }
+
+    // Rotations m-1 down to l of one QL sweep, each mixing rows i and i+1 of z.
+    private static void rotate(double[] z, int n, double[] cs, double[] sn, int l, int m) {
+        slices(0, n).forEach(slice -> {
+            int from = slice * SLICE;
+            int to = Math.min(n, from + SLICE);
+            for (int i = m - 1; i >= l; i--) {
+                double c = cs[i];
+                double s = sn[i];
+                int upper = i * n;
+                int lower = upper + n;
+                for (int j = from; j < to; j++) {
+                    double h = z[lower + j];
+                    z[lower + j] = s * z[upper + j] + c * h;
+                    z[upper + j] = c * z[upper + j] - s * h;
+                }
+            }
+        });
+    }
+
+    // Rows of z become Q times themselves, Q = H_0 H_1 ... H_{n-2}.
+    private static void applyReflectors(double[] a, int n, double[] tau, double[] z) {
+        IntStream groups = IntStream.range(0, (n + GROUP - 1) / GROUP);
+        if (n > PARALLEL_SIZE) groups = groups.parallel();
+        groups.forEach(group -> {
+            int from = group * GROUP;
+            int to = Math.min(n, from + GROUP);
+            for (int c = n - 2; c >= 0; c--) {
+                double beta = tau[c];
+                if (beta == 0) continue;
+                int v = c * n + c + 1;
+                int length = n - c - 1;
+                for (int r = from; r < to; r++) {
+                    int row = r * n + c + 1;
+                    double dot = 0;
+                    for (int k = 0; k < length; k++) {
+                        dot += a[v + k] * z[row + k];
+                    }
+                    dot *= beta;
+                    for (int k = 0; k < length; k++) {
+                        z[row + k] -= dot * a[v + k];
+                    }
+                }
+            }
+        });
+    }
+
+    // ---- General path ----
+
+    // Householder similarity to upper Hessenberg form. The left reflection runs over column
+    // slices and the right one over rows.
+    private static void reduceToHessenberg(double[][] h) {
+        int n = h.length;
+        TaskContext context = TaskContext.current();
+        context.begin(n);
+        double[] v = new double[n];
+        for (int k = 0; k < n - 2; k++) {
+            context.checkCancelled();
+            double beta = reflector(h, k, v);
+            if (beta == 0) continue;
+            int first = k + 1;
+            slices(first, n).forEach(slice -> {
+                int from = Math.max(first, slice * SLICE);
+                int to = Math.min(n, slice * SLICE + SLICE);
+                double[] y = new double[to - from];
+                for (int i = first; i < n; i++) {
+                    double vi = v[i];
+                    double[] row = h[i];
+                    for (int j = from; j < to; j++) {
+                        y[j - from] += vi * row[j];
+                    }
+                }
+                for (int i = first; i < n; i++) {
+                    double f = beta * v[i];
+                    double[] row = h[i];
+                    for (int j = from; j < to; j++) {
+                        row[j] -= f * y[j - from];
+                    }
+                }
+            });
+            rows(0, n).forEach(i -> {
+                double[] row = h[i];
+                double dot = 0;
+                for (int j = first; j < n; j++) {
+                    dot += row[j] * v[j];
+                }
+                dot *= beta;
+                for (int j = first; j < n; j++) {
+                    row[j] -= dot * v[j];
+                }
+            });
+            context.worked(1);
+        }
+    }
+
+    // Reflector I - beta v v^T that maps h[k+1..n-1][k] onto its first entry; the column is
+    // overwritten with the result and v filled from k+1 on. Returns 0 when the column is clear.
+    private static double reflector(double[][] h, int k, double[] v) {
+        int n = h.length;
+        double scale = 0;
+        for (int i = k + 1; i < n; i++) {
+            scale = Math.max(scale, Math.abs(h[i][k]));
+        }
+        if (scale == 0) return 0;
+        double sum = 0;
+        for (int i = k + 1; i < n; i++) {
+            double x = h[i][k] / scale;
+            sum += x * x;
+        }
+        double x0 = h[k + 1][k];
+        double alpha = x0 > 0 ? -scale * Math.sqrt(sum) : scale * Math.sqrt(sum);
+        for (int i = k + 1; i < n; i++) {
+            v[i] = h[i][k];
+            h[i][k] = 0;
+        }
+        v[k + 1] = x0 - alpha;
+        h[k + 1][k] = alpha;
+        return 1 / (alpha * (alpha - x0));
+    }
+
+    // Diagonal similarity by powers of two that evens out row and column norms.
+    static void balance(double[][] h) {
+        int n = h.length;
+        boolean done = false;
+        while (!done) {
+            done = true;
+            for (int i = 0; i < n; i++) {
+                double c = 0;
+                double r = 0;
+                for (int j = 0; j < n; j++) {
+                    if (j == i) continue;
+                    c += Math.abs(h[j][i]);
+                    r += Math.abs(h[i][j]);
+                }
+                if (c == 0 || r == 0) continue;
+                double g = r / 2;
+                double f = 1;
+                double s = c + r;
+                while (c < g) {
+                    f *= 2;
+                    c *= 4;
+                }
+                g = r * 2;
+                while (c > g) {
+                    f /= 2;
+                    c /= 4;
+                }
+                if ((c + r) / f < 0.95 * s) {
+                    done = false;
+                    g = 1 / f;
+                    for (int j = 0; j < n; j++) {
+                        h[i][j] *= g;
+                    }
+                    for (int j = 0; j < n; j++) {
+                        h[j][i] *= f;
+                    }
+                }
+            }
+        }
+    }
+
+    // Francis double-shift QR on an upper Hessenberg matrix (EISPACK hqr), eigenvalues only.
+    static void hessenbergEigenvalues(double[][] h, double[] wr, double[] wi) {
+        int nn = h.length;
+        int n = nn - 1;
+        int low = 0;
+        double exshift = 0;
+        double p = 0, q = 0, r = 0, s, z, w, x, y;
+        double norm = 0;
+        for (int i = 0; i < nn; i++) {
+            for (int j = Math.max(i - 1, 0); j < nn; j++) {
+                norm += Math.abs(h[i][j]);
+            }
+        }
+        TaskContext context = TaskContext.current();
+        context.begin(nn);
+        int iteration = 0;
+        int totalIterations = 0;
+        while (n >= low) {
+            int l = n;
+            while (l > low) {
+                s = Math.abs(h[l - 1][l - 1]) + Math.abs(h[l][l]);
+                if (s == 0) s = norm;
+                if (Math.abs(h[l][l - 1]) < EPS * s) break;
+                l--;
+            }
+            if (l == n) {
+                wr[n] = h[n][n] + exshift;
+                wi[n] = 0;
+                n--;
+                iteration = 0;
+                context.worked(1);
+            } else if (l == n - 1) {
+                w = h[n][n - 1] * h[n - 1][n];
+                p = (h[n - 1][n - 1] - h[n][n]) / 2;
+                q = p * p + w;
+                z = Math.sqrt(Math.abs(q));
+                x = h[n][n] + exshift;
+                if (q >= 0) {
+                    z = p >= 0 ? p + z : p - z;
+                    wr[n - 1] = x + z;
+                    wr[n] = z != 0 ? x - w / z : x + z;
+                    wi[n - 1] = 0;
+                    wi[n] = 0;
+                } else {
+                    wr[n - 1] = x + p;
+                    wr[n] = x + p;
+                    wi[n - 1] = z;
+                    wi[n] = -z;
+                }
+                n -= 2;
+                iteration = 0;
+                context.worked(2);
+            } else {
+                context.checkCancelled();
+                if (++totalIterations > 30 * nn) {
+                    throw new ArithmeticException("Eigenvalue iteration did not converge");
+                }
+                x = h[n][n];
+                y = h[n - 1][n - 1];
+                w = h[n][n - 1] * h[n - 1][n];
+                if (iteration == 10) {
+                    // Exceptional shift to break cycles.
+                    exshift += x;
+                    for (int i = low; i <= n; i++) {
+                        h[i][i] -= x;
+                    }
+                    s = Math.abs(h[n][n - 1]) + Math.abs(h[n - 1][n - 2]);
+                    x = y = 0.75 * s;
+                    w = -0.4375 * s * s;
+                }
+                if (iteration == 30) {
+                    s = (y - x) / 2;
+                    s = s * s + w;
+                    if (s > 0) {
+                        s = Math.sqrt(s);
+                        if (y < x) s = -s;
+                        s = x - w / ((y - x) / 2 + s);
+                        for (int i = low; i <= n; i++) {
+                            h[i][i] -= s;
+                        }
+                        exshift += s;
+                        x = y = w = 0.964;
+                    }
+                }
+                iteration++;
+
+                int m = n - 2;
+                while (m >= l) {
+                    z = h[m][m];
+                    r = x - z;
+                    s = y - z;
+                    p = (r * s - w) / h[m + 1][m] + h[m][m + 1];
+                    q = h[m + 1][m + 1] - z - r - s;
+                    r = h[m + 2][m + 1];
+                    s = Math.abs(p) + Math.abs(q) + Math.abs(r);
+                    p /= s;
+                    q /= s;
+                    r /= s;
+                    if (m == l) break;
+                    if (Math.abs(h[m][m - 1]) * (Math.abs(q) + Math.abs(r))
+                            < EPS * (Math.abs(p) * (Math.abs(h[m - 1][m - 1]) + Math.abs(z) + Math.abs(h[m + 1][m + 1])))) {
+                        break;
+                    }
+                    m--;
+                }
+                for (int i = m + 2; i <= n; i++) {
+                    h[i][i - 2] = 0;
+                    if (i > m + 2) h[i][i - 3] = 0;
+                }
+                for (int k = m; k <= n - 1; k++) {
+                    boolean notLast = k != n - 1;
+                    if (k != m) {
+                        p = h[k][k - 1];
+                        q = h[k + 1][k - 1];
+                        r = notLast ? h[k + 2][k - 1] : 0;
+                        x = Math.abs(p) + Math.abs(q) + Math.abs(r);
+                        if (x == 0) continue;
+                        p /= x;
+                        q /= x;
+                        r /= x;
+                    }
+                    s = Math.sqrt(p * p + q * q + r * r);
+                    if (p < 0) s = -s;
+                    if (s != 0) {
+                        if (k != m) {
+                            h[k][k - 1] = -s * x;
+                        } else if (l != m) {
+                            h[k][k - 1] = -h[k][k - 1];
+                        }
+                        p += s;
+                        x = p / s;
+                        y = q / s;
+                        z = r / s;
+                        q /= p;
+                        r /= p;
+                        for (int j = k; j <= n; j++) {
+                            p = h[k][j] + q * h[k + 1][j];
+                            if (notLast) {
+                                p += r * h[k + 2][j];
+                                h[k + 2][j] -= p * z;
+                            }
+                            h[k][j] -= p * x;
+                            h[k + 1][j] -= p * y;
+                        }
+                        for (int i = l; i <= Math.min(n, k + 3); i++) {
+                            p = x * h[i][k] + y * h[i][k + 1];
+                            if (notLast) {
+                                p += z * h[i][k + 2];
+                                h[i][k + 2] -= p * r;
+                            }
+                            h[i][k] -= p;
+                            h[i][k + 1] -= p * q;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // ---- Singular values ----
+
+    // Upper bidiagonal B = U^T A V of a rows x n (rows >= n, row-major) matrix: q the diagonal,
+    // f[i] = B[i][i+1]. Only B is kept; a is overwritten.
+    private static void bidiagonalize(double[] a, int rows, int n, double[] q, double[] f) {
+        TaskContext context = TaskContext.current();
+        context.begin(n);
+        double[] u = new double[rows];
+        double[] v = new double[n];
+        for (int k = 0; k < n; k++) {
+            context.checkCancelled();
+            // Left reflector clearing column k below the diagonal.
+            double scale = 0;
+            for (int i = k; i < rows; i++) {
+                scale = Math.max(scale, Math.abs(a[i * n + k]));
+            }
+            if (scale == 0) {
+                q[k] = 0;
+            } else {
+                double sum = 0;
+                for (int i = k; i < rows; i++) {
+                    double x = a[i * n + k] / scale;
+                    sum += x * x;
+                }
+                double x0 = a[k * n + k];
+                double alpha = x0 > 0 ? -scale * Math.sqrt(sum) : scale * Math.sqrt(sum);
+                double beta = 1 / (alpha * (alpha - x0));
+                for (int i = k; i < rows; i++) {
+                    u[i] = a[i * n + k];
+                }
+                u[k] = x0 - alpha;
+                q[k] = alpha;
+                int column = k;
+                slices(k + 1, n).forEach(slice -> {
+                    int from = Math.max(column + 1, slice * SLICE);
+                    int to = Math.min(n, slice * SLICE + SLICE);
+                    double[] y = new double[to - from];
+                    for (int i = column; i < rows; i++) {
+                        double ui = u[i];
+                        int row = i * n;
+                        for (int j = from; j < to; j++) {
+                            y[j - from] += ui * a[row + j];
+                        }
+                    }
+                    for (int i = column; i < rows; i++) {
+                        double g = beta * u[i];
+                        int row = i * n;
+                        for (int j = from; j < to; j++) {
+                            a[row + j] -= g * y[j - from];
+                        }
+                    }
+                });
+            }
+            if (k >= n - 1) {
+                context.worked(1);
+                continue;
+            }
+
+            // Right reflector clearing row k beyond the superdiagonal.
+            int row = k * n;
+            scale = 0;
+            for (int j = k + 1; j < n; j++) {
+                scale = Math.max(scale, Math.abs(a[row + j]));
+            }
+            if (scale == 0) {
+                f[k] = 0;
+            } else {
+                double sum = 0;
+                for (int j = k + 1; j < n; j++) {
+                    double x = a[row + j] / scale;
+                    sum += x * x;
+                }
+                double x0 = a[row + k + 1];
+                double alpha = x0 > 0 ? -scale * Math.sqrt(sum) : scale * Math.sqrt(sum);
+                double beta = 1 / (alpha * (alpha - x0));
+                System.arraycopy(a, row + k + 1, v, k + 1, n - k - 1);
+                v[k + 1] = x0 - alpha;
+                f[k] = alpha;
+                int first = k + 1;
+                rows(first, rows).forEach(i -> {
+                    int r = i * n;
+                    double dot = 0;
+                    for (int j = first; j < n; j++) {
+                        dot += a[r + j] * v[j];
+                    }
+                    dot *= beta;
+                    for (int j = first; j < n; j++) {
+                        a[r + j] -= dot * v[j];
+                    }
+                });
+            }
+            context.worked(1);
+        }
+    }
+
+    private static IntStream rows(int from, int to) {
+        IntStream range = IntStream.range(from, to);
+        return to - from > PARALLEL_SIZE ? range.parallel() : range;
+    }
+
+    // Indices of the SLICE-wide column blocks that overlap [from, to).
+    private static IntStream slices(int from, int to) {
+        if (from >= to) return IntStream.empty();
+        IntStream range = IntStream.rangeClosed(from / SLICE, (to - 1) / SLICE);
+        return to - from > PARALLEL_SIZE ? range.parallel() : range;
+    }
+}
@@ -0,0 +1,405 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Arithmetic expressions over named variables, e.g. "sin(x)^2 + log(y) / 2". Text is parsed
+// once into a tree of small closures with variables resolved to array slots and constant
+// subtrees folded, so evaluate() is plain arithmetic with no lookups and no allocation.
+// Compiled expressions are immutable and cached by their text.
+//
+// Precedence, loosest first: + -, then * / %, then unary minus, then ^ (right-associative).
+// Evaluation follows IEEE 754: division by zero or a value outside a function's domain
+// gives an infinity or NaN rather than an exception.
+final class Expression {
+    private static final int CACHE_SIZE = 256;
+    private static final Map<String, Expression> CACHE = Collections.synchronizedMap(
+            new LinkedHashMap<String, Expression>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Expression> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            });
+
+    private interface Node {
+        double eval(double[] v);
+    }
+
+    private static final class Constant implements Node {
+        final double value;
+
+        Constant(double value) {
+            this.value = value;
+        }
+
+        @Override
+        public double eval(double[] v) {
+            return value;
+        }
+    }
+
+    private static final class Variable implements Node {
+        final int slot;
+
+        Variable(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public double eval(double[] v) {
+            return v[slot];
+        }
+    }
+
+    private final String text;
+    private final String[] variables;
+    private final Node root;
+
+    private Expression(String text, String[] variables, Node root) {
+        this.text = text;
+        this.variables = variables;
+        this.root = root;
+    }
+
+    static Expression compile(String text) {
+        Expression cached = CACHE.get(text);
+        if (cached != null) return cached;
+        Parser parser = new Parser(text);
+        Node root = parser.parse();
+        Expression expression = new Expression(text, parser.variables.toArray(new String[0]), root);
+        CACHE.put(text, expression);
+        return expression;
+    }
+
+    String text() {
+        return text;
+    }
+
+    // Variable names in order of first appearance; evaluate() takes values in this order.
+    String[] variables() {
+        return variables.clone();
+    }
+
+    int variableCount() {
+        return variables.length;
+    }
+
+    // Slot of a variable in the value array, or -1 if the expression does not use it.
+    int slot(String name) {
+        for (int i = 0; i < variables.length; i++) {
+            if (variables[i].equals(name)) return i;
+        }
+        return -1;
+    }
+
+    boolean isConstant() {
+        return root instanceof Constant;
+    }
+
+    double evaluate(double[] values) {
+        if (values.length < variables.length) {
+            throw new IllegalArgumentException("Expression needs " + variables.length + " variable values");
+        }
+        return root.eval(values);
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    private static final class Parser {
+        private final String text;
+        private final List<String> variables = new ArrayList<>();
+        private int position;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Node parse() {
+            Node node = sum();
+            skipSpaces();
+            if (position < text.length()) throw error("Unexpected '" + text.charAt(position) + "'");
+            return node;
+        }
+
+        private Node sum() {
+            Node node = product();
+            while (true) {
+                if (accept('+')) {
+                    node = binary('+', node, product());
+                } else if (accept('-')) {
+                    node = binary('-', node, product());
+                } else {
+                    return node;
+                }
+            }
+        }
+
+        private Node product() {
+            Node node = unary();
+            while (true) {
+                if (accept('*')) {
+                    node = binary('*', node, unary());
+                } else if (accept('/')) {
+                    node = binary('/', node, unary());
+                } else if (accept('%')) {
+                    node = binary('%', node, unary());
+                } else {
+                    return node;
+                }
+            }
+        }
+
+        // Unary minus binds looser than ^, so -x^2 is -(x^2).
+        private Node unary() {
+            if (accept('-')) return negate(unary());
+            if (accept('+')) return unary();
+            return power();
+        }
+
+        private Node power() {
+            Node base = primary();
+            if (accept('^')) return binary('^', base, unary());
+            return base;
+        }
+
+        private Node primary() {
+            skipSpaces();
+            if (position >= text.length()) throw error("Unexpected end of expression");
+            char c = text.charAt(position);
+            if (accept('(')) {
+                Node inner = sum();
+                expect(')');
+                return inner;
+            }
+            if (Character.isDigit(c) || c == '.') return number();
+            if (Character.isLetter(c) || c == '_') {
+                String name = identifier();
+                if (accept('(')) return function(name);
+                if (name.equals("pi")) return new Constant(Math.PI);
+                if (name.equals("e")) return new Constant(Math.E);
+                int slot = variables.indexOf(name);
+                if (slot < 0) {
+                    slot = variables.size();
+                    variables.add(name);
+                }
+                return new Variable(slot);
+            }
+            throw error("Unexpected '" + c + "'");
+        }
+
+        private Node number() {
+            int start = position;
+            while (position < text.length() && (Character.isDigit(text.charAt(position)) || text.charAt(position) == '.')) {
+                position++;
+            }
+            if (position < text.length() && (text.charAt(position) == 'e' || text.charAt(position) == 'E')) {
+                int mark = position++;
+                if (position < text.length() && (text.charAt(position) == '+' || text.charAt(position) == '-')) position++;
+                if (position < text.length() && Character.isDigit(text.charAt(position))) {
+                    while (position < text.length() && Character.isDigit(text.charAt(position))) position++;
+                } else {
+                    position = mark;
+                }
+            }
+            try {
+                return new Constant(Double.parseDouble(text.substring(start, position)));
+            } catch (NumberFormatException ex) {
+                position = start;
+                throw error("Malformed number");
+            }
+        }
+
+        private String identifier() {
+            int start = position;
+            while (position < text.length()
+                    && (Character.isLetterOrDigit(text.charAt(position)) || text.charAt(position) == '_')) {
+                position++;
+            }
+            return text.substring(start, position);
+        }
+
+        private Node function(String name) {
+            int start = position;
+            List<Node> args = new ArrayList<>();
+            skipSpaces();
+            if (!accept(')')) {
+                do {
+                    args.add(sum());
+                } while (accept(','));
+                expect(')');
+            }
+            Node f = args.size() == 1 ? unaryFunction(name, args.get(0))
+                    : args.size() == 2 ? binaryFunction(name, args.get(0), args.get(1)) : null;
+            if (f == null) {
+                position = start;
+                throw error("Unknown function " + name + " with " + args.size() + " argument(s)");
+            }
+            boolean constant = true;
+            for (Node arg : args) {
+                constant &= arg instanceof Constant;
+            }
+            return constant ? new Constant(f.eval(null)) : f;
+        }
+
+        private boolean accept(char c) {
+            skipSpaces();
+            if (position < text.length() && text.charAt(position) == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            if (!accept(c)) throw error("Expected '" + c + "'");
+        }
+
+        private void skipSpaces() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) position++;
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + (position + 1));
+        }
+    }
+
+    private static Node negate(Node a) {
+        if (a instanceof Constant) return new Constant(-((Constant) a).value);
+        return v -> -a.eval(v);
+    }
+
+    // Constant operands are folded or captured as plain doubles; x^2 and x^0.5 avoid pow().
+    private static Node binary(char op, Node a, Node b) {
+        if (a instanceof Constant && b instanceof Constant) {
+            return new Constant(binaryNode(op, a, b).eval(null));
+        }
+        if (b instanceof Constant) {
+            double c = ((Constant) b).value;
+            switch (op) {
+                case '+':
+                    return v -> a.eval(v) + c;
+                case '-':
+                    return v -> a.eval(v) - c;
+                case '*':
+                    return v -> a.eval(v) * c;
+                case '/':
+                    return v -> a.eval(v) / c;
+                case '^':
+                    if (c == 2) {
+                        return v -> {
+                            double x = a.eval(v);
+                            return x * x;
+                        };
+                    }
+                    if (c == 0.5) return v -> Math.sqrt(a.eval(v));
+                    return v -> Math.pow(a.eval(v), c);
+                default:
+                    break;
+            }
+        }
+        if (a instanceof Constant) {
+            double c = ((Constant) a).value;
+            switch (op) {
+                case '+':
+                    return v -> c + b.eval(v);
+                case '-':
+                    return v -> c - b.eval(v);
+                case '*':
+                    return v -> c * b.eval(v);
+                case '/':
+                    return v -> c / b.eval(v);
+                default:
+                    break;
+            }
+        }
+        return binaryNode(op, a, b);
+    }
+
+    private static Node binaryNode(char op, Node a, Node b) {
+        switch (op) {
+            case '+':
+                return v -> a.eval(v) + b.eval(v);
+            case '-':
+                return v -> a.eval(v) - b.eval(v);
+            case '*':
+                return v -> a.eval(v) * b.eval(v);
+            case '/':
+                return v -> a.eval(v) / b.eval(v);
+            case '%':
+                return v -> a.eval(v) % b.eval(v);
+            default:
+                return v -> Math.pow(a.eval(v), b.eval(v));
+        }
+    }
+
+    private static Node unaryFunction(String name, Node x) {
+        switch (name) {
+            case "sin":
+                return v -> Math.sin(x.eval(v));
+            case "cos":
+                return v -> Math.cos(x.eval(v));
+            case "tan":
+                return v -> Math.tan(x.eval(v));
+            case "asin":
+                return v -> Math.asin(x.eval(v));
+            case "acos":
+                return v -> Math.acos(x.eval(v));
+            case "atan":
+                return v -> Math.atan(x.eval(v));
+            case "sinh":
+                return v -> Math.sinh(x.eval(v));
+            case "cosh":
+                return v -> Math.cosh(x.eval(v));
+            case "tanh":
+                return v -> Math.tanh(x.eval(v));
+            case "exp":
+                return v -> Math.exp(x.eval(v));
+            case "log":
+            case "ln":
+                return v -> Math.log(x.eval(v));
+            case "log10":
+                return v -> Math.log10(x.eval(v));
+            case "log2":
+                return v -> Math.log(x.eval(v)) / Math.log(2);
+            case "sqrt":
+                return v -> Math.sqrt(x.eval(v));
+            case "cbrt":
+                return v -> Math.cbrt(x.eval(v));
+            case "abs":
+                return v -> Math.abs(x.eval(v));
+            case "floor":
+                return v -> Math.floor(x.eval(v));
+            case "ceil":
+                return v -> Math.ceil(x.eval(v));
+            case "round":
+                return v -> Math.rint(x.eval(v));
+            case "sign":
+                return v -> Math.signum(x.eval(v));
+            default:
+                return null;
+        }
+    }
+
+    private static Node binaryFunction(String name, Node x, Node y) {
+        switch (name) {
+            case "pow":
+                return binary('^', x, y);
+            case "atan2":
+                return v -> Math.atan2(x.eval(v), y.eval(v));
+            case "hypot":
+                return v -> Math.hypot(x.eval(v), y.eval(v));
+            case "min":
+                return v -> Math.min(x.eval(v), y.eval(v));
+            case "max":
+                return v -> Math.max(x.eval(v), y.eval(v));
+            case "log":
+                return v -> Math.log(y.eval(v)) / Math.log(x.eval(v));
+            default:
+                return null;
+        }
+    }
+}
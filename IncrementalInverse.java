@@ -0,0 +1,290 @@
+// Keeps the inverse and determinant of a square matrix current across small edits. A change
+// to one entry, row or column is a rank-one update A' = A + u v^T, so
+//
+//   det A' = det A * (1 + v^T A^-1 u)                          (matrix determinant lemma)
+//   A'^-1  = A^-1 - (A^-1 u)(v^T A^-1) / (1 + v^T A^-1 u)      (Sherman-Morrison)
+//
+// and each edit costs O(n^2) instead of an O(n^3) refactorization. Rounding error builds up
+// with every update, so after each one the residual of a column of A' A'^-1 - I is checked;
+// when it exceeds the tolerance, when an update is nearly singular, or after n updates, the
+// next query refactorizes from scratch. The determinant is kept as log |det| and a sign so
+// that large matrices do not overflow.
+final class IncrementalInverse {
+    static final double DEFAULT_TOLERANCE = 1e-8;
+    // Below this the update divides by almost zero and the new inverse is not trustworthy.
+    private static final double MIN_UPDATE_FACTOR = 1e-8;
+
+    private final int n;
+    private final double tolerance;
+    private final double[] a;
+    private double[] inverse;
+    private double logAbsDeterminant;
+    private int sign;
+    private boolean stale;
+    private int updates;
+    private int factorizations;
+
+    IncrementalInverse(DoubleMatrix matrix) {
+        this(matrix, DEFAULT_TOLERANCE);
+    }
+
+    IncrementalInverse(DoubleMatrix matrix, double tolerance) {
+        if (!matrix.isSquare()) throw new IllegalArgumentException("Matrix must be square");
+        this.n = matrix.rows();
+        this.tolerance = tolerance;
+        this.a = matrix.toRowMajor();
+        this.stale = true;
+    }
+
+    int size() {
+        return n;
+    }
+
+    // Number of O(n^3) factorizations so far, and of rank-one updates since the last one.
+    int factorizations() {
+        return factorizations;
+    }
+
+    int updatesSinceFactorization() {
+        return updates;
+    }
+
+    boolean isSingular() {
+        refresh();
+        return inverse == null;
+    }
+
+    double determinant() {
+        refresh();
+        return sign == 0 ? 0 : sign * Math.exp(logAbsDeterminant);
+    }
+
+    double logAbsDeterminant() {
+        refresh();
+        return sign == 0 ? Double.NEGATIVE_INFINITY : logAbsDeterminant;
+    }
+
+    int determinantSign() {
+        refresh();
+        return sign;
+    }
+
+    DoubleMatrix inverse() {
+        refresh();
+        if (inverse == null) throw new SingularMatrixException();
+        return DoubleMatrix.wrap(inverse.clone(), n, n);
+    }
+
+    void setEntry(int row, int col, double value) {
+        checkIndex(row);
+        checkIndex(col);
+        double delta = value - a[row * n + col];
+        if (delta == 0) return;
+        a[row * n + col] = value;
+        double[] v = new double[n];
+        v[col] = delta;
+        updateRow(row, v);
+    }
+
+    void setRow(int row, double[] values) {
+        checkIndex(row);
+        checkLength(values);
+        double[] v = new double[n];
+        boolean changed = false;
+        for (int j = 0; j < n; j++) {
+            v[j] = values[j] - a[row * n + j];
+            changed |= v[j] != 0;
+        }
+        if (!changed) return;
+        System.arraycopy(values, 0, a, row * n, n);
+        updateRow(row, v);
+    }
+
+    void setColumn(int col, double[] values) {
+        checkIndex(col);
+        checkLength(values);
+        double[] u = new double[n];
+        boolean changed = false;
+        for (int i = 0; i < n; i++) {
+            u[i] = values[i] - a[i * n + col];
+            changed |= u[i] != 0;
+        }
+        if (!changed) return;
+        for (int i = 0; i < n; i++) {
+            a[i * n + col] = values[i];
+        }
+        double[] v = new double[n];
+        v[col] = 1;
+        updateInverse(u, v);
+    }
+
+    // A += u v^T.
+    void rankOneUpdate(double[] u, double[] v) {
+        checkLength(u);
+        checkLength(v);
+        for (int i = 0; i < n; i++) {
+            if (u[i] == 0) continue;
+            for (int j = 0; j < n; j++) {
+                a[i * n + j] += u[i] * v[j];
+            }
+        }
+        updateInverse(u, v);
+    }
+
+    private void updateInverse(double[] u, double[] v) {
+        if (stale) return;
+        if (inverse == null || ++updates > n) {
+            stale = true;
+            return;
+        }
+        // xu = A^-1 u, vx = v^T A^-1
+        double[] xu = new double[n];
+        double[] vx = new double[n];
+        for (int i = 0; i < n; i++) {
+            int row = i * n;
+            double sum = 0;
+            for (int k = 0; k < n; k++) {
+                sum += inverse[row + k] * u[k];
+            }
+            xu[i] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            if (v[k] == 0) continue;
+            int row = k * n;
+            for (int j = 0; j < n; j++) {
+                vx[j] += v[k] * inverse[row + j];
+            }
+        }
+        double factor = 1;
+        for (int k = 0; k < n; k++) {
+            factor += v[k] * xu[k];
+        }
+        applyUpdate(xu, vx, factor);
+    }
+
+    // Brings the tracked matrix in line with target: edits confined to one column become one
+    // column update, edits in a few rows become one update per row, and anything larger is
+    // cheaper to refactorize.
+    void syncTo(DoubleMatrix target) {
+        if (target.rows() != n || target.cols() != n) {
+            throw new IllegalArgumentException("Matrix must stay " + n + "x" + n);
+        }
+        double[] values = target.rowMajorData();
+        boolean[] changedRows = new boolean[n];
+        int rowCount = 0;
+        int firstCol = -1;
+        boolean oneColumn = true;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (values[i * n + j] == a[i * n + j]) continue;
+                if (firstCol < 0) firstCol = j;
+                oneColumn &= j == firstCol;
+                if (!changedRows[i]) {
+                    changedRows[i] = true;
+                    rowCount++;
+                }
+            }
+        }
+        if (rowCount == 0) return;
+        if (rowCount > 1 && oneColumn) {
+            double[] column = new double[n];
+            for (int i = 0; i < n; i++) {
+                column[i] = values[i * n + firstCol];
+            }
+            setColumn(firstCol, column);
+        } else if (rowCount <= Math.max(1, n / 4)) {
+            double[] row = new double[n];
+            for (int i = 0; i < n; i++) {
+                if (!changedRows[i]) continue;
+                System.arraycopy(values, i * n, row, 0, n);
+                setRow(i, row);
+            }
+        } else {
+            System.arraycopy(values, 0, a, 0, values.length);
+            stale = true;
+        }
+    }
+
+    // Row edit, with a already updated: u = e_row, so A^-1 u is a column of the inverse.
+    private void updateRow(int row, double[] v) {
+        if (stale) return;
+        if (inverse == null || ++updates > n) {
+            stale = true;
+            return;
+        }
+        double[] xu = new double[n];
+        double[] vx = new double[n];
+        for (int i = 0; i < n; i++) {
+            xu[i] = inverse[i * n + row];
+        }
+        for (int k = 0; k < n; k++) {
+            if (v[k] == 0) continue;
+            int base = k * n;
+            for (int j = 0; j < n; j++) {
+                vx[j] += v[k] * inverse[base + j];
+            }
+        }
+        double factor = 1 + vx[row];
+        applyUpdate(xu, vx, factor);
+    }
+
+    // The residual is checked on the column of the inverse that the update changed most.
+    private void applyUpdate(double[] xu, double[] vx, double factor) {
+        if (Math.abs(factor) < MIN_UPDATE_FACTOR || Double.isNaN(factor)) {
+            stale = true;
+            return;
+        }
+        for (int i = 0; i < n; i++) {
+            double scale = xu[i] / factor;
+            if (scale == 0) continue;
+            int row = i * n;
+            for (int j = 0; j < n; j++) {
+                inverse[row + j] -= scale * vx[j];
+            }
+        }
+        logAbsDeterminant += Math.log(Math.abs(factor));
+        if (factor < 0) sign = -sign;
+        if (residual(largest(vx)) > tolerance) stale = true;
+    }
+
+    // max_i |(A A^-1 - I)[i][col]|
+    private double residual(int col) {
+        double worst = 0;
+        for (int i = 0; i < n; i++) {
+            int row = i * n;
+            double sum = i == col ? -1 : 0;
+            for (int k = 0; k < n; k++) {
+                sum += a[row + k] * inverse[k * n + col];
+            }
+            worst = Math.max(worst, Math.abs(sum));
+        }
+        return Double.isNaN(worst) ? Double.POSITIVE_INFINITY : worst;
+    }
+
+    private void refresh() {
+        if (!stale) return;
+        LUDecomposition lu = LUDecomposition.of(DoubleMatrix.wrap(a.clone(), n, n));
+        factorizations++;
+        updates = 0;
+        sign = lu.determinantSign();
+        logAbsDeterminant = lu.logAbsDeterminant();
+        inverse = lu.isSingular() ? null : lu.inverse().rowMajorData();
+        stale = false;
+    }
+
+    private static int largest(double[] u) {
+        int best = 0;
+        for (int i = 1; i < u.length; i++) {
+            if (Math.abs(u[i]) > Math.abs(u[best])) best = i;
+        }
+        return best;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= n) throw new IndexOutOfBoundsException(index + " outside " + n + "x" + n);
+    }
+
+    private void checkLength(double[] values) {
+        if (values.length != n) throw new IllegalArgumentException("Expected " + n + " values");
+    }
+}
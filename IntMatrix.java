@@ -0,0 +1,192 @@
+import java.math.BigInteger;
+import java.util.Arrays;
+
+final class IntMatrix extends Matrix {
+    private final int[] data;
+
+    IntMatrix(int rows, int cols) {
+        this(new int[rows * cols], rows, cols, 0, cols, 1);
+    }
+
+    private IntMatrix(int[] data, int rows, int cols, int offset, int rowStride, int colStride) {
+        super(rows, cols, offset, rowStride, colStride);
+        this.data = data;
+    }
+
+    static IntMatrix wrap(int[] data, int rows, int cols) {
+        if (data.length != rows * cols) {
+            throw new IllegalArgumentException("Expected " + rows * cols + " values but got " + data.length);
+        }
+        return new IntMatrix(data, rows, cols, 0, cols, 1);
+    }
+
+    static IntMatrix of(int[][] values) {
+        int rows = values.length;
+        int cols = rows == 0 ? 0 : values[0].length;
+        int[] data = new int[rows * cols];
+        for (int i = 0; i < rows; i++) {
+            System.arraycopy(values[i], 0, data, i * cols, cols);
+        }
+        return new IntMatrix(data, rows, cols, 0, cols, 1);
+    }
+
+    int get(int row, int col) {
+        return data[index(row, col)];
+    }
+
+    void set(int row, int col, int value) {
+        data[index(row, col)] = value;
+    }
+
+    @Override
+    double getDouble(int row, int col) {
+        return get(row, col);
+    }
+
+    @Override
+    IntMatrix transpose() {
+        return new IntMatrix(data, cols, rows, offset, colStride, rowStride);
+    }
+
+    @Override
+    IntMatrix view(int row, int col, int viewRows, int viewCols) {
+        return new IntMatrix(data, viewRows, viewCols, viewOffset(row, col, viewRows, viewCols),
+                rowStride, colStride);
+    }
+
+    @Override
+    void appendEntry(StringBuilder sb, int row, int col) {
+        sb.append(get(row, col));
+    }
+
+    IntMatrix copy() {
+        return new IntMatrix(toRowMajor(), rows, cols, 0, cols, 1);
+    }
+
+    // Row-major contents; shares the backing array when the matrix is not a view.
+    int[] rowMajorData() {
+        return isCompact() && data.length == rows * cols ? data : toRowMajor();
+    }
+
+    int[] toRowMajor() {
+        int[] result = new int[rows * cols];
+        if (isCompact()) {
+            System.arraycopy(data, 0, result, 0, result.length);
+            return result;
+        }
+        int k = 0;
+        for (int i = 0; i < rows; i++) {
+            int base = offset + i * rowStride;
+            for (int j = 0; j < cols; j++) {
+                result[k++] = data[base + j * colStride];
+            }
+        }
+        return result;
+    }
+
+    int[][] toArray() {
+        int[][] result = new int[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            int base = offset + i * rowStride;
+            for (int j = 0; j < cols; j++) {
+                result[i][j] = data[base + j * colStride];
+            }
+        }
+        return result;
+    }
+
+    LongMatrix toLongMatrix() {
+        long[] result = new long[rows * cols];
+        int k = 0;
+        for (int i = 0; i < rows; i++) {
+            int base = offset + i * rowStride;
+            for (int j = 0; j < cols; j++) {
+                result[k++] = data[base + j * colStride];
+            }
+        }
+        return LongMatrix.wrap(result, rows, cols);
+    }
+
+    // Returns an IntMatrix, or a LongMatrix when some sum does not fit in an int.
+    Matrix plus(IntMatrix other) {
+        checkSameShape(other);
+        int[] result = new int[rows * cols];
+        int overflow = 0;
+        int k = 0;
+        for (int i = 0; i < rows; i++) {
+            int a = offset + i * rowStride;
+            int b = other.offset + i * other.rowStride;
+            for (int j = 0; j < cols; j++) {
+                int x = data[a + j * colStride];
+                int y = other.data[b + j * other.colStride];
+                int s = x + y;
+                overflow |= (x ^ s) & (y ^ s);
+                result[k++] = s;
+            }
+        }
+        if (overflow < 0) return toLongMatrix().plus(other.toLongMatrix());
+        return wrap(result, rows, cols);
+    }
+
+    Matrix minus(IntMatrix other) {
+        checkSameShape(other);
+        int[] result = new int[rows * cols];
+        int overflow = 0;
+        int k = 0;
+        for (int i = 0; i < rows; i++) {
+            int a = offset + i * rowStride;
+            int b = other.offset + i * other.rowStride;
+            for (int j = 0; j < cols; j++) {
+                int x = data[a + j * colStride];
+                int y = other.data[b + j * other.colStride];
+                int s = x - y;
+                overflow |= (x ^ y) & (x ^ s);
+                result[k++] = s;
+            }
+        }
+        if (overflow < 0) return toLongMatrix().minus(other.toLongMatrix());
+        return wrap(result, rows, cols);
+    }
+
+    // Picks the narrowest kernel that cannot overflow: int when the entry bound fits in an
+    // int, wrapping long when it fits in a long, and overflow-checked long otherwise.
+    Matrix times(IntMatrix other) {
+        checkMultipliable(other);
+        double bound = (double) maxAbs() * other.maxAbs() * cols;
+        if (bound <= Integer.MAX_VALUE) {
+            int[] product = MatrixMultiplier.multiply(rowMajorData(), other.rowMajorData(), rows, cols, other.cols);
+            return wrap(product, rows, other.cols);
+        }
+        return toLongMatrix().times(other.toLongMatrix());
+    }
+
+    long maxAbs() {
+        long max = 0;
+        for (int i = 0; i < rows; i++) {
+            int base = offset + i * rowStride;
+            for (int j = 0; j < cols; j++) {
+                max = Math.max(max, Math.abs((long) data[base + j * colStride]));
+            }
+        }
+        return max;
+    }
+
+    BigInteger determinant() {
+        if (!isSquare()) throw new IllegalArgumentException("Matrix must be square to calculate determinant");
+        return DeterminantEngine.determinant(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof IntMatrix)) return false;
+        IntMatrix other = (IntMatrix) o;
+        return rows == other.rows && cols == other.cols
+                && Arrays.equals(rowMajorData(), other.rowMajorData());
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * rows + cols) + Arrays.hashCode(rowMajorData());
+    }
+}
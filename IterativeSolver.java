@@ -0,0 +1,259 @@
+import java.util.Arrays;
+
+// Krylov solvers for large sparse systems. Each iteration costs one or two sparse products
+// plus O(n) vector work, so time and memory scale with the number of nonzeros.
+final class IterativeSolver {
+    static final double DEFAULT_TOLERANCE = 1e-10;
+    static final int DEFAULT_RESTART = 30;
+
+    private IterativeSolver() {
+    }
+
+    static final class Result {
+        final double[] solution;
+        final int iterations;
+        final double relativeResidual;
+        final boolean converged;
+
+        Result(double[] solution, int iterations, double relativeResidual, boolean converged) {
+            this.solution = solution;
+            this.iterations = iterations;
+            this.relativeResidual = relativeResidual;
+            this.converged = converged;
+        }
+    }
+
+    // Symmetric positive definite systems only.
+    static Result conjugateGradient(SparseMatrix a, double[] b, Preconditioner m, double tolerance, int maxIterations) {
+        int n = checkSystem(a, b);
+        double[] x = new double[n];
+        double[] r = b.clone();
+        double[] z = new double[n];
+        double[] ap = new double[n];
+        double bNorm = normOrOne(b);
+        double residual = norm(r) / bNorm;
+        if (residual <= tolerance) return new Result(x, 0, residual, true);
+
+        m.apply(r, z);
+        double[] p = z.clone();
+        double rz = dot(r, z);
+        TaskContext context = TaskContext.current();
+        context.begin(maxIterations);
+        int iteration = 0;
+        while (iteration < maxIterations) {
+            context.checkCancelled();
+            context.worked(1);
+            iteration++;
+            a.multiply(p, ap);
+            double pap = dot(p, ap);
+            if (pap == 0) break;
+            double alpha = rz / pap;
+            axpy(alpha, p, x);
+            axpy(-alpha, ap, r);
+            residual = norm(r) / bNorm;
+            if (residual <= tolerance) return new Result(x, iteration, residual, true);
+            m.apply(r, z);
+            double rzNext = dot(r, z);
+            double beta = rzNext / rz;
+            rz = rzNext;
+            for (int i = 0; i < n; i++) {
+                p[i] = z[i] + beta * p[i];
+            }
+        }
+        return new Result(x, iteration, residual, false);
+    }
+
+    // Right-preconditioned BiCGSTAB for general nonsymmetric systems.
+    static Result biCgStab(SparseMatrix a, double[] b, Preconditioner m, double tolerance, int maxIterations) {
+        int n = checkSystem(a, b);
+        double[] x = new double[n];
+        double[] r = b.clone();
+        double[] rHat = b.clone();
+        double[] p = new double[n];
+        double[] v = new double[n];
+        double[] pHat = new double[n];
+        double[] s = new double[n];
+        double[] sHat = new double[n];
+        double[] t = new double[n];
+        double bNorm = normOrOne(b);
+        double residual = norm(r) / bNorm;
+        if (residual <= tolerance) return new Result(x, 0, residual, true);
+
+        double rho = 1, alpha = 1, omega = 1;
+        TaskContext context = TaskContext.current();
+        context.begin(maxIterations);
+        int iteration = 0;
+        while (iteration < maxIterations) {
+            context.checkCancelled();
+            context.worked(1);
+            iteration++;
+            double rhoNext = dot(rHat, r);
+            if (rhoNext == 0) break;
+            double beta = (rhoNext / rho) * (alpha / omega);
+            rho = rhoNext;
+            for (int i = 0; i < n; i++) {
+                p[i] = r[i] + beta * (p[i] - omega * v[i]);
+            }
+            m.apply(p, pHat);
+            a.multiply(pHat, v);
+            double rHatV = dot(rHat, v);
+            if (rHatV == 0) break;
+            alpha = rho / rHatV;
+            for (int i = 0; i < n; i++) {
+                s[i] = r[i] - alpha * v[i];
+            }
+            residual = norm(s) / bNorm;
+            if (residual <= tolerance) {
+                axpy(alpha, pHat, x);
+                return new Result(x, iteration, residual, true);
+            }
+            m.apply(s, sHat);
+            a.multiply(sHat, t);
+            double tt = dot(t, t);
+            if (tt == 0) break;
+            omega = dot(t, s) / tt;
+            for (int i = 0; i < n; i++) {
+                x[i] += alpha * pHat[i] + omega * sHat[i];
+                r[i] = s[i] - omega * t[i];
+            }
+            residual = norm(r) / bNorm;
+            if (residual <= tolerance) return new Result(x, iteration, residual, true);
+            if (omega == 0) break;
+        }
+        return new Result(x, iteration, residual, false);
+    }
+
+    // Restarted, right-preconditioned GMRES(restart) with Givens rotations.
+    static Result gmres(SparseMatrix a, double[] b, Preconditioner m, int restart, double tolerance, int maxIterations) {
+        int n = checkSystem(a, b);
+        if (restart < 1) throw new IllegalArgumentException("GMRES restart must be positive");
+        double[] x = new double[n];
+        double[] r = new double[n];
+        double[] w = new double[n];
+        double[] z = new double[n];
+        double[][] basis = new double[restart + 1][];
+        double[][] h = new double[restart + 1][restart];
+        double[] cos = new double[restart];
+        double[] sin = new double[restart];
+        double[] g = new double[restart + 1];
+        double bNorm = normOrOne(b);
+        double residual = Double.POSITIVE_INFINITY;
+        TaskContext context = TaskContext.current();
+        context.begin(maxIterations);
+        int iteration = 0;
+
+        while (iteration < maxIterations) {
+            a.multiply(x, r);
+            for (int i = 0; i < n; i++) {
+                r[i] = b[i] - r[i];
+            }
+            double beta = norm(r);
+            residual = beta / bNorm;
+            if (residual <= tolerance) return new Result(x, iteration, residual, true);
+
+            if (basis[0] == null) basis[0] = new double[n];
+            scale(1 / beta, r, basis[0]);
+            Arrays.fill(g, 0);
+            g[0] = beta;
+            int j = 0;
+            for (; j < restart && iteration < maxIterations; j++) {
+                context.checkCancelled();
+                context.worked(1);
+                iteration++;
+                m.apply(basis[j], z);
+                a.multiply(z, w);
+                for (int i = 0; i <= j; i++) {
+                    h[i][j] = dot(w, basis[i]);
+                    axpy(-h[i][j], basis[i], w);
+                }
+                double wNorm = norm(w);
+                h[j + 1][j] = wNorm;
+                if (basis[j + 1] == null) basis[j + 1] = new double[n];
+                if (wNorm != 0) scale(1 / wNorm, w, basis[j + 1]);
+
+                for (int i = 0; i < j; i++) {
+                    double upper = cos[i] * h[i][j] + sin[i] * h[i + 1][j];
+                    h[i + 1][j] = -sin[i] * h[i][j] + cos[i] * h[i + 1][j];
+                    h[i][j] = upper;
+                }
+                double hypot = Math.hypot(h[j][j], h[j + 1][j]);
+                cos[j] = hypot == 0 ? 1 : h[j][j] / hypot;
+                sin[j] = hypot == 0 ? 0 : h[j + 1][j] / hypot;
+                h[j][j] = hypot;
+                h[j + 1][j] = 0;
+                g[j + 1] = -sin[j] * g[j];
+                g[j] = cos[j] * g[j];
+                residual = Math.abs(g[j + 1]) / bNorm;
+                if (residual <= tolerance || wNorm == 0) {
+                    j++;
+                    break;
+                }
+            }
+
+            double[] y = new double[j];
+            for (int i = j - 1; i >= 0; i--) {
+                double sum = g[i];
+                for (int k = i + 1; k < j; k++) {
+                    sum -= h[i][k] * y[k];
+                }
+                y[i] = h[i][i] == 0 ? 0 : sum / h[i][i];
+            }
+            Arrays.fill(w, 0);
+            for (int i = 0; i < j; i++) {
+                axpy(y[i], basis[i], w);
+            }
+            m.apply(w, z);
+            axpy(1, z, x);
+            if (residual <= tolerance) {
+                return new Result(x, iteration, trueResidual(a, b, x, r, bNorm), true);
+            }
+        }
+        return new Result(x, iteration, trueResidual(a, b, x, r, bNorm), false);
+    }
+
+    private static double trueResidual(SparseMatrix a, double[] b, double[] x, double[] work, double bNorm) {
+        a.multiply(x, work);
+        double sum = 0;
+        for (int i = 0; i < b.length; i++) {
+            double d = b[i] - work[i];
+            sum += d * d;
+        }
+        return Math.sqrt(sum) / bNorm;
+    }
+
+    private static int checkSystem(SparseMatrix a, double[] b) {
+        if (!a.isSquare()) throw new IllegalArgumentException("Coefficient matrix must be square");
+        if (b.length != a.rows()) throw new IllegalArgumentException("Right-hand side must have " + a.rows() + " entries");
+        return b.length;
+    }
+
+    private static double dot(double[] x, double[] y) {
+        double sum = 0;
+        for (int i = 0; i < x.length; i++) {
+            sum += x[i] * y[i];
+        }
+        return sum;
+    }
+
+    private static double norm(double[] x) {
+        return Math.sqrt(dot(x, x));
+    }
+
+    private static double normOrOne(double[] b) {
+        double norm = norm(b);
+        return norm == 0 ? 1 : norm;
+    }
+
+    // y += alpha * x
+    private static void axpy(double alpha, double[] x, double[] y) {
+        for (int i = 0; i < x.length; i++) {
+            y[i] += alpha * x[i];
+        }
+    }
+
+    private static void scale(double alpha, double[] x, double[] result) {
+        for (int i = 0; i < x.length; i++) {
+            result[i] = alpha * x[i];
+        }
+    }
+}
@@ -0,0 +1,144 @@
+import java.util.Arrays;
+import java.util.Random;
+
+// Checks SparseMatrix's CSR construction and products against dense arithmetic, and every
+// Krylov solver under every preconditioner against a known solution: the 2D Poisson matrix for
+// all three, a nonsymmetric convection-diffusion matrix for BiCGSTAB and GMRES. Also covers a
+// zero right-hand side, an iteration budget too small to converge and malformed input.
+// Run with "java IterativeSolverTest"; exits with status 1 on a failure.
+final class IterativeSolverTest {
+    private static int failures;
+
+    private IterativeSolverTest() {
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(13);
+        DoubleMatrix dense = new DoubleMatrix(7, 5);
+        SparseMatrix.Builder builder = new SparseMatrix.Builder(7, 5);
+        for (int k = 0; k < 20; k++) {
+            int i = random.nextInt(7);
+            int j = random.nextInt(5);
+            double v = random.nextInt(9) - 4;
+            dense.set(i, j, dense.get(i, j) + v);
+            builder.add(i, j, v);
+        }
+        SparseMatrix sparse = builder.build();
+        check("duplicates summed", Arrays.equals(sparse.toDense().toRowMajor(), dense.toRowMajor()), "");
+        check("transpose", Arrays.equals(sparse.transpose().toDense().toRowMajor(), dense.transpose().toRowMajor()), "");
+        double[] x = {1, -2, 3, 0.5, -1};
+        double[] y = new double[7];
+        Arrays.setAll(y, i -> random.nextInt(5) - 2);
+        check("multiply", Arrays.equals(sparse.multiply(x), MatrixMultiplier.multiply(dense.toRowMajor(), x, 7, 5, 1)), "");
+        double[] ty = new double[5];
+        sparse.multiplyTransposed(y, ty);
+        check("multiplyTransposed", Arrays.equals(ty, MatrixMultiplier.multiply(y, dense.toRowMajor(), 1, 7, 5)), "");
+        check("no explicit zeros", new SparseMatrix.Builder(2, 2).add(0, 0, 0).add(1, 1, 2).build().nonZeros() == 1, "");
+        check("inconsistent CSR arrays", throwsIllegalArgument(
+                () -> SparseMatrix.fromCsr(2, 2, new int[]{0, 1, 3}, new int[]{0, 1}, new double[]{1, 2})), "");
+        check("entry outside the matrix", throwsIndexOutOfBounds(() -> new SparseMatrix.Builder(2, 2).add(2, 0, 1)), "");
+
+        int grid = 30;
+        SparseMatrix poisson = convectionDiffusion(grid, 0);
+        SparseMatrix convection = convectionDiffusion(grid, 0.4);
+        double[] solution = new double[grid * grid];
+        Arrays.setAll(solution, i -> random.nextGaussian());
+        double tolerance = 1e-10;
+        int budget = 2000;
+        for (String name : new String[]{"none", "jacobi", "ilu0"}) {
+            expect("CG, Poisson, " + name, poisson, solution,
+                    b -> IterativeSolver.conjugateGradient(poisson, b, preconditioner(name, poisson), tolerance, budget));
+            for (SparseMatrix a : new SparseMatrix[]{poisson, convection}) {
+                String problem = a == poisson ? "Poisson, " : "convection, ";
+                expect("BiCGSTAB, " + problem + name, a, solution,
+                        b -> IterativeSolver.biCgStab(a, b, preconditioner(name, a), tolerance, budget));
+                expect("GMRES, " + problem + name, a, solution,
+                        b -> IterativeSolver.gmres(a, b, preconditioner(name, a), IterativeSolver.DEFAULT_RESTART, tolerance, budget));
+            }
+        }
+
+        double[] zero = new double[grid * grid];
+        IterativeSolver.Result trivial = IterativeSolver.gmres(convection, zero, Preconditioner.identity(), 10, tolerance, budget);
+        check("zero right-hand side", trivial.converged && trivial.iterations == 0 && Arrays.equals(trivial.solution, zero), "");
+        IterativeSolver.Result cut = IterativeSolver.conjugateGradient(poisson, poisson.multiply(solution),
+                Preconditioner.identity(), tolerance, 3);
+        check("budget too small", !cut.converged && cut.iterations == 3 && cut.relativeResidual > tolerance,
+                "converged " + cut.converged + " after " + cut.iterations);
+        check("wrong right-hand side length", throwsIllegalArgument(
+                () -> IterativeSolver.biCgStab(poisson, new double[3], Preconditioner.identity(), tolerance, budget)), "");
+        check("non-square matrix", throwsIllegalArgument(
+                () -> IterativeSolver.conjugateGradient(sparse, new double[7], Preconditioner.identity(), tolerance, budget)), "");
+        check("ILU(0) with a zero diagonal", throwsIllegalArgument(
+                () -> Preconditioner.ilu0(new SparseMatrix.Builder(2, 2).add(0, 1, 1).add(1, 0, 1).build())), "");
+
+        System.out.println(failures == 0 ? "All checks passed" : failures + " checks failed");
+        if (failures > 0) System.exit(1);
+    }
+
+    private interface Solve {
+        IterativeSolver.Result solve(double[] b);
+    }
+
+    private static void expect(String name, SparseMatrix a, double[] solution, Solve solver) {
+        IterativeSolver.Result result = solver.solve(a.multiply(solution));
+        double error = 0;
+        for (int i = 0; i < solution.length; i++) {
+            error = Math.max(error, Math.abs(result.solution[i] - solution[i]));
+        }
+        check(name, result.converged && error <= 1e-6,
+                "converged " + result.converged + " in " + result.iterations + ", error " + error);
+    }
+
+    // The five-point Laplacian on a grid x grid mesh plus a centred first difference of
+    // strength c in x, which makes the matrix nonsymmetric for c != 0.
+    private static SparseMatrix convectionDiffusion(int grid, double c) {
+        int n = grid * grid;
+        SparseMatrix.Builder builder = new SparseMatrix.Builder(n, n, 5 * n);
+        for (int i = 0; i < grid; i++) {
+            for (int j = 0; j < grid; j++) {
+                int row = i * grid + j;
+                builder.add(row, row, 4);
+                if (i > 0) builder.add(row, row - grid, -1);
+                if (i + 1 < grid) builder.add(row, row + grid, -1);
+                if (j > 0) builder.add(row, row - 1, -1 - c);
+                if (j + 1 < grid) builder.add(row, row + 1, -1 + c);
+            }
+        }
+        return builder.build();
+    }
+
+    private static Preconditioner preconditioner(String name, SparseMatrix a) {
+        switch (name) {
+            case "jacobi":
+                return Preconditioner.jacobi(a);
+            case "ilu0":
+                return Preconditioner.ilu0(a);
+            default:
+                return Preconditioner.identity();
+        }
+    }
+
+    private static boolean throwsIllegalArgument(Runnable action) {
+        try {
+            action.run();
+            return false;
+        } catch (IllegalArgumentException expected) {
+            return true;
+        }
+    }
+
+    private static boolean throwsIndexOutOfBounds(Runnable action) {
+        try {
+            action.run();
+            return false;
+        } catch (IndexOutOfBoundsException expected) {
+            return true;
+        }
+    }
+
+    private static void check(String name, boolean ok, String detail) {
+        if (ok) return;
+        System.out.println("FAIL " + name + (detail.isEmpty() ? "" : ": " + detail));
+        failures++;
+    }
+}
@@ -0,0 +1,263 @@
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Just enough JSON for MathSolverServer. parse() returns Map (insertion-ordered), List,
+// String, Double, Boolean or null; malformed text raises IllegalArgumentException with the
+// position. write() accepts those plus other Numbers, primitive arrays and nested Object
+// arrays; numbers that are not finite are written as null, since JSON has no literal for them.
+final class Json {
+    private static final int MAX_DEPTH = 64;
+
+    private Json() {
+    }
+
+    static Object parse(String text) {
+        Parser parser = new Parser(text);
+        Object value = parser.value(0);
+        parser.skipSpaces();
+        if (parser.position < text.length()) throw parser.error("Unexpected '" + text.charAt(parser.position) + "'");
+        return value;
+    }
+
+    static String write(Object value) {
+        StringBuilder sb = new StringBuilder();
+        write(value, sb);
+        return sb.toString();
+    }
+
+    static void write(Object value, StringBuilder sb) {
+        if (value == null || value instanceof Boolean) {
+            sb.append(value);
+        } else if (value instanceof Double || value instanceof Float) {
+            double d = ((Number) value).doubleValue();
+            if (!Double.isFinite(d)) {
+                sb.append("null");
+            } else if (d == Math.rint(d) && Math.abs(d) < 1e15) {
+                sb.append((long) d);
+            } else {
+                sb.append(d);
+            }
+        } else if (value instanceof Number) {
+            sb.append(value);
+        } else if (value instanceof CharSequence) {
+            writeString(value.toString(), sb);
+        } else if (value instanceof Map) {
+            sb.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+                if (!first) sb.append(',');
+                first = false;
+                writeString(String.valueOf(e.getKey()), sb);
+                sb.append(':');
+                write(e.getValue(), sb);
+            }
+            sb.append('}');
+        } else if (value instanceof List) {
+            sb.append('[');
+            List<?> list = (List<?>) value;
+            for (int i = 0; i < list.size(); i++) {
+                if (i > 0) sb.append(',');
+                write(list.get(i), sb);
+            }
+            sb.append(']');
+        } else if (value instanceof double[]) {
+            double[] array = (double[]) value;
+            sb.append('[');
+            for (int i = 0; i < array.length; i++) {
+                if (i > 0) sb.append(',');
+                write(array[i], sb);
+            }
+            sb.append(']');
+        } else if (value instanceof Object[]) {
+            Object[] array = (Object[]) value;
+            sb.append('[');
+            for (int i = 0; i < array.length; i++) {
+                if (i > 0) sb.append(',');
+                write(array[i], sb);
+            }
+            sb.append(']');
+        } else {
+            writeString(value.toString(), sb);
+        }
+    }
+
+    private static void writeString(String s, StringBuilder sb) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+
+    // ---- Typed access for request bodies ----
+
+    static double[] toDoubles(Object value, String name) {
+        if (!(value instanceof List)) throw new IllegalArgumentException(name + " must be an array of numbers");
+        List<?> list = (List<?>) value;
+        double[] result = new double[list.size()];
+        for (int i = 0; i < result.length; i++) {
+            if (!(list.get(i) instanceof Double)) throw new IllegalArgumentException(name + " must be an array of numbers");
+            result[i] = (Double) list.get(i);
+        }
+        return result;
+    }
+
+    static double[][] toRows(Object value, String name) {
+        if (!(value instanceof List) || ((List<?>) value).isEmpty()) {
+            throw new IllegalArgumentException(name + " must be a non-empty array of rows");
+        }
+        List<?> list = (List<?>) value;
+        double[][] rows = new double[list.size()][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = toDoubles(list.get(i), name);
+            if (rows[i].length != rows[0].length) throw new IllegalArgumentException(name + " rows must all have the same length");
+        }
+        return rows;
+    }
+
+    // Whole numbers that fit in a long are written exactly; BigInteger for the rest.
+    static Object number(BigInteger value) {
+        return value.bitLength() < 64 ? (Object) value.longValue() : value;
+    }
+
+    private static final class Parser {
+        private final String text;
+        private int position;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Object value(int depth) {
+            if (depth > MAX_DEPTH) throw error("Nested too deeply");
+            skipSpaces();
+            if (position >= text.length()) throw error("Unexpected end of input");
+            char c = text.charAt(position);
+            switch (c) {
+                case '{': return object(depth);
+                case '[': return array(depth);
+                case '"': return string();
+                case 't': return literal("true", Boolean.TRUE);
+                case 'f': return literal("false", Boolean.FALSE);
+                case 'n': return literal("null", null);
+                default:
+                    if (c == '-' || (c >= '0' && c <= '9')) return number();
+                    throw error("Unexpected '" + c + "'");
+            }
+        }
+
+        private Map<String, Object> object(int depth) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            position++;
+            skipSpaces();
+            if (accept('}')) return map;
+            do {
+                skipSpaces();
+                if (position >= text.length() || text.charAt(position) != '"') throw error("Expected a key");
+                String key = string();
+                skipSpaces();
+                if (!accept(':')) throw error("Expected ':'");
+                map.put(key, value(depth + 1));
+                skipSpaces();
+            } while (accept(','));
+            if (!accept('}')) throw error("Expected ',' or '}'");
+            return map;
+        }
+
+        private List<Object> array(int depth) {
+            List<Object> list = new ArrayList<>();
+            position++;
+            skipSpaces();
+            if (accept(']')) return list;
+            do {
+                list.add(value(depth + 1));
+                skipSpaces();
+            } while (accept(','));
+            if (!accept(']')) throw error("Expected ',' or ']'");
+            return list;
+        }
+
+        private String string() {
+            position++;
+            StringBuilder sb = new StringBuilder();
+            while (position < text.length()) {
+                char c = text.charAt(position++);
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (position >= text.length()) break;
+                char e = text.charAt(position++);
+                switch (e) {
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'u':
+                        if (position + 4 > text.length()) throw error("Malformed escape");
+                        try {
+                            sb.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        } catch (NumberFormatException ex) {
+                            throw error("Malformed escape");
+                        }
+                        position += 4;
+                        break;
+                    default: sb.append(e);
+                }
+            }
+            throw error("Unterminated string");
+        }
+
+        private Double number() {
+            int start = position;
+            if (text.charAt(position) == '-') position++;
+            while (position < text.length() && "0123456789.eE+-".indexOf(text.charAt(position)) >= 0) position++;
+            try {
+                return Double.valueOf(text.substring(start, position));
+            } catch (NumberFormatException ex) {
+                position = start;
+                throw error("Malformed number");
+            }
+        }
+
+        private Object literal(String word, Object value) {
+            if (!text.startsWith(word, position)) throw error("Unexpected '" + text.charAt(position) + "'");
+            position += word.length();
+            return value;
+        }
+
+        private boolean accept(char c) {
+            if (position < text.length() && text.charAt(position) == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        void skipSpaces() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) position++;
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + (position + 1));
+        }
+    }
+}
@@ -0,0 +1,230 @@
+import java.util.stream.IntStream;
+
+// PA = LU with partial pivoting, stored compactly in one row-major array. The factorization is
+// computed once in O(n^3); every right-hand side after that costs two O(n^2) triangular solves.
+final class LUDecomposition {
+    private static final int PARALLEL_SIZE = 256;
+
+    private final int n;
+    private final double[] lu;
+    private final int[] permutation;
+    private final int permutationSign;
+    private final boolean singular;
+
+    private LUDecomposition(double[] values, int n) {
+        this.n = n;
+        this.lu = values;
+        this.permutation = new int[n];
+        // A pivot this small relative to the largest entry of its own row means the matrix is
+        // singular to working precision. Measuring against the row rather than the whole matrix
+        // keeps well-conditioned systems with badly scaled equations, like diag(1e20, 1), solvable.
+        double[] tolerance = new double[n];
+        for (int i = 0; i < n; i++) {
+            double scale = 0;
+            for (int j = 0; j < n; j++) {
+                scale = Math.max(scale, Math.abs(values[i * n + j]));
+            }
+            tolerance[i] = n * Math.ulp(1.0) * scale;
+        }
+
+        for (int i = 0; i < n; i++) {
+            permutation[i] = i;
+        }
+        int sign = 1;
+        boolean rankDeficient = false;
+        TaskContext context = TaskContext.current();
+        // Step k updates an (n - k)^2 trailing block, so progress is weighted by that.
+        context.begin((long) n * (n + 1) * (2L * n + 1) / 6);
+        for (int k = 0; k < n; k++) {
+            context.checkCancelled();
+            context.worked((long) (n - k) * (n - k));
+            int pivot = k;
+            double max = Math.abs(lu[k * n + k]);
+            for (int i = k + 1; i < n; i++) {
+                double v = Math.abs(lu[i * n + k]);
+                if (v > max) {
+                    max = v;
+                    pivot = i;
+                }
+            }
+            if (pivot != k) {
+                swapRows(pivot, k);
+                int t = permutation[pivot];
+                permutation[pivot] = permutation[k];
+                permutation[k] = t;
+                double s = tolerance[pivot];
+                tolerance[pivot] = tolerance[k];
+                tolerance[k] = s;
+                sign = -sign;
+            }
+            if (max <= tolerance[k]) {
+                rankDeficient = true;
+                if (max == 0) continue;
+            }
+            eliminate(k);
+        }
+        this.permutationSign = sign;
+        this.singular = rankDeficient;
+    }
+
+    static LUDecomposition of(DoubleMatrix matrix) {
+        if (!matrix.isSquare()) throw new IllegalArgumentException("Matrix must be square");
+        return new LUDecomposition(matrix.toRowMajor(), matrix.rows());
+    }
+
+    static LUDecomposition of(double[][] matrix) {
+        return of(DoubleMatrix.of(matrix));
+    }
+
+    int size() {
+        return n;
+    }
+
+    boolean isSingular() {
+        return singular;
+    }
+
+    double determinant() {
+        double det = permutationSign;
+        for (int i = 0; i < n; i++) {
+            det *= lu[i * n + i];
+        }
+        return det;
+    }
+
+    // log |det| and the sign of det (0 when an exact zero pivot was met), for matrices whose
+    // determinant over- or underflows a double.
+    double logAbsDeterminant() {
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += Math.log(Math.abs(lu[i * n + i]));
+        }
+        return sum;
+    }
+
+    int determinantSign() {
+        int sign = permutationSign;
+        for (int i = 0; i < n; i++) {
+            double pivot = lu[i * n + i];
+            if (pivot == 0) return 0;
+            if (pivot < 0) sign = -sign;
+        }
+        return sign;
+    }
+
+    DoubleMatrix inverse() {
+        DoubleMatrix identity = new DoubleMatrix(n, n);
+        for (int i = 0; i < n; i++) {
+            identity.set(i, i, 1);
+        }
+        return solve(identity);
+    }
+
+    double[] solve(double[] b) {
+        if (b.length != n) throw new IllegalArgumentException("Right-hand side must have " + n + " entries");
+        if (singular) throw new SingularMatrixException();
+        double[] x = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = b[permutation[i]];
+        }
+        substitute(x);
+        return x;
+    }
+
+    // A^T x = b. With PA = LU, A^T = U^T L^T P: a forward solve with U^T, a backward solve with
+    // the unit L^T, then the permutation undone.
+    double[] solveTransposed(double[] b) {
+        if (b.length != n) throw new IllegalArgumentException("Right-hand side must have " + n + " entries");
+        if (singular) throw new SingularMatrixException();
+        double[] w = b.clone();
+        for (int i = 0; i < n; i++) {
+            double sum = w[i];
+            for (int j = 0; j < i; j++) {
+                sum -= lu[j * n + i] * w[j];
+            }
+            w[i] = sum / lu[i * n + i];
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = w[i];
+            for (int j = i + 1; j < n; j++) {
+                sum -= lu[j * n + i] * w[j];
+            }
+            w[i] = sum;
+        }
+        double[] x = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[permutation[i]] = w[i];
+        }
+        return x;
+    }
+
+    // Solves for every column of b at once.
+    DoubleMatrix solve(DoubleMatrix b) {
+        if (b.rows() != n) throw new IllegalArgumentException("Right-hand side must have " + n + " rows");
+        if (singular) throw new SingularMatrixException();
+        DoubleMatrix x = new DoubleMatrix(n, b.cols());
+        double[] column = new double[n];
+        TaskContext context = TaskContext.current();
+        for (int j = 0; j < b.cols(); j++) {
+            context.checkCancelled();
+            for (int i = 0; i < n; i++) {
+                column[i] = b.get(permutation[i], j);
+            }
+            substitute(column);
+            for (int i = 0; i < n; i++) {
+                x.set(i, j, column[i]);
+            }
+        }
+        return x;
+    }
+
+    private void substitute(double[] x) {
+        for (int i = 0; i < n; i++) {
+            int row = i * n;
+            double sum = x[i];
+            for (int j = 0; j < i; j++) {
+                sum -= lu[row + j] * x[j];
+            }
+            x[i] = sum;
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            int row = i * n;
+            double sum = x[i];
+            for (int j = i + 1; j < n; j++) {
+                sum -= lu[row + j] * x[j];
+            }
+            x[i] = sum / lu[row + i];
+        }
+    }
+
+    private void eliminate(int k) {
+        if (n - k > PARALLEL_SIZE) {
+            IntStream.range(k + 1, n).parallel().forEach(i -> eliminateRow(k, i));
+        } else {
+            for (int i = k + 1; i < n; i++) {
+                eliminateRow(k, i);
+            }
+        }
+    }
+
+    private void eliminateRow(int k, int i) {
+        int kk = k * n;
+        int ik = i * n;
+        double factor = lu[ik + k] / lu[kk + k];
+        lu[ik + k] = factor;
+        if (factor == 0) return;
+        for (int j = k + 1; j < n; j++) {
+            lu[ik + j] -= factor * lu[kk + j];
+        }
+    }
+
+    private void swapRows(int a, int b) {
+        int ra = a * n;
+        int rb = b * n;
+        for (int j = 0; j < n; j++) {
+            double t = lu[ra + j];
+            lu[ra + j] = lu[rb + j];
+            lu[rb + j] = t;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+import java.util.Arrays;
+import java.util.Random;
+
+// Checks LUDecomposition's solves, inverse and determinant on random systems by their
+// residuals, and on known answers for badly scaled, singular, overflowing and empty matrices.
+// Run with "java LUDecompositionTest"; exits with status 1 on a failure.
+final class LUDecompositionTest {
+    private static int failures;
+
+    private LUDecompositionTest() {
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(3);
+        for (int n : new int[]{1, 2, 5, 17, 60, 300}) {
+            double[][] a = new double[n][n];
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    a[i][j] = random.nextGaussian();
+                }
+            }
+            LUDecomposition lu = LUDecomposition.of(a);
+            double[] b = new double[n];
+            Arrays.setAll(b, i -> random.nextGaussian());
+            check("solve, n = " + n, residual(a, lu.solve(b), b) <= 1e-13 * n, "");
+            check("solveTransposed, n = " + n, residual(transpose(a), lu.solveTransposed(b), b) <= 1e-13 * n, "");
+            DoubleMatrix inverse = lu.inverse();
+            double worst = 0;
+            for (int j = 0; j < n; j++) {
+                double[] e = new double[n];
+                e[j] = 1;
+                double[] column = new double[n];
+                for (int i = 0; i < n; i++) {
+                    column[i] = inverse.get(i, j);
+                }
+                worst = Math.max(worst, residual(a, column, e));
+            }
+            check("inverse, n = " + n, worst <= 1e-12 * n, "worst column residual " + worst);
+        }
+
+        // Rows scaled over forty orders of magnitude leave the system as well conditioned as
+        // before in each equation's own units.
+        int n = 40;
+        double[][] scaled = new double[n][n];
+        double[] b = new double[n];
+        double[] x = new double[n];
+        Arrays.setAll(x, i -> random.nextGaussian());
+        for (int i = 0; i < n; i++) {
+            double scale = Math.pow(10, random.nextInt(41) - 20);
+            for (int j = 0; j < n; j++) {
+                scaled[i][j] = scale * ((i == j ? n : 0) + random.nextGaussian());
+                b[i] += scaled[i][j] * x[j];
+            }
+        }
+        LUDecomposition lu = LUDecomposition.of(scaled);
+        check("rows scaled 1e-20 to 1e20 are solvable", !lu.isSingular() && close(lu.solve(b), x, 1e-10), "");
+        LUDecomposition diagonal = LUDecomposition.of(new double[][]{{1e20, 0}, {0, 1}});
+        check("diag(1e20, 1) is solvable", !diagonal.isSingular()
+                && Arrays.equals(diagonal.solve(new double[]{1e20, 3}), new double[]{1, 3}), "");
+
+        LUDecomposition singular = LUDecomposition.of(new double[][]{{1, 2}, {2, 4}});
+        check("rank 1 2x2 is singular", singular.isSingular(), "");
+        check("solve on singular throws", throwsSingular(() -> singular.solve(new double[]{1, 2})), "");
+        check("solveTransposed on singular throws", throwsSingular(() -> singular.solveTransposed(new double[]{1, 2})), "");
+        check("zero matrix is singular", LUDecomposition.of(new double[3][3]).isSingular(), "");
+        double[][] dependent = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                dependent[i][j] = i == n - 1 ? dependent[0][j] - 0.5 * dependent[1][j] : random.nextGaussian();
+            }
+        }
+        check("dependent row is singular", LUDecomposition.of(dependent).isSingular(), "");
+        double[][] tiny = {{1e-300, 0}, {0, 1e-300}};
+        check("uniformly tiny matrix is not singular", !LUDecomposition.of(tiny).isSingular(), "");
+
+        LUDecomposition swap = LUDecomposition.of(new double[][]{{0, 2}, {3, 0}});
+        check("determinant with a row swap", swap.determinant() == -6 && swap.determinantSign() == -1,
+                "got " + swap.determinant());
+        check("Hilbert 3 determinant", Math.abs(LUDecomposition.of(hilbert(3)).determinant() - 1.0 / 2160) <= 1e-15,
+                "got " + LUDecomposition.of(hilbert(3)).determinant());
+        LUDecomposition huge = LUDecomposition.of(new double[][]{{1e200, 0, 0}, {0, -1e200, 0}, {0, 0, 1e200}});
+        check("overflowing determinant by logarithm", Double.isInfinite(huge.determinant()) && huge.determinantSign() == -1
+                && Math.abs(huge.logAbsDeterminant() - 600 * Math.log(10)) <= 1e-12 * 600 * Math.log(10),
+                "log |det| " + huge.logAbsDeterminant());
+        check("singular determinant sign", singular.determinantSign() == 0 || singular.determinant() == 0, "");
+
+        LUDecomposition empty = LUDecomposition.of(new double[0][0]);
+        check("empty matrix", empty.size() == 0 && empty.determinant() == 1 && empty.solve(new double[0]).length == 0, "");
+        check("wrong right-hand side length", throwsIllegalArgument(() -> lu.solve(new double[n + 1])), "");
+        check("wrong right-hand side rows", throwsIllegalArgument(() -> lu.solve(new DoubleMatrix(n - 1, 2))), "");
+        check("non-square matrix", throwsIllegalArgument(() -> LUDecomposition.of(new double[][]{{1, 2, 3}, {4, 5, 6}})), "");
+
+        System.out.println(failures == 0 ? "All checks passed" : failures + " checks failed");
+        if (failures > 0) System.exit(1);
+    }
+
+    // max_i |(A x - b)_i| / (sum_j |a_ij x_j| + |b_i|), the componentwise backward error.
+    private static double residual(double[][] a, double[] x, double[] b) {
+        double worst = 0;
+        for (int i = 0; i < a.length; i++) {
+            double r = -b[i];
+            double scale = Math.abs(b[i]);
+            for (int j = 0; j < x.length; j++) {
+                r += a[i][j] * x[j];
+                scale += Math.abs(a[i][j] * x[j]);
+            }
+            worst = Math.max(worst, scale == 0 ? 0 : Math.abs(r) / scale);
+        }
+        return worst;
+    }
+
+    private static boolean close(double[] actual, double[] expected, double tolerance) {
+        for (int i = 0; i < expected.length; i++) {
+            if (!(Math.abs(actual[i] - expected[i]) <= tolerance * Math.max(1, Math.abs(expected[i])))) return false;
+        }
+        return true;
+    }
+
+    private static double[][] transpose(double[][] a) {
+        double[][] t = new double[a.length][a.length];
+        for (int i = 0; i < a.length; i++) {
+            for (int j = 0; j < a.length; j++) {
+                t[j][i] = a[i][j];
+            }
+        }
+        return t;
+    }
+
+    private static double[][] hilbert(int n) {
+        double[][] h = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                h[i][j] = 1.0 / (i + j + 1);
+            }
+        }
+        return h;
+    }
+
+    private static boolean throwsSingular(Runnable action) {
+        try {
+            action.run();
+            return false;
+        } catch (SingularMatrixException expected) {
+            return true;
+        }
+    }
+
+    private static boolean throwsIllegalArgument(Runnable action) {
+        try {
+            action.run();
+            return false;
+        } catch (IllegalArgumentException expected) {
+            return true;
+        }
+    }
+
+    private static void check(String name, boolean ok, String detail) {
+        if (ok) return;
+        System.out.println("FAIL " + name + (detail.isEmpty() ? "" : ": " + detail));
+        failures++;
+    }
+}
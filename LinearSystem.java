@@ -0,0 +1,41 @@
+// A square sparse system A x = b.
+final class LinearSystem {
+    final SparseMatrix coefficients;
+    final double[] constants;
+
+    LinearSystem(SparseMatrix coefficients, double[] constants) {
+        if (!coefficients.isSquare()) throw new IllegalArgumentException("Coefficient matrix must be square");
+        if (constants.length != coefficients.rows()) {
+            throw new IllegalArgumentException("Right-hand side must have " + coefficients.rows() + " entries");
+        }
+        this.coefficients = coefficients;
+        this.constants = constants;
+    }
+
+    // Splits the augmented matrix [A | b] without densifying A.
+    static LinearSystem fromAugmented(SparseMatrix augmented) {
+        int n = augmented.rows();
+        if (augmented.cols() != n + 1) {
+            throw new IllegalArgumentException("A system needs n rows and n + 1 columns (coefficients, then constants)");
+        }
+        int[] pointers = augmented.rowPointers();
+        int[] columns = augmented.columnIndices();
+        double[] values = augmented.values();
+        SparseMatrix.Builder coefficients = new SparseMatrix.Builder(n, n, values.length);
+        double[] constants = new double[n];
+        for (int i = 0; i < n; i++) {
+            for (int k = pointers[i]; k < pointers[i + 1]; k++) {
+                if (columns[k] == n) {
+                    constants[i] = values[k];
+                } else {
+                    coefficients.add(i, columns[k], values[k]);
+                }
+            }
+        }
+        return new LinearSystem(coefficients.build(), constants);
+    }
+
+    int size() {
+        return constants.length;
+    }
+}
@@ -0,0 +1,186 @@
+import java.math.BigInteger;
+import java.util.Arrays;
+
+final class LongMatrix extends Matrix {
+    private static final String OVERFLOW_MESSAGE = "Matrix result exceeds the 64-bit integer range";
+
+    private final long[] data;
+
+    LongMatrix(int rows, int cols) {
+        this(new long[rows * cols], rows, cols, 0, cols, 1);
+    }
+
+    private LongMatrix(long[] data, int rows, int cols, int offset, int rowStride, int colStride) {
+        super(rows, cols, offset, rowStride, colStride);
+        this.data = data;
+    }
+
+    static LongMatrix wrap(long[] data, int rows, int cols) {
+        if (data.length != rows * cols) {
+            throw new IllegalArgumentException("Expected " + rows * cols + " values but got " + data.length);
+        }
+        return new LongMatrix(data, rows, cols, 0, cols, 1);
+    }
+
+    static LongMatrix of(long[][] values) {
+        int rows = values.length;
+        int cols = rows == 0 ? 0 : values[0].length;
+        long[] data = new long[rows * cols];
+        for (int i = 0; i < rows; i++) {
+            System.arraycopy(values[i], 0, data, i * cols, cols);
+        }
+        return new LongMatrix(data, rows, cols, 0, cols, 1);
+    }
+
+    long get(int row, int col) {
+        return data[index(row, col)];
+    }
+
+    void set(int row, int col, long value) {
+        data[index(row, col)] = value;
+    }
+
+    @Override
+    double getDouble(int row, int col) {
+        return get(row, col);
+    }
+
+    @Override
+    LongMatrix transpose() {
+        return new LongMatrix(data, cols, rows, offset, colStride, rowStride);
+    }
+
+    @Override
+    LongMatrix view(int row, int col, int viewRows, int viewCols) {
+        return new LongMatrix(data, viewRows, viewCols, viewOffset(row, col, viewRows, viewCols),
+                rowStride, colStride);
+    }
+
+    @Override
+    void appendEntry(StringBuilder sb, int row, int col) {
+        sb.append(get(row, col));
+    }
+
+    LongMatrix copy() {
+        return new LongMatrix(toRowMajor(), rows, cols, 0, cols, 1);
+    }
+
+    // Row-major contents; shares the backing array when the matrix is not a view.
+    long[] rowMajorData() {
+        return isCompact() && data.length == rows * cols ? data : toRowMajor();
+    }
+
+    long[] toRowMajor() {
+        long[] result = new long[rows * cols];
+        if (isCompact()) {
+            System.arraycopy(data, 0, result, 0, result.length);
+            return result;
+        }
+        int k = 0;
+        for (int i = 0; i < rows; i++) {
+            int base = offset + i * rowStride;
+            for (int j = 0; j < cols; j++) {
+                result[k++] = data[base + j * colStride];
+            }
+        }
+        return result;
+    }
+
+    long[][] toArray() {
+        long[][] result = new long[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            int base = offset + i * rowStride;
+            for (int j = 0; j < cols; j++) {
+                result[i][j] = data[base + j * colStride];
+            }
+        }
+        return result;
+    }
+
+    LongMatrix plus(LongMatrix other) {
+        checkSameShape(other);
+        long[] result = new long[rows * cols];
+        long overflow = 0;
+        int k = 0;
+        for (int i = 0; i < rows; i++) {
+            int a = offset + i * rowStride;
+            int b = other.offset + i * other.rowStride;
+            for (int j = 0; j < cols; j++) {
+                long x = data[a + j * colStride];
+                long y = other.data[b + j * other.colStride];
+                long s = x + y;
+                overflow |= (x ^ s) & (y ^ s);
+                result[k++] = s;
+            }
+        }
+        if (overflow < 0) throw new ArithmeticException(OVERFLOW_MESSAGE);
+        return wrap(result, rows, cols);
+    }
+
+    LongMatrix minus(LongMatrix other) {
+        checkSameShape(other);
+        long[] result = new long[rows * cols];
+        long overflow = 0;
+        int k = 0;
+        for (int i = 0; i < rows; i++) {
+            int a = offset + i * rowStride;
+            int b = other.offset + i * other.rowStride;
+            for (int j = 0; j < cols; j++) {
+                long x = data[a + j * colStride];
+                long y = other.data[b + j * other.colStride];
+                long s = x - y;
+                overflow |= (x ^ y) & (x ^ s);
+                result[k++] = s;
+            }
+        }
+        if (overflow < 0) throw new ArithmeticException(OVERFLOW_MESSAGE);
+        return wrap(result, rows, cols);
+    }
+
+    // Wrapping arithmetic is exact whenever the entry bound fits in a long; beyond that the
+    // overflow-checked kernel decides whether the actual product does.
+    LongMatrix times(LongMatrix other) {
+        checkMultipliable(other);
+        double bound = maxAbs() * other.maxAbs() * cols;
+        long[] a = rowMajorData();
+        long[] b = other.rowMajorData();
+        if (bound < 0x1p62) {
+            return wrap(MatrixMultiplier.multiply(a, b, rows, cols, other.cols), rows, other.cols);
+        }
+        try {
+            return wrap(MatrixMultiplier.multiplyExact(a, b, rows, cols, other.cols), rows, other.cols);
+        } catch (ArithmeticException overflow) {
+            throw new ArithmeticException(OVERFLOW_MESSAGE);
+        }
+    }
+
+    double maxAbs() {
+        double max = 0;
+        for (int i = 0; i < rows; i++) {
+            int base = offset + i * rowStride;
+            for (int j = 0; j < cols; j++) {
+                max = Math.max(max, Math.abs((double) data[base + j * colStride]));
+            }
+        }
+        return max;
+    }
+
+    BigInteger determinant() {
+        if (!isSquare()) throw new IllegalArgumentException("Matrix must be square to calculate determinant");
+        return DeterminantEngine.determinant(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LongMatrix)) return false;
+        LongMatrix other = (LongMatrix) o;
+        return rows == other.rows && cols == other.cols
+                && Arrays.equals(rowMajorData(), other.rowMajorData());
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * rows + cols) + Arrays.hashCode(rowMajorData());
+    }
+}
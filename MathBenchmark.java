@@ -0,0 +1,429 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntFunction;
+import java.util.regex.Pattern;
+
+// Throughput and allocation benchmarks for the engines behind every panel. Each case is set up
+// once per size, warmed up, then timed over several fixed-length iterations; the report gives
+// operations per second with their spread, the allocation rate and bytes allocated per
+// operation (summed over all threads, so parallel kernels are included), and collector
+// activity. Results can be saved as a baseline and later runs compared against it:
+//
+//   java MathBenchmark --save baseline.csv
+//   java MathBenchmark --baseline baseline.csv --tolerance 0.1
+//
+// A run that is slower or allocates more than the tolerance allows exits with status 1.
+public final class MathBenchmark {
+    private static final String USAGE = "Usage: java MathBenchmark [--filter REGEX] [--sizes N,N,...] "
+            + "[--warmup N] [--iterations N] [--time MS] [--save FILE] [--baseline FILE] [--tolerance F]";
+    private static final int[] DEFAULT_SIZES = {64, 256};
+    // Allocation differences below this are noise from the harness and the JIT.
+    private static final double ALLOCATION_SLACK = 64;
+
+    private static volatile double sink;
+
+    private interface Operation {
+        double run();
+    }
+
+    private static final class Case {
+        final String name;
+        final IntFunction<Operation> setup;
+
+        Case(String name, IntFunction<Operation> setup) {
+            this.name = name;
+            this.setup = setup;
+        }
+    }
+
+    private static final class Measurement {
+        final String name;
+        final int size;
+        final double opsPerSecond;
+        final double relativeError;
+        final double bytesPerOp;
+        final double allocationRate;
+        final long collections;
+        final long collectionMillis;
+
+        Measurement(String name, int size, double opsPerSecond, double relativeError, double bytesPerOp,
+                    double allocationRate, long collections, long collectionMillis) {
+            this.name = name;
+            this.size = size;
+            this.opsPerSecond = opsPerSecond;
+            this.relativeError = relativeError;
+            this.bytesPerOp = bytesPerOp;
+            this.allocationRate = allocationRate;
+            this.collections = collections;
+            this.collectionMillis = collectionMillis;
+        }
+
+        String id() {
+            return name + "/" + size;
+        }
+    }
+
+    private MathBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Pattern filter = Pattern.compile(".*");
+        int[] sizes = DEFAULT_SIZES;
+        int warmup = 3;
+        int iterations = 5;
+        long iterationMillis = 500;
+        Path save = null;
+        Path baseline = null;
+        double tolerance = 0.10;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--filter":
+                        filter = Pattern.compile(argument(args, ++i));
+                        break;
+                    case "--sizes": {
+                        String[] parts = argument(args, ++i).split(",");
+                        sizes = new int[parts.length];
+                        for (int k = 0; k < parts.length; k++) {
+                            sizes[k] = Integer.parseInt(parts[k].trim());
+                        }
+                        break;
+                    }
+                    case "--warmup":
+                        warmup = Integer.parseInt(argument(args, ++i));
+                        break;
+                    case "--iterations":
+                        iterations = Integer.parseInt(argument(args, ++i));
+                        break;
+                    case "--time":
+                        iterationMillis = Long.parseLong(argument(args, ++i));
+                        break;
+                    case "--save":
+                        save = Paths.get(argument(args, ++i));
+                        break;
+                    case "--baseline":
+                        baseline = Paths.get(argument(args, ++i));
+                        break;
+                    case "--tolerance":
+                        tolerance = Double.parseDouble(argument(args, ++i));
+                        break;
+                    case "--help":
+                        System.out.println(USAGE);
+                        return;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            if (iterations < 1 || warmup < 0 || iterationMillis < 1) {
+                throw new IllegalArgumentException("Iterations and time must be positive");
+            }
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage() + "\n" + USAGE);
+            System.exit(2);
+            return;
+        }
+
+        Map<String, Measurement> reference = baseline == null ? null : readBaseline(baseline);
+        List<Measurement> results = new ArrayList<>();
+        System.out.printf(Locale.ROOT, "%-28s %6s %14s %7s %12s %12s %6s %8s%n",
+                "Benchmark", "size", "ops/s", "error", "alloc MB/s", "B/op", "gc", "gc ms");
+        for (Case c : cases()) {
+            if (!filter.matcher(c.name).find()) continue;
+            for (int size : sizes) {
+                Measurement m = measure(c, size, warmup, iterations, iterationMillis);
+                results.add(m);
+                System.out.printf(Locale.ROOT, "%-28s %6d %14.2f %6.1f%% %12.1f %12.0f %6d %8d%n",
+                        m.name, m.size, m.opsPerSecond, 100 * m.relativeError, m.allocationRate, m.bytesPerOp,
+                        m.collections, m.collectionMillis);
+            }
+        }
+        if (save != null) writeBaseline(save, results);
+        if (reference != null && regressions(results, reference, tolerance) > 0) System.exit(1);
+    }
+
+    // ---- Cases ----
+
+    private static List<Case> cases() {
+        List<Case> cases = new ArrayList<>();
+        cases.add(new Case("determinant.int", n -> {
+            IntMatrix m = randomIntMatrix(n, n, 9, 1);
+            return () -> m.determinant().signum();
+        }));
+        cases.add(new Case("determinant.double", n -> {
+            DoubleMatrix m = randomDoubleMatrix(n, n, 2);
+            return m::determinant;
+        }));
+        cases.add(new Case("multiply.int", n -> {
+            IntMatrix a = randomIntMatrix(n, n, 100, 3);
+            IntMatrix b = randomIntMatrix(n, n, 100, 4);
+            return () -> a.times(b).getDouble(0, 0);
+        }));
+        cases.add(new Case("multiply.double", n -> {
+            DoubleMatrix a = randomDoubleMatrix(n, n, 5);
+            DoubleMatrix b = randomDoubleMatrix(n, n, 6);
+            return () -> a.times(b).getDouble(0, 0);
+        }));
+        cases.add(new Case("transpose.int", n -> {
+            IntMatrix m = randomIntMatrix(n, n, 100, 7);
+            return () -> m.transpose().copy().get(0, 0);
+        }));
+        cases.add(new Case("add.int", n -> {
+            IntMatrix a = randomIntMatrix(n, n, 100, 8);
+            IntMatrix b = randomIntMatrix(n, n, 100, 9);
+            return () -> a.plus(b).getDouble(0, 0);
+        }));
+        // Polynomial cases solve n equations per operation.
+        cases.add(new Case("roots.quadratic", n -> polynomialCase(n, 2, 10)));
+        cases.add(new Case("roots.cubic", n -> polynomialCase(n, 3, 11)));
+        cases.add(new Case("roots.quadratic.batch", n -> {
+            Random random = new Random(12);
+            double[] a = new double[n], b = new double[n], c = new double[n];
+            for (int i = 0; i < n; i++) {
+                a[i] = 1 + random.nextDouble();
+                b[i] = random.nextGaussian() * 10;
+                c[i] = random.nextGaussian() * 10;
+            }
+            double[] re = new double[2 * n], im = new double[2 * n];
+            return () -> {
+                PolynomialBatchSolver.solveQuadratics(a, b, c, re, im);
+                return re[0];
+            };
+        }));
+        cases.add(new Case("solve.lu", n -> {
+            LinearSystem system = diagonallyDominantSystem(n, 13);
+            return () -> MathCore.solveDirect(system)[0];
+        }));
+        cases.add(new Case("solve.cg", n -> {
+            LinearSystem system = tridiagonalSystem(n * 16);
+            return () -> MathCore.solveIterative(system, MathCore.LinearMethod.CONJUGATE_GRADIENT,
+                    MathCore.PreconditionerType.JACOBI).solution[0];
+        }));
+        // Expression cases evaluate 1000 n rows per operation.
+        cases.add(new Case("expression.evaluate", n -> {
+            Expression expression = Expression.compile("sin(x)^2 + log(y + 1) / 2 - x * y");
+            int rows = 1000 * n;
+            double[] bindings = new double[2];
+            return () -> {
+                double sum = 0;
+                for (int i = 0; i < rows; i++) {
+                    bindings[0] = i;
+                    bindings[1] = i * 0.5;
+                    sum += expression.evaluate(bindings);
+                }
+                return sum;
+            };
+        }));
+        cases.add(new Case("columns.divide", n -> {
+            Random random = new Random(14);
+            int rows = 1000 * n;
+            double[] a = new double[rows], b = new double[rows];
+            for (int i = 0; i < rows; i++) {
+                a[i] = random.nextGaussian();
+                b[i] = random.nextInt(10);
+            }
+            return () -> ColumnEvaluator.apply(ColumnEvaluator.Operation.DIVIDE, a, b).errorCount;
+        }));
+        return cases;
+    }
+
+    private static Operation polynomialCase(int count, int degree, long seed) {
+        Random random = new Random(seed);
+        double[][] coefficients = new double[count][degree + 1];
+        for (double[] c : coefficients) {
+            for (int k = 0; k < degree; k++) {
+                c[k] = random.nextGaussian() * 10;
+            }
+            c[degree] = 1 + random.nextDouble();
+        }
+        return () -> {
+            double sum = 0;
+            for (double[] c : coefficients) {
+                sum += MathCore.polynomialRoots(c).size();
+            }
+            return sum;
+        };
+    }
+
+    private static IntMatrix randomIntMatrix(int rows, int cols, int bound, long seed) {
+        Random random = new Random(seed);
+        int[] data = new int[rows * cols];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = random.nextInt(2 * bound + 1) - bound;
+        }
+        return IntMatrix.wrap(data, rows, cols);
+    }
+
+    private static DoubleMatrix randomDoubleMatrix(int rows, int cols, long seed) {
+        Random random = new Random(seed);
+        double[] data = new double[rows * cols];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = random.nextGaussian();
+        }
+        return DoubleMatrix.wrap(data, rows, cols);
+    }
+
+    private static LinearSystem diagonallyDominantSystem(int n, long seed) {
+        Random random = new Random(seed);
+        SparseMatrix.Builder a = new SparseMatrix.Builder(n, n, n * n);
+        double[] b = new double[n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                a.add(i, j, i == j ? n : random.nextDouble());
+            }
+            b[i] = random.nextGaussian();
+        }
+        return new LinearSystem(a.build(), b);
+    }
+
+    private static LinearSystem tridiagonalSystem(int n) {
+        SparseMatrix.Builder a = new SparseMatrix.Builder(n, n, 3 * n);
+        double[] b = new double[n];
+        for (int i = 0; i < n; i++) {
+            if (i > 0) a.add(i, i - 1, -1);
+            a.add(i, i, 4);
+            if (i < n - 1) a.add(i, i + 1, -1);
+            b[i] = 1;
+        }
+        return new LinearSystem(a.build(), b);
+    }
+
+    // ---- Measurement ----
+
+    private static Measurement measure(Case c, int size, int warmup, int iterations, long iterationMillis) {
+        Operation operation = c.setup.apply(size);
+        for (int i = 0; i < warmup; i++) {
+            runIteration(operation, iterationMillis);
+        }
+        double[] rates = new double[iterations];
+        long operations = 0;
+        long nanos = 0;
+        long allocatedBefore = allocatedBytes();
+        long[] gcBefore = collectorTotals();
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            long count = runIteration(operation, iterationMillis);
+            long elapsed = System.nanoTime() - start;
+            rates[i] = count * 1e9 / elapsed;
+            operations += count;
+            nanos += elapsed;
+        }
+        long allocated = allocatedBytes() - allocatedBefore;
+        long[] gcAfter = collectorTotals();
+
+        double mean = 0;
+        for (double rate : rates) mean += rate;
+        mean /= iterations;
+        double variance = 0;
+        for (double rate : rates) variance += (rate - mean) * (rate - mean);
+        double deviation = iterations > 1 ? Math.sqrt(variance / (iterations - 1)) : 0;
+        boolean tracked = allocated >= 0;
+        return new Measurement(c.name, size, mean, mean == 0 ? 0 : deviation / mean,
+                tracked ? (double) allocated / operations : Double.NaN,
+                tracked ? allocated / 1048576.0 / (nanos / 1e9) : Double.NaN,
+                gcAfter[0] - gcBefore[0], gcAfter[1] - gcBefore[1]);
+    }
+
+    private static long runIteration(Operation operation, long millis) {
+        long deadline = System.nanoTime() + millis * 1_000_000;
+        long count = 0;
+        double accumulator = 0;
+        do {
+            accumulator += operation.run();
+            count++;
+        } while (System.nanoTime() < deadline);
+        sink = accumulator;
+        return count;
+    }
+
+    // Bytes allocated so far by all live threads, or -1 if the JVM cannot report it. Threads
+    // that end mid-iteration drop out of the sum, so the pools' long-lived workers are what
+    // this sees from parallel kernels.
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) return -1;
+        com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+        if (!hotspot.isThreadAllocatedMemorySupported() || !hotspot.isThreadAllocatedMemoryEnabled()) return -1;
+        long total = 0;
+        for (long bytes : hotspot.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0) total += bytes;
+        }
+        return total;
+    }
+
+    private static long[] collectorTotals() {
+        long count = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return new long[] {count, millis};
+    }
+
+    // ---- Baselines: one "name,size,ops/s,B/op" line per measurement ----
+
+    private static void writeBaseline(Path file, List<Measurement> results) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("# benchmark,size,ops_per_second,bytes_per_op\n");
+            for (Measurement m : results) {
+                out.write(String.format(Locale.ROOT, "%s,%d,%.4f,%.1f%n", m.name, m.size, m.opsPerSecond, m.bytesPerOp));
+            }
+        }
+        System.out.println("Saved " + results.size() + " results to " + file);
+    }
+
+    private static Map<String, Measurement> readBaseline(Path file) throws IOException {
+        Map<String, Measurement> baseline = new HashMap<>();
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#")) continue;
+            String[] fields = line.split(",");
+            try {
+                Measurement m = new Measurement(fields[0], Integer.parseInt(fields[1]), Double.parseDouble(fields[2]),
+                        0, Double.parseDouble(fields[3]), 0, 0, 0);
+                baseline.put(m.id(), m);
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException ex) {
+                throw new IOException(file + ":" + lineNumber + ": expected benchmark,size,ops_per_second,bytes_per_op");
+            }
+        }
+        return baseline;
+    }
+
+    private static int regressions(List<Measurement> results, Map<String, Measurement> baseline, double tolerance) {
+        int regressions = 0;
+        System.out.println();
+        for (Measurement m : results) {
+            Measurement before = baseline.get(m.id());
+            if (before == null) continue;
+            double speed = m.opsPerSecond / before.opsPerSecond - 1;
+            boolean slower = speed < -tolerance;
+            boolean heavier = m.bytesPerOp > before.bytesPerOp * (1 + tolerance) + ALLOCATION_SLACK;
+            if (slower || heavier) regressions++;
+            System.out.printf(Locale.ROOT, "%-28s %6d %+7.1f%% ops/s  %12.0f -> %-12.0f B/op %s%n",
+                    m.name, m.size, 100 * speed, before.bytesPerOp, m.bytesPerOp,
+                    slower || heavier ? "REGRESSION" : "ok");
+        }
+        System.out.println(regressions == 0 ? "No regressions against the baseline."
+                : regressions + " regression(s) against the baseline.");
+        return regressions;
+    }
+
+    private static String argument(String[] args, int i) {
+        if (i >= args.length) throw new IllegalArgumentException(args[i - 1] + " needs a value");
+        return args[i];
+    }
+}
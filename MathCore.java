@@ -0,0 +1,365 @@
+import java.util.Arrays;
+
+// The solver operations behind the GUI panels and the batch CLI. Nothing here touches AWT or
+// Swing, so headless callers can use it without loading a toolkit.
+final class MathCore {
+    private MathCore() {
+    }
+
+    enum LinearMethod {
+        LU("LU (dense)", "lu"),
+        EXACT("Exact (rational)", "exact"),
+        MIXED("Mixed precision", "mixed"),
+        CONJUGATE_GRADIENT("Conjugate Gradient", "cg"),
+        BICGSTAB("BiCGSTAB", "bicgstab"),
+        GMRES("GMRES", "gmres");
+
+        private final String label;
+        final String shortName;
+
+        LinearMethod(String label, String shortName) {
+            this.label = label;
+            this.shortName = shortName;
+        }
+
+        static LinearMethod parse(String name) {
+            for (LinearMethod method : values()) {
+                if (method.shortName.equalsIgnoreCase(name) || method.name().equalsIgnoreCase(name)) return method;
+            }
+            throw new IllegalArgumentException("Unknown method " + name + "; expected lu, exact, mixed, cg, bicgstab or gmres");
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    enum PreconditionerType {
+        NONE("None", "none"),
+        JACOBI("Jacobi", "jacobi"),
+        ILU0("ILU(0)", "ilu0");
+
+        private final String label;
+        final String shortName;
+
+        PreconditionerType(String label, String shortName) {
+            this.label = label;
+            this.shortName = shortName;
+        }
+
+        static PreconditionerType parse(String name) {
+            for (PreconditionerType type : values()) {
+                if (type.shortName.equalsIgnoreCase(name) || type.name().equalsIgnoreCase(name)) return type;
+            }
+            throw new IllegalArgumentException("Unknown preconditioner " + name + "; expected none, jacobi or ilu0");
+        }
+
+        Preconditioner create(SparseMatrix a) {
+            switch (this) {
+                case JACOBI:
+                    return Preconditioner.jacobi(a);
+                case ILU0:
+                    return Preconditioner.ilu0(a);
+                default:
+                    return Preconditioner.identity();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    // Operations on two polynomials P and Q, both given highest degree first as typed; for
+    // EVALUATE, Q is the list of points instead.
+    enum PolynomialOperation {
+        MULTIPLY("P × Q", "multiply", "Product"),
+        DIVIDE("P ÷ Q", "divide", "Quotient", "Remainder"),
+        GCD("gcd(P, Q)", "gcd", "GCD"),
+        COMPOSE("P(Q(x))", "compose", "Composition"),
+        DERIVATIVE("P'", "derivative", "Derivative"),
+        EVALUATE("P at the points Q", "evaluate", "Values");
+
+        private final String label;
+        final String shortName;
+        final String[] outputs;
+
+        PolynomialOperation(String label, String shortName, String... outputs) {
+            this.label = label;
+            this.shortName = shortName;
+            this.outputs = outputs;
+        }
+
+        static PolynomialOperation parse(String name) {
+            for (PolynomialOperation operation : values()) {
+                if (operation.shortName.equalsIgnoreCase(name) || operation.name().equalsIgnoreCase(name)) return operation;
+            }
+            throw new IllegalArgumentException("Unknown operation " + name
+                    + "; expected multiply, divide, gcd, compose, derivative or evaluate");
+        }
+
+        boolean usesQ() {
+            return this != DERIVATIVE;
+        }
+
+        // One array per entry of outputs: coefficients highest degree first, or for EVALUATE
+        // the values at the points in order.
+        double[][] apply(double[] p, double[] q) {
+            double[] a = reverse(p);
+            double[] b = reverse(q);
+            switch (this) {
+                case MULTIPLY:
+                    return new double[][]{reverse(PolynomialArithmetic.multiply(a, b))};
+                case DIVIDE: {
+                    PolynomialArithmetic.Division division = PolynomialArithmetic.divide(a, b);
+                    return new double[][]{reverse(division.quotient), reverse(division.remainder)};
+                }
+                case GCD:
+                    return new double[][]{reverse(PolynomialArithmetic.gcd(a, b))};
+                case COMPOSE:
+                    return new double[][]{reverse(PolynomialArithmetic.compose(a, b))};
+                case DERIVATIVE:
+                    return new double[][]{reverse(PolynomialArithmetic.derivative(a))};
+                default:
+                    return new double[][]{PolynomialArithmetic.evaluate(a, q)};
+            }
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    // ---- Polynomials; coefficients are ascending, coefficients[i] multiplies x^i ----
+
+    // Leading zero coefficients are dropped, as PolynomialRootFinder does for higher degrees.
+    static RootSet polynomialRoots(double[] coefficients) {
+        int degree = coefficients.length - 1;
+        while (degree >= 0 && coefficients[degree] == 0) degree--;
+        if (degree < 0) throw new IllegalArgumentException("The zero polynomial has no isolated roots");
+        coefficients = Arrays.copyOf(coefficients, degree + 1);
+        if (degree == 2 || degree == 3) {
+            // The batch kernels, so the service's batched answers and these agree.
+            double[] re = new double[degree];
+            double[] im = new double[degree];
+            if (degree == 2) {
+                PolynomialBatchSolver.solveQuadratic(coefficients[2], coefficients[1], coefficients[0], re, im);
+            } else {
+                PolynomialBatchSolver.solveCubic(coefficients[3], coefficients[2], coefficients[1], coefficients[0], re, im);
+            }
+            return RootSet.clustered(coefficients, re, im, degree, 1e-9);
+        } else {
+            double[] re = new double[Math.max(degree, 0)];
+            double[] im = new double[Math.max(degree, 0)];
+            int count = PolynomialRootFinder.findRoots(coefficients, re, im);
+            return RootSet.clustered(coefficients, re, im, count, 1e-9);
+        }
+    }
+
+    private static final RootFormatter COEFFICIENT_FORMAT = new RootFormatter(2);
+
+    // Numbers separated by spaces or commas, e.g. "1, -3, 2".
+    static double[] parseNumbers(String text) {
+        String trimmed = text.trim();
+        if (trimmed.isEmpty()) throw new IllegalArgumentException("Expected at least one number");
+        String[] words = trimmed.split("[\\s,]+");
+        double[] values = new double[words.length];
+        for (int i = 0; i < words.length; i++) {
+            try {
+                values[i] = Double.parseDouble(words[i]);
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Not a number: " + words[i]);
+            }
+        }
+        return values;
+    }
+
+    // Space separated, whole numbers without a fraction, so the text parses back exactly.
+    static String formatNumbers(double[] values) {
+        StringBuilder sb = new StringBuilder();
+        for (double v : values) {
+            if (sb.length() > 0) sb.append(' ');
+            if (v == Math.rint(v) && Math.abs(v) < 1e15) {
+                sb.append((long) v);
+            } else {
+                sb.append(v);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static double[] reverse(double[] values) {
+        double[] reversed = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            reversed[i] = values[values.length - 1 - i];
+        }
+        return reversed;
+    }
+
+    static String formatPolynomial(double[] coefficients) {
+        StringBuilder equation = new StringBuilder();
+        for (int i = coefficients.length - 1; i >= 0; i--) {
+            if (coefficients[i] != 0) {
+                if (equation.length() > 0) {
+                    equation.append(" + ");
+                }
+                COEFFICIENT_FORMAT.appendFixed(equation, coefficients[i]);
+                if (i > 0) {
+                    equation.append("x^").append(i);
+                }
+            }
+        }
+        return equation.length() == 0 ? "0" : equation.toString();
+    }
+
+    // ---- Linear systems ----
+
+    static double[] solveDirect(LinearSystem system) {
+        return LUDecomposition.of(system.coefficients.toDense()).solve(system.constants);
+    }
+
+    static ModularSolver.Solution solveExact(LinearSystem system) {
+        return ModularSolver.solve(system);
+    }
+
+    static MixedPrecisionSolver.Result solveMixed(LinearSystem system) {
+        return MixedPrecisionSolver.solve(system);
+    }
+
+    static IterativeSolver.Result solveIterative(LinearSystem system, LinearMethod method,
+                                                 PreconditionerType preconditionerType) {
+        SparseMatrix a = system.coefficients;
+        double[] b = system.constants;
+        Preconditioner preconditioner = preconditionerType.create(a);
+        int maxIterations = Math.max(1000, 10 * b.length);
+        switch (method) {
+            case CONJUGATE_GRADIENT:
+                return IterativeSolver.conjugateGradient(a, b, preconditioner,
+                        IterativeSolver.DEFAULT_TOLERANCE, maxIterations);
+            case BICGSTAB:
+                return IterativeSolver.biCgStab(a, b, preconditioner,
+                        IterativeSolver.DEFAULT_TOLERANCE, maxIterations);
+            case GMRES:
+                return IterativeSolver.gmres(a, b, preconditioner,
+                        IterativeSolver.DEFAULT_RESTART, IterativeSolver.DEFAULT_TOLERANCE, maxIterations);
+            default:
+                throw new IllegalArgumentException(method + " is not an iterative method");
+        }
+    }
+
+    // ---- Cached variants. Results are keyed by operand contents; LU factorizations are keyed
+    // by the coefficient matrix alone, so a new right-hand side for a known A costs only the
+    // two triangular solves. Addition and subtraction are not cached: fingerprinting the
+    // operands costs as much as the operation. ----
+
+    static double[] solveDirect(LinearSystem system, ResultCache cache) {
+        SparseMatrix a = system.coefficients;
+        LUDecomposition lu = cache.get(ResultCache.key("lu", a), () -> LUDecomposition.of(a.toDense()));
+        return lu.solve(system.constants);
+    }
+
+    static ModularSolver.Solution solveExact(LinearSystem system, ResultCache cache) {
+        return cache.get(ResultCache.key("exact", system.coefficients, system.constants), () -> solveExact(system));
+    }
+
+    static MixedPrecisionSolver.Result solveMixed(LinearSystem system, ResultCache cache) {
+        return cache.get(ResultCache.key("mixed", system.coefficients, system.constants), () -> solveMixed(system));
+    }
+
+    static IterativeSolver.Result solveIterative(LinearSystem system, LinearMethod method,
+                                                 PreconditionerType preconditionerType, ResultCache cache) {
+        ResultCache.Key key = ResultCache.key("solve", method, preconditionerType, system.coefficients, system.constants);
+        return cache.get(key, () -> solveIterative(system, method, preconditionerType));
+    }
+
+    static Matrix multiply(Matrix a, Matrix b, ResultCache cache) {
+        return cache.get(ResultCache.key("multiply", a, b), () -> multiply(a, b));
+    }
+
+    static Number determinant(Matrix m, ResultCache cache) {
+        return cache.get(ResultCache.key("determinant", m), () -> determinant(m));
+    }
+
+    static RootSet eigenvalues(Matrix m, ResultCache cache) {
+        return cache.get(ResultCache.key("eigenvalues", m), () -> eigenvalues(m));
+    }
+
+    static double[] singularValues(Matrix m, ResultCache cache) {
+        return cache.get(ResultCache.key("singular values", m), () -> singularValues(m));
+    }
+
+    // ---- Matrices of mixed element types: int with int stays exact, int with long widens
+    // to long, anything with double works in double ----
+
+    static Matrix add(Matrix a, Matrix b) {
+        if (a instanceof IntMatrix && b instanceof IntMatrix) return ((IntMatrix) a).plus((IntMatrix) b);
+        if (isInteger(a) && isInteger(b)) return toLong(a).plus(toLong(b));
+        return a.toDoubleMatrix().plus(b.toDoubleMatrix());
+    }
+
+    static Matrix subtract(Matrix a, Matrix b) {
+        if (a instanceof IntMatrix && b instanceof IntMatrix) return ((IntMatrix) a).minus((IntMatrix) b);
+        if (isInteger(a) && isInteger(b)) return toLong(a).minus(toLong(b));
+        return a.toDoubleMatrix().minus(b.toDoubleMatrix());
+    }
+
+    static Matrix multiply(Matrix a, Matrix b) {
+        if (a instanceof IntMatrix && b instanceof IntMatrix) return ((IntMatrix) a).times((IntMatrix) b);
+        if (isInteger(a) && isInteger(b)) return toLong(a).times(toLong(b));
+        return a.toDoubleMatrix().times(b.toDoubleMatrix());
+    }
+
+    // Exact (BigInteger) for integer matrices, otherwise a Double from LU.
+    static Number determinant(Matrix m) {
+        if (!m.isSquare()) throw new IllegalArgumentException("Matrix must be square to calculate determinant");
+        if (m instanceof IntMatrix) return ((IntMatrix) m).determinant();
+        if (m instanceof LongMatrix) return ((LongMatrix) m).determinant();
+        return m.toDoubleMatrix().determinant();
+    }
+
+    // A determinant given as its sign and natural log, in scientific notation when the value
+    // itself would overflow or underflow a double.
+    static String formatDeterminant(int sign, double logAbsDeterminant) {
+        if (sign == 0) return "0";
+        double value = sign * Math.exp(logAbsDeterminant);
+        if (Double.isFinite(value) && value != 0) return String.valueOf(value);
+        double log10 = logAbsDeterminant / Math.log(10);
+        double exponent = Math.floor(log10);
+        return String.format("%.6fE%d", sign * Math.pow(10, log10 - exponent), (long) exponent);
+    }
+
+    // ---- Spectra ----
+
+    // Eigenvalues with their multiplicities, ascending by real part. Symmetric matrices take
+    // the tridiagonal path, which is several times faster and yields only real values.
+    static RootSet eigenvalues(Matrix m) {
+        if (!m.isSquare()) throw new IllegalArgumentException("Matrix must be square to calculate eigenvalues");
+        DoubleMatrix a = m.toDoubleMatrix();
+        int n = a.rows();
+        double[] im = new double[n];
+        if (EigenSolver.isSymmetric(a)) {
+            // Accurate to working precision even when repeated.
+            return RootSet.clustered(EigenSolver.symmetric(a, false).values, im, n, 1e-9);
+        }
+        // A defective eigenvalue scatters like a multiple root of the characteristic polynomial.
+        double[] re = new double[n];
+        EigenSolver.eigenvalues(a, re, im);
+        return RootSet.clustered(re, im, n, 1e-9, RootSet.ITERATIVE_BACKWARD_ERROR);
+    }
+
+    // Descending.
+    static double[] singularValues(Matrix m) {
+        return EigenSolver.singularValues(m.toDoubleMatrix());
+    }
+
+    private static boolean isInteger(Matrix m) {
+        return m instanceof IntMatrix || m instanceof LongMatrix;
+    }
+
+    private static LongMatrix toLong(Matrix m) {
+        return m instanceof LongMatrix ? (LongMatrix) m : ((IntMatrix) m).toLongMatrix();
+    }
+}
@@ -0,0 +1,415 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Headless batch mode. Reads one task per line from a job file (or stdin) and writes each
+// result to stdout (or --output FILE):
+//
+//   roots c_n ... c_1 c_0                  polynomial roots, highest degree first
+//   add | subtract | multiply A B [OUT]    matrix files: .csv, .mtx or .mxb
+//   transpose A [OUT]
+//   determinant A
+//   eigenvalues A [VECTORS]                eigenvectors of a symmetric A go to VECTORS, one per column
+//   svd A                                  singular values, largest first
+//   solve SYSTEM [lu|exact|mixed|cg|bicgstab|gmres] [none|jacobi|ilu0]   augmented [A | b] file
+//   evaluate DATA OUT EXPRESSION           per-row expression over columns c1, c2, ... of DATA
+//   poly multiply|divide|gcd|compose|derivative|evaluate P [Q]
+//                                          P and Q are comma separated coefficients, highest
+//                                          degree first, or files of them; for evaluate Q holds the points
+//
+// Blank lines and lines starting with # are skipped. Tasks run on a fixed pool with a bounded
+// window in flight, and results stream out in input order as soon as the head is ready.
+// Repeated multiplies, determinants, spectra and solves are served from a ResultCache of
+// --cache-mb megabytes. --metrics records every task with OperationMetrics and prints the
+// snapshot to stderr at the end. Only the GUI-free core is used, so AWT is never loaded.
+//
+// .mxb operands too large to load (over a quarter of the heap) are multiplied, transposed
+// and factored for their determinant tile by tile with OutOfCoreMatrix; multiply and transpose
+// then need an .mxb output file.
+public final class MathSolverCli {
+    private static final String USAGE =
+            "Usage: java MathSolverCli [--threads N] [--cache-mb N] [--metrics] [--output FILE] [JOBFILE | -]";
+
+    private MathSolverCli() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        try {
+            System.exit(launch(args));
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.exit(2);
+        }
+    }
+
+    private static int launch(String[] args) throws IOException, InterruptedException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        long cacheMegabytes = Long.getLong("mathsolver.cache.mb", ResultCache.DEFAULT_BUDGET_MB);
+        Path input = null;
+        Path output = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads":
+                    threads = Integer.parseInt(argument(args, ++i));
+                    if (threads < 1) throw usage("--threads must be positive");
+                    break;
+                case "--cache-mb":
+                    cacheMegabytes = Long.parseLong(argument(args, ++i));
+                    if (cacheMegabytes < 0) throw usage("--cache-mb must not be negative");
+                    break;
+                case "--metrics":
+                    OperationMetrics.setEnabled(true);
+                    break;
+                case "--output":
+                    output = Paths.get(argument(args, ++i));
+                    break;
+                case "-":
+                    input = null;
+                    break;
+                case "--help":
+                    System.out.println(USAGE);
+                    return 0;
+                default:
+                    if (args[i].startsWith("--")) throw usage("Unknown option " + args[i]);
+                    input = Paths.get(args[i]);
+            }
+        }
+
+        BufferedReader in = input == null
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(input, StandardCharsets.UTF_8);
+        Writer out = output == null
+                ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                : Files.newBufferedWriter(output, StandardCharsets.UTF_8);
+        try (in; out) {
+            return run(in, out, threads, new ResultCache(cacheMegabytes << 20)) > 0 ? 1 : 0;
+        } finally {
+            if (OperationMetrics.isEnabled()) System.err.print(OperationMetrics.snapshot());
+        }
+    }
+
+    // Returns the number of tasks that failed.
+    static int run(BufferedReader in, Writer out, int threads, ResultCache cache) throws IOException, InterruptedException {
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "math-solver-batch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        BlockingQueue<Future<Outcome>> pending = new ArrayBlockingQueue<>(4 * threads);
+        Future<Outcome> endOfInput = CompletableFuture.completedFuture(null);
+        ResultWriter writer = new ResultWriter(pending, out);
+        Thread writerThread = new Thread(writer, "math-solver-output");
+        writerThread.start();
+        try {
+            int lineNumber = 0;
+            for (String line; (line = in.readLine()) != null; ) {
+                lineNumber++;
+                String task = line.trim();
+                if (task.isEmpty() || task.startsWith("#")) continue;
+                int number = lineNumber;
+                pending.put(pool.submit(() -> execute(number, task, cache)));
+                if (writer.failure != null) break;
+            }
+        } finally {
+            pending.put(endOfInput);
+            writerThread.join();
+            pool.shutdownNow();
+        }
+        if (writer.failure != null) throw writer.failure;
+        return writer.failedTasks;
+    }
+
+    private static final class Outcome {
+        final String text;
+        final boolean failed;
+
+        Outcome(String text, boolean failed) {
+            this.text = text;
+            this.failed = failed;
+        }
+    }
+
+    // Drains results in submission order, flushing whenever it has caught up with the workers.
+    private static final class ResultWriter implements Runnable {
+        private final BlockingQueue<Future<Outcome>> pending;
+        private final Writer out;
+        volatile IOException failure;
+        int failedTasks;
+
+        ResultWriter(BlockingQueue<Future<Outcome>> pending, Writer out) {
+            this.pending = pending;
+            this.out = out;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Outcome outcome;
+                try {
+                    outcome = pending.take().get();
+                } catch (ExecutionException ex) {
+                    outcome = new Outcome("error: " + ex.getCause() + "\n\n", true);
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                if (outcome == null) break;
+                if (outcome.failed) failedTasks++;
+                write(outcome.text, pending.isEmpty());
+            }
+            write("", true);
+        }
+
+        // After a write failure the remaining results are still consumed, so the reader
+        // never blocks on a full queue, but nothing more is written.
+        private void write(String text, boolean flush) {
+            if (failure != null) return;
+            try {
+                out.write(text);
+                if (flush) out.flush();
+            } catch (IOException ex) {
+                failure = ex;
+            }
+        }
+    }
+
+    private static Outcome execute(int lineNumber, String task, ResultCache cache) {
+        StringBuilder sb = new StringBuilder();
+        sb.append('[').append(lineNumber).append("] ").append(task).append('\n');
+        try {
+            String[] words = task.split("\\s+");
+            OperationMetrics.record(words[0].toLowerCase(Locale.ROOT), () -> {
+                perform(words, sb, cache);
+                return null;
+            }, (Object[]) Arrays.copyOfRange(words, 1, words.length));
+            return new Outcome(sb.append('\n').toString(), false);
+        } catch (NoSuchFileException ex) {
+            sb.append("error: no such file ").append(ex.getFile()).append("\n\n");
+            return new Outcome(sb.toString(), true);
+        } catch (Exception | OutOfMemoryError ex) {
+            sb.append("error: ").append(ex.getMessage() == null ? ex.toString() : ex.getMessage()).append("\n\n");
+            return new Outcome(sb.toString(), true);
+        }
+    }
+
+    private static void perform(String[] words, StringBuilder sb, ResultCache cache) throws IOException {
+        switch (words[0].toLowerCase(Locale.ROOT)) {
+            case "roots": {
+                if (words.length < 2) throw new IllegalArgumentException("roots needs at least one coefficient");
+                double[] coefficients = new double[words.length - 1];
+                for (int i = 1; i < words.length; i++) {
+                    coefficients[words.length - 1 - i] = Double.parseDouble(words[i]);
+                }
+                sb.append("Equation: ").append(MathCore.formatPolynomial(coefficients)).append('\n');
+                RootSet roots = MathCore.polynomialRoots(coefficients);
+                if (roots.isEmpty()) {
+                    sb.append("A constant polynomial has no roots to find.\n");
+                } else {
+                    RootFormatter.DEFAULT.appendRoots(sb.append("Roots:\n"), roots);
+                }
+                break;
+            }
+            case "add":
+            case "subtract":
+            case "multiply": {
+                expectArguments(words, 3, 4);
+                if (words[0].equalsIgnoreCase("multiply")
+                        && OutOfCoreMatrix.isTooLargeToLoad(Paths.get(words[1]), Paths.get(words[2]))) {
+                    Path out = outOfCoreTarget(words, 4);
+                    try (OutOfCoreMatrix a = OutOfCoreMatrix.open(Paths.get(words[1]));
+                         OutOfCoreMatrix b = OutOfCoreMatrix.open(Paths.get(words[2]));
+                         OutOfCoreMatrix c = OutOfCoreMatrix.multiply(a, b, out)) {
+                        appendWritten(c, out, sb);
+                    }
+                    break;
+                }
+                Matrix a = MatrixIO.readMatrix(Paths.get(words[1]));
+                Matrix b = MatrixIO.readMatrix(Paths.get(words[2]));
+                Matrix result = words[0].equalsIgnoreCase("add") ? MathCore.add(a, b)
+                        : words[0].equalsIgnoreCase("subtract") ? MathCore.subtract(a, b)
+                        : MathCore.multiply(a, b, cache);
+                emitMatrix(result, words.length == 4 ? words[3] : null, sb);
+                break;
+            }
+            case "transpose": {
+                expectArguments(words, 2, 3);
+                if (OutOfCoreMatrix.isTooLargeToLoad(Paths.get(words[1]))) {
+                    Path out = outOfCoreTarget(words, 3);
+                    try (OutOfCoreMatrix a = OutOfCoreMatrix.open(Paths.get(words[1]));
+                         OutOfCoreMatrix t = OutOfCoreMatrix.transpose(a, out)) {
+                        appendWritten(t, out, sb);
+                    }
+                    break;
+                }
+                Matrix a = MatrixIO.readMatrix(Paths.get(words[1]));
+                emitMatrix(a.transpose(), words.length == 3 ? words[2] : null, sb);
+                break;
+            }
+            case "determinant": {
+                expectArguments(words, 2, 2);
+                if (OutOfCoreMatrix.isTooLargeToLoad(Paths.get(words[1]))) {
+                    double[] log = OutOfCoreMatrix.logDeterminant(Paths.get(words[1]));
+                    sb.append("Determinant: ").append(MathCore.formatDeterminant((int) log[0], log[1])).append('\n');
+                    break;
+                }
+                Number determinant = MathCore.determinant(MatrixIO.readMatrix(Paths.get(words[1])), cache);
+                sb.append("Determinant: ").append(determinant).append('\n');
+                break;
+            }
+            case "eigenvalues": {
+                expectArguments(words, 2, 3);
+                Matrix a = MatrixIO.readMatrix(Paths.get(words[1]));
+                if (words.length == 2) {
+                    RootFormatter.DEFAULT.appendRoots(sb.append("Eigenvalues:\n"), MathCore.eigenvalues(a, cache));
+                    break;
+                }
+                if (!EigenSolver.isSymmetric(a)) {
+                    throw new IllegalArgumentException("Eigenvectors are only computed for symmetric matrices");
+                }
+                EigenSolver.Symmetric eigen = EigenSolver.symmetric(a.toDoubleMatrix(), true);
+                RootFormatter.DEFAULT.appendRoots(sb.append("Eigenvalues:\n"), RootSet.of(eigen.values));
+                emitMatrix(eigen.vectors, words[2], sb);
+                break;
+            }
+            case "svd": {
+                expectArguments(words, 2, 2);
+                double[] sigma = MathCore.singularValues(MatrixIO.readMatrix(Paths.get(words[1])), cache);
+                for (int i = 0; i < sigma.length; i++) {
+                    sb.append('s').append(i + 1).append(" = ").append(sigma[i]).append('\n');
+                }
+                break;
+            }
+            case "solve": {
+                expectArguments(words, 2, 4);
+                MathCore.LinearMethod method = words.length > 2
+                        ? MathCore.LinearMethod.parse(words[2]) : MathCore.LinearMethod.LU;
+                MathCore.PreconditionerType preconditioner = words.length > 3
+                        ? MathCore.PreconditionerType.parse(words[3]) : MathCore.PreconditionerType.NONE;
+                LinearSystem system = LinearSystem.fromAugmented(MatrixIO.readSparse(Paths.get(words[1])));
+                if (method == MathCore.LinearMethod.LU) {
+                    appendSolution(MathCore.solveDirect(system, cache), sb);
+                } else if (method == MathCore.LinearMethod.EXACT) {
+                    ModularSolver.Solution solution = MathCore.solveExact(system, cache);
+                    for (int i = 0; i < solution.size(); i++) {
+                        sb.append('x').append(i + 1).append(" = ").append(solution.format(i)).append('\n');
+                    }
+                } else if (method == MathCore.LinearMethod.MIXED) {
+                    MixedPrecisionSolver.Result result = MathCore.solveMixed(system, cache);
+                    appendSolution(result.solution, sb);
+                    sb.append("Condition estimate ").append((float) result.conditionEstimate)
+                            .append(", backward error ").append((float) result.backwardError).append(", ")
+                            .append(result.refinements).append(" refinement steps in ")
+                            .append(result.fellBack ? "double" : "single").append(" precision\n");
+                } else {
+                    IterativeSolver.Result result = MathCore.solveIterative(system, method, preconditioner, cache);
+                    appendSolution(result.solution, sb);
+                    sb.append(result.converged ? "Converged" : "Did not converge").append(" after ")
+                            .append(result.iterations).append(" iterations (relative residual ")
+                            .append(result.relativeResidual).append(")\n");
+                }
+                break;
+            }
+            case "evaluate": {
+                if (words.length < 4) throw new IllegalArgumentException("evaluate takes a data file, an output file and an expression");
+                Expression expression = Expression.compile(String.join(" ", Arrays.asList(words).subList(3, words.length)));
+                for (String name : expression.variables()) {
+                    if (ColumnEvaluator.columnIndex(name) < 0) {
+                        throw new IllegalArgumentException("Unknown variable " + name + "; columns are c1, c2, ...");
+                    }
+                }
+                double[][] data = MatrixIO.readColumns(Paths.get(words[1]));
+                ColumnEvaluator.Result result = ColumnEvaluator.evaluate(expression,
+                        ColumnEvaluator.bindColumns(expression, data), new double[expression.variableCount()]);
+                MatrixIO.write(Paths.get(words[2]), DoubleMatrix.wrap(result.values, result.rows(), 1));
+                sb.append("Wrote ").append(result.rows()).append(" rows to ").append(words[2]).append('\n');
+                if (result.errorCount > 0) {
+                    sb.append(result.errorCount).append(" rows are undefined (written as NaN), the first on row ")
+                            .append(result.firstError() + 1).append('\n');
+                }
+                break;
+            }
+            case "poly": {
+                if (words.length < 3) throw new IllegalArgumentException("poly takes an operation and one or two polynomials");
+                MathCore.PolynomialOperation operation = MathCore.PolynomialOperation.parse(words[1]);
+                expectArguments(words, operation.usesQ() ? 4 : 3, operation.usesQ() ? 4 : 3);
+                double[] p = numbers(words[2]);
+                double[] q = operation.usesQ() ? numbers(words[3]) : new double[]{0};
+                double[][] outputs = operation.apply(p, q);
+                for (int i = 0; i < outputs.length; i++) {
+                    sb.append(operation.outputs[i]).append(": ").append(MathCore.formatNumbers(outputs[i])).append('\n');
+                }
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown task " + words[0]);
+        }
+    }
+
+    private static void emitMatrix(Matrix result, String target, StringBuilder sb) throws IOException {
+        if (target == null) {
+            sb.append(result.toText());
+        } else {
+            MatrixIO.write(Paths.get(target), result);
+            sb.append("Wrote ").append(result.rows()).append('x').append(result.cols())
+                    .append(" matrix to ").append(target).append('\n');
+        }
+    }
+
+    private static Path outOfCoreTarget(String[] words, int length) {
+        if (words.length < length || !MatrixIO.fileName(Paths.get(words[length - 1])).endsWith(MatrixIO.BINARY_EXTENSION)) {
+            throw new IllegalArgumentException(words[0] + " of matrices this large needs an .mxb output file");
+        }
+        return Paths.get(words[length - 1]);
+    }
+
+    private static void appendWritten(OutOfCoreMatrix result, Path target, StringBuilder sb) {
+        sb.append("Wrote ").append(result.rows()).append('x').append(result.cols())
+                .append(" matrix to ").append(target).append('\n');
+    }
+
+    // A comma separated list inline, or the name of a file of numbers.
+    private static double[] numbers(String word) throws IOException {
+        Path path = Paths.get(word);
+        return MathCore.parseNumbers(Files.isRegularFile(path) ? Files.readString(path) : word);
+    }
+
+    private static void appendSolution(double[] solution, StringBuilder sb) {
+        for (int i = 0; i < solution.length; i++) {
+            sb.append('x').append(i + 1).append(" = ").append(solution[i]).append('\n');
+        }
+    }
+
+    private static void expectArguments(String[] words, int min, int max) {
+        if (words.length < min || words.length > max) {
+            throw new IllegalArgumentException(words[0] + " takes " + (min == max ? min - 1 : (min - 1) + " to " + (max - 1))
+                    + " arguments");
+        }
+    }
+
+    private static String argument(String[] args, int i) {
+        if (i >= args.length) throw usage(args[i - 1] + " needs a value");
+        return args[i];
+    }
+
+    private static IllegalArgumentException usage(String message) {
+        return new IllegalArgumentException(message + "\n" + USAGE);
+    }
+}
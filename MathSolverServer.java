@@ -0,0 +1,493 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// The solvers as a local HTTP/JSON service on the JDK's built-in server, for tools that want
+// them without the GUI:
+//
+//   POST /determinant  {"matrix": [[1, 2], [3, 4]]}                  -> {"determinant": -2}
+//   POST /multiply     {"a": [[...]], "b": [[...]]}                   -> {"result": [[...]]}
+//   POST /roots        {"coefficients": [1, -3, 2]}                   -> {"roots": [{"re", "im", "multiplicity"}]}
+//   POST /solve        {"a": [[...]], "b": [...], "method": "lu"}     -> {"solution": [...]}
+//   POST /eigenvalues  {"matrix": [[...]]}                            -> {"eigenvalues": [{"re", "im", "multiplicity"}]}
+//   POST /svd          {"matrix": [[...]]}                            -> {"singularValues": [...]}
+//   POST /polynomial   {"operation": "divide", "p": [...], "q": [...]} -> {"quotient": [...], "remainder": [...]}
+//   GET  /health, GET /metrics
+//
+// Coefficients are listed highest degree first, as in batch mode; integer matrices keep exact
+// determinants, and method "exact" returns fractions as strings. Each request runs on its own
+// virtual thread where the JDK has them (21 and later), otherwise on a cached pool. Admission
+// is a semaphore: a request waits at most --queue-ms for one of --max-concurrent permits and
+// is refused with 503 and Retry-After beyond that, so a burst queues briefly instead of
+// exhausting memory. Bodies over --max-body-kb are refused with 413.
+//
+// Quadratics and cubics arriving within --batch-us of each other are solved together by one
+// PolynomialBatchSolver call; 0 turns batching off.
+public final class MathSolverServer {
+    private static final String USAGE = "Usage: java MathSolverServer [--host H] [--port N] [--max-concurrent N] "
+            + "[--queue-ms N] [--max-body-kb N] [--batch-us N] [--cache-mb N] [--metrics]";
+    private static final int MAX_BATCH = 4096;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final long queueMillis;
+    private final int maxBodyBytes;
+    private final ResultCache cache;
+    private final RootBatcher batcher;
+
+    MathSolverServer(String host, int port, int maxConcurrent, long queueMillis, int maxBodyBytes, long batchMicros,
+                     ResultCache cache) throws IOException {
+        this.maxConcurrent = maxConcurrent;
+        this.permits = new Semaphore(maxConcurrent);
+        this.queueMillis = queueMillis;
+        this.maxBodyBytes = maxBodyBytes;
+        this.cache = cache;
+        this.batcher = batchMicros > 0 ? new RootBatcher(batchMicros) : null;
+        this.executor = requestExecutor();
+        this.server = HttpServer.create(new InetSocketAddress(host, port), 1024);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    public static void main(String[] args) throws IOException {
+        String host = "127.0.0.1";
+        int port = 8080;
+        int maxConcurrent = 256;
+        long queueMillis = 1000;
+        int maxBodyKb = 4096;
+        long batchMicros = 200;
+        long cacheMegabytes = Long.getLong("mathsolver.cache.mb", ResultCache.DEFAULT_BUDGET_MB);
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--host": host = argument(args, ++i); break;
+                    case "--port": port = Integer.parseInt(argument(args, ++i)); break;
+                    case "--max-concurrent": maxConcurrent = Integer.parseInt(argument(args, ++i)); break;
+                    case "--queue-ms": queueMillis = Long.parseLong(argument(args, ++i)); break;
+                    case "--max-body-kb": maxBodyKb = Integer.parseInt(argument(args, ++i)); break;
+                    case "--batch-us": batchMicros = Long.parseLong(argument(args, ++i)); break;
+                    case "--cache-mb": cacheMegabytes = Long.parseLong(argument(args, ++i)); break;
+                    case "--metrics": OperationMetrics.setEnabled(true); break;
+                    case "--help":
+                        System.out.println(USAGE);
+                        return;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            if (maxConcurrent < 1 || queueMillis < 0 || maxBodyKb < 1 || batchMicros < 0 || cacheMegabytes < 0) {
+                throw new IllegalArgumentException("Limits must be positive");
+            }
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage() + "\n" + USAGE);
+            System.exit(2);
+        }
+        MathSolverServer server = new MathSolverServer(host, port, maxConcurrent, queueMillis, maxBodyKb << 10,
+                batchMicros, new ResultCache(cacheMegabytes << 20));
+        server.start();
+        System.out.println("Math Solver service on http://" + host + ":" + server.port() + "/");
+    }
+
+    void start() {
+        server.start();
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+        if (batcher != null) batcher.timer.shutdownNow();
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() when present; looked up reflectively so the
+    // service still builds and runs on JDKs before 21.
+    private static ExecutorService requestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            AtomicInteger counter = new AtomicInteger();
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "math-solver-request-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    // ---- Requests ----
+
+    private static final class HttpError extends Exception {
+        final int status;
+
+        HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        boolean admitted = false;
+        try {
+            admitted = permits.tryAcquire(queueMillis, TimeUnit.MILLISECONDS);
+            if (!admitted) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                throw new HttpError(503, "Server is busy");
+            }
+            respond(exchange, 200, route(exchange));
+        } catch (HttpError ex) {
+            respond(exchange, ex.status, error(ex.getMessage()));
+        } catch (IllegalArgumentException | ArithmeticException | SingularMatrixException ex) {
+            respond(exchange, 422, error(ex.getMessage()));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            respond(exchange, 503, error("Server is shutting down"));
+        } catch (IOException ex) {
+            throw ex;
+        } catch (Exception | OutOfMemoryError ex) {
+            respond(exchange, 500, error(ex.toString()));
+        } finally {
+            if (admitted) permits.release();
+            // Not try-with-resources: HttpExchange is AutoCloseable only from JDK 14.
+            exchange.close();
+        }
+    }
+
+    private Object route(HttpExchange exchange) throws Exception {
+        String path = exchange.getRequestURI().getPath();
+        String method = exchange.getRequestMethod();
+        if (path.equals("/health") || path.equals("/metrics")) {
+            if (!method.equals("GET")) throw new HttpError(405, path + " takes GET");
+            if (path.equals("/metrics")) return OperationMetrics.snapshot();
+            Map<String, Object> health = new LinkedHashMap<>();
+            health.put("status", "ok");
+            health.put("inFlight", maxConcurrent - permits.availablePermits());
+            health.put("cache", cache.stats().toString());
+            return health;
+        }
+        String operation = path.length() > 1 ? path.substring(1) : "";
+        if (!operation.equals("determinant") && !operation.equals("multiply") && !operation.equals("roots")
+                && !operation.equals("solve") && !operation.equals("eigenvalues") && !operation.equals("svd")
+                && !operation.equals("polynomial")) {
+            throw new HttpError(404, "Unknown endpoint " + path);
+        }
+        if (!method.equals("POST")) throw new HttpError(405, path + " takes POST");
+        Object parsed = Json.parse(readBody(exchange));
+        if (!(parsed instanceof Map)) throw new IllegalArgumentException("Request body must be a JSON object");
+        Map<?, ?> body = (Map<?, ?>) parsed;
+        return OperationMetrics.record("service." + operation, () -> perform(operation, body));
+    }
+
+    private Map<String, Object> perform(String operation, Map<?, ?> body) throws Exception {
+        Map<String, Object> result = new LinkedHashMap<>();
+        switch (operation) {
+            case "determinant": {
+                Matrix m = matrix(Json.toRows(body.get("matrix"), "matrix"));
+                Number determinant = MathCore.determinant(m, cache);
+                result.put("determinant", determinant instanceof BigInteger ? Json.number((BigInteger) determinant) : determinant);
+                break;
+            }
+            case "multiply": {
+                Matrix a = matrix(Json.toRows(body.get("a"), "a"));
+                Matrix b = matrix(Json.toRows(body.get("b"), "b"));
+                if (a.cols() != b.rows()) throw new IllegalArgumentException("Columns of A must equal rows of B");
+                Matrix product = MathCore.multiply(a, b, cache);
+                Object[] rows = new Object[product.rows()];
+                for (int i = 0; i < rows.length; i++) {
+                    double[] row = new double[product.cols()];
+                    for (int j = 0; j < row.length; j++) {
+                        row[j] = product.getDouble(i, j);
+                    }
+                    rows[i] = row;
+                }
+                result.put("result", rows);
+                break;
+            }
+            case "roots": {
+                double[] highestFirst = Json.toDoubles(body.get("coefficients"), "coefficients");
+                if (highestFirst.length == 0) throw new IllegalArgumentException("coefficients must not be empty");
+                double[] coefficients = new double[highestFirst.length];
+                for (int i = 0; i < coefficients.length; i++) {
+                    coefficients[i] = highestFirst[coefficients.length - 1 - i];
+                }
+                result.put("equation", MathCore.formatPolynomial(coefficients));
+                RootSet roots = batcher != null && batcher.accepts(coefficients)
+                        ? batcher.solve(coefficients) : MathCore.polynomialRoots(coefficients);
+                result.put("roots", rootList(roots));
+                break;
+            }
+            case "eigenvalues": {
+                Matrix m = matrix(Json.toRows(body.get("matrix"), "matrix"));
+                result.put("eigenvalues", rootList(MathCore.eigenvalues(m, cache)));
+                break;
+            }
+            case "svd": {
+                Matrix m = matrix(Json.toRows(body.get("matrix"), "matrix"));
+                result.put("singularValues", MathCore.singularValues(m, cache));
+                break;
+            }
+            case "polynomial": {
+                Object name = body.get("operation");
+                if (name == null) throw new IllegalArgumentException("operation is required");
+                MathCore.PolynomialOperation polynomialOperation = MathCore.PolynomialOperation.parse(String.valueOf(name));
+                double[] p = Json.toDoubles(body.get("p"), "p");
+                double[] q = polynomialOperation.usesQ() ? Json.toDoubles(body.get("q"), "q") : new double[]{0};
+                if (p.length == 0 || q.length == 0) throw new IllegalArgumentException("p and q must not be empty");
+                double[][] outputs = polynomialOperation.apply(p, q);
+                for (int i = 0; i < outputs.length; i++) {
+                    result.put(polynomialOperation.outputs[i].toLowerCase(Locale.ROOT), outputs[i]);
+                }
+                break;
+            }
+            default: {
+                double[][] a = Json.toRows(body.get("a"), "a");
+                double[] b = Json.toDoubles(body.get("b"), "b");
+                if (a.length != a[0].length) throw new IllegalArgumentException("Coefficient matrix must be square");
+                SparseMatrix.Builder coefficients = new SparseMatrix.Builder(a.length, a.length);
+                for (int i = 0; i < a.length; i++) {
+                    for (int j = 0; j < a.length; j++) {
+                        coefficients.add(i, j, a[i][j]);
+                    }
+                }
+                LinearSystem system = new LinearSystem(coefficients.build(), b);
+                Object name = body.get("method");
+                MathCore.LinearMethod method = name == null ? MathCore.LinearMethod.LU
+                        : MathCore.LinearMethod.parse(String.valueOf(name));
+                if (method == MathCore.LinearMethod.LU) {
+                    result.put("solution", MathCore.solveDirect(system, cache));
+                } else if (method == MathCore.LinearMethod.EXACT) {
+                    ModularSolver.Solution solution = MathCore.solveExact(system, cache);
+                    Object[] values = new Object[solution.size()];
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = solution.format(i);
+                    }
+                    result.put("solution", values);
+                } else if (method == MathCore.LinearMethod.MIXED) {
+                    MixedPrecisionSolver.Result solved = MathCore.solveMixed(system, cache);
+                    result.put("solution", solved.solution);
+                    result.put("conditionEstimate", solved.conditionEstimate);
+                    result.put("backwardError", solved.backwardError);
+                    result.put("refinements", solved.refinements);
+                    result.put("fellBack", solved.fellBack);
+                } else {
+                    Object preconditionerName = body.get("preconditioner");
+                    MathCore.PreconditionerType preconditioner = preconditionerName == null
+                            ? MathCore.PreconditionerType.NONE
+                            : MathCore.PreconditionerType.parse(String.valueOf(preconditionerName));
+                    IterativeSolver.Result solved = MathCore.solveIterative(system, method, preconditioner, cache);
+                    result.put("solution", solved.solution);
+                    result.put("converged", solved.converged);
+                    result.put("iterations", solved.iterations);
+                    result.put("relativeResidual", solved.relativeResidual);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static List<Object> rootList(RootSet roots) {
+        List<Object> list = new ArrayList<>();
+        for (int k = 0; k < roots.size(); k++) {
+            Map<String, Object> root = new LinkedHashMap<>();
+            root.put("re", roots.real(k));
+            root.put("im", roots.imaginary(k));
+            root.put("multiplicity", roots.multiplicity(k));
+            list.add(root);
+        }
+        return list;
+    }
+
+    // Whole numbers in int range stay exact as an IntMatrix; anything else is floating point.
+    private static Matrix matrix(double[][] rows) {
+        for (double[] row : rows) {
+            for (double v : row) {
+                if (v != (int) v) return DoubleMatrix.of(rows);
+            }
+        }
+        int[][] values = new int[rows.length][];
+        for (int i = 0; i < rows.length; i++) {
+            values[i] = new int[rows[i].length];
+            for (int j = 0; j < values[i].length; j++) {
+                values[i][j] = (int) rows[i][j];
+            }
+        }
+        return IntMatrix.of(values);
+    }
+
+    private String readBody(HttpExchange exchange) throws IOException, HttpError {
+        String length = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (length != null) {
+            try {
+                if (Long.parseLong(length.trim()) > maxBodyBytes) throw tooLarge();
+            } catch (NumberFormatException ex) {
+                throw new HttpError(400, "Malformed Content-Length");
+            }
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        try (InputStream in = exchange.getRequestBody()) {
+            for (int read; (read = in.read(buffer)) >= 0; ) {
+                body.write(buffer, 0, read);
+                if (body.size() > maxBodyBytes) throw tooLarge();
+            }
+        }
+        return body.toString(StandardCharsets.UTF_8);
+    }
+
+    private HttpError tooLarge() {
+        return new HttpError(413, "Request body is larger than " + maxBodyBytes / 1024 + " KB");
+    }
+
+    private static Map<String, Object> error(String message) {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("error", message);
+        return error;
+    }
+
+    private static void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        boolean text = body instanceof String;
+        byte[] bytes = (text ? (String) body : Json.write(body)).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type",
+                text ? "text/plain; charset=utf-8" : "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String argument(String[] args, int i) {
+        if (i >= args.length) throw new IllegalArgumentException(args[i - 1] + " needs a value");
+        return args[i];
+    }
+
+    // ---- Micro-batching ----
+
+    // Collects quadratics and cubics for up to windowMicros after the first arrival, or until
+    // MAX_BATCH are waiting, and solves each group with one column-wise kernel call. Callers
+    // block on their own future, which is cheap on a virtual thread.
+    private static final class RootBatcher {
+        private final long windowMicros;
+        private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "math-solver-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        private final Batch[] open = new Batch[4];
+
+        RootBatcher(long windowMicros) {
+            this.windowMicros = windowMicros;
+        }
+
+        private static final class Batch {
+            final int degree;
+            final List<double[]> equations = new ArrayList<>();
+            final List<CompletableFuture<RootSet>> results = new ArrayList<>();
+
+            Batch(int degree) {
+                this.degree = degree;
+            }
+        }
+
+        boolean accepts(double[] coefficients) {
+            int degree = coefficients.length - 1;
+            if (degree != 2 && degree != 3 || coefficients[degree] == 0) return false;
+            for (double c : coefficients) {
+                if (!Double.isFinite(c)) return false;
+            }
+            return true;
+        }
+
+        RootSet solve(double[] coefficients) throws InterruptedException, ExecutionException {
+            int degree = coefficients.length - 1;
+            CompletableFuture<RootSet> result = new CompletableFuture<>();
+            Batch full = null;
+            synchronized (this) {
+                Batch batch = open[degree];
+                if (batch == null) {
+                    batch = open[degree] = new Batch(degree);
+                    Batch scheduled = batch;
+                    timer.schedule(() -> flush(scheduled), windowMicros, TimeUnit.MICROSECONDS);
+                }
+                batch.equations.add(coefficients);
+                batch.results.add(result);
+                if (batch.equations.size() >= MAX_BATCH) {
+                    open[degree] = null;
+                    full = batch;
+                }
+            }
+            if (full != null) run(full);
+            try {
+                return result.get();
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RuntimeException) throw (RuntimeException) ex.getCause();
+                throw ex;
+            }
+        }
+
+        private void flush(Batch batch) {
+            synchronized (this) {
+                if (open[batch.degree] != batch) return;
+                open[batch.degree] = null;
+            }
+            run(batch);
+        }
+
+        private static void run(Batch batch) {
+            int count = batch.equations.size();
+            int degree = batch.degree;
+            try {
+                double[][] columns = new double[degree + 1][count];
+                for (int i = 0; i < count; i++) {
+                    double[] equation = batch.equations.get(i);
+                    for (int k = 0; k <= degree; k++) {
+                        columns[k][i] = equation[degree - k];
+                    }
+                }
+                double[] re = new double[degree * count];
+                double[] im = new double[degree * count];
+                if (degree == 2) {
+                    PolynomialBatchSolver.solveQuadratics(columns[0], columns[1], columns[2], re, im);
+                } else {
+                    PolynomialBatchSolver.solveCubics(columns[0], columns[1], columns[2], columns[3], re, im);
+                }
+                double[] r = new double[degree];
+                double[] i = new double[degree];
+                for (int e = 0; e < count; e++) {
+                    for (int k = 0; k < degree; k++) {
+                        r[k] = re[k * count + e];
+                        i[k] = im[k * count + e];
+                    }
+                    batch.results.get(e).complete(RootSet.clustered(batch.equations.get(e), r, i, degree, 1e-9));
+                }
+            } catch (RuntimeException ex) {
+                for (CompletableFuture<RootSet> result : batch.results) {
+                    result.completeExceptionally(ex);
+                }
+            }
+        }
+    }
+}
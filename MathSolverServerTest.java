@@ -0,0 +1,166 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Checks MathSolverServer end to end on an ephemeral local port: known answers from every
+// endpoint, quadratics solved concurrently through the batcher, and the status codes for
+// unknown paths (404), wrong methods (405), oversized bodies (413) and input the solvers
+// reject (422). Run with "java MathSolverServerTest"; exits with status 1 on a failure.
+final class MathSolverServerTest {
+    private static int failures;
+    private static int port;
+
+    private MathSolverServerTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        MathSolverServer server = new MathSolverServer("127.0.0.1", 0, 8, 5000, 1024, 500, new ResultCache(1 << 20));
+        server.start();
+        port = server.port();
+        try {
+            run();
+        } finally {
+            server.stop();
+        }
+        System.out.println(failures == 0 ? "All checks passed" : failures + " checks failed");
+        if (failures > 0) System.exit(1);
+    }
+
+    private static void run() throws Exception {
+        Map<?, ?> health = expect("health", "GET", "/health", null, 200);
+        check("health status", health != null && "ok".equals(health.get("status")), String.valueOf(health));
+
+        Map<?, ?> determinant = expect("determinant", "POST", "/determinant", "{\"matrix\": [[1, 2], [3, 4]]}", 200);
+        check("determinant value", determinant != null && number(determinant.get("determinant")) == -2, String.valueOf(determinant));
+        String exact = request("POST", "/determinant", "{\"matrix\": [[2147483647, 0, 0], [0, 2147483647, 0], [0, 0, 2147483647]]}")[1];
+        check("determinant beyond a long is exact", exact.contains("9903520300447984150353281023"), exact);
+
+        Map<?, ?> product = expect("multiply", "POST", "/multiply", "{\"a\": [[1, 2, 3]], \"b\": [[4], [5], [6]]}", 200);
+        check("multiply value", product != null && product.get("result").toString().equals("[[32.0]]"), String.valueOf(product));
+
+        Map<?, ?> roots = expect("roots", "POST", "/roots", "{\"coefficients\": [1, -2, 1, 0]}", 200);
+        check("x^3 - 2x^2 + x roots", roots != null && roots(roots).equals("0.0x1 1.0x2"), String.valueOf(roots));
+        Map<?, ?> quartic = expect("quartic roots", "POST", "/roots", "{\"coefficients\": [1, 0, -5, 0, 4]}", 200);
+        check("x^4 - 5x^2 + 4 roots", quartic != null && roots(quartic).equals("-2.0x1 -1.0x1 1.0x1 2.0x1"), String.valueOf(quartic));
+
+        // Concurrent quadratics share batches; each must still get its own roots.
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            Future<?>[] pending = new Future<?>[64];
+            for (int k = 0; k < pending.length; k++) {
+                int root = k + 1;
+                pending[k] = pool.submit(() -> request("POST", "/roots",
+                        "{\"coefficients\": [1, " + -(root + 100) + ", " + root * 100 + "]}"));
+            }
+            int wrong = 0;
+            for (int k = 0; k < pending.length; k++) {
+                String[] response = (String[]) pending[k].get();
+                Map<?, ?> body = (Map<?, ?>) Json.parse(response[1]);
+                if (!response[0].equals("200") || !roots(body).equals((double) (k + 1) + "x1 100.0x1")) wrong++;
+            }
+            check("concurrent batched quadratics", wrong == 0, wrong + " wrong");
+        } finally {
+            pool.shutdownNow();
+        }
+
+        String system = "\"a\": [[4, 1], [1, 3]], \"b\": [1, 2]";
+        Map<?, ?> lu = expect("solve lu", "POST", "/solve", "{" + system + "}", 200);
+        check("solve lu value", lu != null && close((List<?>) lu.get("solution"), 1.0 / 11, 7.0 / 11), String.valueOf(lu));
+        Map<?, ?> rational = expect("solve exact", "POST", "/solve", "{" + system + ", \"method\": \"exact\"}", 200);
+        check("solve exact value", rational != null && rational.get("solution").toString().equals("[1/11, 7/11]"),
+                String.valueOf(rational));
+        Map<?, ?> mixed = expect("solve mixed", "POST", "/solve", "{" + system + ", \"method\": \"mixed\"}", 200);
+        check("solve mixed value", mixed != null && close((List<?>) mixed.get("solution"), 1.0 / 11, 7.0 / 11)
+                && mixed.containsKey("conditionEstimate"), String.valueOf(mixed));
+        Map<?, ?> cg = expect("solve cg", "POST", "/solve", "{" + system + ", \"method\": \"cg\", \"preconditioner\": \"jacobi\"}", 200);
+        check("solve cg value", cg != null && Boolean.TRUE.equals(cg.get("converged"))
+                && close((List<?>) cg.get("solution"), 1.0 / 11, 7.0 / 11), String.valueOf(cg));
+        Map<?, ?> divide = expect("polynomial divide", "POST", "/polynomial",
+                "{\"operation\": \"divide\", \"p\": [1, -3, 2], \"q\": [1, -1]}", 200);
+        check("polynomial divide value", divide != null && divide.get("quotient").toString().equals("[1.0, -2.0]"),
+                String.valueOf(divide));
+        expect("eigenvalues", "POST", "/eigenvalues", "{\"matrix\": [[2, 0], [0, 3]]}", 200);
+        expect("svd", "POST", "/svd", "{\"matrix\": [[3, 0], [0, 4]]}", 200);
+
+        expect("unknown endpoint", "POST", "/nope", "{}", 404);
+        expect("GET on a solver", "GET", "/roots", null, 405);
+        expect("POST on health", "POST", "/health", "{}", 405);
+        expect("body over the limit", "POST", "/roots", "{\"coefficients\": [" + "1, ".repeat(600) + "1]}", 413);
+        expect("singular system", "POST", "/solve", "{\"a\": [[1, 2], [2, 4]], \"b\": [1, 2]}", 422);
+        expect("zero polynomial", "POST", "/roots", "{\"coefficients\": [0, 0]}", 422);
+        expect("no coefficients", "POST", "/roots", "{\"coefficients\": []}", 422);
+        expect("malformed JSON", "POST", "/determinant", "{\"matrix\": [[1, 2]", 422);
+        expect("body not an object", "POST", "/determinant", "[1]", 422);
+        expect("ragged matrix", "POST", "/determinant", "{\"matrix\": [[1, 2], [3]]}", 422);
+        expect("mismatched product", "POST", "/multiply", "{\"a\": [[1, 2]], \"b\": [[1, 2]]}", 422);
+        expect("unknown method", "POST", "/solve", "{" + system + ", \"method\": \"magic\"}", 422);
+    }
+
+    // Checks the status and returns the parsed body of a 200, or null.
+    private static Map<?, ?> expect(String name, String method, String path, String body, int status) throws IOException {
+        String[] response = request(method, path, body);
+        check(name, response[0].equals(String.valueOf(status)), "status " + response[0] + ", " + response[1]);
+        if (status != 200 || !response[0].equals("200")) return null;
+        return (Map<?, ?>) Json.parse(response[1]);
+    }
+
+    // {status, body}
+    private static String[] request(String method, String path, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + port + path).openConnection();
+        try {
+            connection.setRequestMethod(method);
+            if (body != null) {
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", "application/json");
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(body.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            int status = connection.getResponseCode();
+            InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            String text = in == null ? "" : new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            return new String[]{String.valueOf(status), text};
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    // Real roots as "value x multiplicity" in increasing order.
+    private static String roots(Map<?, ?> body) {
+        StringBuilder sb = new StringBuilder();
+        ((List<?>) body.get("roots")).stream()
+                .map(root -> (Map<?, ?>) root)
+                .sorted((a, b) -> Double.compare(number(a.get("re")), number(b.get("re"))))
+                .forEach(root -> sb.append(sb.length() == 0 ? "" : " ")
+                        .append(Math.round(number(root.get("re")) * 1e9) / 1e9 + 0.0)
+                        .append(number(root.get("im")) == 0 ? "x" : "i")
+                        .append((int) number(root.get("multiplicity"))));
+        return sb.toString();
+    }
+
+    private static boolean close(List<?> values, double... expected) {
+        if (values == null || values.size() != expected.length) return false;
+        for (int i = 0; i < expected.length; i++) {
+            if (!(Math.abs(number(values.get(i)) - expected[i]) <= 1e-9)) return false;
+        }
+        return true;
+    }
+
+    private static double number(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+    }
+
+    private static void check(String name, boolean ok, String detail) {
+        if (ok) return;
+        System.out.println("FAIL " + name + (detail.isEmpty() ? "" : ": " + detail));
+        failures++;
+    }
+}
@@ -0,0 +1,99 @@
+// Base of the primitive matrix types. Elements live in one flat array addressed as
+// offset + i * rowStride + j * colStride, so transposes and sub-blocks are views that
+// share storage with the matrix they came from.
+abstract class Matrix {
+    final int rows;
+    final int cols;
+    final int offset;
+    final int rowStride;
+    final int colStride;
+
+    Matrix(int rows, int cols, int offset, int rowStride, int colStride) {
+        if (rows < 0 || cols < 0) {
+            throw new IllegalArgumentException("Matrix dimensions must not be negative");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.offset = offset;
+        this.rowStride = rowStride;
+        this.colStride = colStride;
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    int cols() {
+        return cols;
+    }
+
+    boolean isSquare() {
+        return rows == cols;
+    }
+
+    abstract double getDouble(int row, int col);
+
+    abstract Matrix transpose();
+
+    abstract Matrix view(int row, int col, int rows, int cols);
+
+    abstract void appendEntry(StringBuilder sb, int row, int col);
+
+    DoubleMatrix toDoubleMatrix() {
+        DoubleMatrix result = new DoubleMatrix(rows, cols);
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                result.set(i, j, getDouble(i, j));
+            }
+        }
+        return result;
+    }
+
+    String toText() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                appendEntry(sb, i, j);
+                sb.append('\t');
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + rows + "x" + cols + "]";
+    }
+
+    final boolean isCompact() {
+        return offset == 0 && colStride == 1 && rowStride == cols;
+    }
+
+    final int index(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            throw new IndexOutOfBoundsException("(" + row + ", " + col + ") outside " + rows + "x" + cols);
+        }
+        return offset + row * rowStride + col * colStride;
+    }
+
+    final int viewOffset(int row, int col, int viewRows, int viewCols) {
+        if (row < 0 || col < 0 || viewRows < 0 || viewCols < 0
+                || row + viewRows > rows || col + viewCols > cols) {
+            throw new IndexOutOfBoundsException("View exceeds " + rows + "x" + cols + " matrix");
+        }
+        return offset + row * rowStride + col * colStride;
+    }
+
+    final void checkSameShape(Matrix other) {
+        if (rows != other.rows || cols != other.cols) {
+            throw new IllegalArgumentException("Matrix dimensions must match");
+        }
+    }
+
+    final void checkMultipliable(Matrix other) {
+        if (cols != other.rows) {
+            throw new IllegalArgumentException("Columns of A must equal rows of B");
+        }
+    }
+}
@@ -0,0 +1,443 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Lazy matrix expressions, e.g. MatrixExpr.of(a).times(b).plus(c).transpose(). Building one
+// only records the operations; evaluate() then computes the whole expression into a single
+// result array:
+//
+//   - sums and scalar multiples are kept as one flat list of weighted terms, so A + B - 2C
+//     is one pass over the output rather than two intermediates;
+//   - transposes are pushed down to the leaves, where they become stride-swapped views, so a
+//     transposed operand is read in place by the multiply kernel and never copied;
+//   - a product term is accumulated straight into the output (c += alpha * a * b), and a
+//     product operand that is itself compound is evaluated into a pooled scratch buffer.
+//
+// Expressions are immutable and hold references, not copies, of their leaf matrices.
+abstract class MatrixExpr {
+    final int rows;
+    final int cols;
+
+    private MatrixExpr(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+    }
+
+    static MatrixExpr of(Matrix matrix) {
+        DoubleMatrix m = matrix instanceof DoubleMatrix ? (DoubleMatrix) matrix : matrix.toDoubleMatrix();
+        return new Leaf(m);
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    int cols() {
+        return cols;
+    }
+
+    MatrixExpr plus(MatrixExpr other) {
+        return combine(this, 1, other, 1);
+    }
+
+    MatrixExpr minus(MatrixExpr other) {
+        return combine(this, 1, other, -1);
+    }
+
+    MatrixExpr negate() {
+        return scale(-1);
+    }
+
+    MatrixExpr scale(double factor) {
+        Sum sum = asSum(this);
+        double[] weights = sum.weights.clone();
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] *= factor;
+        }
+        return new Sum(rows, cols, weights, sum.terms);
+    }
+
+    // Scalar weights on either side are pulled out of the product, so (2A)(3B) is 6(AB) and
+    // the multiply reads A and B directly.
+    MatrixExpr times(MatrixExpr other) {
+        if (cols != other.rows) throw new IllegalArgumentException("Columns of A must equal rows of B");
+        double weight = 1;
+        MatrixExpr left = this;
+        MatrixExpr right = other;
+        if (left instanceof Sum && ((Sum) left).terms.length == 1) {
+            weight *= ((Sum) left).weights[0];
+            left = ((Sum) left).terms[0];
+        }
+        if (right instanceof Sum && ((Sum) right).terms.length == 1) {
+            weight *= ((Sum) right).weights[0];
+            right = ((Sum) right).terms[0];
+        }
+        MatrixExpr product = new Product(left, right);
+        return weight == 1 ? product : product.scale(weight);
+    }
+
+    abstract MatrixExpr transpose();
+
+    DoubleMatrix evaluate() {
+        double[] result = new double[rows * cols];
+        accumulate(1, result);
+        return DoubleMatrix.wrap(result, rows, cols);
+    }
+
+    // out += alpha * this, with out compact row-major and rows x cols.
+    abstract void accumulate(double alpha, double[] out);
+
+    private static MatrixExpr combine(MatrixExpr a, double wa, MatrixExpr b, double wb) {
+        if (a.rows != b.rows || a.cols != b.cols) throw new IllegalArgumentException("Matrix dimensions must match");
+        Sum x = asSum(a);
+        Sum y = asSum(b);
+        int n = x.terms.length;
+        double[] weights = Arrays.copyOf(x.weights, n + y.terms.length);
+        MatrixExpr[] terms = Arrays.copyOf(x.terms, n + y.terms.length);
+        for (int i = 0; i < n; i++) {
+            weights[i] *= wa;
+        }
+        for (int i = 0; i < y.terms.length; i++) {
+            weights[n + i] = wb * y.weights[i];
+            terms[n + i] = y.terms[i];
+        }
+        return new Sum(a.rows, a.cols, weights, terms);
+    }
+
+    private static Sum asSum(MatrixExpr e) {
+        return e instanceof Sum ? (Sum) e : new Sum(e.rows, e.cols, new double[] {1}, new MatrixExpr[] {e});
+    }
+
+    private static final class Leaf extends MatrixExpr {
+        final DoubleMatrix matrix;
+
+        Leaf(DoubleMatrix matrix) {
+            super(matrix.rows(), matrix.cols());
+            this.matrix = matrix;
+        }
+
+        @Override
+        MatrixExpr transpose() {
+            return new Leaf(matrix.transpose());
+        }
+
+        @Override
+        void accumulate(double alpha, double[] out) {
+            Sum.accumulateLeaves(new double[] {alpha}, new DoubleMatrix[] {matrix}, out, cols);
+        }
+    }
+
+    private static final class Product extends MatrixExpr {
+        final MatrixExpr left;
+        final MatrixExpr right;
+
+        Product(MatrixExpr left, MatrixExpr right) {
+            super(left.rows, right.cols);
+            this.left = left;
+            this.right = right;
+        }
+
+        // (LR)^T = R^T L^T
+        @Override
+        MatrixExpr transpose() {
+            return new Product(right.transpose(), left.transpose());
+        }
+
+        @Override
+        void accumulate(double alpha, double[] out) {
+            double[] leftBuffer = null;
+            double[] rightBuffer = null;
+            try {
+                DoubleMatrix a;
+                DoubleMatrix b;
+                if (left instanceof Leaf) {
+                    a = ((Leaf) left).matrix;
+                } else {
+                    leftBuffer = BufferPool.acquire(left.rows * left.cols);
+                    left.accumulate(1, leftBuffer);
+                    a = DoubleMatrix.wrap(leftBuffer, left.rows, left.cols);
+                }
+                if (right instanceof Leaf) {
+                    b = ((Leaf) right).matrix;
+                } else {
+                    rightBuffer = BufferPool.acquire(right.rows * right.cols);
+                    right.accumulate(1, rightBuffer);
+                    b = DoubleMatrix.wrap(rightBuffer, right.rows, right.cols);
+                }
+                MatrixMultiplier.multiplyAccumulate(alpha, a, b, out);
+            } finally {
+                BufferPool.release(leftBuffer);
+                BufferPool.release(rightBuffer);
+            }
+        }
+    }
+
+    // Weighted terms, each a Leaf or a Product; never nested.
+    private static final class Sum extends MatrixExpr {
+        final double[] weights;
+        final MatrixExpr[] terms;
+
+        Sum(int rows, int cols, double[] weights, MatrixExpr[] terms) {
+            super(rows, cols);
+            this.weights = weights;
+            this.terms = terms;
+        }
+
+        @Override
+        MatrixExpr transpose() {
+            MatrixExpr[] transposed = new MatrixExpr[terms.length];
+            for (int i = 0; i < terms.length; i++) {
+                transposed[i] = terms[i].transpose();
+            }
+            return new Sum(cols, rows, weights, transposed);
+        }
+
+        // Products accumulate into out one at a time; all leaves are then added in one pass.
+        @Override
+        void accumulate(double alpha, double[] out) {
+            List<DoubleMatrix> leaves = new ArrayList<>();
+            double[] leafWeights = new double[terms.length];
+            for (int i = 0; i < terms.length; i++) {
+                if (weights[i] == 0) continue;
+                if (terms[i] instanceof Leaf) {
+                    leafWeights[leaves.size()] = alpha * weights[i];
+                    leaves.add(((Leaf) terms[i]).matrix);
+                } else {
+                    terms[i].accumulate(alpha * weights[i], out);
+                }
+            }
+            if (!leaves.isEmpty()) {
+                accumulateLeaves(Arrays.copyOf(leafWeights, leaves.size()), leaves.toArray(new DoubleMatrix[0]), out, cols);
+            }
+        }
+
+        static void accumulateLeaves(double[] weights, DoubleMatrix[] leaves, double[] out, int cols) {
+            TaskContext context = TaskContext.current();
+            int count = leaves.length;
+            double[][] data = new double[count][];
+            int[] rowStart = new int[count];
+            int[] colStride = new int[count];
+            for (int t = 0; t < count; t++) {
+                data[t] = leaves[t].storage();
+                colStride[t] = leaves[t].colStride;
+            }
+            int rows = cols == 0 ? 0 : out.length / cols;
+            for (int i = 0; i < rows; i++) {
+                if ((i & 63) == 0) context.checkCancelled();
+                for (int t = 0; t < count; t++) {
+                    rowStart[t] = leaves[t].offset + i * leaves[t].rowStride;
+                }
+                int base = i * cols;
+                for (int j = 0; j < cols; j++) {
+                    double sum = 0;
+                    for (int t = 0; t < count; t++) {
+                        sum += weights[t] * data[t][rowStart[t] + j * colStride[t]];
+                    }
+                    out[base + j] += sum;
+                }
+            }
+        }
+    }
+
+    // Scratch arrays for compound product operands, keyed by length and zeroed on reuse. The
+    // pool keeps at most MAX_POOLED_BYTES so a one-off large expression does not pin memory.
+    private static final class BufferPool {
+        private static final long MAX_POOLED_BYTES = 64L << 20;
+        private static final Map<Integer, ArrayDeque<double[]>> FREE = new HashMap<>();
+        private static long pooledBytes;
+
+        static synchronized double[] acquire(int length) {
+            ArrayDeque<double[]> free = FREE.get(length);
+            double[] buffer = free == null ? null : free.poll();
+            if (buffer == null) return new double[length];
+            pooledBytes -= 8L * length;
+            Arrays.fill(buffer, 0);
+            return buffer;
+        }
+
+        static synchronized void release(double[] buffer) {
+            if (buffer == null || pooledBytes + 8L * buffer.length > MAX_POOLED_BYTES) return;
+            FREE.computeIfAbsent(buffer.length, length -> new ArrayDeque<>()).push(buffer);
+            pooledBytes += 8L * buffer.length;
+        }
+    }
+
+    // ---- Parsing ----
+
+    // Parses text such as "A*B' + 2*(A - B)" over the named matrices. Precedence, loosest
+    // first: + -, then * (matrix product, or scaling when one side is a number) and / by a
+    // number, then unary minus, then postfix ' or ^T for transpose.
+    static MatrixExpr parse(String text, Map<String, ? extends Matrix> matrices) {
+        Object value = new Parser(text, matrices).parse();
+        if (!(value instanceof MatrixExpr)) throw new IllegalArgumentException("Expression must contain a matrix");
+        return (MatrixExpr) value;
+    }
+
+    // Values are a MatrixExpr or a Double.
+    private static final class Parser {
+        private final String text;
+        private final Map<String, ? extends Matrix> matrices;
+        private final Map<String, MatrixExpr> leaves = new HashMap<>();
+        private int position;
+
+        Parser(String text, Map<String, ? extends Matrix> matrices) {
+            this.text = text;
+            this.matrices = matrices;
+        }
+
+        Object parse() {
+            Object value = sum();
+            skipSpaces();
+            if (position < text.length()) throw error("Unexpected '" + text.charAt(position) + "'");
+            return value;
+        }
+
+        private Object sum() {
+            Object value = product();
+            while (true) {
+                int start = position;
+                if (accept('+')) {
+                    value = add(value, product(), 1, start);
+                } else if (accept('-')) {
+                    value = add(value, product(), -1, start);
+                } else {
+                    return value;
+                }
+            }
+        }
+
+        private Object add(Object a, Object b, double sign, int at) {
+            if (a instanceof Double && b instanceof Double) return (Double) a + sign * (Double) b;
+            if (a instanceof Double || b instanceof Double) throw errorAt(at, "Cannot add a number to a matrix");
+            try {
+                return sign > 0 ? ((MatrixExpr) a).plus((MatrixExpr) b) : ((MatrixExpr) a).minus((MatrixExpr) b);
+            } catch (IllegalArgumentException ex) {
+                throw errorAt(at, ex.getMessage());
+            }
+        }
+
+        private Object product() {
+            Object value = unary();
+            while (true) {
+                int start = position;
+                if (accept('*')) {
+                    Object right = unary();
+                    if (value instanceof Double && right instanceof Double) {
+                        value = (Double) value * (Double) right;
+                    } else if (value instanceof Double) {
+                        value = ((MatrixExpr) right).scale((Double) value);
+                    } else if (right instanceof Double) {
+                        value = ((MatrixExpr) value).scale((Double) right);
+                    } else {
+                        try {
+                            value = ((MatrixExpr) value).times((MatrixExpr) right);
+                        } catch (IllegalArgumentException ex) {
+                            throw errorAt(start, ex.getMessage());
+                        }
+                    }
+                } else if (accept('/')) {
+                    Object right = unary();
+                    if (!(right instanceof Double)) throw errorAt(start, "Can only divide by a number");
+                    value = value instanceof Double ? (Double) value / (Double) right
+                            : ((MatrixExpr) value).scale(1 / (Double) right);
+                } else {
+                    return value;
+                }
+            }
+        }
+
+        private Object unary() {
+            if (accept('-')) {
+                Object value = unary();
+                return value instanceof Double ? -(Double) value : ((MatrixExpr) value).negate();
+            }
+            if (accept('+')) return unary();
+            return postfix();
+        }
+
+        private Object postfix() {
+            Object value = primary();
+            while (true) {
+                int start = position;
+                boolean transpose = accept('\'');
+                if (!transpose && accept('^')) {
+                    skipSpaces();
+                    if (position >= text.length() || text.charAt(position) != 'T') throw errorAt(start, "Only ^T is supported");
+                    position++;
+                    transpose = true;
+                }
+                if (!transpose) return value;
+                if (value instanceof MatrixExpr) value = ((MatrixExpr) value).transpose();
+            }
+        }
+
+        private Object primary() {
+            skipSpaces();
+            if (position >= text.length()) throw error("Unexpected end of expression");
+            char c = text.charAt(position);
+            if (accept('(')) {
+                Object inner = sum();
+                expect(')');
+                return inner;
+            }
+            if (Character.isDigit(c) || c == '.') return number();
+            if (Character.isLetter(c) || c == '_') {
+                int start = position;
+                while (position < text.length()
+                        && (Character.isLetterOrDigit(text.charAt(position)) || text.charAt(position) == '_')) {
+                    position++;
+                }
+                String name = text.substring(start, position);
+                MatrixExpr leaf = leaves.get(name);
+                if (leaf == null) {
+                    Matrix matrix = matrices.get(name);
+                    if (matrix == null) throw errorAt(start, "Unknown matrix " + name);
+                    leaf = of(matrix);
+                    leaves.put(name, leaf);
+                }
+                return leaf;
+            }
+            throw error("Unexpected '" + c + "'");
+        }
+
+        private Double number() {
+            int start = position;
+            while (position < text.length() && (Character.isDigit(text.charAt(position)) || text.charAt(position) == '.')) {
+                position++;
+            }
+            try {
+                return Double.parseDouble(text.substring(start, position));
+            } catch (NumberFormatException ex) {
+                throw errorAt(start, "Malformed number");
+            }
+        }
+
+        private boolean accept(char c) {
+            skipSpaces();
+            if (position < text.length() && text.charAt(position) == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            if (!accept(c)) throw error("Expected '" + c + "'");
+        }
+
+        private void skipSpaces() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) position++;
+        }
+
+        private IllegalArgumentException error(String message) {
+            return errorAt(position, message);
+        }
+
+        private IllegalArgumentException errorAt(int at, String message) {
+            return new IllegalArgumentException(message + " at position " + (at + 1));
+        }
+    }
+}
@@ -0,0 +1,573 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+
+// Reads and writes matrices as CSV, Matrix Market and a raw binary format. Text files are
+// tokenized straight out of a fixed buffer, so memory is the matrix plus a few kilobytes
+// whatever the file size. Binary files are a 24-byte little-endian header (magic, version,
+// element type, rows, cols) followed by the entries in row-major order, mapped in chunks.
+// Malformed files raise IOException with the offending line.
+final class MatrixIO {
+    static final String BINARY_EXTENSION = ".mxb";
+    static final int BINARY_MAGIC = 0x584D534D; // "MSMX" in file byte order
+    static final int BINARY_VERSION = 1;
+    static final int BINARY_HEADER_BYTES = 24;
+    static final int TYPE_INT = 1;
+    static final int TYPE_LONG = 2;
+    static final int TYPE_DOUBLE = 3;
+
+    private static final long MAP_CHUNK = 1L << 28;
+
+    private MatrixIO() {
+    }
+
+    // Picks the format from the extension: .mxb binary, .mtx Matrix Market, anything else CSV.
+    static DoubleMatrix readDense(Path file) throws IOException {
+        String name = fileName(file);
+        if (name.endsWith(BINARY_EXTENSION)) return readBinary(file).toDoubleMatrix();
+        if (name.endsWith(".mtx")) return readMatrixMarket(file).toDense();
+        return readCsv(file);
+    }
+
+    // One array per column, for column-wise processing of tall data files.
+    static double[][] readColumns(Path file) throws IOException {
+        DoubleMatrix dense = readDense(file);
+        double[] values = dense.rowMajorData();
+        int rows = dense.rows();
+        int cols = dense.cols();
+        double[][] columns = new double[cols][rows];
+        for (int i = 0; i < rows; i++) {
+            int base = i * cols;
+            for (int j = 0; j < cols; j++) {
+                columns[j][i] = values[base + j];
+            }
+        }
+        return columns;
+    }
+
+    // Binary files keep their stored type; text files come back as an IntMatrix when every
+    // entry is a 32-bit integer and as a DoubleMatrix otherwise.
+    static Matrix readMatrix(Path file) throws IOException {
+        if (fileName(file).endsWith(BINARY_EXTENSION)) return readBinary(file);
+        DoubleMatrix dense = readDense(file);
+        double[] values = dense.rowMajorData();
+        int[] narrowed = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            narrowed[i] = (int) values[i];
+            if (narrowed[i] != values[i]) return dense;
+        }
+        return IntMatrix.wrap(narrowed, dense.rows(), dense.cols());
+    }
+
+    // Matrix Market files stay sparse throughout; dense formats are compressed after loading.
+    static SparseMatrix readSparse(Path file) throws IOException {
+        if (fileName(file).endsWith(".mtx")) return readMatrixMarket(file);
+        return SparseMatrix.fromDense(readDense(file));
+    }
+
+    static IntMatrix readIntMatrix(Path file) throws IOException {
+        String name = fileName(file);
+        if (name.endsWith(".mtx")) return toIntMatrix(readMatrixMarket(file).toDense());
+        if (!name.endsWith(BINARY_EXTENSION)) return readIntCsv(file);
+        Matrix matrix = readBinary(file);
+        return matrix instanceof IntMatrix ? (IntMatrix) matrix : toIntMatrix(matrix);
+    }
+
+    static void write(Path file, Matrix matrix) throws IOException {
+        String name = fileName(file);
+        if (name.endsWith(BINARY_EXTENSION)) {
+            writeBinary(file, matrix);
+        } else if (name.endsWith(".mtx")) {
+            writeMatrixMarket(file, SparseMatrix.fromDense(matrix.toDoubleMatrix()));
+        } else {
+            writeCsv(file, matrix);
+        }
+    }
+
+    // ---- CSV: one row per line, values separated by commas, semicolons or whitespace ----
+
+    static DoubleMatrix readCsv(Path file) throws IOException {
+        try (Tokenizer in = new Tokenizer(Files.newBufferedReader(file, StandardCharsets.UTF_8), false)) {
+            CsvShape shape = new CsvShape(in);
+            double[] values = new double[1024];
+            int size = 0;
+            for (int token; (token = in.next()) != Tokenizer.EOF; ) {
+                if (token == Tokenizer.END_OF_LINE) {
+                    shape.endRow();
+                    continue;
+                }
+                if (size == values.length) values = Arrays.copyOf(values, grow(size));
+                values[size++] = in.doubleValue();
+                shape.value();
+            }
+            shape.finish();
+            return DoubleMatrix.wrap(Arrays.copyOf(values, size), shape.rows, shape.cols);
+        }
+    }
+
+    static IntMatrix readIntCsv(Path file) throws IOException {
+        try (Tokenizer in = new Tokenizer(Files.newBufferedReader(file, StandardCharsets.UTF_8), false)) {
+            CsvShape shape = new CsvShape(in);
+            int[] values = new int[1024];
+            int size = 0;
+            for (int token; (token = in.next()) != Tokenizer.EOF; ) {
+                if (token == Tokenizer.END_OF_LINE) {
+                    shape.endRow();
+                    continue;
+                }
+                if (size == values.length) values = Arrays.copyOf(values, grow(size));
+                values[size++] = in.intValue();
+                shape.value();
+            }
+            shape.finish();
+            return IntMatrix.wrap(Arrays.copyOf(values, size), shape.rows, shape.cols);
+        }
+    }
+
+    static void writeCsv(Path file, Matrix matrix) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            StringBuilder row = new StringBuilder();
+            for (int i = 0; i < matrix.rows(); i++) {
+                row.setLength(0);
+                for (int j = 0; j < matrix.cols(); j++) {
+                    if (j > 0) row.append(',');
+                    matrix.appendEntry(row, i, j);
+                }
+                out.append(row).append('\n');
+            }
+        }
+    }
+
+    // ---- Matrix Market: coordinate (real, integer, pattern) and general dense array ----
+
+    static SparseMatrix readMatrixMarket(Path file) throws IOException {
+        try (Tokenizer in = new Tokenizer(Files.newBufferedReader(file, StandardCharsets.UTF_8), true)) {
+            String[] header = new String[5];
+            for (int k = 0; k < header.length; k++) {
+                if (in.next() != Tokenizer.TOKEN) throw in.error("incomplete %%MatrixMarket header");
+                header[k] = in.text().toLowerCase(Locale.ROOT);
+            }
+            in.skipLine();
+            if (!header[0].equals("%%matrixmarket") || !header[1].equals("matrix")) {
+                throw in.error("not a Matrix Market matrix file");
+            }
+            boolean coordinate = header[2].equals("coordinate");
+            if (!coordinate && !header[2].equals("array")) throw in.error("unknown format " + header[2]);
+            String field = header[3];
+            if (!field.equals("real") && !field.equals("integer") && !field.equals("double")
+                    && !(coordinate && field.equals("pattern"))) {
+                throw in.error("unsupported field type " + field);
+            }
+            String symmetry = header[4];
+            boolean symmetric = symmetry.equals("symmetric");
+            boolean skew = symmetry.equals("skew-symmetric");
+            if (!symmetry.equals("general") && !((symmetric || skew) && coordinate)) {
+                throw in.error("unsupported symmetry " + symmetry);
+            }
+
+            int rows = in.nextInt();
+            int cols = in.nextInt();
+            if (rows < 0 || cols < 0) throw in.error("negative matrix dimensions");
+            if (!coordinate) {
+                SparseMatrix.Builder builder = new SparseMatrix.Builder(rows, cols);
+                for (int j = 0; j < cols; j++) {
+                    for (int i = 0; i < rows; i++) {
+                        builder.add(i, j, in.nextDouble());
+                    }
+                }
+                return builder.build();
+            }
+
+            int entries = in.nextInt();
+            if (entries < 0) throw in.error("negative entry count");
+            boolean mirrored = symmetric || skew;
+            SparseMatrix.Builder builder = new SparseMatrix.Builder(rows, cols,
+                    mirrored ? (int) Math.min(2L * entries, Integer.MAX_VALUE - 8) : entries);
+            boolean pattern = field.equals("pattern");
+            for (int k = 0; k < entries; k++) {
+                int i = in.nextInt() - 1;
+                int j = in.nextInt() - 1;
+                double value = pattern ? 1.0 : in.nextDouble();
+                if (i < 0 || i >= rows || j < 0 || j >= cols) {
+                    throw in.error("entry (" + (i + 1) + ", " + (j + 1) + ") outside " + rows + "x" + cols);
+                }
+                builder.add(i, j, value);
+                if (mirrored && i != j) builder.add(j, i, skew ? -value : value);
+            }
+            return builder.build();
+        }
+    }
+
+    static void writeMatrixMarket(Path file, SparseMatrix matrix) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            StringBuilder line = new StringBuilder("%%MatrixMarket matrix coordinate real general\n");
+            line.append(matrix.rows()).append(' ').append(matrix.cols()).append(' ')
+                    .append(matrix.nonZeros()).append('\n');
+            out.append(line);
+            int[] pointers = matrix.rowPointers();
+            int[] indices = matrix.columnIndices();
+            double[] values = matrix.values();
+            for (int i = 0; i < matrix.rows(); i++) {
+                for (int k = pointers[i]; k < pointers[i + 1]; k++) {
+                    line.setLength(0);
+                    line.append(i + 1).append(' ').append(indices[k] + 1).append(' ');
+                    appendNumber(line, values[k]);
+                    out.append(line.append('\n'));
+                }
+            }
+        }
+    }
+
+    // ---- Binary ----
+
+    static final class BinaryHeader {
+        final int type;
+        final long rows;
+        final long cols;
+
+        BinaryHeader(int type, long rows, long cols) {
+            this.type = type;
+            this.rows = rows;
+            this.cols = cols;
+        }
+
+        int elementBytes() {
+            return type == TYPE_INT ? Integer.BYTES : Long.BYTES;
+        }
+
+        long dataBytes() {
+            return rows * cols * elementBytes();
+        }
+    }
+
+    static BinaryHeader readHeader(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BINARY_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) throw new IOException("Not a matrix file: header is truncated");
+        }
+        buffer.flip();
+        if (buffer.getInt() != BINARY_MAGIC) throw new IOException("Not a matrix file: bad magic number");
+        int version = buffer.getShort();
+        if (version != BINARY_VERSION) throw new IOException("Unsupported matrix file version " + version);
+        int type = buffer.getShort();
+        if (type != TYPE_INT && type != TYPE_LONG && type != TYPE_DOUBLE) {
+            throw new IOException("Unknown matrix element type " + type);
+        }
+        BinaryHeader header = new BinaryHeader(type, buffer.getLong(), buffer.getLong());
+        if (header.rows < 0 || header.cols < 0
+                || channel.size() != BINARY_HEADER_BYTES + header.dataBytes()) {
+            throw new IOException("Matrix file size does not match its " + header.rows + "x" + header.cols + " header");
+        }
+        return header;
+    }
+
+    static void writeHeader(FileChannel channel, BinaryHeader header) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BINARY_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(BINARY_MAGIC).putShort((short) BINARY_VERSION).putShort((short) header.type)
+                .putLong(header.rows).putLong(header.cols).flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, buffer.position());
+        }
+    }
+
+    // Returns an IntMatrix, LongMatrix or DoubleMatrix according to the stored element type.
+    static Matrix readBinary(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            BinaryHeader header = readHeader(channel);
+            long count = header.rows * header.cols;
+            if (count > Integer.MAX_VALUE - 8) {
+                throw new IOException("A " + header.rows + "x" + header.cols + " matrix is too large to load into memory");
+            }
+            int rows = (int) header.rows;
+            int cols = (int) header.cols;
+            switch (header.type) {
+                case TYPE_INT: {
+                    int[] data = new int[rows * cols];
+                    mapChunks(channel, FileChannel.MapMode.READ_ONLY, header,
+                            (buffer, from, length) -> buffer.asIntBuffer().get(data, from, length));
+                    return IntMatrix.wrap(data, rows, cols);
+                }
+                case TYPE_LONG: {
+                    long[] data = new long[rows * cols];
+                    mapChunks(channel, FileChannel.MapMode.READ_ONLY, header,
+                            (buffer, from, length) -> buffer.asLongBuffer().get(data, from, length));
+                    return LongMatrix.wrap(data, rows, cols);
+                }
+                default: {
+                    double[] data = new double[rows * cols];
+                    mapChunks(channel, FileChannel.MapMode.READ_ONLY, header,
+                            (buffer, from, length) -> buffer.asDoubleBuffer().get(data, from, length));
+                    return DoubleMatrix.wrap(data, rows, cols);
+                }
+            }
+        }
+    }
+
+    static void writeBinary(Path file, Matrix matrix) throws IOException {
+        int type = matrix instanceof IntMatrix ? TYPE_INT : matrix instanceof LongMatrix ? TYPE_LONG : TYPE_DOUBLE;
+        BinaryHeader header = new BinaryHeader(type, matrix.rows(), matrix.cols());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeHeader(channel, header);
+            if (type == TYPE_INT) {
+                int[] data = ((IntMatrix) matrix).rowMajorData();
+                mapChunks(channel, FileChannel.MapMode.READ_WRITE, header,
+                        (buffer, from, length) -> buffer.asIntBuffer().put(data, from, length));
+            } else if (type == TYPE_LONG) {
+                long[] data = ((LongMatrix) matrix).rowMajorData();
+                mapChunks(channel, FileChannel.MapMode.READ_WRITE, header,
+                        (buffer, from, length) -> buffer.asLongBuffer().put(data, from, length));
+            } else {
+                double[] data = matrix.toDoubleMatrix().rowMajorData();
+                mapChunks(channel, FileChannel.MapMode.READ_WRITE, header,
+                        (buffer, from, length) -> buffer.asDoubleBuffer().put(data, from, length));
+            }
+        }
+    }
+
+    private interface ChunkCopy {
+        void copy(ByteBuffer buffer, int fromElement, int elements);
+    }
+
+    // Maps the data section a chunk at a time; the bulk get/put of each view is a single copy.
+    private static void mapChunks(FileChannel channel, FileChannel.MapMode mode, BinaryHeader header, ChunkCopy copy)
+            throws IOException {
+        long bytes = header.dataBytes();
+        int elementBytes = header.elementBytes();
+        for (long done = 0; done < bytes; ) {
+            long size = Math.min(MAP_CHUNK, bytes - done);
+            MappedByteBuffer buffer = channel.map(mode, BINARY_HEADER_BYTES + done, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            copy.copy(buffer, (int) (done / elementBytes), (int) (size / elementBytes));
+            done += size;
+        }
+    }
+
+    // ---- helpers ----
+
+    private static IntMatrix toIntMatrix(Matrix matrix) throws IOException {
+        IntMatrix result = new IntMatrix(matrix.rows(), matrix.cols());
+        for (int i = 0; i < matrix.rows(); i++) {
+            for (int j = 0; j < matrix.cols(); j++) {
+                double v = matrix.getDouble(i, j);
+                if (v != (int) v) throw new IOException("Entry (" + (i + 1) + ", " + (j + 1) + ") is not a 32-bit integer");
+                result.set(i, j, (int) v);
+            }
+        }
+        return result;
+    }
+
+    private static void appendNumber(StringBuilder sb, double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            sb.append((long) value);
+        } else {
+            sb.append(value);
+        }
+    }
+
+    private static int grow(int size) {
+        if (size >= Integer.MAX_VALUE - 8) throw new OutOfMemoryError("Matrix has too many entries for an array");
+        return (int) Math.min(Integer.MAX_VALUE - 8, size + (long) (size >> 1));
+    }
+
+    static String fileName(Path file) {
+        Path name = file.getFileName();
+        return name == null ? "" : name.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class CsvShape {
+        private final Tokenizer in;
+        int rows;
+        int cols = -1;
+        private int inRow;
+
+        CsvShape(Tokenizer in) {
+            this.in = in;
+        }
+
+        void value() {
+            inRow++;
+        }
+
+        // Blank lines are ignored; every other row must match the first one's width.
+        void endRow() throws IOException {
+            if (inRow == 0) return;
+            if (cols < 0) {
+                cols = inRow;
+            } else if (inRow != cols) {
+                throw in.error("expected " + cols + " values but found " + inRow);
+            }
+            rows++;
+            inRow = 0;
+        }
+
+        void finish() throws IOException {
+            endRow();
+            if (cols < 0) throw in.error("no data");
+        }
+    }
+
+    // Splits text into number tokens and line ends without creating a String per line.
+    // Commas, semicolons, spaces and tabs separate tokens; lines starting with % are skipped,
+    // except a Matrix Market file's first line, whose %%MatrixMarket banner is read as tokens.
+    private static final class Tokenizer implements AutoCloseable {
+        static final int EOF = -1;
+        static final int END_OF_LINE = 0;
+        static final int TOKEN = 1;
+
+        private final Reader reader;
+        private final char[] buffer = new char[1 << 16];
+        private int position;
+        private int limit;
+        private char[] token = new char[32];
+        private int length;
+        private int line = 1;
+        private boolean lineStart = true;
+        private boolean lineEnded;
+        private final boolean banner;
+
+        Tokenizer(BufferedReader reader, boolean banner) {
+            this.reader = reader;
+            this.banner = banner;
+        }
+
+        int next() throws IOException {
+            // The line count moves on only after END_OF_LINE is handled, so errors raised
+            // for a finished row still name that row's line.
+            if (lineEnded) {
+                line++;
+                lineEnded = false;
+            }
+            while (true) {
+                int c = read();
+                if (c < 0) return EOF;
+                if (c == '\n') {
+                    lineEnded = true;
+                    lineStart = true;
+                    return END_OF_LINE;
+                }
+                if (isSeparator(c)) continue;
+                if (c == '%' && lineStart && (line > 1 || !banner)) {
+                    skipLine();
+                    continue;
+                }
+                lineStart = false;
+                length = 0;
+                while (c >= 0 && c != '\n' && !isSeparator(c)) {
+                    if (length == token.length) token = Arrays.copyOf(token, length * 2);
+                    token[length++] = (char) c;
+                    c = read();
+                }
+                if (c == '\n') position--;
+                return TOKEN;
+            }
+        }
+
+        void skipLine() throws IOException {
+            for (int c = read(); c >= 0; c = read()) {
+                if (c == '\n') {
+                    line++;
+                    lineStart = true;
+                    return;
+                }
+            }
+        }
+
+        // Next value on any line, for formats where line breaks carry no meaning.
+        private int nextValue() throws IOException {
+            int kind;
+            do {
+                kind = next();
+            } while (kind == END_OF_LINE);
+            if (kind == EOF) throw error("unexpected end of file");
+            return kind;
+        }
+
+        int nextInt() throws IOException {
+            nextValue();
+            return intValue();
+        }
+
+        double nextDouble() throws IOException {
+            nextValue();
+            return doubleValue();
+        }
+
+        String text() {
+            return new String(token, 0, length);
+        }
+
+        int intValue() throws IOException {
+            long value = parseLong();
+            if (value != (int) value || length == 0) throw error(text() + " is not a 32-bit integer");
+            return (int) value;
+        }
+
+        double doubleValue() throws IOException {
+            // Plain integers are the common case and parse without allocating.
+            if (length > 0 && length <= 18) {
+                long value = parseLong();
+                if (value != Long.MIN_VALUE) return value;
+            }
+            try {
+                return Double.parseDouble(text());
+            } catch (NumberFormatException ex) {
+                throw error(text() + " is not a number");
+            }
+        }
+
+        IOException error(String message) {
+            return new IOException("Line " + line + ": " + message);
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+
+        // Long.MIN_VALUE when the token is not a plain decimal integer of at most 18 digits.
+        private long parseLong() {
+            int k = 0;
+            boolean negative = false;
+            if (length > 0 && (token[0] == '-' || token[0] == '+')) {
+                negative = token[0] == '-';
+                k = 1;
+            }
+            if (k == length || length - k > 18) return Long.MIN_VALUE;
+            long value = 0;
+            for (; k < length; k++) {
+                int digit = token[k] - '0';
+                if (digit < 0 || digit > 9) return Long.MIN_VALUE;
+                value = value * 10 + digit;
+            }
+            return negative ? -value : value;
+        }
+
+        private int read() throws IOException {
+            if (position == limit) {
+                limit = reader.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position++];
+        }
+
+        private static boolean isSeparator(int c) {
+            return c == ',' || c == ';' || c == ' ' || c == '\t' || c == '\r';
+        }
+    }
+}
@@ -0,0 +1,158 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Stream;
+
+// Checks MatrixIO's CSV, Matrix Market and .mxb formats by exact round trips, by reading
+// hand-written files that use each format's optional features, and by the IOException each
+// kind of malformed file must raise. Works in a temporary directory it deletes afterwards.
+// Run with "java MatrixIOTest"; exits with status 1 on a failure.
+final class MatrixIOTest {
+    private static int failures;
+
+    private MatrixIOTest() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Files.createTempDirectory("matrix-io-test");
+        try {
+            run(directory);
+        } finally {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+        System.out.println(failures == 0 ? "All checks passed" : failures + " checks failed");
+        if (failures > 0) System.exit(1);
+    }
+
+    private static void run(Path directory) throws IOException {
+        Random random = new Random(29);
+        double[] values = new double[37 * 11];
+        Arrays.setAll(values, i -> random.nextGaussian() * Math.pow(10, random.nextInt(61) - 30));
+        values[0] = -0.0;
+        values[1] = Double.MIN_VALUE;
+        values[2] = Double.MAX_VALUE;
+        DoubleMatrix doubles = DoubleMatrix.wrap(values, 37, 11);
+
+        Path csv = directory.resolve("a.csv");
+        MatrixIO.write(csv, doubles);
+        check("CSV round trip", Arrays.equals(MatrixIO.readDense(csv).toRowMajor(), values), "");
+        double[][] columns = MatrixIO.readColumns(csv);
+        check("columns", columns.length == 11 && columns[3][5] == doubles.get(5, 3), "");
+        MatrixIO.write(csv, doubles.transpose());
+        check("CSV of a transposed view", Arrays.equals(MatrixIO.readDense(csv).toRowMajor(), doubles.transpose().toRowMajor()), "");
+
+        Path text = write(directory, "b.csv", "% exported 2024\r\n1, 2;3\r\n\r\n4\t5 6\r\n% trailing note\r\n");
+        Matrix read = MatrixIO.readMatrix(text);
+        check("CSV separators, comments, blank lines and CRLF", read instanceof IntMatrix
+                && Arrays.equals(((IntMatrix) read).rowMajorData(), new int[]{1, 2, 3, 4, 5, 6}) && read.rows() == 2, "");
+        check("fractional CSV stays double", MatrixIO.readMatrix(write(directory, "c.csv", "1,2.5\n")) instanceof DoubleMatrix, "");
+        expectError("ragged CSV", write(directory, "d.csv", "1,2\n3,4\n5\n"), "Line 3");
+        expectError("CSV with a word", write(directory, "e.csv", "1,x\n"), "not a number");
+        expectError("empty CSV", write(directory, "f.csv", ""), "no data");
+        expectError("CSV of comments only", write(directory, "g.csv", "% nothing here\n"), "no data");
+        expectIntError("CSV beyond 32 bits", write(directory, "h.csv", "1,3000000000\n"), "32-bit");
+
+        SparseMatrix.Builder builder = new SparseMatrix.Builder(50, 40);
+        for (int k = 0; k < 200; k++) {
+            builder.add(random.nextInt(50), random.nextInt(40), random.nextGaussian());
+        }
+        SparseMatrix sparse = builder.build();
+        Path mtx = directory.resolve("a.mtx");
+        MatrixIO.writeMatrixMarket(mtx, sparse);
+        SparseMatrix back = MatrixIO.readSparse(mtx);
+        check("Matrix Market round trip", back.rows() == 50 && back.cols() == 40
+                && Arrays.equals(back.rowPointers(), sparse.rowPointers())
+                && Arrays.equals(back.columnIndices(), sparse.columnIndices())
+                && Arrays.equals(back.values(), sparse.values()), "");
+        SparseMatrix symmetric = MatrixIO.readMatrixMarket(write(directory, "b.mtx",
+                "%%MatrixMarket matrix coordinate real symmetric\n% a comment\n%\n3 3 3\n1 1 2\n3 1 -1\n2 2 5\n"));
+        check("symmetric coordinate", Arrays.equals(symmetric.toDense().toRowMajor(), new double[]{2, 0, -1, 0, 5, 0, -1, 0, 0}), "");
+        SparseMatrix skew = MatrixIO.readMatrixMarket(write(directory, "c.mtx",
+                "%%MatrixMarket matrix coordinate integer skew-symmetric\n2 2 1\n2 1 4\n"));
+        check("skew-symmetric coordinate", Arrays.equals(skew.toDense().toRowMajor(), new double[]{0, -4, 4, 0}), "");
+        SparseMatrix pattern = MatrixIO.readMatrixMarket(write(directory, "d.mtx",
+                "%%MatrixMarket matrix coordinate pattern general\n2 3 2\n1 3\n2 1\n"));
+        check("pattern coordinate", Arrays.equals(pattern.toDense().toRowMajor(), new double[]{0, 0, 1, 1, 0, 0}), "");
+        SparseMatrix array = MatrixIO.readMatrixMarket(write(directory, "e.mtx",
+                "%%MatrixMarket matrix array real general\n2 2\n1\n2\n3\n4\n"));
+        check("array is column-major", Arrays.equals(array.toDense().toRowMajor(), new double[]{1, 3, 2, 4}), "");
+        expectError("missing banner", write(directory, "f.mtx", "% just a comment\n2 2 0\n"), "");
+        expectError("unsupported field", write(directory, "g.mtx", "%%MatrixMarket matrix coordinate complex general\n1 1 0\n"),
+                "complex");
+        expectError("entry outside", write(directory, "h.mtx", "%%MatrixMarket matrix coordinate real general\n2 2 1\n3 1 1\n"),
+                "outside");
+        expectError("truncated entries", write(directory, "i.mtx", "%%MatrixMarket matrix coordinate real general\n2 2 2\n1 1 1\n"),
+                "end of file");
+        expectError("empty Matrix Market", write(directory, "j.mtx", ""), "header");
+
+        Path mxb = directory.resolve("a.mxb");
+        int[] ints = new int[23 * 7];
+        Arrays.setAll(ints, i -> random.nextInt());
+        ints[0] = Integer.MIN_VALUE;
+        MatrixIO.write(mxb, IntMatrix.wrap(ints, 23, 7));
+        read = MatrixIO.readMatrix(mxb);
+        check("int .mxb round trip", read instanceof IntMatrix && Arrays.equals(((IntMatrix) read).rowMajorData(), ints)
+                && Files.size(mxb) == MatrixIO.BINARY_HEADER_BYTES + 4L * ints.length, "");
+        long[] longs = new long[9 * 31];
+        Arrays.setAll(longs, i -> random.nextLong());
+        longs[1] = Long.MAX_VALUE;
+        MatrixIO.write(mxb, LongMatrix.wrap(longs, 9, 31));
+        read = MatrixIO.readBinary(mxb);
+        check("long .mxb round trip", read instanceof LongMatrix && Arrays.equals(((LongMatrix) read).rowMajorData(), longs), "");
+        values[3] = Double.NaN;
+        MatrixIO.write(mxb, doubles);
+        read = MatrixIO.readBinary(mxb);
+        check("double .mxb round trip", read instanceof DoubleMatrix && Arrays.equals(((DoubleMatrix) read).toRowMajor(), values), "");
+        MatrixIO.write(mxb, new DoubleMatrix(0, 3));
+        read = MatrixIO.readBinary(mxb);
+        check("empty .mxb", read.rows() == 0 && read.cols() == 3, "");
+
+        MatrixIO.write(mxb, IntMatrix.wrap(new int[]{1, 2, 3, 4}, 2, 2));
+        byte[] bytes = Files.readAllBytes(mxb);
+        Files.write(mxb, Arrays.copyOf(bytes, bytes.length - 1));
+        expectError("truncated .mxb", mxb, "does not match");
+        Files.write(mxb, Arrays.copyOf(bytes, 10));
+        expectError("truncated .mxb header", mxb, "truncated");
+        bytes[0] ^= 1;
+        Files.write(mxb, bytes);
+        expectError("bad .mxb magic", mxb, "magic");
+        Files.write(mxb, new byte[0]);
+        expectError("zero-byte .mxb", mxb, "truncated");
+    }
+
+    private static Path write(Path directory, String name, String content) throws IOException {
+        return Files.write(directory.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void expectError(String name, Path file, String message) {
+        try {
+            MatrixIO.readMatrix(file);
+            check(name, false, "no IOException");
+        } catch (IOException expected) {
+            check(name, expected.getMessage().contains(message), expected.getMessage());
+        }
+    }
+
+    private static void expectIntError(String name, Path file, String message) {
+        try {
+            MatrixIO.readIntMatrix(file);
+            check(name, false, "no IOException");
+        } catch (IOException expected) {
+            check(name, expected.getMessage().contains(message), expected.getMessage());
+        }
+    }
+
+    private static void check(String name, boolean ok, String detail) {
+        if (ok) return;
+        System.out.println("FAIL " + name + (detail.isEmpty() ? "" : ": " + detail));
+        failures++;
+    }
+}
@@ -0,0 +1,634 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+// Matrix products over contiguous row-major storage. Small products run a cache-blocked
+// kernel on the calling thread, larger ones split row panels across the common ForkJoinPool,
+// and products whose every dimension reaches the Strassen threshold recurse through Strassen.
+// int and long arithmetic wraps exactly like the textbook triple loop, so every integer path
+// returns the same result bit for bit.
+final class MatrixMultiplier {
+    private static final int PARALLEL_WORK = 1 << 18;
+
+    private static volatile int blockSize = Integer.getInteger("mathsolver.blockSize", 64);
+    private static volatile int strassenThreshold = Integer.getInteger("mathsolver.strassenThreshold", 512);
+
+    private MatrixMultiplier() {
+    }
+
+    static int getBlockSize() {
+        return blockSize;
+    }
+
+    static void setBlockSize(int size) {
+        if (size < 1) throw new IllegalArgumentException("Block size must be positive");
+        blockSize = size;
+    }
+
+    static int getStrassenThreshold() {
+        return strassenThreshold;
+    }
+
+    static void setStrassenThreshold(int threshold) {
+        if (threshold < 2) throw new IllegalArgumentException("Strassen threshold must be at least 2");
+        strassenThreshold = threshold;
+    }
+
+    static int[][] multiply(int[][] a, int[][] b) {
+        int n = a.length;
+        int m = a[0].length;
+        int p = b[0].length;
+        if (b.length != m) {
+            throw new IllegalArgumentException("Columns of A must equal rows of B");
+        }
+        int[] flatA = new int[n * m];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(a[i], 0, flatA, i * m, m);
+        }
+        int[] flatB = new int[m * p];
+        for (int i = 0; i < m; i++) {
+            System.arraycopy(b[i], 0, flatB, i * p, p);
+        }
+        int[] flatC = multiply(flatA, flatB, n, m, p);
+        int[][] c = new int[n][p];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(flatC, i * p, c[i], 0, p);
+        }
+        return c;
+    }
+
+    // a is n x m, b is m x p, both row-major; returns the n x p product.
+    static int[] multiply(int[] a, int[] b, int n, int m, int p) {
+        int threshold = strassenThreshold;
+        TaskContext context = TaskContext.current();
+        context.begin(kernelWork(n, m, p, threshold));
+        if (useStrassen(n, m, p, threshold)) {
+            return ForkJoinPool.commonPool().invoke(new IntStrassenTask(a, b, n, m, p, threshold, context));
+        }
+        int[] c = new int[n * p];
+        multiplyBlocked(a, b, c, n, m, p, context);
+        return c;
+    }
+
+    static long[] multiply(long[] a, long[] b, int n, int m, int p) {
+        int threshold = strassenThreshold;
+        TaskContext context = TaskContext.current();
+        context.begin(kernelWork(n, m, p, threshold));
+        if (useStrassen(n, m, p, threshold)) {
+            return ForkJoinPool.commonPool().invoke(new LongStrassenTask(a, b, n, m, p, threshold, context));
+        }
+        long[] c = new long[n * p];
+        multiplyBlocked(a, b, c, n, m, p, context);
+        return c;
+    }
+
+    static double[] multiply(double[] a, double[] b, int n, int m, int p) {
+        int threshold = strassenThreshold;
+        TaskContext context = TaskContext.current();
+        context.begin(kernelWork(n, m, p, threshold));
+        if (useStrassen(n, m, p, threshold)) {
+            return ForkJoinPool.commonPool().invoke(new DoubleStrassenTask(a, b, n, m, p, threshold, context));
+        }
+        double[] c = new double[n * p];
+        multiplyBlocked(a, b, c, n, m, p, context);
+        return c;
+    }
+
+    // c += alpha * a * b, with c compact row-major (at least n * p entries) and a and b read in
+    // place through their strides, so transposed or sub-block operands need no copy. A
+    // transposed b is handled as dot products of contiguous rows; other layouts run the blocked
+    // kernel with strided reads.
+    static void multiplyAccumulate(double alpha, DoubleMatrix a, DoubleMatrix b, double[] c) {
+        TaskContext context = TaskContext.current();
+        context.begin((long) a.rows() * a.cols() * b.cols());
+        multiplyAccumulate(alpha, a, b, c, context);
+    }
+
+    // As above for one step of a larger computation: the caller has declared the total work,
+    // and this reports its multiply-adds against it.
+    static void multiplyAccumulate(double alpha, DoubleMatrix a, DoubleMatrix b, double[] c, TaskContext context) {
+        a.checkMultipliable(b);
+        int n = a.rows();
+        int m = a.cols();
+        int p = b.cols();
+        if (c.length < n * p) throw new IllegalArgumentException("Result must hold " + n * p + " entries");
+        int block = blockSize;
+        double[] x = a.storage();
+        double[] y = b.storage();
+        if (b.colStride != 1 && b.rowStride == 1 && a.colStride == 1) {
+            runPanels(n, m, p, context, (from, to) -> multiplyPanelDot(alpha, x, a.offset, a.rowStride,
+                    y, b.offset, b.colStride, c, from, to, m, p));
+        } else {
+            runPanels(n, m, p, context, (from, to) -> multiplyPanelStrided(alpha, x, a.offset, a.rowStride, a.colStride,
+                    y, b.offset, b.rowStride, b.colStride, c, from, to, m, p, block));
+        }
+    }
+
+    // Like multiply(long[], ...) but throws ArithmeticException instead of wrapping.
+    // Strassen is skipped because its intermediate sums may overflow even when the product fits.
+    static long[] multiplyExact(long[] a, long[] b, int n, int m, int p) {
+        TaskContext context = TaskContext.current();
+        context.begin((long) n * m * p);
+        long[] c = new long[n * p];
+        runPanels(n, m, p, context, (from, to) -> multiplyPanelExact(a, b, c, from, to, m, p, blockSize));
+        return c;
+    }
+
+    static int[][] multiplyNaive(int[][] a, int[][] b) {
+        int rowsA = a.length;
+        int colsA = a[0].length;
+        int colsB = b[0].length;
+        int[][] result = new int[rowsA][colsB];
+        for (int i = 0; i < rowsA; i++) {
+            for (int j = 0; j < colsB; j++) {
+                for (int k = 0; k < colsA; k++) {
+                    result[i][j] += a[i][k] * b[k][j];
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean useStrassen(int n, int m, int p, int threshold) {
+        return n >= threshold && m >= threshold && p >= threshold;
+    }
+
+    // Accumulates a * b into c.
+    private static void multiplyBlocked(int[] a, int[] b, int[] c, int n, int m, int p, TaskContext context) {
+        int block = blockSize;
+        runPanels(n, m, p, context, (from, to) -> multiplyPanel(a, b, c, from, to, m, p, block));
+    }
+
+    private static void multiplyBlocked(long[] a, long[] b, long[] c, int n, int m, int p, TaskContext context) {
+        int block = blockSize;
+        runPanels(n, m, p, context, (from, to) -> multiplyPanel(a, b, c, from, to, m, p, block));
+    }
+
+    private static void multiplyBlocked(double[] a, double[] b, double[] c, int n, int m, int p, TaskContext context) {
+        int block = blockSize;
+        runPanels(n, m, p, context, (from, to) -> multiplyPanel(a, b, c, from, to, m, p, block));
+    }
+
+    // Polls the context between row panels and reports progress in scalar multiply-adds.
+    private static void runPanels(int n, int m, int p, TaskContext context, RowPanel panel) {
+        int block = blockSize;
+        RowPanel tracked = context == TaskContext.NONE ? panel : (from, to) -> {
+            context.checkCancelled();
+            panel.multiply(from, to);
+            context.worked((long) (to - from) * m * p);
+        };
+        if ((long) n * m * p < PARALLEL_WORK || n <= block) {
+            for (int from = 0; from < n; from += block) {
+                tracked.multiply(from, Math.min(from + block, n));
+            }
+        } else {
+            ForkJoinPool.commonPool().invoke(new PanelTask(tracked, 0, n, block));
+        }
+    }
+
+    // Multiply-adds the blocked kernel performs for a product, including Strassen's padding.
+    private static long kernelWork(int n, int m, int p, int threshold) {
+        if (!useStrassen(n, m, p, threshold)) return (long) n * m * p;
+        return 7 * kernelWork((n + 1) / 2, (m + 1) / 2, (p + 1) / 2, threshold);
+    }
+
+    private static void multiplyPanel(int[] a, int[] b, int[] c, int rowFrom, int rowTo,
+                                      int m, int p, int block) {
+        for (int kk = 0; kk < m; kk += block) {
+            int kEnd = Math.min(kk + block, m);
+            for (int jj = 0; jj < p; jj += block) {
+                int jEnd = Math.min(jj + block, p);
+                for (int i = rowFrom; i < rowTo; i++) {
+                    int aRow = i * m;
+                    int cRow = i * p;
+                    for (int k = kk; k < kEnd; k++) {
+                        int aik = a[aRow + k];
+                        if (aik == 0) continue;
+                        int bRow = k * p;
+                        for (int j = jj; j < jEnd; j++) {
+                            c[cRow + j] += aik * b[bRow + j];
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static void multiplyPanel(long[] a, long[] b, long[] c, int rowFrom, int rowTo,
+                                      int m, int p, int block) {
+        for (int kk = 0; kk < m; kk += block) {
+            int kEnd = Math.min(kk + block, m);
+            for (int jj = 0; jj < p; jj += block) {
+                int jEnd = Math.min(jj + block, p);
+                for (int i = rowFrom; i < rowTo; i++) {
+                    int aRow = i * m;
+                    int cRow = i * p;
+                    for (int k = kk; k < kEnd; k++) {
+                        long aik = a[aRow + k];
+                        if (aik == 0) continue;
+                        int bRow = k * p;
+                        for (int j = jj; j < jEnd; j++) {
+                            c[cRow + j] += aik * b[bRow + j];
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static void multiplyPanel(double[] a, double[] b, double[] c, int rowFrom, int rowTo,
+                                      int m, int p, int block) {
+        for (int kk = 0; kk < m; kk += block) {
+            int kEnd = Math.min(kk + block, m);
+            for (int jj = 0; jj < p; jj += block) {
+                int jEnd = Math.min(jj + block, p);
+                for (int i = rowFrom; i < rowTo; i++) {
+                    int aRow = i * m;
+                    int cRow = i * p;
+                    for (int k = kk; k < kEnd; k++) {
+                        double aik = a[aRow + k];
+                        if (aik == 0) continue;
+                        int bRow = k * p;
+                        for (int j = jj; j < jEnd; j++) {
+                            c[cRow + j] += aik * b[bRow + j];
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static void multiplyPanelStrided(double alpha, double[] a, int aOffset, int aRowStride, int aColStride,
+                                             double[] b, int bOffset, int bRowStride, int bColStride,
+                                             double[] c, int rowFrom, int rowTo, int m, int p, int block) {
+        for (int kk = 0; kk < m; kk += block) {
+            int kEnd = Math.min(kk + block, m);
+            for (int jj = 0; jj < p; jj += block) {
+                int jEnd = Math.min(jj + block, p);
+                for (int i = rowFrom; i < rowTo; i++) {
+                    int aRow = aOffset + i * aRowStride;
+                    int cRow = i * p;
+                    for (int k = kk; k < kEnd; k++) {
+                        double aik = alpha * a[aRow + k * aColStride];
+                        if (aik == 0) continue;
+                        int bRow = bOffset + k * bRowStride;
+                        for (int j = jj; j < jEnd; j++) {
+                            c[cRow + j] += aik * b[bRow + j * bColStride];
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // b's column j is contiguous, starting at bOffset + j * bColStride.
+    private static void multiplyPanelDot(double alpha, double[] a, int aOffset, int aRowStride,
+                                         double[] b, int bOffset, int bColStride,
+                                         double[] c, int rowFrom, int rowTo, int m, int p) {
+        for (int i = rowFrom; i < rowTo; i++) {
+            int aRow = aOffset + i * aRowStride;
+            int cRow = i * p;
+            for (int j = 0; j < p; j++) {
+                int bColumn = bOffset + j * bColStride;
+                double sum = 0;
+                for (int k = 0; k < m; k++) {
+                    sum += a[aRow + k] * b[bColumn + k];
+                }
+                c[cRow + j] += alpha * sum;
+            }
+        }
+    }
+
+    private static void multiplyPanelExact(long[] a, long[] b, long[] c, int rowFrom, int rowTo,
+                                           int m, int p, int block) {
+        for (int kk = 0; kk < m; kk += block) {
+            int kEnd = Math.min(kk + block, m);
+            for (int jj = 0; jj < p; jj += block) {
+                int jEnd = Math.min(jj + block, p);
+                for (int i = rowFrom; i < rowTo; i++) {
+                    int aRow = i * m;
+                    int cRow = i * p;
+                    for (int k = kk; k < kEnd; k++) {
+                        long aik = a[aRow + k];
+                        if (aik == 0) continue;
+                        int bRow = k * p;
+                        for (int j = jj; j < jEnd; j++) {
+                            c[cRow + j] = Math.addExact(c[cRow + j], Math.multiplyExact(aik, b[bRow + j]));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private interface RowPanel {
+        void multiply(int rowFrom, int rowTo);
+    }
+
+    private static final class PanelTask extends RecursiveAction {
+        private final RowPanel panel;
+        private final int rowFrom, rowTo, block;
+
+        PanelTask(RowPanel panel, int rowFrom, int rowTo, int block) {
+            this.panel = panel;
+            this.rowFrom = rowFrom;
+            this.rowTo = rowTo;
+            this.block = block;
+        }
+
+        @Override
+        protected void compute() {
+            int rows = rowTo - rowFrom;
+            if (rows <= block) {
+                panel.multiply(rowFrom, rowTo);
+                return;
+            }
+            // Split on block boundaries so neighbouring tasks never share a tile of c.
+            int mid = rowFrom + (rows / 2 + block - 1) / block * block;
+            invokeAll(new PanelTask(panel, rowFrom, mid, block),
+                      new PanelTask(panel, mid, rowTo, block));
+        }
+    }
+
+    private static final class IntStrassenTask extends RecursiveTask<int[]> {
+        private final int[] a, b;
+        private final int n, m, p, threshold;
+        private final TaskContext context;
+
+        IntStrassenTask(int[] a, int[] b, int n, int m, int p, int threshold, TaskContext context) {
+            this.a = a;
+            this.b = b;
+            this.n = n;
+            this.m = m;
+            this.p = p;
+            this.threshold = threshold;
+            this.context = context;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (n < threshold || m < threshold || p < threshold) {
+                int[] c = new int[n * p];
+                multiplyBlocked(a, b, c, n, m, p, context);
+                return c;
+            }
+            context.checkCancelled();
+            // Odd dimensions are padded with zeros while the quadrants are copied out.
+            int hn = (n + 1) / 2;
+            int hm = (m + 1) / 2;
+            int hp = (p + 1) / 2;
+            int[] a11 = quadrant(a, n, m, 0, 0, hn, hm);
+            int[] a12 = quadrant(a, n, m, 0, hm, hn, hm);
+            int[] a21 = quadrant(a, n, m, hn, 0, hn, hm);
+            int[] a22 = quadrant(a, n, m, hn, hm, hn, hm);
+            int[] b11 = quadrant(b, m, p, 0, 0, hm, hp);
+            int[] b12 = quadrant(b, m, p, 0, hp, hm, hp);
+            int[] b21 = quadrant(b, m, p, hm, 0, hm, hp);
+            int[] b22 = quadrant(b, m, p, hm, hp, hm, hp);
+
+            IntStrassenTask t1 = new IntStrassenTask(add(a11, a22), add(b11, b22), hn, hm, hp, threshold, context);
+            IntStrassenTask t2 = new IntStrassenTask(add(a21, a22), b11, hn, hm, hp, threshold, context);
+            IntStrassenTask t3 = new IntStrassenTask(a11, subtract(b12, b22), hn, hm, hp, threshold, context);
+            IntStrassenTask t4 = new IntStrassenTask(a22, subtract(b21, b11), hn, hm, hp, threshold, context);
+            IntStrassenTask t5 = new IntStrassenTask(add(a11, a12), b22, hn, hm, hp, threshold, context);
+            IntStrassenTask t6 = new IntStrassenTask(subtract(a21, a11), add(b11, b12), hn, hm, hp, threshold, context);
+            IntStrassenTask t7 = new IntStrassenTask(subtract(a12, a22), add(b21, b22), hn, hm, hp, threshold, context);
+            invokeAll(t1, t2, t3, t4, t5, t6, t7);
+            int[] m1 = t1.join(), m2 = t2.join(), m3 = t3.join(), m4 = t4.join();
+            int[] m5 = t5.join(), m6 = t6.join(), m7 = t7.join();
+
+            int[] c = new int[n * p];
+            for (int i = 0; i < hn; i++) {
+                int row = i * hp;
+                int top = i * p;
+                int bottom = (i + hn) * p;
+                boolean hasBottom = i + hn < n;
+                for (int j = 0; j < hp; j++) {
+                    int q = row + j;
+                    c[top + j] = m1[q] + m4[q] - m5[q] + m7[q];
+                    if (j + hp < p) c[top + j + hp] = m3[q] + m5[q];
+                    if (hasBottom) {
+                        c[bottom + j] = m2[q] + m4[q];
+                        if (j + hp < p) c[bottom + j + hp] = m1[q] - m2[q] + m3[q] + m6[q];
+                    }
+                }
+            }
+            return c;
+        }
+
+        private static int[] quadrant(int[] src, int rows, int cols, int rowOffset, int colOffset,
+                                      int h, int w) {
+            int[] q = new int[h * w];
+            int copyRows = Math.min(h, rows - rowOffset);
+            int copyCols = Math.min(w, cols - colOffset);
+            for (int i = 0; i < copyRows; i++) {
+                System.arraycopy(src, (rowOffset + i) * cols + colOffset, q, i * w, copyCols);
+            }
+            return q;
+        }
+
+        private static int[] add(int[] x, int[] y) {
+            int[] r = new int[x.length];
+            for (int i = 0; i < r.length; i++) {
+                r[i] = x[i] + y[i];
+            }
+            return r;
+        }
+
+        private static int[] subtract(int[] x, int[] y) {
+            int[] r = new int[x.length];
+            for (int i = 0; i < r.length; i++) {
+                r[i] = x[i] - y[i];
+            }
+            return r;
+        }
+    }
+
+    private static final class LongStrassenTask extends RecursiveTask<long[]> {
+        private final long[] a, b;
+        private final int n, m, p, threshold;
+        private final TaskContext context;
+
+        LongStrassenTask(long[] a, long[] b, int n, int m, int p, int threshold, TaskContext context) {
+            this.a = a;
+            this.b = b;
+            this.n = n;
+            this.m = m;
+            this.p = p;
+            this.threshold = threshold;
+            this.context = context;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (n < threshold || m < threshold || p < threshold) {
+                long[] c = new long[n * p];
+                multiplyBlocked(a, b, c, n, m, p, context);
+                return c;
+            }
+            context.checkCancelled();
+            // Odd dimensions are padded with zeros while the quadrants are copied out.
+            int hn = (n + 1) / 2;
+            int hm = (m + 1) / 2;
+            int hp = (p + 1) / 2;
+            long[] a11 = quadrant(a, n, m, 0, 0, hn, hm);
+            long[] a12 = quadrant(a, n, m, 0, hm, hn, hm);
+            long[] a21 = quadrant(a, n, m, hn, 0, hn, hm);
+            long[] a22 = quadrant(a, n, m, hn, hm, hn, hm);
+            long[] b11 = quadrant(b, m, p, 0, 0, hm, hp);
+            long[] b12 = quadrant(b, m, p, 0, hp, hm, hp);
+            long[] b21 = quadrant(b, m, p, hm, 0, hm, hp);
+            long[] b22 = quadrant(b, m, p, hm, hp, hm, hp);
+
+            LongStrassenTask t1 = new LongStrassenTask(add(a11, a22), add(b11, b22), hn, hm, hp, threshold, context);
+            LongStrassenTask t2 = new LongStrassenTask(add(a21, a22), b11, hn, hm, hp, threshold, context);
+            LongStrassenTask t3 = new LongStrassenTask(a11, subtract(b12, b22), hn, hm, hp, threshold, context);
+            LongStrassenTask t4 = new LongStrassenTask(a22, subtract(b21, b11), hn, hm, hp, threshold, context);
+            LongStrassenTask t5 = new LongStrassenTask(add(a11, a12), b22, hn, hm, hp, threshold, context);
+            LongStrassenTask t6 = new LongStrassenTask(subtract(a21, a11), add(b11, b12), hn, hm, hp, threshold, context);
+            LongStrassenTask t7 = new LongStrassenTask(subtract(a12, a22), add(b21, b22), hn, hm, hp, threshold, context);
+            invokeAll(t1, t2, t3, t4, t5, t6, t7);
+            long[] m1 = t1.join(), m2 = t2.join(), m3 = t3.join(), m4 = t4.join();
+            long[] m5 = t5.join(), m6 = t6.join(), m7 = t7.join();
+
+            long[] c = new long[n * p];
+            for (int i = 0; i < hn; i++) {
+                int row = i * hp;
+                int top = i * p;
+                int bottom = (i + hn) * p;
+                boolean hasBottom = i + hn < n;
+                for (int j = 0; j < hp; j++) {
+                    int q = row + j;
+                    c[top + j] = m1[q] + m4[q] - m5[q] + m7[q];
+                    if (j + hp < p) c[top + j + hp] = m3[q] + m5[q];
+                    if (hasBottom) {
+                        c[bottom + j] = m2[q] + m4[q];
+                        if (j + hp < p) c[bottom + j + hp] = m1[q] - m2[q] + m3[q] + m6[q];
+                    }
+                }
+            }
+            return c;
+        }
+
+        private static long[] quadrant(long[] src, int rows, int cols, int rowOffset, int colOffset,
+                                      int h, int w) {
+            long[] q = new long[h * w];
+            int copyRows = Math.min(h, rows - rowOffset);
+            int copyCols = Math.min(w, cols - colOffset);
+            for (int i = 0; i < copyRows; i++) {
+                System.arraycopy(src, (rowOffset + i) * cols + colOffset, q, i * w, copyCols);
+            }
+            return q;
+        }
+
+        private static long[] add(long[] x, long[] y) {
+            long[] r = new long[x.length];
+            for (int i = 0; i < r.length; i++) {
+                r[i] = x[i] + y[i];
+            }
+            return r;
+        }
+
+        private static long[] subtract(long[] x, long[] y) {
+            long[] r = new long[x.length];
+            for (int i = 0; i < r.length; i++) {
+                r[i] = x[i] - y[i];
+            }
+            return r;
+        }
+    }
+
+    private static final class DoubleStrassenTask extends RecursiveTask<double[]> {
+        private final double[] a, b;
+        private final int n, m, p, threshold;
+        private final TaskContext context;
+
+        DoubleStrassenTask(double[] a, double[] b, int n, int m, int p, int threshold, TaskContext context) {
+            this.a = a;
+            this.b = b;
+            this.n = n;
+            this.m = m;
+            this.p = p;
+            this.threshold = threshold;
+            this.context = context;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (n < threshold || m < threshold || p < threshold) {
+                double[] c = new double[n * p];
+                multiplyBlocked(a, b, c, n, m, p, context);
+                return c;
+            }
+            context.checkCancelled();
+            // Odd dimensions are padded with zeros while the quadrants are copied out.
+            int hn = (n + 1) / 2;
+            int hm = (m + 1) / 2;
+            int hp = (p + 1) / 2;
+            double[] a11 = quadrant(a, n, m, 0, 0, hn, hm);
+            double[] a12 = quadrant(a, n, m, 0, hm, hn, hm);
+            double[] a21 = quadrant(a, n, m, hn, 0, hn, hm);
+            double[] a22 = quadrant(a, n, m, hn, hm, hn, hm);
+            double[] b11 = quadrant(b, m, p, 0, 0, hm, hp);
+            double[] b12 = quadrant(b, m, p, 0, hp, hm, hp);
+            double[] b21 = quadrant(b, m, p, hm, 0, hm, hp);
+            double[] b22 = quadrant(b, m, p, hm, hp, hm, hp);
+
+            DoubleStrassenTask t1 = new DoubleStrassenTask(add(a11, a22), add(b11, b22), hn, hm, hp, threshold, context);
+            DoubleStrassenTask t2 = new DoubleStrassenTask(add(a21, a22), b11, hn, hm, hp, threshold, context);
+            DoubleStrassenTask t3 = new DoubleStrassenTask(a11, subtract(b12, b22), hn, hm, hp, threshold, context);
+            DoubleStrassenTask t4 = new DoubleStrassenTask(a22, subtract(b21, b11), hn, hm, hp, threshold, context);
+            DoubleStrassenTask t5 = new DoubleStrassenTask(add(a11, a12), b22, hn, hm, hp, threshold, context);
+            DoubleStrassenTask t6 = new DoubleStrassenTask(subtract(a21, a11), add(b11, b12), hn, hm, hp, threshold, context);
+            DoubleStrassenTask t7 = new DoubleStrassenTask(subtract(a12, a22), add(b21, b22), hn, hm, hp, threshold, context);
+            invokeAll(t1, t2, t3, t4, t5, t6, t7);
+            double[] m1 = t1.join(), m2 = t2.join(), m3 = t3.join(), m4 = t4.join();
+            double[] m5 = t5.join(), m6 = t6.join(), m7 = t7.join();
+
+            double[] c = new double[n * p];
+            for (int i = 0; i < hn; i++) {
+                int row = i * hp;
+                int top = i * p;
+                int bottom = (i + hn) * p;
+                boolean hasBottom = i + hn < n;
+                for (int j = 0; j < hp; j++) {
+                    int q = row + j;
+                    c[top + j] = m1[q] + m4[q] - m5[q] + m7[q];
+                    if (j + hp < p) c[top + j + hp] = m3[q] + m5[q];
+                    if (hasBottom) {
+                        c[bottom + j] = m2[q] + m4[q];
+                        if (j + hp < p) c[bottom + j + hp] = m1[q] - m2[q] + m3[q] + m6[q];
+                    }
+                }
+            }
+            return c;
+        }
+
+        private static double[] quadrant(double[] src, int rows, int cols, int rowOffset, int colOffset,
+                                      int h, int w) {
+            double[] q = new double[h * w];
+            int copyRows = Math.min(h, rows - rowOffset);
+            int copyCols = Math.min(w, cols - colOffset);
+            for (int i = 0; i < copyRows; i++) {
+                System.arraycopy(src, (rowOffset + i) * cols + colOffset, q, i * w, copyCols);
+            }
+            return q;
+        }
+
+        private static double[] add(double[] x, double[] y) {
+            double[] r = new double[x.length];
+            for (int i = 0; i < r.length; i++) {
+                r[i] = x[i] + y[i];
+            }
+            return r;
+        }
+
+        private static double[] subtract(double[] x, double[] y) {
+            double[] r = new double[x.length];
+            for (int i = 0; i < r.length; i++) {
+                r[i] = x[i] - y[i];
+            }
+            return r;
+        }
+    }
+}
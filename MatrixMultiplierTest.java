@@ -0,0 +1,161 @@
+import java.util.Arrays;
+import java.util.Random;
+
+// Checks MatrixMultiplier's blocked, parallel and Strassen paths against the textbook triple
+// loop: bit for bit for int and long (including wrap-around), to rounding for double. A low
+// Strassen threshold sends odd and rectangular shapes through the recursion. Also covers
+// strided operands, exact overflow detection and empty dimensions.
+// Run with "java MatrixMultiplierTest"; exits with status 1 on a failure.
+final class MatrixMultiplierTest {
+    private static int failures;
+
+    private MatrixMultiplierTest() {
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(5);
+        int[][] shapes = {{1, 1, 1}, {1, 40, 1}, {40, 1, 40}, {67, 33, 129}, {64, 64, 64}, {97, 101, 89}, {130, 70, 150}};
+        int savedThreshold = MatrixMultiplier.getStrassenThreshold();
+        try {
+            for (int threshold : new int[]{savedThreshold, 16}) {
+                MatrixMultiplier.setStrassenThreshold(threshold);
+                for (int[] shape : shapes) {
+                    int n = shape[0];
+                    int m = shape[1];
+                    int p = shape[2];
+                    String name = n + "x" + m + " by " + m + "x" + p + ", Strassen from " + threshold;
+
+                    int[] ia = new int[n * m];
+                    int[] ib = new int[m * p];
+                    Arrays.setAll(ia, i -> random.nextInt());
+                    Arrays.setAll(ib, i -> random.nextInt());
+                    check("int " + name, Arrays.equals(MatrixMultiplier.multiply(ia, ib, n, m, p), naive(ia, ib, n, m, p)));
+
+                    long[] la = new long[n * m];
+                    long[] lb = new long[m * p];
+                    Arrays.setAll(la, i -> random.nextLong());
+                    Arrays.setAll(lb, i -> random.nextLong());
+                    check("long " + name, Arrays.equals(MatrixMultiplier.multiply(la, lb, n, m, p), naive(la, lb, n, m, p)));
+
+                    double[] da = new double[n * m];
+                    double[] db = new double[m * p];
+                    Arrays.setAll(da, i -> random.nextGaussian());
+                    Arrays.setAll(db, i -> random.nextGaussian());
+                    check("double " + name, close(MatrixMultiplier.multiply(da, db, n, m, p), naive(da, db, n, m, p), m));
+                }
+            }
+        } finally {
+            MatrixMultiplier.setStrassenThreshold(savedThreshold);
+        }
+
+        int[][] a = {{1, 2, 3}, {4, 5, 6}};
+        int[][] b = {{7, 8}, {9, 10}, {11, 12}};
+        check("2x3 by 3x2", Arrays.deepEquals(MatrixMultiplier.multiply(a, b), new int[][]{{58, 64}, {139, 154}}));
+        check("mismatched shapes", throwsIllegalArgument(() -> MatrixMultiplier.multiply(a, a)));
+        check("inner dimension 0", Arrays.equals(MatrixMultiplier.multiply(new double[0], new double[0], 3, 0, 2), new double[6]));
+        check("no rows", MatrixMultiplier.multiply(new long[0], new long[12], 0, 3, 4).length == 0);
+
+        // c += alpha a^T b^T read through transposed views.
+        int n = 45;
+        DoubleMatrix x = random(random, n, n);
+        DoubleMatrix y = random(random, n, n);
+        double[] c = new double[n * n];
+        Arrays.fill(c, 1);
+        MatrixMultiplier.multiplyAccumulate(-2, x.transpose(), y.transpose(), c);
+        double[] expected = naive(x.transpose().toRowMajor(), y.transpose().toRowMajor(), n, n, n);
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = 1 - 2 * expected[i];
+        }
+        check("multiplyAccumulate on transposed views", close(c, expected, n));
+
+        long[] big = {Long.MAX_VALUE / 2, 3};
+        check("multiplyExact overflow", throwsArithmetic(() -> MatrixMultiplier.multiplyExact(big, big, 1, 2, 1)));
+        long[] small = {3, -4, 5, 6};
+        check("multiplyExact in range", Arrays.equals(MatrixMultiplier.multiplyExact(small, small, 2, 2, 2),
+                naive(small, small, 2, 2, 2)));
+
+        System.out.println(failures == 0 ? "All checks passed" : failures + " checks failed");
+        if (failures > 0) System.exit(1);
+    }
+
+    private static int[] naive(int[] a, int[] b, int n, int m, int p) {
+        int[] c = new int[n * p];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < p; j++) {
+                for (int k = 0; k < m; k++) {
+                    c[i * p + j] += a[i * m + k] * b[k * p + j];
+                }
+            }
+        }
+        return c;
+    }
+
+    private static long[] naive(long[] a, long[] b, int n, int m, int p) {
+        long[] c = new long[n * p];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < p; j++) {
+                for (int k = 0; k < m; k++) {
+                    c[i * p + j] += a[i * m + k] * b[k * p + j];
+                }
+            }
+        }
+        return c;
+    }
+
+    private static double[] naive(double[] a, double[] b, int n, int m, int p) {
+        double[] c = new double[n * p];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < p; j++) {
+                for (int k = 0; k < m; k++) {
+                    c[i * p + j] += a[i * m + k] * b[k * p + j];
+                }
+            }
+        }
+        return c;
+    }
+
+    // Entries of products of standard normal operands are about sqrt(m); Strassen's error grows
+    // faster with depth than the triple loop's, hence the margin.
+    private static boolean close(double[] actual, double[] expected, int m) {
+        if (actual.length != expected.length) return false;
+        double tolerance = 1e-12 * Math.max(1, m);
+        for (int i = 0; i < actual.length; i++) {
+            if (!(Math.abs(actual[i] - expected[i]) <= tolerance * Math.max(1, Math.abs(expected[i])))) return false;
+        }
+        return true;
+    }
+
+    private static DoubleMatrix random(Random random, int rows, int cols) {
+        DoubleMatrix matrix = new DoubleMatrix(rows, cols);
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                matrix.set(i, j, random.nextGaussian());
+            }
+        }
+        return matrix;
+    }
+
+    private static boolean throwsIllegalArgument(Runnable action) {
+        try {
+            action.run();
+            return false;
+        } catch (IllegalArgumentException expected) {
+            return true;
+        }
+    }
+
+    private static boolean throwsArithmetic(Runnable action) {
+        try {
+            action.run();
+            return false;
+        } catch (ArithmeticException expected) {
+            return true;
+        }
+    }
+
+    private static void check(String name, boolean ok) {
+        if (ok) return;
+        System.out.println("FAIL " + name);
+        failures++;
+    }
+}
@@ -0,0 +1,89 @@
+import javax.swing.JComponent;
+import javax.swing.JTable;
+import javax.swing.ListSelectionModel;
+import javax.swing.TransferHandler;
+import java.awt.Toolkit;
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.StringSelection;
+import java.awt.datatransfer.Transferable;
+import java.awt.datatransfer.UnsupportedFlavorException;
+import java.io.IOException;
+
+// Spreadsheet-style editor for a MatrixTableModel: fixed-width columns that scroll
+// horizontally, rectangular cell selection, and copy/paste of tab-separated blocks.
+final class MatrixTable extends JTable {
+    private static final int COLUMN_WIDTH = 60;
+
+    MatrixTable(MatrixTableModel model) {
+        super(model);
+        setAutoResizeMode(AUTO_RESIZE_OFF);
+        setCellSelectionEnabled(true);
+        setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        getTableHeader().setReorderingAllowed(false);
+        putClientProperty("terminateEditOnFocusLost", Boolean.TRUE);
+        setTransferHandler(new MatrixTransferHandler());
+        sizeColumns();
+    }
+
+    @Override
+    public MatrixTableModel getModel() {
+        return (MatrixTableModel) super.getModel();
+    }
+
+    // Commits a pending edit so the model holds what the user sees.
+    void commitEdit() {
+        if (isEditing() && !getCellEditor().stopCellEditing()) {
+            getCellEditor().cancelCellEditing();
+        }
+    }
+
+    @Override
+    public void createDefaultColumnsFromModel() {
+        super.createDefaultColumnsFromModel();
+        sizeColumns();
+    }
+
+    private void sizeColumns() {
+        for (int i = 0; i < getColumnModel().getColumnCount(); i++) {
+            getColumnModel().getColumn(i).setPreferredWidth(COLUMN_WIDTH);
+        }
+    }
+
+    private static final class MatrixTransferHandler extends TransferHandler {
+        @Override
+        public int getSourceActions(JComponent c) {
+            return COPY;
+        }
+
+        @Override
+        protected Transferable createTransferable(JComponent c) {
+            MatrixTable table = (MatrixTable) c;
+            int[] rows = table.getSelectedRows();
+            int[] cols = table.getSelectedColumns();
+            if (rows.length == 0 || cols.length == 0) return null;
+            return new StringSelection(table.getModel().copy(rows, cols));
+        }
+
+        @Override
+        public boolean canImport(TransferSupport support) {
+            return support.isDataFlavorSupported(DataFlavor.stringFlavor);
+        }
+
+        @Override
+        public boolean importData(TransferSupport support) {
+            if (!canImport(support)) return false;
+            MatrixTable table = (MatrixTable) support.getComponent();
+            int row = Math.max(table.getSelectionModel().getMinSelectionIndex(), 0);
+            int col = Math.max(table.getColumnModel().getSelectionModel().getMinSelectionIndex(), 0);
+            try {
+                String text = (String) support.getTransferable().getTransferData(DataFlavor.stringFlavor);
+                table.commitEdit();
+                table.getModel().paste(row, col, text);
+                return true;
+            } catch (NumberFormatException | UnsupportedFlavorException | IOException ex) {
+                Toolkit.getDefaultToolkit().beep();
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+import javax.swing.table.AbstractTableModel;
+
+// Table model over an IntMatrix. A JTable asks it only for the cells it paints, so the
+// editor costs the same whatever the matrix size. Values are parsed once, when an edit or
+// a paste is committed, and stored straight into the primitive matrix.
+final class MatrixTableModel extends AbstractTableModel {
+    private IntMatrix matrix;
+
+    MatrixTableModel(int rows, int cols) {
+        matrix = new IntMatrix(rows, cols);
+    }
+
+    // Resizes the matrix, keeping the entries that still fit.
+    void resize(int rows, int cols) {
+        if (rows < 0 || cols < 0) throw new IllegalArgumentException("Matrix dimensions must not be negative");
+        IntMatrix resized = new IntMatrix(rows, cols);
+        int keepRows = Math.min(rows, matrix.rows());
+        int keepCols = Math.min(cols, matrix.cols());
+        for (int i = 0; i < keepRows; i++) {
+            for (int j = 0; j < keepCols; j++) {
+                resized.set(i, j, matrix.get(i, j));
+            }
+        }
+        matrix = resized;
+        fireTableStructureChanged();
+    }
+
+    // Takes ownership of values; callers hand over a matrix they no longer modify.
+    void setMatrix(IntMatrix values) {
+        boolean sameShape = values.rows() == matrix.rows() && values.cols() == matrix.cols();
+        matrix = values;
+        if (sameShape) {
+            fireTableDataChanged();
+        } else {
+            fireTableStructureChanged();
+        }
+    }
+
+    // A snapshot, so a computation running in the background never sees later edits.
+    IntMatrix toMatrix() {
+        return matrix.copy();
+    }
+
+    // Writes whitespace-, comma- or tab-separated rows of integers with their top-left corner
+    // at (row, col). Values falling outside the matrix are dropped. Nothing changes unless
+    // every value parses.
+    void paste(int row, int col, String text) {
+        String[] lines = text.trim().split("\\R");
+        int[][] values = new int[lines.length][];
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+            String[] tokens = line.isEmpty() ? new String[0] : line.split("[\\s,;]+");
+            values[i] = new int[tokens.length];
+            for (int j = 0; j < tokens.length; j++) {
+                values[i][j] = Integer.parseInt(tokens[j]);
+            }
+        }
+        int lastRow = Math.min(matrix.rows(), row + values.length) - 1;
+        for (int i = row; i <= lastRow; i++) {
+            int[] source = values[i - row];
+            int lastCol = Math.min(matrix.cols(), col + source.length);
+            for (int j = col; j < lastCol; j++) {
+                matrix.set(i, j, source[j - col]);
+            }
+        }
+        if (lastRow >= row) fireTableRowsUpdated(row, lastRow);
+    }
+
+    // Tab-separated text of the given cells, the format spreadsheets put on the clipboard.
+    String copy(int[] rows, int[] cols) {
+        StringBuilder sb = new StringBuilder();
+        for (int i : rows) {
+            for (int k = 0; k < cols.length; k++) {
+                if (k > 0) sb.append('\t');
+                sb.append(matrix.get(i, cols[k]));
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public int getRowCount() {
+        return matrix.rows();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return matrix.cols();
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return String.valueOf(column + 1);
+    }
+
+    // Integer columns get JTable's number editor, which refuses to commit text that does
+    // not parse and outlines the cell in red instead.
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return Integer.class;
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return true;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        return matrix.get(row, column);
+    }
+
+    @Override
+    public void setValueAt(Object value, int row, int column) {
+        matrix.set(row, column, value == null ? 0 : ((Number) value).intValue());
+        fireTableCellUpdated(row, column);
+    }
+}
@@ -0,0 +1,327 @@
+import java.util.stream.IntStream;
+
+// Dense A x = b with the O(n^3) factorization done in single precision: half the memory
+// traffic of double LU. The float solution is then refined in double, each step solving for
+// the correction with the same float factors against a residual b - A x accumulated in
+// double-double (error-free products by fma plus compensated sums). While the system is not
+// too ill-conditioned for float (about kappa < 10^6) this reaches full double accuracy in a
+// few O(n^2) steps; when refinement stalls, or the condition estimate says it will, the matrix
+// is factored again in double instead.
+//
+// Each result carries an estimate of the 1-norm condition number (Hager's method as refined
+// by Higham, a handful of solves with A and A^T) and the normwise backward error
+// ||b - A x|| / (||A|| ||x|| + ||b||), so a caller can tell how much of the answer to trust.
+final class MixedPrecisionSolver {
+    private static final int PARALLEL_SIZE = 256;
+    private static final int MAX_REFINEMENTS = 30;
+    private static final double FLOAT_EPSILON = Math.ulp(1.0f);
+    private static final double EPSILON = Math.ulp(1.0);
+
+    private MixedPrecisionSolver() {
+    }
+
+    static final class Result {
+        final double[] solution;
+        final double conditionEstimate;
+        final double backwardError;
+        final int refinements;
+        // True when single precision refinement stalled and A was factored in double.
+        final boolean fellBack;
+
+        Result(double[] solution, double conditionEstimate, double backwardError, int refinements, boolean fellBack) {
+            this.solution = solution;
+            this.conditionEstimate = conditionEstimate;
+            this.backwardError = backwardError;
+            this.refinements = refinements;
+            this.fellBack = fellBack;
+        }
+
+        // Roughly how many significant digits the conditioning costs.
+        double digitsLost() {
+            return Math.max(0, Math.log10(conditionEstimate));
+        }
+    }
+
+    static Result solve(LinearSystem system) {
+        return solve(system.coefficients.toDense(), system.constants);
+    }
+
+    static Result solve(DoubleMatrix matrix, double[] b) {
+        if (!matrix.isSquare()) throw new IllegalArgumentException("Matrix must be square");
+        int n = matrix.rows();
+        if (b.length != n) throw new IllegalArgumentException("Right-hand side must have " + n + " entries");
+        double[] a = matrix.rowMajorData();
+        double normA = normInf(a, n);
+        double normB = normInf(b);
+        double tolerance = EPSILON * Math.sqrt(n);
+
+        FloatLU single = FloatLU.of(a, n);
+        if (single != null) {
+            double condition = normOne(a, n) * estimateInverseNorm(single::solve, single::solveTransposed, n);
+            if (condition * FLOAT_EPSILON < 0.1) {
+                double[] x = single.solve(b);
+                double[] r = new double[n];
+                double previous = Double.POSITIVE_INFINITY;
+                for (int step = 0; step <= MAX_REFINEMENTS; step++) {
+                    TaskContext.current().checkCancelled();
+                    residual(a, n, x, b, r);
+                    double normR = normInf(r);
+                    double normX = normInf(x);
+                    if (normR <= normX * normA * tolerance) {
+                        return new Result(x, condition, backwardError(normR, normA, normX, normB), step, false);
+                    }
+                    double[] d = single.solve(r);
+                    double normD = normInf(d);
+                    if (!(normD <= 0.5 * previous)) break;
+                    previous = normD;
+                    for (int i = 0; i < n; i++) {
+                        x[i] += d[i];
+                    }
+                }
+            }
+        }
+
+        // Double fallback, with a couple of refinement steps of its own against the same
+        // double-double residual.
+        LUDecomposition lu = LUDecomposition.of(matrix);
+        double[] x = lu.solve(b);
+        double[] r = new double[n];
+        residual(a, n, x, b, r);
+        int steps = 0;
+        while (steps < 3 && normInf(r) > normInf(x) * normA * tolerance) {
+            double[] d = lu.solve(r);
+            for (int i = 0; i < n; i++) {
+                x[i] += d[i];
+            }
+            residual(a, n, x, b, r);
+            steps++;
+        }
+        double condition = normOne(a, n) * estimateInverseNorm(lu::solve, lu::solveTransposed, n);
+        return new Result(x, condition, backwardError(normInf(r), normA, normInf(x), normB), steps, true);
+    }
+
+    private static double backwardError(double normR, double normA, double normX, double normB) {
+        double scale = normA * normX + normB;
+        return scale == 0 ? 0 : normR / scale;
+    }
+
+    // r = b - A x, each row summed in double-double so the residual of a good solution is not
+    // lost to cancellation.
+    private static void residual(double[] a, int n, double[] x, double[] b, double[] r) {
+        IntStream rows = IntStream.range(0, n);
+        if (n > PARALLEL_SIZE) rows = rows.parallel();
+        rows.forEach(i -> {
+            int row = i * n;
+            double hi = b[i];
+            double lo = 0;
+            for (int j = 0; j < n; j++) {
+                double p = a[row + j] * x[j];
+                double pError = Math.fma(a[row + j], x[j], -p);
+                double s = hi - p;
+                double v = s - hi;
+                lo += ((hi - (s - v)) - (p + v)) - pError;
+                hi = s;
+            }
+            r[i] = hi + lo;
+        });
+    }
+
+    private interface Solve {
+        double[] solve(double[] b);
+    }
+
+    // Lower bound on ||A^-1||_1 that is almost always within a factor of 3: Hager's gradient
+    // ascent over the unit 1-norm ball, plus Higham's alternating-sign vector to catch the
+    // cases where the ascent stops early.
+    private static double estimateInverseNorm(Solve solve, Solve solveTransposed, int n) {
+        if (n == 0) return 0;
+        double[] x = new double[n];
+        java.util.Arrays.fill(x, 1.0 / n);
+        double estimate = 0;
+        int last = -1;
+        for (int iteration = 0; iteration < 5; iteration++) {
+            double[] y = solve.solve(x);
+            double norm = normOne(y);
+            if (iteration > 0 && norm <= estimate) break;
+            estimate = norm;
+            double[] sign = new double[n];
+            for (int i = 0; i < n; i++) {
+                sign[i] = y[i] >= 0 ? 1 : -1;
+            }
+            double[] z = solveTransposed.solve(sign);
+            int best = 0;
+            for (int i = 1; i < n; i++) {
+                if (Math.abs(z[i]) > Math.abs(z[best])) best = i;
+            }
+            double zx = 0;
+            for (int i = 0; i < n; i++) {
+                zx += z[i] * x[i];
+            }
+            if (best == last || Math.abs(z[best]) <= zx) break;
+            last = best;
+            java.util.Arrays.fill(x, 0);
+            x[best] = 1;
+        }
+        for (int i = 0; i < n; i++) {
+            x[i] = (i % 2 == 0 ? 1 : -1) * (1 + (n == 1 ? 0 : (double) i / (n - 1)));
+        }
+        double alternative = 2 * normOne(solve.solve(x)) / (3.0 * n);
+        return Math.max(estimate, alternative);
+    }
+
+    private static double normInf(double[] a, int n) {
+        double max = 0;
+        for (int i = 0; i < n; i++) {
+            double sum = 0;
+            for (int j = 0; j < n; j++) {
+                sum += Math.abs(a[i * n + j]);
+            }
+            max = Math.max(max, sum);
+        }
+        return max;
+    }
+
+    private static double normOne(double[] a, int n) {
+        double[] sums = new double[n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                sums[j] += Math.abs(a[i * n + j]);
+            }
+        }
+        double max = 0;
+        for (double sum : sums) {
+            max = Math.max(max, sum);
+        }
+        return max;
+    }
+
+    private static double normInf(double[] v) {
+        double max = 0;
+        for (double x : v) {
+            max = Math.max(max, Math.abs(x));
+        }
+        return max;
+    }
+
+    private static double normOne(double[] v) {
+        double sum = 0;
+        for (double x : v) {
+            sum += Math.abs(x);
+        }
+        return sum;
+    }
+
+    // PA = LU in float with partial pivoting. Triangular solves apply the float factors in
+    // double arithmetic, which costs nothing extra at O(n^2).
+    private static final class FloatLU {
+        private final int n;
+        private final float[] lu;
+        private final int[] permutation;
+
+        private FloatLU(int n, float[] lu, int[] permutation) {
+            this.n = n;
+            this.lu = lu;
+            this.permutation = permutation;
+        }
+
+        // null when A does not fit in float range or is singular in float.
+        static FloatLU of(double[] a, int n) {
+            float[] lu = new float[n * n];
+            for (int i = 0; i < lu.length; i++) {
+                lu[i] = (float) a[i];
+                if (Float.isInfinite(lu[i]) || (lu[i] == 0 && a[i] != 0)) return null;
+            }
+            int[] permutation = new int[n];
+            for (int i = 0; i < n; i++) {
+                permutation[i] = i;
+            }
+            TaskContext context = TaskContext.current();
+            for (int k = 0; k < n; k++) {
+                context.checkCancelled();
+                int pivot = k;
+                float max = Math.abs(lu[k * n + k]);
+                for (int i = k + 1; i < n; i++) {
+                    float v = Math.abs(lu[i * n + k]);
+                    if (v > max) {
+                        max = v;
+                        pivot = i;
+                    }
+                }
+                if (max == 0 || !Float.isFinite(max)) return null;
+                if (pivot != k) {
+                    for (int j = 0; j < n; j++) {
+                        float t = lu[k * n + j];
+                        lu[k * n + j] = lu[pivot * n + j];
+                        lu[pivot * n + j] = t;
+                    }
+                    int t = permutation[k];
+                    permutation[k] = permutation[pivot];
+                    permutation[pivot] = t;
+                }
+                int step = k;
+                IntStream rows = IntStream.range(k + 1, n);
+                if (n - k > PARALLEL_SIZE) rows = rows.parallel();
+                rows.forEach(i -> eliminateRow(lu, n, step, i));
+            }
+            return new FloatLU(n, lu, permutation);
+        }
+
+        private static void eliminateRow(float[] lu, int n, int k, int i) {
+            int kk = k * n;
+            int ik = i * n;
+            float factor = lu[ik + k] / lu[kk + k];
+            lu[ik + k] = factor;
+            if (factor == 0) return;
+            for (int j = k + 1; j < n; j++) {
+                lu[ik + j] -= factor * lu[kk + j];
+            }
+        }
+
+        double[] solve(double[] b) {
+            double[] x = new double[n];
+            for (int i = 0; i < n; i++) {
+                x[i] = b[permutation[i]];
+            }
+            for (int i = 0; i < n; i++) {
+                int row = i * n;
+                double sum = x[i];
+                for (int j = 0; j < i; j++) {
+                    sum -= lu[row + j] * x[j];
+                }
+                x[i] = sum;
+            }
+            for (int i = n - 1; i >= 0; i--) {
+                int row = i * n;
+                double sum = x[i];
+                for (int j = i + 1; j < n; j++) {
+                    sum -= lu[row + j] * x[j];
+                }
+                x[i] = sum / lu[row + i];
+            }
+            return x;
+        }
+
+        double[] solveTransposed(double[] b) {
+            double[] w = b.clone();
+            for (int i = 0; i < n; i++) {
+                double sum = w[i];
+                for (int j = 0; j < i; j++) {
+                    sum -= lu[j * n + i] * w[j];
+                }
+                w[i] = sum / lu[i * n + i];
+            }
+            for (int i = n - 1; i >= 0; i--) {
+                double sum = w[i];
+                for (int j = i + 1; j < n; j++) {
+                    sum -= lu[j * n + i] * w[j];
+                }
+                w[i] = sum;
+            }
+            double[] x = new double[n];
+            for (int i = 0; i < n; i++) {
+                x[permutation[i]] = w[i];
+            }
+            return x;
+        }
+    }
+}
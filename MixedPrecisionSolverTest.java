@@ -0,0 +1,134 @@
+import java.util.Arrays;
+import java.util.Random;
+
+// Checks MixedPrecisionSolver against known solutions: well-conditioned systems must reach
+// double accuracy from the float factorization, while ill-conditioned ones and entries beyond
+// float range must fall back to double. The condition estimate is compared with the exact
+// 1-norm condition number, and singular, empty and malformed input are covered.
+// Run with "java MixedPrecisionSolverTest"; exits with status 1 on a failure.
+final class MixedPrecisionSolverTest {
+    private static int failures;
+
+    private MixedPrecisionSolverTest() {
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(37);
+        for (int n : new int[]{1, 10, 50, 300}) {
+            DoubleMatrix a = new DoubleMatrix(n, n);
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    a.set(i, j, random.nextGaussian() + (i == j ? Math.sqrt(n) : 0));
+                }
+            }
+            double[] x = randomVector(random, n);
+            MixedPrecisionSolver.Result result = MixedPrecisionSolver.solve(a, product(a, x));
+            check("well conditioned, n = " + n, !result.fellBack && error(result.solution, x) <= 1e-13
+                    && result.backwardError <= n * Math.ulp(1.0),
+                    "fell back " + result.fellBack + ", error " + error(result.solution, x) + ", backward " + result.backwardError);
+            // A lower bound up to the rounding of the float factors it was computed with.
+            double condition = exactCondition(a);
+            check("condition estimate, n = " + n, result.conditionEstimate <= condition * (1 + 1e-5)
+                    && result.conditionEstimate >= condition / 3, result.conditionEstimate + " against " + condition);
+        }
+
+        // Hilbert 9 has kappa about 5e11: too much for float, fine for double.
+        int n = 9;
+        DoubleMatrix hilbert = new DoubleMatrix(n, n);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                hilbert.set(i, j, 1.0 / (i + j + 1));
+            }
+        }
+        double[] ones = new double[n];
+        Arrays.fill(ones, 1);
+        MixedPrecisionSolver.Result result = MixedPrecisionSolver.solve(hilbert, product(hilbert, ones));
+        check("Hilbert 9 falls back to double", result.fellBack && result.backwardError <= 1e-15
+                && result.digitsLost() > 10 && result.digitsLost() < 14 && error(result.solution, ones) <= 1e-3,
+                "fell back " + result.fellBack + ", digits lost " + result.digitsLost() + ", error " + error(result.solution, ones));
+
+        DoubleMatrix huge = DoubleMatrix.of(new double[][]{{1e200, 2e200}, {3e200, -1e200}});
+        result = MixedPrecisionSolver.solve(huge, new double[]{5e200, 1e200});
+        check("entries beyond float range", result.fellBack && error(result.solution, new double[]{1, 2}) <= 1e-15,
+                Arrays.toString(result.solution));
+
+        SparseMatrix.Builder builder = new SparseMatrix.Builder(2, 2);
+        builder.add(0, 0, 4).add(0, 1, 1).add(1, 0, 1).add(1, 1, 3);
+        result = MixedPrecisionSolver.solve(new LinearSystem(builder.build(), new double[]{1, 2}));
+        check("sparse system", error(result.solution, new double[]{1.0 / 11, 7.0 / 11}) <= 1e-15, Arrays.toString(result.solution));
+
+        check("singular", throwsSingular(() -> MixedPrecisionSolver.solve(
+                DoubleMatrix.of(new double[][]{{1, 2}, {2, 4}}), new double[]{1, 2})), "");
+        check("zero matrix", throwsSingular(() -> MixedPrecisionSolver.solve(new DoubleMatrix(3, 3), new double[3])), "");
+        check("wrong right-hand side length", throwsIllegalArgument(
+                () -> MixedPrecisionSolver.solve(new DoubleMatrix(2, 2), new double[3])), "");
+        check("non-square matrix", throwsIllegalArgument(
+                () -> MixedPrecisionSolver.solve(new DoubleMatrix(2, 3), new double[2])), "");
+
+        System.out.println(failures == 0 ? "All checks passed" : failures + " checks failed");
+        if (failures > 0) System.exit(1);
+    }
+
+    private static double[] randomVector(Random random, int n) {
+        double[] v = new double[n];
+        Arrays.setAll(v, i -> random.nextGaussian());
+        return v;
+    }
+
+    private static double[] product(DoubleMatrix a, double[] x) {
+        return MatrixMultiplier.multiply(a.toRowMajor(), x, a.rows(), a.cols(), 1);
+    }
+
+    // max |actual - expected| / max |expected|
+    private static double error(double[] actual, double[] expected) {
+        double difference = 0;
+        double size = 0;
+        for (int i = 0; i < expected.length; i++) {
+            difference = Math.max(difference, Math.abs(actual[i] - expected[i]));
+            size = Math.max(size, Math.abs(expected[i]));
+        }
+        return difference / size;
+    }
+
+    // ||A||_1 ||A^-1||_1 with the inverse from LUDecomposition.
+    private static double exactCondition(DoubleMatrix a) {
+        DoubleMatrix inverse = LUDecomposition.of(a).inverse();
+        return normOne(a) * normOne(inverse);
+    }
+
+    private static double normOne(DoubleMatrix a) {
+        double norm = 0;
+        for (int j = 0; j < a.cols(); j++) {
+            double sum = 0;
+            for (int i = 0; i < a.rows(); i++) {
+                sum += Math.abs(a.get(i, j));
+            }
+            norm = Math.max(norm, sum);
+        }
+        return norm;
+    }
+
+    private static boolean throwsSingular(Runnable action) {
+        try {
+            action.run();
+            return false;
+        } catch (SingularMatrixException expected) {
+            return true;
+        }
+    }
+
+    private static boolean throwsIllegalArgument(Runnable action) {
+        try {
+            action.run();
+            return false;
+        } catch (IllegalArgumentException expected) {
+            return true;
+        }
+    }
+
+    private static void check(String name, boolean ok, String detail) {
+        if (ok) return;
+        System.out.println("FAIL " + name + (detail.isEmpty() ? "" : ": " + detail));
+        failures++;
+    }
+}
@@ -0,0 +1,320 @@
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+// Exact solutions of linear systems with rational coefficients. Each row is scaled to integers,
+// the system is solved by elimination modulo a batch of 31-bit primes at a time (in parallel,
+// every product fits in a long), and the residues are combined by the Chinese remainder
+// theorem. After each batch the solution is rationally reconstructed from the combined residues
+// and checked exactly against the system, so the solve stops as soon as the modulus is large
+// enough for this system rather than for the worst case. The Hadamard bound on the determinant
+// caps the number of primes: past it reconstruction is guaranteed, and a system that is
+// singular modulo primes whose product exceeds it is singular.
+//
+// Doubles are read through their shortest decimal form, so 0.1 is taken as 1/10.
+final class ModularSolver {
+    private static final int PRIME_BITS = 31;
+    private static final List<Integer> PRIMES = new ArrayList<>();
+
+    private ModularSolver() {
+    }
+
+    // x[i] = numerators[i] / denominator, with the denominator positive and shared by all.
+    static final class Solution {
+        final BigInteger[] numerators;
+        final BigInteger denominator;
+        final int primes;
+
+        Solution(BigInteger[] numerators, BigInteger denominator, int primes) {
+            this.numerators = numerators;
+            this.denominator = denominator;
+            this.primes = primes;
+        }
+
+        int size() {
+            return numerators.length;
+        }
+
+        // Lowest terms, e.g. "-3/7" or "2".
+        String format(int i) {
+            BigInteger gcd = numerators[i].gcd(denominator);
+            if (gcd.signum() == 0) return "0";
+            BigInteger numerator = numerators[i].divide(gcd);
+            BigInteger denominator = this.denominator.divide(gcd);
+            return denominator.equals(BigInteger.ONE) ? numerator.toString() : numerator + "/" + denominator;
+        }
+
+        double value(int i) {
+            return new BigDecimal(numerators[i]).divide(new BigDecimal(denominator), MathContext.DECIMAL64).doubleValue();
+        }
+
+        double[] toDoubles() {
+            double[] values = new double[numerators.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = value(i);
+            }
+            return values;
+        }
+    }
+
+    static Solution solve(LinearSystem system) {
+        int n = system.size();
+        BigDecimal[] augmented = new BigDecimal[n * (n + 1)];
+        Arrays.fill(augmented, BigDecimal.ZERO);
+        SparseMatrix a = system.coefficients;
+        int[] pointers = a.rowPointers();
+        int[] columns = a.columnIndices();
+        double[] values = a.values();
+        for (int i = 0; i < n; i++) {
+            for (int k = pointers[i]; k < pointers[i + 1]; k++) {
+                augmented[i * (n + 1) + columns[k]] = decimal(values[k]);
+            }
+            augmented[i * (n + 1) + n] = decimal(system.constants[i]);
+        }
+        return solve(augmented, n);
+    }
+
+    // augmented is the row-major n x (n + 1) matrix [A | b].
+    static Solution solve(BigDecimal[] augmented, int n) {
+        if (augmented.length != n * (n + 1)) throw new IllegalArgumentException("Expected " + n * (n + 1) + " values");
+        BigInteger[] rows = new BigInteger[augmented.length];
+        for (int i = 0; i < n; i++) {
+            int scale = 0;
+            for (int j = 0; j <= n; j++) {
+                scale = Math.max(scale, augmented[i * (n + 1) + j].scale());
+            }
+            for (int j = 0; j <= n; j++) {
+                rows[i * (n + 1) + j] = augmented[i * (n + 1) + j].setScale(scale).unscaledValue();
+            }
+        }
+        return solveIntegral(rows, n);
+    }
+
+    static BigDecimal decimal(double value) {
+        if (!Double.isFinite(value)) throw new IllegalArgumentException("Coefficients must be finite");
+        BigDecimal decimal = new BigDecimal(Double.toString(value)).stripTrailingZeros();
+        return decimal.scale() < 0 ? decimal.setScale(0) : decimal;
+    }
+
+    private static Solution solveIntegral(BigInteger[] rows, int n) {
+        TaskContext context = TaskContext.current();
+        int width = n + 1;
+        if (n == 0) return new Solution(new BigInteger[0], BigInteger.ONE, 0);
+
+        // Hadamard: |det| and every Cramer numerator are at most the product of the augmented
+        // row norms, so a modulus above 2 * bound^2 determines the solution.
+        double log2Bound = 0;
+        long[] small = new long[rows.length];
+        boolean fitsLong = true;
+        for (int i = 0; i < n; i++) {
+            BigInteger norm = BigInteger.ZERO;
+            for (int j = 0; j < width; j++) {
+                BigInteger v = rows[i * width + j];
+                norm = norm.add(v.multiply(v));
+                if (v.bitLength() < 63) {
+                    small[i * width + j] = v.longValue();
+                } else {
+                    fitsLong = false;
+                }
+            }
+            log2Bound += norm.signum() == 0 ? 0 : log2(norm) / 2;
+        }
+        double log2Needed = 2 * log2Bound + 2;
+        long[] residueSource = fitsLong ? small : null;
+
+        context.begin((long) Math.ceil(log2Needed / (PRIME_BITS - 1)));
+        int batch = Math.max(2, Runtime.getRuntime().availableProcessors());
+        BigInteger modulus = BigInteger.ONE;
+        BigInteger[] residues = new BigInteger[n];
+        Arrays.fill(residues, BigInteger.ZERO);
+        double log2Modulus = 0;
+        double log2Singular = 0;
+        int used = 0;
+        int next = 0;
+        while (true) {
+            int first = next;
+            next += batch;
+            int[] primes = IntStream.range(first, next).map(ModularSolver::prime).toArray();
+            int[][] solutions = IntStream.range(0, primes.length).parallel()
+                    .mapToObj(k -> {
+                        int[] x = solveModulo(rows, residueSource, n, primes[k], context);
+                        context.worked(1);
+                        return x;
+                    })
+                    .toArray(int[][]::new);
+            for (int k = 0; k < primes.length; k++) {
+                BigInteger p = BigInteger.valueOf(primes[k]);
+                if (solutions[k] == null) {
+                    log2Singular += log2(p);
+                    continue;
+                }
+                combine(residues, modulus, solutions[k], primes[k]);
+                modulus = modulus.multiply(p);
+                log2Modulus += log2(p);
+                used++;
+            }
+            if (log2Singular > log2Bound + 1) throw new SingularMatrixException();
+            if (used == 0) continue;
+            Solution solution = reconstruct(residues, modulus, used);
+            if (solution != null && satisfies(rows, n, solution)) return solution;
+            if (log2Modulus > log2Needed) throw new ArithmeticException("Rational reconstruction failed");
+        }
+    }
+
+    // Gaussian elimination on [A | b] mod p and back substitution; null when A is singular
+    // mod p. The inner loop reduces with a Barrett multiply instead of a division.
+    private static int[] solveModulo(BigInteger[] rows, long[] small, int n, int p, TaskContext context) {
+        int width = n + 1;
+        long magic = (1L << 62) / p << 2;
+        int[] m = new int[rows.length];
+        for (int i = 0; i < m.length; i++) {
+            m[i] = small != null ? (int) Math.floorMod(small[i], (long) p) : rows[i].mod(BigInteger.valueOf(p)).intValue();
+        }
+        for (int k = 0; k < n; k++) {
+            context.checkCancelled();
+            int pivot = k;
+            while (pivot < n && m[pivot * width + k] == 0) pivot++;
+            if (pivot == n) return null;
+            if (pivot != k) {
+                for (int j = k; j < width; j++) {
+                    int t = m[k * width + j];
+                    m[k * width + j] = m[pivot * width + j];
+                    m[pivot * width + j] = t;
+                }
+            }
+            int pivotRow = k * width;
+            long inverse = inverse(m[pivotRow + k], p);
+            for (int i = k + 1; i < n; i++) {
+                int row = i * width;
+                if (m[row + k] == 0) continue;
+                long negated = p - m[row + k] * inverse % p;
+                for (int j = k + 1; j < width; j++) {
+                    m[row + j] = (int) reduce(m[row + j] + negated * m[pivotRow + j], p, magic);
+                }
+            }
+        }
+        int[] x = new int[n];
+        for (int i = n - 1; i >= 0; i--) {
+            int row = i * width;
+            long sum = m[row + n];
+            for (int j = i + 1; j < n; j++) {
+                sum = reduce(sum + (p - m[row + j]) * (long) x[j], p, magic);
+            }
+            x[i] = (int) (sum * inverse(m[row + i], p) % p);
+        }
+        return x;
+    }
+
+    // x mod p for 0 <= x < 2^62, with magic = floor(2^62 / p) * 4; the quotient estimate is
+    // at most two short.
+    static long reduce(long x, int p, long magic) {
+        long r = x - Math.multiplyHigh(x, magic) * p - 2L * p;
+        r += p & (r >> 63);
+        return r + (p & (r >> 63));
+    }
+
+    // Garner's step: r = residues mod modulus, x mod p  ->  r + modulus * ((x - r) / modulus mod p).
+    static void combine(BigInteger[] residues, BigInteger modulus, int[] x, int p) {
+        long modulusInverse = inverse(modulus.mod(BigInteger.valueOf(p)).intValue(), p);
+        for (int i = 0; i < residues.length; i++) {
+            long r = residues[i].mod(BigInteger.valueOf(p)).longValue();
+            long t = Math.floorMod(x[i] - r, (long) p) * modulusInverse % p;
+            if (t != 0) residues[i] = residues[i].add(modulus.multiply(BigInteger.valueOf(t)));
+        }
+    }
+
+    // Finds numerators over a common denominator d with |numerator|, d <= sqrt(modulus / 2).
+    // Most components share the denominator found so far, so a full reconstruction is only
+    // needed when d times the residue is not already small.
+    private static Solution reconstruct(BigInteger[] residues, BigInteger modulus, int primes) {
+        BigInteger limit = modulus.shiftRight(1).sqrt();
+        BigInteger half = modulus.shiftRight(1);
+        BigInteger denominator = BigInteger.ONE;
+        BigInteger[] numerators = new BigInteger[residues.length];
+        for (int i = 0; i < residues.length; i++) {
+            BigInteger y = symmetric(denominator.multiply(residues[i]).mod(modulus), modulus, half);
+            if (y.abs().compareTo(limit) > 0) {
+                BigInteger[] fraction = rationalReconstruction(y.mod(modulus), modulus, limit);
+                if (fraction == null) return null;
+                BigInteger scale = fraction[1];
+                denominator = denominator.multiply(scale);
+                if (denominator.compareTo(limit) > 0) return null;
+                for (int k = 0; k < i; k++) {
+                    numerators[k] = numerators[k].multiply(scale);
+                }
+                y = fraction[0];
+            }
+            numerators[i] = y;
+        }
+        return new Solution(numerators, denominator, primes);
+    }
+
+    // Extended Euclid on (modulus, value), stopped at the first remainder <= limit; the
+    // cofactor is the denominator.
+    private static BigInteger[] rationalReconstruction(BigInteger value, BigInteger modulus, BigInteger limit) {
+        BigInteger r0 = modulus;
+        BigInteger r1 = value;
+        BigInteger t0 = BigInteger.ZERO;
+        BigInteger t1 = BigInteger.ONE;
+        while (r1.compareTo(limit) > 0) {
+            BigInteger[] qr = r0.divideAndRemainder(r1);
+            r0 = r1;
+            r1 = qr[1];
+            BigInteger t = t0.subtract(qr[0].multiply(t1));
+            t0 = t1;
+            t1 = t;
+        }
+        if (t1.signum() == 0 || t1.abs().compareTo(limit) > 0) return null;
+        if (!r1.gcd(t1).equals(BigInteger.ONE)) return null;
+        return t1.signum() < 0 ? new BigInteger[] {r1.negate(), t1.negate()} : new BigInteger[] {r1, t1};
+    }
+
+    // A x = b, checked as A * numerators = b * denominator.
+    private static boolean satisfies(BigInteger[] rows, int n, Solution solution) {
+        int width = n + 1;
+        for (int i = 0; i < n; i++) {
+            BigInteger sum = BigInteger.ZERO;
+            for (int j = 0; j < n; j++) {
+                BigInteger a = rows[i * width + j];
+                if (a.signum() != 0) sum = sum.add(a.multiply(solution.numerators[j]));
+            }
+            if (!sum.equals(rows[i * width + n].multiply(solution.denominator))) return false;
+        }
+        return true;
+    }
+
+    private static BigInteger symmetric(BigInteger value, BigInteger modulus, BigInteger half) {
+        return value.compareTo(half) > 0 ? value.subtract(modulus) : value;
+    }
+
+    static long inverse(long a, long p) {
+        long result = 1;
+        long base = a % p;
+        for (long e = p - 2; e > 0; e >>= 1) {
+            if ((e & 1) != 0) result = result * base % p;
+            base = base * base % p;
+        }
+        return result;
+    }
+
+    private static double log2(BigInteger v) {
+        int shift = Math.max(0, v.bitLength() - 62);
+        return shift + Math.log(v.shiftRight(shift).doubleValue()) / Math.log(2);
+    }
+
+    // The k-th prime below 2^31, in decreasing order.
+    private static int prime(int k) {
+        synchronized (PRIMES) {
+            int candidate = PRIMES.isEmpty() ? Integer.MAX_VALUE : PRIMES.get(PRIMES.size() - 1) - 2;
+            while (PRIMES.size() <= k) {
+                if (BigInteger.valueOf(candidate).isProbablePrime(40)) PRIMES.add(candidate);
+                candidate -= 2;
+            }
+            return PRIMES.get(k);
+        }
+    }
+}
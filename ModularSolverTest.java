@@ -0,0 +1,153 @@
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+
+// Checks ModularSolver's exact solutions: Hilbert systems against the closed form of the
+// inverse Hilbert matrix, random decimal systems against the rational solution they were built
+// from, decimal reading of doubles, entries far outside the range of a long, and singular,
+// empty and malformed systems. Run with "java ModularSolverTest"; exits with status 1 on a failure.
+final class ModularSolverTest {
+    private static int failures;
+
+    private ModularSolverTest() {
+    }
+
+    public static void main(String[] args) {
+        // H x = e_1 has the first column of H^-1 as its integer solution. Rows are scaled by
+        // lcm(1 .. 2n - 1) so that the coefficients are exact.
+        for (int n : new int[]{2, 5, 10, 16}) {
+            BigInteger lcm = BigInteger.ONE;
+            for (int k = 1; k < 2 * n; k++) {
+                BigInteger v = BigInteger.valueOf(k);
+                lcm = lcm.multiply(v).divide(lcm.gcd(v));
+            }
+            BigDecimal[] augmented = new BigDecimal[n * (n + 1)];
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    augmented[i * (n + 1) + j] = new BigDecimal(lcm.divide(BigInteger.valueOf(i + j + 1)));
+                }
+                augmented[i * (n + 1) + n] = i == 0 ? new BigDecimal(lcm) : BigDecimal.ZERO;
+            }
+            ModularSolver.Solution solution = ModularSolver.solve(augmented, n);
+            boolean ok = solution.denominator.equals(BigInteger.ONE);
+            for (int i = 1; ok && i <= n; i++) {
+                // (H^-1)_i1 = (-1)^(i+1) i C(n+i-1, n-1) C(n, i)
+                BigInteger expected = BigInteger.valueOf(i).multiply(binomial(n + i - 1, n - 1)).multiply(binomial(n, i));
+                if (i % 2 == 0) expected = expected.negate();
+                ok = solution.numerators[i - 1].equals(expected);
+            }
+            check("Hilbert " + n + ", first column of the inverse", ok, format(solution));
+        }
+
+        // A x = b with x = numerators / denominator. Denominators of the form 2^a 5^b keep b an
+        // exact decimal.
+        Random random = new Random(31);
+        long[] denominators = {1, 8, 125, 1000, 1 << 20};
+        for (int n : new int[]{1, 3, 12, 40}) {
+            BigInteger denominator = BigInteger.valueOf(denominators[random.nextInt(denominators.length)]);
+            BigInteger[] numerators = new BigInteger[n];
+            for (int i = 0; i < n; i++) {
+                numerators[i] = BigInteger.valueOf(random.nextInt(2_000_001) - 1_000_000);
+            }
+            BigDecimal[] augmented = new BigDecimal[n * (n + 1)];
+            for (int i = 0; i < n; i++) {
+                BigInteger sum = BigInteger.ZERO;
+                for (int j = 0; j < n; j++) {
+                    BigInteger a = BigInteger.valueOf(random.nextInt(2001) - 1000);
+                    augmented[i * (n + 1) + j] = new BigDecimal(a, 2);
+                    sum = sum.add(a.multiply(numerators[j]));
+                }
+                augmented[i * (n + 1) + n] = new BigDecimal(sum, 2).divide(new BigDecimal(denominator));
+            }
+            ModularSolver.Solution solution = ModularSolver.solve(augmented, n);
+            boolean ok = true;
+            for (int i = 0; ok && i < n; i++) {
+                // numerators[i] / denominator == solution.numerators[i] / solution.denominator
+                ok = numerators[i].multiply(solution.denominator).equals(solution.numerators[i].multiply(denominator));
+            }
+            check("random rational solution, n = " + n, ok, format(solution));
+        }
+
+        check("0.1 x = 1 reads 0.1 as 1/10", "10".equals(solve1(0.1, 1).format(0)), "");
+        check("3 x = 1", "1/3".equals(solve1(3, 1).format(0)), "");
+        check("1e300 x = -2e300", "-2".equals(solve1(1e300, -2e300).format(0)), "");
+        check("1e-300 x = 1", BigInteger.TEN.pow(300).equals(solve1(1e-300, 1).numerators[0]), "");
+
+        SparseMatrix.Builder builder = new SparseMatrix.Builder(3, 3);
+        builder.add(0, 0, 2).add(0, 2, 1).add(1, 1, 4).add(2, 0, -1).add(2, 2, 0.5);
+        ModularSolver.Solution sparse = ModularSolver.solve(new LinearSystem(builder.build(), new double[]{3, 1, 0.25}));
+        check("sparse system", "5/8".equals(sparse.format(0)) && "1/4".equals(sparse.format(1)) && "7/4".equals(sparse.format(2))
+                && Arrays.equals(sparse.toDoubles(), new double[]{0.625, 0.25, 1.75}), format(sparse));
+
+        check("rank 1 2x2", throwsSingular(() -> ModularSolver.solve(decimals(1, 2, 3, 2, 4, 6), 2)), "");
+        int n = 20;
+        BigDecimal[] dependent = new BigDecimal[n * (n + 1)];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j <= n; j++) {
+                dependent[i * (n + 1) + j] = i == n - 1
+                        ? dependent[j].multiply(BigDecimal.valueOf(3)).subtract(dependent[(n + 1) + j])
+                        : BigDecimal.valueOf(random.nextInt(2_000_001) - 1_000_000);
+            }
+        }
+        check("dependent rows, n = 20", throwsSingular(() -> ModularSolver.solve(dependent, n)), "");
+        check("empty system", ModularSolver.solve(new BigDecimal[0], 0).size() == 0, "");
+        check("wrong length", throwsIllegalArgument(() -> ModularSolver.solve(decimals(1, 2, 3), 2)), "");
+        check("NaN coefficient", throwsIllegalArgument(() -> ModularSolver.decimal(Double.NaN)), "");
+
+        System.out.println(failures == 0 ? "All checks passed" : failures + " checks failed");
+        if (failures > 0) System.exit(1);
+    }
+
+    private static ModularSolver.Solution solve1(double a, double b) {
+        return ModularSolver.solve(new BigDecimal[]{ModularSolver.decimal(a), ModularSolver.decimal(b)}, 1);
+    }
+
+    private static BigDecimal[] decimals(double... values) {
+        BigDecimal[] decimals = new BigDecimal[values.length];
+        for (int i = 0; i < values.length; i++) {
+            decimals[i] = ModularSolver.decimal(values[i]);
+        }
+        return decimals;
+    }
+
+    private static BigInteger binomial(int n, int k) {
+        BigInteger result = BigInteger.ONE;
+        for (int i = 1; i <= k; i++) {
+            result = result.multiply(BigInteger.valueOf(n - k + i)).divide(BigInteger.valueOf(i));
+        }
+        return result;
+    }
+
+    private static String format(ModularSolver.Solution solution) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < Math.min(solution.size(), 6); i++) {
+            sb.append(i == 0 ? "" : ", ").append(solution.format(i));
+        }
+        return sb.toString();
+    }
+
+    private static boolean throwsSingular(Runnable action) {
+        try {
+            action.run();
+            return false;
+        } catch (SingularMatrixException expected) {
+            return true;
+        }
+    }
+
+    private static boolean throwsIllegalArgument(Runnable action) {
+        try {
+            action.run();
+            return false;
+        } catch (IllegalArgumentException expected) {
+            return true;
+        }
+    }
+
+    private static void check(String name, boolean ok, String detail) {
+        if (ok) return;
+        System.out.println("FAIL " + name + (detail.isEmpty() ? "" : ": " + detail));
+        failures++;
+    }
+}
@@ -0,0 +1,30 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Flight Recorder event for one computation, committed by OperationMetrics. Start with
+// -XX:StartFlightRecording or jcmd JFR.start and look under "Math Solver" in the recording.
+@Name("mathsolver.Operation")
+@Label("Math Solver Operation")
+@Category("Math Solver")
+@Description("A matrix, polynomial or linear-system computation")
+@StackTrace(false)
+final class OperationEvent extends jdk.jfr.Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Operands")
+    @Description("Operand dimensions")
+    String operands;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Allocated")
+    @Description("Bytes allocated by the calling thread, or -1 if unavailable")
+    @DataAmount
+    long allocated;
+}
@@ -0,0 +1,218 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Instrumentation around every top-level computation: which operation ran, on what operand
+// sizes, for how long, how it ended and how much the calling thread allocated. Per-operation
+// latency histograms, the operations still running and the most recent completions make up
+// the snapshot, so a report of a "hang" can be matched to the operation and input behind it.
+// Every operation is also a Flight Recorder event when a recording is active.
+//
+// Recording is off unless -Dmathsolver.metrics=true or setEnabled(true). Disabled, record()
+// costs a flag read and the JFR enabled check around the computation.
+final class OperationMetrics {
+    private static final int RECENT = 50;
+
+    private static volatile boolean enabled = Boolean.getBoolean("mathsolver.metrics");
+
+    private static final Map<String, OperationStats> STATS = new ConcurrentHashMap<>();
+    private static final Map<Long, Running> RUNNING = new ConcurrentHashMap<>();
+    private static final AtomicLong IDS = new AtomicLong();
+    private static final Completed[] recent = new Completed[RECENT];
+    private static int recentCount;
+
+    private static final class OperationStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder failures = new LongAdder();
+        final LongAdder cancellations = new LongAdder();
+        final LongAdder allocated = new LongAdder();
+        volatile String lastOperands = "";
+    }
+
+    private static final class Running {
+        final String operation;
+        final String operands;
+        final String thread;
+        final long startNanos;
+
+        Running(String operation, String operands, String thread, long startNanos) {
+            this.operation = operation;
+            this.operands = operands;
+            this.thread = thread;
+            this.startNanos = startNanos;
+        }
+    }
+
+    private static final class Completed {
+        final Instant finished;
+        final String operation;
+        final String operands;
+        final String outcome;
+        final long nanos;
+        final long allocated;
+
+        Completed(Instant finished, String operation, String operands, String outcome, long nanos, long allocated) {
+            this.finished = finished;
+            this.operation = operation;
+            this.operands = operands;
+            this.outcome = outcome;
+            this.nanos = nanos;
+            this.allocated = allocated;
+        }
+    }
+
+    private OperationMetrics() {
+    }
+
+    static boolean isEnabled() {
+        return enabled;
+    }
+
+    static void setEnabled(boolean enabled) {
+        OperationMetrics.enabled = enabled;
+    }
+
+    // Runs body as the named operation. Operands are only described (matrix shapes, vector
+    // lengths) when something is recording.
+    static <T> T record(String operation, Callable<T> body, Object... operands) throws Exception {
+        OperationEvent event = new OperationEvent();
+        boolean recording = enabled;
+        if (!recording && !event.isEnabled()) return body.call();
+
+        String shapes = describe(operands);
+        long id = IDS.incrementAndGet();
+        long allocatedBefore = threadAllocatedBytes();
+        long start = System.nanoTime();
+        if (recording) RUNNING.put(id, new Running(operation, shapes, Thread.currentThread().getName(), start));
+        event.begin();
+        String outcome = "failed";
+        try {
+            T result = body.call();
+            outcome = "ok";
+            return result;
+        } catch (CancellationException ex) {
+            outcome = "cancelled";
+            throw ex;
+        } finally {
+            event.end();
+            long nanos = System.nanoTime() - start;
+            long allocatedAfter = threadAllocatedBytes();
+            long allocated = allocatedBefore < 0 || allocatedAfter < 0 ? -1 : allocatedAfter - allocatedBefore;
+            if (recording) {
+                RUNNING.remove(id);
+                complete(operation, shapes, outcome, nanos, allocated);
+            }
+            if (event.shouldCommit()) {
+                event.operation = operation;
+                event.operands = shapes;
+                event.outcome = outcome;
+                event.allocated = allocated;
+                event.commit();
+            }
+        }
+    }
+
+    static void reset() {
+        STATS.clear();
+        synchronized (recent) {
+            recentCount = 0;
+        }
+    }
+
+    private static void complete(String operation, String operands, String outcome, long nanos, long allocated) {
+        OperationStats stats = STATS.computeIfAbsent(operation, name -> new OperationStats());
+        stats.latency.record(nanos);
+        if (outcome.equals("failed")) stats.failures.increment();
+        if (outcome.equals("cancelled")) stats.cancellations.increment();
+        if (allocated > 0) stats.allocated.add(allocated);
+        stats.lastOperands = operands;
+        Completed completed = new Completed(Instant.now(), operation, operands, outcome, nanos, allocated);
+        synchronized (recent) {
+            recent[recentCount++ % RECENT] = completed;
+        }
+    }
+
+    // ---- Snapshot ----
+
+    static String snapshot() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Operation metrics at ").append(Instant.now())
+                .append(enabled ? "" : " (recording is off)").append("\n\n");
+        sb.append(String.format(Locale.ROOT, "%-24s %7s %6s %6s %10s %10s %10s %10s %10s  %s%n",
+                "Operation", "count", "fail", "cancel", "mean ms", "p50 ms", "p99 ms", "max ms", "KB/op",
+                "last operands"));
+        for (Map.Entry<String, OperationStats> e : new TreeMap<>(STATS).entrySet()) {
+            OperationStats s = e.getValue();
+            LatencyHistogram h = s.latency;
+            long count = h.count();
+            sb.append(String.format(Locale.ROOT, "%-24s %7d %6d %6d %10.3f %10.3f %10.3f %10.3f %10.1f  %s%n",
+                    e.getKey(), count, s.failures.sum(), s.cancellations.sum(), h.mean() / 1e6,
+                    h.percentile(50) / 1e6, h.percentile(99) / 1e6, h.max() / 1e6,
+                    count == 0 ? 0 : s.allocated.sum() / 1024.0 / count, s.lastOperands));
+        }
+
+        List<Running> running = new ArrayList<>(RUNNING.values());
+        sb.append("\nRunning now: ").append(running.isEmpty() ? "nothing" : "").append('\n');
+        long now = System.nanoTime();
+        for (Running r : running) {
+            sb.append(String.format(Locale.ROOT, "  %-24s %-20s for %.1f s on %s%n",
+                    r.operation, r.operands, (now - r.startNanos) / 1e9, r.thread));
+        }
+
+        sb.append("\nMost recent:\n");
+        synchronized (recent) {
+            for (int i = Math.max(0, recentCount - RECENT); i < recentCount; i++) {
+                Completed c = recent[i % RECENT];
+                sb.append(String.format(Locale.ROOT, "  %s %-24s %-20s %-9s %10.3f ms %10s%n",
+                        c.finished, c.operation, c.operands, c.outcome, c.nanos / 1e6,
+                        c.allocated < 0 ? "" : c.allocated / 1024 + " KB"));
+            }
+        }
+        return sb.toString();
+    }
+
+    static void dump(Path file) throws IOException {
+        Files.write(file, snapshot().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String describe(Object... operands) {
+        StringBuilder sb = new StringBuilder();
+        for (Object operand : operands) {
+            if (sb.length() > 0) sb.append(", ");
+            if (operand instanceof Matrix) {
+                Matrix m = (Matrix) operand;
+                sb.append(m.rows()).append('x').append(m.cols());
+            } else if (operand instanceof SparseMatrix) {
+                SparseMatrix m = (SparseMatrix) operand;
+                sb.append(m.rows()).append('x').append(m.cols()).append(" (").append(m.values().length).append(" nnz)");
+            } else if (operand instanceof LinearSystem) {
+                sb.append(((LinearSystem) operand).size()).append(" unknowns");
+            } else if (operand instanceof double[]) {
+                sb.append('[').append(((double[]) operand).length).append(']');
+            } else {
+                sb.append(operand);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static long threadAllocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) return -1;
+        return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
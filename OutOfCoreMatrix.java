@@ -0,0 +1,468 @@
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// A matrix left in its .mxb file and processed a tile at a time, for operands too large for
+// the heap. Tiles move between the file and a few reused arrays through one direct buffer, so
+// an operation keeps the same small resident set (three tiles, plus an LU panel capped at
+// PANEL_BYTES) whatever the size of the matrix, and the page cache rather than the garbage
+// collector holds the rest. Multiply, transpose and LU write their results to new .mxb files
+// of doubles; the inputs may hold ints, longs or doubles.
+//
+// Instances are not thread-safe.
+final class OutOfCoreMatrix implements Closeable {
+    // Tiles of up to 1024 x 1024 and an LU panel of up to 64 MB, smaller on small heaps so the
+    // working set stays within about a quarter of the heap.
+    private static final long MAX_HEAP = Runtime.getRuntime().maxMemory();
+    static final int DEFAULT_TILE = Integer.getInteger("mathsolver.tileSize",
+            (int) Math.max(32, Math.min(1024, Math.sqrt(MAX_HEAP / 32.0 / Double.BYTES))));
+    // The LU panel holds n rows of the current block column; its width shrinks as n grows.
+    private static final long PANEL_BYTES = Math.min(64L << 20, MAX_HEAP / 8);
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MatrixIO.BinaryHeader header;
+    private final boolean writable;
+    private ByteBuffer io = ByteBuffer.allocateDirect(0);
+
+    private OutOfCoreMatrix(Path file, FileChannel channel, MatrixIO.BinaryHeader header, boolean writable) {
+        this.file = file;
+        this.channel = channel;
+        this.header = header;
+        this.writable = writable;
+    }
+
+    static OutOfCoreMatrix open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new OutOfCoreMatrix(file, channel, MatrixIO.readHeader(channel), false);
+        } catch (IOException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    // A zero matrix of doubles; the file stays sparse until written.
+    static OutOfCoreMatrix create(Path file, long rows, long cols) throws IOException {
+        MatrixIO.BinaryHeader header = new MatrixIO.BinaryHeader(MatrixIO.TYPE_DOUBLE, rows, cols);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            MatrixIO.writeHeader(channel, header);
+            if (header.dataBytes() > 0) {
+                channel.write(ByteBuffer.allocate(1), MatrixIO.BINARY_HEADER_BYTES + header.dataBytes() - 1);
+            }
+            return new OutOfCoreMatrix(file, channel, header, true);
+        } catch (IOException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    long rows() {
+        return header.rows;
+    }
+
+    long cols() {
+        return header.cols;
+    }
+
+    Path file() {
+        return file;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Reads the rows x cols block at (row, col); block row i lands at tile[i * stride].
+    void read(long row, long col, int rows, int cols, double[] tile, int stride) throws IOException {
+        checkBlock(row, col, rows, cols);
+        int elementBytes = header.elementBytes();
+        ByteBuffer buffer = buffer(cols * elementBytes);
+        for (int i = 0; i < rows; i++) {
+            buffer.clear().limit(cols * elementBytes);
+            readFully(buffer, position(row + i, col));
+            buffer.flip();
+            int base = i * stride;
+            if (header.type == MatrixIO.TYPE_DOUBLE) {
+                buffer.asDoubleBuffer().get(tile, base, cols);
+            } else if (header.type == MatrixIO.TYPE_LONG) {
+                for (int j = 0; j < cols; j++) {
+                    tile[base + j] = buffer.getLong();
+                }
+            } else {
+                for (int j = 0; j < cols; j++) {
+                    tile[base + j] = buffer.getInt();
+                }
+            }
+        }
+    }
+
+    void write(long row, long col, int rows, int cols, double[] tile, int stride) throws IOException {
+        if (!writable) throw new IOException(file.getFileName() + " is open read-only");
+        checkBlock(row, col, rows, cols);
+        ByteBuffer buffer = buffer(cols * Double.BYTES);
+        for (int i = 0; i < rows; i++) {
+            buffer.clear().limit(cols * Double.BYTES);
+            buffer.asDoubleBuffer().put(tile, i * stride, cols);
+            long position = position(row + i, col);
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+    }
+
+    // True when the files are all .mxb and together exceed a quarter of the maximum heap, past
+    // which loading them would crowd out everything else.
+    static boolean isTooLargeToLoad(Path... files) throws IOException {
+        long bytes = 0;
+        for (Path file : files) {
+            if (!MatrixIO.fileName(file).endsWith(MatrixIO.BINARY_EXTENSION)) return false;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                bytes += MatrixIO.readHeader(channel).dataBytes();
+            }
+        }
+        return bytes > Runtime.getRuntime().maxMemory() / 4;
+    }
+
+    // ---- Operations ----
+
+    static OutOfCoreMatrix multiply(OutOfCoreMatrix a, OutOfCoreMatrix b, Path out) throws IOException {
+        return multiply(a, b, out, DEFAULT_TILE);
+    }
+
+    // C is produced one tile at a time, accumulating A(i, k) B(k, j) over k in memory.
+    static OutOfCoreMatrix multiply(OutOfCoreMatrix a, OutOfCoreMatrix b, Path out, int tile) throws IOException {
+        if (a.cols() != b.rows()) throw new IllegalArgumentException("Columns of A must equal rows of B");
+        TaskContext context = TaskContext.current();
+        context.begin(a.rows() * a.cols() * b.cols());
+        OutOfCoreMatrix c = create(out, a.rows(), b.cols());
+        boolean done = false;
+        try {
+            double[] x = new double[tile * tile];
+            double[] y = new double[tile * tile];
+            double[] z = new double[tile * tile];
+            DoubleMatrix xTile = DoubleMatrix.wrap(x, tile, tile);
+            DoubleMatrix yTile = DoubleMatrix.wrap(y, tile, tile);
+            for (long i = 0; i < a.rows(); i += tile) {
+                int r = (int) Math.min(tile, a.rows() - i);
+                for (long j = 0; j < b.cols(); j += tile) {
+                    int p = (int) Math.min(tile, b.cols() - j);
+                    Arrays.fill(z, 0, r * p, 0);
+                    for (long k = 0; k < a.cols(); k += tile) {
+                        context.checkCancelled();
+                        int m = (int) Math.min(tile, a.cols() - k);
+                        a.read(i, k, r, m, x, tile);
+                        b.read(k, j, m, p, y, tile);
+                        MatrixMultiplier.multiplyAccumulate(1, xTile.view(0, 0, r, m), yTile.view(0, 0, m, p), z, context);
+                    }
+                    c.write(i, j, r, p, z, p);
+                }
+            }
+            done = true;
+            return c;
+        } finally {
+            if (!done) c.close();
+        }
+    }
+
+    static OutOfCoreMatrix transpose(OutOfCoreMatrix a, Path out) throws IOException {
+        return transpose(a, out, DEFAULT_TILE);
+    }
+
+    static OutOfCoreMatrix transpose(OutOfCoreMatrix a, Path out, int tile) throws IOException {
+        TaskContext context = TaskContext.current();
+        context.begin(a.rows() * a.cols());
+        OutOfCoreMatrix c = create(out, a.cols(), a.rows());
+        boolean done = false;
+        try {
+            double[] x = new double[tile * tile];
+            double[] y = new double[tile * tile];
+            for (long i = 0; i < a.rows(); i += tile) {
+                int r = (int) Math.min(tile, a.rows() - i);
+                for (long j = 0; j < a.cols(); j += tile) {
+                    context.checkCancelled();
+                    int m = (int) Math.min(tile, a.cols() - j);
+                    a.read(i, j, r, m, x, m);
+                    for (int row = 0; row < r; row++) {
+                        for (int col = 0; col < m; col++) {
+                            y[col * r + row] = x[row * m + col];
+                        }
+                    }
+                    c.write(j, i, m, r, y, r);
+                    context.worked((long) r * m);
+                }
+            }
+            done = true;
+            return c;
+        } finally {
+            if (!done) c.close();
+        }
+    }
+
+    // PA = LU with partial pivoting, held in a file of its own: L below the diagonal (unit
+    // diagonal implied), U on and above it.
+    static final class LU implements Closeable {
+        final OutOfCoreMatrix factors;
+        // Row k was exchanged with row pivots[k] at step k.
+        final int[] pivots;
+        final int sign;
+        final double logAbsDeterminant;
+        final boolean singular;
+        private final int tile;
+
+        LU(OutOfCoreMatrix factors, int[] pivots, int sign, double logAbsDeterminant, boolean singular, int tile) {
+            this.factors = factors;
+            this.pivots = pivots;
+            this.sign = sign;
+            this.logAbsDeterminant = logAbsDeterminant;
+            this.singular = singular;
+            this.tile = tile;
+        }
+
+        int size() {
+            return pivots.length;
+        }
+
+        double determinant() {
+            return sign == 0 ? 0 : sign * Math.exp(logAbsDeterminant);
+        }
+
+        // Two triangular solves, streaming the factors one block of rows at a time.
+        double[] solve(double[] b) throws IOException {
+            int n = pivots.length;
+            if (b.length != n) throw new IllegalArgumentException("Right-hand side must have " + n + " entries");
+            if (singular) throw new SingularMatrixException();
+            TaskContext context = TaskContext.current();
+            double[] x = b.clone();
+            for (int k = 0; k < n; k++) {
+                double t = x[k];
+                x[k] = x[pivots[k]];
+                x[pivots[k]] = t;
+            }
+            double[] block = new double[tile * tile];
+            // Ly = Pb: column blocks left to right, the diagonal block last and row by row.
+            for (int i0 = 0; i0 < n; i0 += tile) {
+                context.checkCancelled();
+                int r = Math.min(tile, n - i0);
+                for (int j0 = 0; j0 <= i0; j0 += tile) {
+                    int q = Math.min(tile, n - j0);
+                    factors.read(i0, j0, r, q, block, q);
+                    for (int i = 0; i < r; i++) {
+                        int end = j0 == i0 ? i : q;
+                        double sum = 0;
+                        for (int j = 0; j < end; j++) {
+                            sum += block[i * q + j] * x[j0 + j];
+                        }
+                        x[i0 + i] -= sum;
+                    }
+                }
+            }
+            // Ux = y: column blocks right to left, the diagonal block last and bottom up.
+            int last = (n - 1) / tile * tile;
+            for (int i0 = last; i0 >= 0; i0 -= tile) {
+                context.checkCancelled();
+                int r = Math.min(tile, n - i0);
+                for (int j0 = last; j0 >= i0; j0 -= tile) {
+                    int q = Math.min(tile, n - j0);
+                    factors.read(i0, j0, r, q, block, q);
+                    for (int i = r - 1; i >= 0; i--) {
+                        int start = j0 == i0 ? i + 1 : 0;
+                        double sum = 0;
+                        for (int j = start; j < q; j++) {
+                            sum += block[i * q + j] * x[j0 + j];
+                        }
+                        x[i0 + i] -= sum;
+                        if (j0 == i0) x[i0 + i] /= block[i * q + i];
+                    }
+                }
+            }
+            return x;
+        }
+
+        @Override
+        public void close() throws IOException {
+            factors.close();
+        }
+    }
+
+    static LU factor(OutOfCoreMatrix a, Path out) throws IOException {
+        return factor(a, out, DEFAULT_TILE);
+    }
+
+    // Right-looking blocked LU. Each step factors a block column in memory with partial
+    // pivoting, applies its row exchanges to the rest of the file, solves for the block row of
+    // U, and updates the trailing matrix tile by tile with one multiply-accumulate per tile.
+    static LU factor(OutOfCoreMatrix a, Path out, int tile) throws IOException {
+        if (a.rows() != a.cols()) throw new IllegalArgumentException("Matrix must be square");
+        if (a.rows() > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("Matrix is too large to factor");
+        int n = (int) a.rows();
+        int w = (int) Math.max(1, Math.min(tile, PANEL_BYTES / Double.BYTES / Math.max(n, 1)));
+        TaskContext context = TaskContext.current();
+        context.begin((long) n * n * n / 3 + 1);
+        OutOfCoreMatrix lu = create(out, n, n);
+        boolean done = false;
+        try {
+            double[] x = new double[tile * tile];
+            double[] y = new double[tile * tile];
+            double scale = 0;
+            for (long i = 0; i < n; i += tile) {
+                int r = (int) Math.min(tile, n - i);
+                for (long j = 0; j < n; j += tile) {
+                    context.checkCancelled();
+                    int m = (int) Math.min(tile, n - j);
+                    a.read(i, j, r, m, x, m);
+                    for (int k = 0; k < r * m; k++) {
+                        scale = Math.max(scale, Math.abs(x[k]));
+                    }
+                    lu.write(i, j, r, m, x, m);
+                }
+            }
+            // As in LUDecomposition: a pivot this small relative to the largest entry is zero
+            // to working precision.
+            double tolerance = Math.max(n, 1) * Math.ulp(1.0) * scale;
+
+            int[] pivots = new int[n];
+            int sign = 1;
+            double logAbsDeterminant = 0;
+            boolean singular = scale == 0 && n > 0;
+            double[] panel = new double[n * w];
+            DoubleMatrix panelMatrix = DoubleMatrix.wrap(panel, n, w);
+            DoubleMatrix yTile = DoubleMatrix.wrap(y, tile, tile);
+            for (int k0 = 0; k0 < n; k0 += w) {
+                int wk = Math.min(w, n - k0);
+                int m = n - k0;
+                lu.read(k0, k0, m, wk, panel, w);
+                for (int jj = 0; jj < wk; jj++) {
+                    context.checkCancelled();
+                    int pivot = jj;
+                    double max = Math.abs(panel[jj * w + jj]);
+                    for (int i = jj + 1; i < m; i++) {
+                        double v = Math.abs(panel[i * w + jj]);
+                        if (v > max) {
+                            max = v;
+                            pivot = i;
+                        }
+                    }
+                    pivots[k0 + jj] = k0 + pivot;
+                    if (pivot != jj) {
+                        for (int j = 0; j < wk; j++) {
+                            double t = panel[jj * w + j];
+                            panel[jj * w + j] = panel[pivot * w + j];
+                            panel[pivot * w + j] = t;
+                        }
+                        sign = -sign;
+                    }
+                    if (max <= tolerance) singular = true;
+                    if (max == 0) {
+                        sign = 0;
+                        continue;
+                    }
+                    double diagonal = panel[jj * w + jj];
+                    logAbsDeterminant += Math.log(Math.abs(diagonal));
+                    if (diagonal < 0) sign = -sign;
+                    for (int i = jj + 1; i < m; i++) {
+                        double factor = panel[i * w + jj] / diagonal;
+                        panel[i * w + jj] = factor;
+                        if (factor == 0) continue;
+                        for (int j = jj + 1; j < wk; j++) {
+                            panel[i * w + j] -= factor * panel[jj * w + j];
+                        }
+                    }
+                }
+                lu.write(k0, k0, m, wk, panel, w);
+                for (int jj = 0; jj < wk; jj++) {
+                    if (pivots[k0 + jj] != k0 + jj) {
+                        lu.swapRows(k0 + jj, pivots[k0 + jj], 0, k0, x, y);
+                        lu.swapRows(k0 + jj, pivots[k0 + jj], k0 + wk, n, x, y);
+                    }
+                }
+                int next = k0 + wk;
+                for (int j = next; j < n; j += tile) {
+                    int p = Math.min(tile, n - j);
+                    // U12 = L11^-1 A12, L11 unit lower triangular.
+                    lu.read(k0, j, wk, p, y, tile);
+                    for (int row = 1; row < wk; row++) {
+                        for (int t = 0; t < row; t++) {
+                            double l = panel[row * w + t];
+                            if (l == 0) continue;
+                            for (int col = 0; col < p; col++) {
+                                y[row * tile + col] -= l * y[t * tile + col];
+                            }
+                        }
+                    }
+                    lu.write(k0, j, wk, p, y, tile);
+                    // A22 -= L21 U12
+                    DoubleMatrix u12 = yTile.view(0, 0, wk, p);
+                    for (int i = next; i < n; i += tile) {
+                        context.checkCancelled();
+                        int r = Math.min(tile, n - i);
+                        lu.read(i, j, r, p, x, p);
+                        MatrixMultiplier.multiplyAccumulate(-1, panelMatrix.view(i - k0, 0, r, wk), u12, x, context);
+                        lu.write(i, j, r, p, x, p);
+                    }
+                }
+            }
+            done = true;
+            return new LU(lu, pivots, singular ? 0 : sign, singular ? Double.NEGATIVE_INFINITY : logAbsDeterminant,
+                    singular, tile);
+        } finally {
+            if (!done) lu.close();
+        }
+    }
+
+    // {sign, log |det|}. The factors go to a scratch file beside the input, removed afterwards.
+    static double[] logDeterminant(Path file) throws IOException {
+        Path scratch = Files.createTempFile(file.toAbsolutePath().getParent(), "lu", MatrixIO.BINARY_EXTENSION);
+        try (OutOfCoreMatrix a = open(file); LU lu = factor(a, scratch)) {
+            return new double[] {lu.sign, lu.logAbsDeterminant};
+        } finally {
+            Files.deleteIfExists(scratch);
+        }
+    }
+
+    // Exchanges columns [from, to) of two rows, a scratch tile's width at a time.
+    private void swapRows(int first, int second, int from, int to, double[] x, double[] y) throws IOException {
+        int chunk = Math.min(x.length, y.length);
+        for (int col = from; col < to; col += chunk) {
+            int length = Math.min(chunk, to - col);
+            read(first, col, 1, length, x, length);
+            read(second, col, 1, length, y, length);
+            write(first, col, 1, length, y, length);
+            write(second, col, 1, length, x, length);
+        }
+    }
+
+    private ByteBuffer buffer(int bytes) {
+        if (io.capacity() < bytes) io = ByteBuffer.allocateDirect(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        return io;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) throw new EOFException(file.getFileName() + " ends early");
+            position += read;
+        }
+    }
+
+    private long position(long row, long col) {
+        return MatrixIO.BINARY_HEADER_BYTES + (row * header.cols + col) * header.elementBytes();
+    }
+
+    private void checkBlock(long row, long col, int rows, int cols) {
+        if (row < 0 || col < 0 || rows < 0 || cols < 0 || row + rows > header.rows || col + cols > header.cols) {
+            throw new IndexOutOfBoundsException(rows + "x" + cols + " block at (" + row + ", " + col + ") outside "
+                    + header.rows + "x" + header.cols);
+        }
+    }
+}
@@ -0,0 +1,610 @@
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+// Arithmetic on real polynomials, coefficients ascending as everywhere else (a[i] multiplies
+// x^i). Results are trimmed to their true degree, and the zero polynomial is {0}.
+//
+// Products with a short operand are formed directly. Longer ones go through transforms: when
+// every coefficient is an integer and the product's coefficients are bound to stay below 2^62,
+// through number-theoretic transforms modulo three primes, recombined exactly by Garner's
+// method; otherwise through one complex FFT of a + ib, from which both spectra are separated,
+// so a product costs two transforms of the padded length. Long divisions invert the reversed
+// divisor as a power series by Newton iteration where that series stays bounded, and otherwise
+// go a block of quotient coefficients at a time, one product per block. Composition splits the
+// outer polynomial in halves over repeated squares of the inner one.
+//
+// GCDs are exact over the rationals, by primitive pseudo-remainder sequences on the
+// coefficients' shortest decimal forms (as in ModularSolver): a floating-point Euclid cannot
+// tell a tiny remainder from a zero one. Multipoint evaluation is Horner's rule over blocks of
+// points in parallel, four points per pass so the multiply-add chains overlap; subproduct trees
+// are asymptotically faster but lose all accuracy in floating point past modest degrees.
+final class PolynomialArithmetic {
+    // Products whose shorter operand has at most this many coefficients are formed directly.
+    private static final int DIRECT_LENGTH = 64;
+    private static final int PARALLEL_LENGTH = 1 << 14;
+    private static final int CHUNK = 1 << 12;
+    private static final int POINT_BLOCK = 256;
+    // Each is c * 2^k + 1 with k >= 23 and primitive root 3; their product is about 2^86.
+    private static final int[] NTT_PRIMES = {998244353, 167772161, 469762049};
+    private static final int NTT_MAX_LENGTH = 1 << 23;
+    private static final double EXACT_BOUND = 0x1p62;
+    private static final double INVERSE_GROWTH = 0x1p20;
+
+    private PolynomialArithmetic() {
+    }
+
+    static final class Division {
+        final double[] quotient;
+        final double[] remainder;
+
+        Division(double[] quotient, double[] remainder) {
+            this.quotient = quotient;
+            this.remainder = remainder;
+        }
+    }
+
+    static double[] multiply(double[] a, double[] b) {
+        double[] x = trim(a);
+        double[] y = trim(b);
+        if (isZero(x) || isZero(y)) return new double[]{0};
+        if (Math.min(x.length, y.length) <= DIRECT_LENGTH) return trim(direct(x, y));
+        int length = x.length + y.length - 1;
+        int size = Integer.highestOneBit(length - 1) << 1;
+        if (size <= NTT_MAX_LENGTH && fitsExactly(x, y)) return trim(numberTheoretic(x, y, size, length));
+        return trim(fourier(x, y, size, length));
+    }
+
+    static Division divide(double[] a, double[] b) {
+        double[] dividend = trim(a);
+        double[] divisor = trim(b);
+        if (isZero(divisor)) throw new ArithmeticException("Division by the zero polynomial");
+        int n = dividend.length;
+        int m = divisor.length;
+        if (n < m || isZero(dividend)) return new Division(new double[]{0}, dividend);
+        int quotientLength = n - m + 1;
+        if (Math.min(quotientLength, m) <= DIRECT_LENGTH) return longDivision(dividend, divisor);
+
+        // rev(q) = rev(a) / rev(b) mod x^(n-m+1), rev(b) having the nonzero leading coefficient
+        // as its constant term. That inverse series grows geometrically when b has roots outside
+        // the unit circle, and then the division goes block by block instead.
+        double[] inverse = seriesInverse(reverse(divisor), quotientLength);
+        if (inverse == null) return blockedDivision(dividend, divisor);
+        double[] reversed = Arrays.copyOf(multiply(Arrays.copyOf(reverse(dividend), quotientLength), inverse),
+                quotientLength);
+        double[] quotient = reverse(reversed);
+        double[] product = multiply(divisor, quotient);
+        double[] remainder = new double[Math.max(1, m - 1)];
+        for (int i = 0; i < m - 1; i++) {
+            remainder[i] = dividend[i] - (i < product.length ? product[i] : 0);
+        }
+        return new Division(trim(quotient), trim(remainder));
+    }
+
+    // Monic, exact over the rationals; {0} when both are zero.
+    static double[] gcd(double[] a, double[] b) {
+        BigInteger[] f = primitive(integral(trim(a)));
+        BigInteger[] g = primitive(integral(trim(b)));
+        if (f.length < g.length) {
+            BigInteger[] t = f;
+            f = g;
+            g = t;
+        }
+        TaskContext context = TaskContext.current();
+        while (!isZero(g)) {
+            context.checkCancelled();
+            BigInteger[] r = primitive(pseudoRemainder(f, g));
+            f = g;
+            g = r;
+        }
+        if (isZero(f)) return new double[]{0};
+        BigDecimal lead = new BigDecimal(f[f.length - 1]);
+        double[] result = new double[f.length];
+        for (int i = 0; i < f.length - 1; i++) {
+            result[i] = new BigDecimal(f[i]).divide(lead, MathContext.DECIMAL64).doubleValue();
+        }
+        result[f.length - 1] = 1;
+        return result;
+    }
+
+    // outer(inner(x)).
+    static double[] compose(double[] outer, double[] inner) {
+        double[] p = trim(outer);
+        double[] q = trim(inner);
+        if (p.length == 1 || q.length == 1) return new double[]{horner(p, q[0])};
+        List<double[]> squares = new ArrayList<>();
+        squares.add(q);
+        return trim(compose(p, 0, p.length, squares));
+    }
+
+    static double[] derivative(double[] a) {
+        double[] p = trim(a);
+        if (p.length == 1) return new double[]{0};
+        double[] result = new double[p.length - 1];
+        for (int i = 1; i < p.length; i++) {
+            result[i - 1] = i * p[i];
+        }
+        return result;
+    }
+
+    static double[] evaluate(double[] a, double[] points) {
+        double[] p = trim(a);
+        double[] values = new double[points.length];
+        IntStream blocks = IntStream.range(0, (points.length + POINT_BLOCK - 1) / POINT_BLOCK);
+        if ((long) points.length * p.length > PARALLEL_LENGTH) blocks = blocks.parallel();
+        blocks.forEach(block -> {
+            int from = block * POINT_BLOCK;
+            int to = Math.min(points.length, from + POINT_BLOCK);
+            int i = from;
+            for (; i + 4 <= to; i += 4) {
+                double x0 = points[i];
+                double x1 = points[i + 1];
+                double x2 = points[i + 2];
+                double x3 = points[i + 3];
+                double s0 = p[p.length - 1];
+                double s1 = s0;
+                double s2 = s0;
+                double s3 = s0;
+                for (int k = p.length - 2; k >= 0; k--) {
+                    double c = p[k];
+                    s0 = Math.fma(s0, x0, c);
+                    s1 = Math.fma(s1, x1, c);
+                    s2 = Math.fma(s2, x2, c);
+                    s3 = Math.fma(s3, x3, c);
+                }
+                values[i] = s0;
+                values[i + 1] = s1;
+                values[i + 2] = s2;
+                values[i + 3] = s3;
+            }
+            for (; i < to; i++) {
+                values[i] = horner(p, points[i]);
+            }
+        });
+        return values;
+    }
+
+    // Drops zero leading coefficients, keeping at least one.
+    static double[] trim(double[] a) {
+        int length = a.length;
+        while (length > 1 && a[length - 1] == 0) length--;
+        if (length == 0) return new double[]{0};
+        return length == a.length ? a : Arrays.copyOf(a, length);
+    }
+
+    private static boolean isZero(double[] a) {
+        return a.length == 1 && a[0] == 0;
+    }
+
+    private static double horner(double[] p, double x) {
+        double sum = p[p.length - 1];
+        for (int k = p.length - 2; k >= 0; k--) {
+            sum = Math.fma(sum, x, p[k]);
+        }
+        return sum;
+    }
+
+    private static double[] reverse(double[] a) {
+        double[] result = new double[a.length];
+        for (int i = 0; i < a.length; i++) {
+            result[i] = a[a.length - 1 - i];
+        }
+        return result;
+    }
+
+    private static double[] add(double[] a, double[] b) {
+        double[] result = Arrays.copyOf(a.length >= b.length ? a : b, Math.max(a.length, b.length));
+        double[] shorter = a.length >= b.length ? b : a;
+        for (int i = 0; i < shorter.length; i++) {
+            result[i] += shorter[i];
+        }
+        return result;
+    }
+
+    // ---- Products ----
+
+    // The schoolbook product, untrimmed.
+    static double[] direct(double[] a, double[] b) {
+        double[] c = new double[a.length + b.length - 1];
+        for (int i = 0; i < a.length; i++) {
+            double ai = a[i];
+            if (ai == 0) continue;
+            for (int j = 0; j < b.length; j++) {
+                c[i + j] += ai * b[j];
+            }
+        }
+        return c;
+    }
+
+    // Integer coefficients whose products cannot reach 2^62 even summed over the overlap.
+    private static boolean fitsExactly(double[] a, double[] b) {
+        double maxA = maxIntegral(a);
+        double maxB = maxIntegral(b);
+        return maxA >= 0 && maxB >= 0 && maxA * maxB * Math.min(a.length, b.length) < EXACT_BOUND;
+    }
+
+    // Largest magnitude, or -1 when some coefficient is not a whole number.
+    private static double maxIntegral(double[] a) {
+        double max = 0;
+        for (double v : a) {
+            if (v != Math.rint(v) || Math.abs(v) >= EXACT_BOUND) return -1;
+            max = Math.max(max, Math.abs(v));
+        }
+        return max;
+    }
+
+    private static double[] numberTheoretic(double[] a, double[] b, int size, int length) {
+        int[][] residues = new int[NTT_PRIMES.length][];
+        IntStream.range(0, NTT_PRIMES.length).parallel()
+                .forEach(k -> residues[k] = convolve(a, b, size, length, NTT_PRIMES[k]));
+        long p1 = NTT_PRIMES[0];
+        long p2 = NTT_PRIMES[1];
+        int p3 = NTT_PRIMES[2];
+        long p1InverseMod2 = ModularSolver.inverse(p1 % p2, p2);
+        long p1InverseMod3 = ModularSolver.inverse(p1 % p3, p3);
+        long p2InverseMod3 = ModularSolver.inverse(p2 % p3, p3);
+        double[] c = new double[length];
+        for (int i = 0; i < length; i++) {
+            long y1 = residues[0][i];
+            long y2 = Math.floorMod(residues[1][i] - y1, p2) * p1InverseMod2 % p2;
+            long y3 = (Math.floorMod(residues[2][i] - y1, (long) p3) * p1InverseMod3 % p3 - y2 % p3 + p3) % p3
+                    * p2InverseMod3 % p3;
+            // The value is y1 + p1 y2 + p1 p2 y3, or that minus p1 p2 p3 when it is negative;
+            // either fits in a long, so the wrapped arithmetic below is exact.
+            if (y3 > p3 / 2) y3 -= p3;
+            c[i] = y1 + p1 * y2 + p1 * p2 * y3;
+        }
+        return c;
+    }
+
+    // The first length coefficients of a * b modulo p, each in [0, p).
+    private static int[] convolve(double[] a, double[] b, int size, int length, int p) {
+        long magic = (1L << 62) / p << 2;
+        int[] fa = residues(a, size, p);
+        int[] fb = residues(b, size, p);
+        int[] roots = roots(size, p, magic, false);
+        transform(fa, roots, p, magic);
+        transform(fb, roots, p, magic);
+        for (int i = 0; i < size; i++) {
+            fa[i] = (int) ModularSolver.reduce((long) fa[i] * fb[i], p, magic);
+        }
+        transform(fa, roots(size, p, magic, true), p, magic);
+        long scale = ModularSolver.inverse(size, p);
+        int[] c = new int[length];
+        for (int i = 0; i < length; i++) {
+            c[i] = (int) ModularSolver.reduce(fa[i] * scale, p, magic);
+        }
+        return c;
+    }
+
+    private static int[] residues(double[] a, int size, int p) {
+        int[] f = new int[size];
+        for (int i = 0; i < a.length; i++) {
+            f[i] = (int) Math.floorMod((long) a[i], (long) p);
+        }
+        return f;
+    }
+
+    // w^j for j < size / 2, w a primitive size-th root of unity mod p (or its inverse).
+    private static int[] roots(int size, int p, long magic, boolean inverse) {
+        long w = power(3, (p - 1) / size, p);
+        if (inverse) w = ModularSolver.inverse(w, p);
+        int[] roots = new int[Math.max(1, size / 2)];
+        long r = 1;
+        for (int j = 0; j < roots.length; j++) {
+            roots[j] = (int) r;
+            r = ModularSolver.reduce(r * w, p, magic);
+        }
+        return roots;
+    }
+
+    private static long power(long base, long exponent, long p) {
+        long result = 1;
+        base %= p;
+        for (long e = exponent; e > 0; e >>= 1) {
+            if ((e & 1) != 0) result = result * base % p;
+            base = base * base % p;
+        }
+        return result;
+    }
+
+    // Iterative radix-2 transform in place: bit-reversal, then log2(n) passes of n/2
+    // butterflies, each pass split into chunks for the common pool when n is large.
+    private static void transform(int[] f, int[] roots, int p, long magic) {
+        int n = f.length;
+        bitReverse(n, (i, j) -> {
+            int t = f[i];
+            f[i] = f[j];
+            f[j] = t;
+        });
+        for (int half = 1; half < n; half <<= 1) {
+            int h = half;
+            int step = n / (2 * half);
+            butterflies(n, (from, to) -> {
+                for (int k = from; k < to; k++) {
+                    int j = k & (h - 1);
+                    int i = ((k - j) << 1) + j;
+                    long u = f[i];
+                    long v = ModularSolver.reduce((long) f[i + h] * roots[j * step], p, magic);
+                    long sum = u + v;
+                    long difference = u - v;
+                    f[i] = (int) (sum >= p ? sum - p : sum);
+                    f[i + h] = (int) (difference < 0 ? difference + p : difference);
+                }
+            });
+        }
+    }
+
+    // Real a and b packed as a + ib: with Z the transform, A_k = (Z_k + conj Z_-k) / 2 and
+    // B_k = (Z_k - conj Z_-k) / 2i, so A_k B_k = (Z_k^2 - (conj Z_-k)^2) / 4i. The squares carry
+    // an error of order max(|a|, |b|)^2 rather than |a| |b|, so a and b are first brought to the
+    // same size by opposite powers of two, which leaves their product exactly as it was.
+    private static double[] fourier(double[] a, double[] b, int size, int length) {
+        int shift = (Math.getExponent(maxAbs(b)) - Math.getExponent(maxAbs(a))) / 2;
+        double[] re = new double[size];
+        double[] im = new double[size];
+        for (int i = 0; i < a.length; i++) {
+            re[i] = Math.scalb(a[i], shift);
+        }
+        for (int i = 0; i < b.length; i++) {
+            im[i] = Math.scalb(b[i], -shift);
+        }
+        double[] cos = new double[size / 2];
+        double[] sin = new double[size / 2];
+        for (int j = 0; j < cos.length; j++) {
+            double angle = 2 * Math.PI * j / size;
+            cos[j] = Math.cos(angle);
+            sin[j] = Math.sin(angle);
+        }
+        fft(re, im, cos, sin, false);
+        double[] pr = new double[size];
+        double[] pi = new double[size];
+        for (int k = 0; k < size; k++) {
+            int m = (size - k) & (size - 1);
+            double xr = re[k];
+            double xi = im[k];
+            double yr = re[m];
+            double yi = -im[m];
+            double dr = (xr * xr - xi * xi) - (yr * yr - yi * yi);
+            double di = 2 * (xr * xi - yr * yi);
+            pr[k] = di / 4;
+            pi[k] = -dr / 4;
+        }
+        fft(pr, pi, cos, sin, true);
+        return Arrays.copyOf(pr, length);
+    }
+
+    private static double maxAbs(double[] a) {
+        double max = 0;
+        for (double v : a) {
+            max = Math.max(max, Math.abs(v));
+        }
+        return max;
+    }
+
+    private static void fft(double[] re, double[] im, double[] cos, double[] sin, boolean inverse) {
+        int n = re.length;
+        bitReverse(n, (i, j) -> {
+            double t = re[i];
+            re[i] = re[j];
+            re[j] = t;
+            t = im[i];
+            im[i] = im[j];
+            im[j] = t;
+        });
+        double sign = inverse ? 1 : -1;
+        for (int half = 1; half < n; half <<= 1) {
+            int h = half;
+            int step = n / (2 * half);
+            butterflies(n, (from, to) -> {
+                for (int k = from; k < to; k++) {
+                    int j = k & (h - 1);
+                    int i = ((k - j) << 1) + j;
+                    double wr = cos[j * step];
+                    double wi = sign * sin[j * step];
+                    double xr = re[i + h];
+                    double xi = im[i + h];
+                    double tr = wr * xr - wi * xi;
+                    double ti = wr * xi + wi * xr;
+                    re[i + h] = re[i] - tr;
+                    im[i + h] = im[i] - ti;
+                    re[i] += tr;
+                    im[i] += ti;
+                }
+            });
+        }
+        if (inverse) {
+            for (int i = 0; i < n; i++) {
+                re[i] /= n;
+                im[i] /= n;
+            }
+        }
+    }
+
+    private interface IndexPair {
+        void apply(int i, int j);
+    }
+
+    private static void bitReverse(int n, IndexPair swap) {
+        for (int i = 1, j = 0; i < n; i++) {
+            int bit = n >> 1;
+            for (; (j & bit) != 0; bit >>= 1) {
+                j ^= bit;
+            }
+            j ^= bit;
+            if (i < j) swap.apply(i, j);
+        }
+    }
+
+    private interface Range {
+        void apply(int from, int to);
+    }
+
+    private static void butterflies(int n, Range pass) {
+        int count = n / 2;
+        if (n < PARALLEL_LENGTH) {
+            pass.apply(0, count);
+            return;
+        }
+        IntStream.range(0, (count + CHUNK - 1) / CHUNK).parallel()
+                .forEach(chunk -> pass.apply(chunk * CHUNK, Math.min(count, chunk * CHUNK + CHUNK)));
+    }
+
+    // ---- Division and composition ----
+
+    private static Division longDivision(double[] dividend, double[] divisor) {
+        int m = divisor.length;
+        double[] r = dividend.clone();
+        double[] q = new double[dividend.length - m + 1];
+        double lead = divisor[m - 1];
+        for (int k = q.length - 1; k >= 0; k--) {
+            double t = r[k + m - 1] / lead;
+            q[k] = t;
+            r[k + m - 1] = 0;
+            for (int j = 0; j < m - 1; j++) {
+                r[k + j] -= t * divisor[j];
+            }
+        }
+        return new Division(trim(q), trim(Arrays.copyOf(r, Math.max(1, m - 1))));
+    }
+
+    // Long division a block of quotient coefficients at a time: each block is solved against
+    // the top of the divisor only, then subtracted from the rest of the remainder with one
+    // product, so the rounding is that of long division at a fraction of the cost.
+    private static Division blockedDivision(double[] dividend, double[] divisor) {
+        int m = divisor.length;
+        int block = Math.max(DIRECT_LENGTH, (int) (8 * Math.sqrt(m)));
+        double[] r = dividend.clone();
+        double[] q = new double[dividend.length - m + 1];
+        double lead = divisor[m - 1];
+        TaskContext context = TaskContext.current();
+        for (int end = q.length; end > 0; end -= block) {
+            context.checkCancelled();
+            int start = Math.max(0, end - block);
+            for (int k = end - 1; k >= start; k--) {
+                double t = r[k + m - 1] / lead;
+                q[k] = t;
+                for (int j = start + m - 1 - k; j < m - 1; j++) {
+                    r[k + j] -= t * divisor[j];
+                }
+            }
+            double[] product = multiply(Arrays.copyOfRange(q, start, end), divisor);
+            for (int i = 0; i < Math.min(m - 1, product.length); i++) {
+                r[start + i] -= product[i];
+            }
+        }
+        return new Division(trim(q), trim(Arrays.copyOf(r, Math.max(1, m - 1))));
+    }
+
+    // g with f g = 1 mod x^n, doubling the precision each step: g <- g (2 - f g). null once g
+    // grows past INVERSE_GROWTH times 1 / f(0), where the products would lose too many digits.
+    private static double[] seriesInverse(double[] f, int n) {
+        double[] g = {1 / f[0]};
+        double limit = INVERSE_GROWTH * Math.abs(g[0]);
+        TaskContext context = TaskContext.current();
+        for (int length = 1; length < n; ) {
+            context.checkCancelled();
+            length = Math.min(2 * length, n);
+            double[] e = Arrays.copyOf(multiply(Arrays.copyOf(f, Math.min(f.length, length)), g), length);
+            for (int i = 0; i < length; i++) {
+                e[i] = -e[i];
+            }
+            e[0] += 2;
+            g = Arrays.copyOf(multiply(g, e), length);
+            for (double v : g) {
+                if (!(Math.abs(v) <= limit)) return null;
+            }
+        }
+        return g;
+    }
+
+    // sum of p[from + i] q^i for i < length, with squares.get(k) = q^(2^k) extended on demand.
+    private static double[] compose(double[] p, int from, int length, List<double[]> squares) {
+        if (length <= 4) {
+            double[] q = squares.get(0);
+            double[] result = {p[from + length - 1]};
+            for (int i = length - 2; i >= 0; i--) {
+                result = multiply(result, q);
+                result[0] += p[from + i];
+            }
+            return result;
+        }
+        int half = Integer.highestOneBit(length - 1);
+        int level = Integer.numberOfTrailingZeros(half);
+        while (squares.size() <= level) {
+            double[] last = squares.get(squares.size() - 1);
+            squares.add(multiply(last, last));
+        }
+        double[] low = compose(p, from, half, squares);
+        double[] high = compose(p, from + half, length - half, squares);
+        return add(low, multiply(high, squares.get(level)));
+    }
+
+    // ---- Exact GCD ----
+
+    // Integer multiples of the coefficients, all scaled by the same power of ten.
+    private static BigInteger[] integral(double[] a) {
+        BigDecimal[] decimals = new BigDecimal[a.length];
+        int scale = 0;
+        for (int i = 0; i < a.length; i++) {
+            decimals[i] = ModularSolver.decimal(a[i]);
+            scale = Math.max(scale, decimals[i].scale());
+        }
+        BigInteger[] result = new BigInteger[a.length];
+        for (int i = 0; i < a.length; i++) {
+            result[i] = decimals[i].setScale(scale).unscaledValue();
+        }
+        return result;
+    }
+
+    // Divided by the gcd of its coefficients, leading coefficient positive, trimmed.
+    private static BigInteger[] primitive(BigInteger[] a) {
+        int length = a.length;
+        while (length > 1 && a[length - 1].signum() == 0) length--;
+        BigInteger content = BigInteger.ZERO;
+        for (int i = 0; i < length && !content.equals(BigInteger.ONE); i++) {
+            content = content.gcd(a[i]);
+        }
+        if (content.signum() == 0) return new BigInteger[]{BigInteger.ZERO};
+        if (a[length - 1].signum() < 0) content = content.negate();
+        BigInteger[] result = new BigInteger[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = a[i].divide(content);
+        }
+        return result;
+    }
+
+    private static boolean isZero(BigInteger[] a) {
+        return a.length == 1 && a[0].signum() == 0;
+    }
+
+    // A multiple of the remainder of f by g. Each step scales by lead(g) / gcd(lead(g), t)
+    // only, rather than by lead(g) itself, which keeps the coefficients from growing as fast.
+    private static BigInteger[] pseudoRemainder(BigInteger[] f, BigInteger[] g) {
+        int m = g.length;
+        BigInteger lead = g[m - 1];
+        BigInteger[] r = f.clone();
+        for (int d = r.length - 1; d >= m - 1; d--) {
+            BigInteger t = r[d];
+            if (t.signum() == 0) continue;
+            BigInteger common = lead.gcd(t);
+            BigInteger scale = lead.divide(common);
+            BigInteger factor = t.divide(common);
+            int shift = d - (m - 1);
+            if (!scale.equals(BigInteger.ONE)) {
+                for (int i = 0; i < d; i++) {
+                    r[i] = r[i].multiply(scale);
+                }
+            }
+            for (int j = 0; j < m - 1; j++) {
+                r[shift + j] = r[shift + j].subtract(factor.multiply(g[j]));
+            }
+            r[d] = BigInteger.ZERO;
+        }
+        return Arrays.copyOf(r, Math.max(1, m - 1));
+    }
+}
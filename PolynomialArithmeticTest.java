@@ -0,0 +1,67 @@
+import java.util.Random;
+
+// Checks PolynomialArithmetic's transform products against the schoolbook product, in
+// particular for operands of very different sizes, where an unbalanced packed FFT loses every
+// digit. Run with "java PolynomialArithmeticTest"; exits with status 1 on a failure.
+final class PolynomialArithmeticTest {
+    private static final double TOLERANCE = 1e-12;
+
+    private PolynomialArithmeticTest() {
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        int failures = 0;
+        for (double scale : new double[]{1, 1e3, 1e6, 1e8, 1e100}) {
+            for (int length : new int[]{100, 1000, 5000}) {
+                double[] a = new double[length];
+                double[] b = new double[length + 17];
+                for (int i = 0; i < a.length; i++) {
+                    a[i] = random.nextGaussian() * scale;
+                }
+                for (int i = 0; i < b.length; i++) {
+                    b[i] = random.nextGaussian() / scale;
+                }
+                double error = relativeError(PolynomialArithmetic.multiply(a, b), PolynomialArithmetic.direct(a, b));
+                if (!(error <= TOLERANCE)) {
+                    System.out.printf("FAIL multiply, length %d, scale %.0e: relative error %.1e%n", length, scale, error);
+                    failures++;
+                }
+            }
+        }
+
+        // A dominant leading coefficient makes the divisor's inverse series much smaller than
+        // the dividend, which goes through the same products.
+        for (int length : new int[]{200, 2000}) {
+            double[] quotient = new double[length];
+            double[] divisor = new double[length];
+            for (int i = 0; i < length; i++) {
+                quotient[i] = random.nextGaussian();
+                divisor[i] = random.nextGaussian();
+            }
+            divisor[length - 1] = 1e3;
+            double[] dividend = PolynomialArithmetic.direct(quotient, divisor);
+            double error = relativeError(PolynomialArithmetic.divide(dividend, divisor).quotient, quotient);
+            if (!(error <= 1e-10)) {
+                System.out.printf("FAIL divide, length %d: relative error %.1e%n", length, error);
+                failures++;
+            }
+        }
+
+        System.out.println(failures == 0 ? "All checks passed" : failures + " checks failed");
+        if (failures > 0) System.exit(1);
+    }
+
+    // Largest coefficient difference relative to the largest expected coefficient.
+    private static double relativeError(double[] actual, double[] expected) {
+        double error = 0;
+        double norm = 0;
+        for (int i = 0; i < Math.max(actual.length, expected.length); i++) {
+            double x = i < actual.length ? actual[i] : 0;
+            double y = i < expected.length ? expected[i] : 0;
+            error = Math.max(error, Math.abs(x - y));
+            norm = Math.max(norm, Math.abs(y));
+        }
+        return error / norm;
+    }
+}
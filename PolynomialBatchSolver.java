@@ -0,0 +1,160 @@
+import java.util.stream.IntStream;
+
+// Closed-form roots for many quadratics or cubics at once. Coefficients come in as columns
+// (a[i] x^2 + b[i] x + c[i], or a cubic with d[i]); roots go into caller-owned arrays laid out
+// root-major, so root k of equation i sits at k * count + i. Nothing is allocated per
+// equation and the loops are straight-line numeric code that C2 can unroll and vectorize.
+final class PolynomialBatchSolver {
+    private static final int CHUNK = 1 << 14;
+    private static final double SQRT3_2 = Math.sqrt(3) / 2;
+
+    private PolynomialBatchSolver() {
+    }
+
+    static void solveQuadratics(double[] a, double[] b, double[] c, double[] re, double[] im) {
+        int count = a.length;
+        checkColumns(count, 2, re, im, b, c);
+        forEachChunk(count, (from, to) -> quadraticKernel(a, b, c, re, im, count, from, to));
+    }
+
+    static void solveCubics(double[] a, double[] b, double[] c, double[] d, double[] re, double[] im) {
+        int count = a.length;
+        checkColumns(count, 3, re, im, b, c, d);
+        forEachChunk(count, (from, to) -> cubicKernel(a, b, c, d, re, im, count, from, to));
+    }
+
+    // One equation through the same kernels, so a polynomial solved alone gets the same roots
+    // as in a batch.
+    static void solveQuadratic(double a, double b, double c, double[] re, double[] im) {
+        checkColumns(1, 2, re, im);
+        quadraticKernel(new double[] {a}, new double[] {b}, new double[] {c}, re, im, 1, 0, 1);
+    }
+
+    static void solveCubic(double a, double b, double c, double d, double[] re, double[] im) {
+        checkColumns(1, 3, re, im);
+        cubicKernel(new double[] {a}, new double[] {b}, new double[] {c}, new double[] {d}, re, im, 1, 0, 1);
+    }
+
+    // Real roots use the cancellation-free pair q / a and c / q with q = -(b + sign(b) sqrt(D)) / 2.
+    private static void quadraticKernel(double[] a, double[] b, double[] c, double[] re, double[] im,
+                                        int count, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double ai = a[i];
+            double bi = b[i];
+            double ci = c[i];
+            double disc = bi * bi - 4 * ai * ci;
+            double root = Math.sqrt(Math.abs(disc));
+            double q = -0.5 * (bi + Math.copySign(root, bi));
+            boolean real = disc >= 0;
+            double vertex = -bi / (2 * ai);
+            double r1 = q == 0 ? vertex : q / ai;
+            double r2 = q == 0 ? vertex : ci / q;
+            double spread = root / (2 * ai);
+            re[i] = real ? r1 : vertex;
+            re[count + i] = real ? r2 : vertex;
+            im[i] = real ? 0 : spread;
+            im[count + i] = real ? 0 : -spread;
+        }
+    }
+
+    // One real root from the depressed cubic t^3 + p t + q with x = t - b / 3a (Cardano when it
+    // is the only one, else the largest of the trigonometric three), polished by a Newton step.
+    // The other two come from the deflated quadratic x^2 + e x + f by the stable formula above;
+    // the shifted closed form itself loses every digit of the small roots when |b| >> |a|, |c|.
+    private static void cubicKernel(double[] a, double[] b, double[] c, double[] d, double[] re, double[] im,
+                                    int count, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double ai = a[i];
+            double bn = b[i] / ai;
+            double cn = c[i] / ai;
+            double dn = d[i] / ai;
+            double shift = bn / 3;
+            double p = cn - bn * shift;
+            double q = (2 * bn * bn * bn) / 27 - bn * cn / 3 + dn;
+            double disc = q * q / 4 + p * p * p / 27;
+            double x;
+            if (disc > 0) {
+                double root = Math.sqrt(disc);
+                // u from the sum without cancellation, v from u v = -p / 3.
+                double u = Math.cbrt(-q / 2 - Math.copySign(root, q));
+                double v = u == 0 ? 0 : -p / (3 * u);
+                x = u + v - shift;
+                // When the real root is the smallest, u + v cancels but the complex pair does
+                // not, and the three multiply to -d / a; keep whichever fits better.
+                double pairRe = -(u + v) / 2 - shift;
+                double pairIm = (u - v) * SQRT3_2;
+                double fromPair = -dn / (pairRe * pairRe + pairIm * pairIm);
+                if (backwardError(fromPair, bn, cn, dn) < backwardError(x, bn, cn, dn)) x = fromPair;
+            } else if (p == 0) {
+                x = -shift;
+            } else {
+                double r = Math.sqrt(-p / 3);
+                double cosine = Math.max(-1, Math.min(1, -q / (2 * r * r * r)));
+                double theta = Math.acos(cosine) / 3;
+                double x0 = 2 * r * Math.cos(theta) - shift;
+                double x1 = 2 * r * Math.cos(theta + 2 * Math.PI / 3) - shift;
+                double x2 = 2 * r * Math.cos(theta + 4 * Math.PI / 3) - shift;
+                x = Math.abs(x0) >= Math.abs(x1) ? x0 : x1;
+                if (Math.abs(x2) > Math.abs(x)) x = x2;
+            }
+            double slope = (3 * x + 2 * bn) * x + cn;
+            double step = monic(x, bn, cn, dn) / slope;
+            if (Double.isFinite(step)) x -= step;
+
+            // Deflate from the constant term when x is the largest root and from the leading
+            // term when it is the smallest; each is stable only in its own case.
+            double e;
+            double f;
+            if (x != 0 && Math.abs(x * x * x) >= Math.abs(dn)) {
+                f = -dn / x;
+                e = (f - cn) / x;
+            } else {
+                e = bn + x;
+                f = cn + x * e;
+            }
+            double quadraticDisc = e * e - 4 * f;
+            double root = Math.sqrt(Math.abs(quadraticDisc));
+            double s = -0.5 * (e + Math.copySign(root, e));
+            boolean real = quadraticDisc >= 0;
+            re[i] = x;
+            im[i] = 0;
+            re[count + i] = real ? (s == 0 ? -e / 2 : s) : -e / 2;
+            re[2 * count + i] = real ? (s == 0 ? -e / 2 : f / s) : -e / 2;
+            im[count + i] = real ? 0 : root / 2;
+            im[2 * count + i] = real ? 0 : -root / 2;
+        }
+    }
+
+    private static double monic(double x, double b, double c, double d) {
+        return ((x + b) * x + c) * x + d;
+    }
+
+    // |p(x)| relative to the size of its terms, so candidates of different magnitude compare.
+    private static double backwardError(double x, double b, double c, double d) {
+        double ax = Math.abs(x);
+        return Math.abs(monic(x, b, c, d)) / (((ax + Math.abs(b)) * ax + Math.abs(c)) * ax + Math.abs(d));
+    }
+
+    private interface Kernel {
+        void run(int from, int to);
+    }
+
+    private static void forEachChunk(int count, Kernel kernel) {
+        if (count <= CHUNK) {
+            kernel.run(0, count);
+            return;
+        }
+        int chunks = (count + CHUNK - 1) / CHUNK;
+        IntStream.range(0, chunks).parallel()
+                .forEach(chunk -> kernel.run(chunk * CHUNK, Math.min(count, (chunk + 1) * CHUNK)));
+    }
+
+    private static void checkColumns(int count, int roots, double[] re, double[] im, double[]... columns) {
+        for (double[] column : columns) {
+            if (column.length != count) throw new IllegalArgumentException("Coefficient columns must have equal length");
+        }
+        if (re.length < roots * count || im.length < roots * count) {
+            throw new IllegalArgumentException("Root arrays must hold " + roots * count + " entries");
+        }
+    }
+}
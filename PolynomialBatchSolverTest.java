@@ -0,0 +1,144 @@
+import java.util.Arrays;
+import java.util.Random;
+
+// Checks PolynomialBatchSolver's closed forms on known roots, including the cancellation cases
+// the stable formulas exist for, on a batch large enough to run in parallel chunks against the
+// single-equation entry points, and on malformed columns.
+// Run with "java PolynomialBatchSolverTest"; exits with status 1 on a failure.
+final class PolynomialBatchSolverTest {
+    private static int failures;
+
+    private PolynomialBatchSolverTest() {
+    }
+
+    public static void main(String[] args) {
+        quadratic("x^2 - 3x + 2", 1, -3, 2, new double[]{1, 2}, new double[2]);
+        quadratic("x^2 + 2x + 5", 1, 2, 5, new double[]{-1, -1}, new double[]{2, -2});
+        quadratic("(x - 3)^2", 1, -6, 9, new double[]{3, 3}, new double[2]);
+        quadratic("x^2 - 1e8 x + 1", 1, -1e8, 1, new double[]{1e8, 1e-8}, new double[2]);
+        quadratic("x^2 + 1e8 x + 1", 1, 1e8, 1, new double[]{-1e8, -1e-8}, new double[2]);
+        quadratic("b = 0", 2, 0, -8, new double[]{2, -2}, new double[2]);
+        quadratic("c = 0", 1, -5, 0, new double[]{0, 5}, new double[2]);
+
+        cubic("(x - 1)(x - 2)(x - 3)", new double[]{1, 2, 3});
+        cubic("(x - 1e-6)(x - 2e-6)(x - 1e6)", new double[]{1e-6, 2e-6, 1e6});
+        cubic("(x + 1e-5)(x - 3e-5)(x + 4e5)", new double[]{-1e-5, 3e-5, -4e5});
+        cubic("x (x - 1)(x + 1)", new double[]{0, 1, -1});
+        cubic("(x - 2)^3", new double[]{2, 2, 2});
+        double[] re = new double[3];
+        double[] im = new double[3];
+        PolynomialBatchSolver.solveCubic(1, -2, 1, -2, re, im);
+        expect("(x - 2)(x^2 + 1)", re, im, new double[]{2, 0, 0}, new double[]{0, 1, -1}, 1e-14);
+        PolynomialBatchSolver.solveCubic(1, 1e6, 1, 1e6, re, im);
+        expect("(x + 1e6)(x^2 + 1)", re, im, new double[]{-1e6, 0, 0}, new double[]{0, 1, -1}, 1e-12);
+
+        // More equations than one chunk: the parallel batch must agree bit for bit with solving
+        // each equation alone, and recover the roots it was built from.
+        Random random = new Random(23);
+        int count = 100_000;
+        double[][] roots = new double[3][count];
+        double[] a = new double[count];
+        double[] b = new double[count];
+        double[] c = new double[count];
+        double[] d = new double[count];
+        for (int i = 0; i < count; i++) {
+            double scale = Math.pow(10, random.nextInt(9) - 4);
+            for (int k = 0; k < 3; k++) {
+                roots[k][i] = scale * (k + 1 + random.nextDouble() / 2) * (random.nextBoolean() ? 1 : -1);
+            }
+            a[i] = 1 + random.nextDouble();
+            b[i] = -a[i] * (roots[0][i] + roots[1][i] + roots[2][i]);
+            c[i] = a[i] * (roots[0][i] * roots[1][i] + roots[0][i] * roots[2][i] + roots[1][i] * roots[2][i]);
+            d[i] = -a[i] * roots[0][i] * roots[1][i] * roots[2][i];
+        }
+        double[] batchRe = new double[3 * count];
+        double[] batchIm = new double[3 * count];
+        PolynomialBatchSolver.solveCubics(a, b, c, d, batchRe, batchIm);
+        int mismatches = 0;
+        int wrong = 0;
+        for (int i = 0; i < count; i++) {
+            PolynomialBatchSolver.solveCubic(a[i], b[i], c[i], d[i], re, im);
+            double[] found = new double[3];
+            double[] expected = new double[3];
+            for (int k = 0; k < 3; k++) {
+                if (re[k] != batchRe[k * count + i] || im[k] != batchIm[k * count + i]) mismatches++;
+                found[k] = re[k];
+                expected[k] = roots[k][i];
+                if (im[k] != 0) wrong++;
+            }
+            Arrays.sort(found);
+            Arrays.sort(expected);
+            for (int k = 0; k < 3; k++) {
+                if (!(Math.abs(found[k] - expected[k]) <= 1e-9 * Math.abs(expected[k]))) wrong++;
+            }
+        }
+        check("batch equals single equations", mismatches == 0, mismatches + " roots differ");
+        check("batch recovers its roots", wrong == 0, wrong + " roots off");
+        double[] quadraticRe = new double[2 * count];
+        double[] quadraticIm = new double[2 * count];
+        PolynomialBatchSolver.solveQuadratics(a, b, c, quadraticRe, quadraticIm);
+        PolynomialBatchSolver.solveQuadratic(a[count - 1], b[count - 1], c[count - 1], re, im);
+        check("quadratic batch equals single equation", re[0] == quadraticRe[count - 1]
+                && re[1] == quadraticRe[2 * count - 1] && im[1] == quadraticIm[2 * count - 1], "");
+
+        PolynomialBatchSolver.solveQuadratics(new double[0], new double[0], new double[0], new double[0], new double[0]);
+        check("column lengths differ", throwsIllegalArgument(() -> PolynomialBatchSolver.solveQuadratics(
+                new double[2], new double[2], new double[3], new double[4], new double[4])), "");
+        check("root arrays too short", throwsIllegalArgument(() -> PolynomialBatchSolver.solveCubics(
+                new double[2], new double[2], new double[2], new double[2], new double[5], new double[6])), "");
+        check("single root arrays too short", throwsIllegalArgument(
+                () -> PolynomialBatchSolver.solveCubic(1, 0, 0, -1, new double[2], new double[3])), "");
+
+        System.out.println(failures == 0 ? "All checks passed" : failures + " checks failed");
+        if (failures > 0) System.exit(1);
+    }
+
+    private static void quadratic(String name, double a, double b, double c, double[] re, double[] im) {
+        double[] r = new double[2];
+        double[] i = new double[2];
+        PolynomialBatchSolver.solveQuadratic(a, b, c, r, i);
+        expect(name, r, i, re, im, 1e-15);
+    }
+
+    private static void cubic(String name, double[] roots) {
+        double b = -(roots[0] + roots[1] + roots[2]);
+        double c = roots[0] * roots[1] + roots[0] * roots[2] + roots[1] * roots[2];
+        double d = -roots[0] * roots[1] * roots[2];
+        double[] r = new double[3];
+        double[] i = new double[3];
+        PolynomialBatchSolver.solveCubic(1, b, c, d, r, i);
+        expect(name, r, i, roots, new double[3], name.contains("^3") ? 1e-5 : 1e-12);
+    }
+
+    // The roots as a multiset, each to within tolerance relative to its own size.
+    private static void expect(String name, double[] re, double[] im, double[] expectedRe, double[] expectedIm,
+                               double tolerance) {
+        boolean[] used = new boolean[re.length];
+        boolean ok = true;
+        for (int k = 0; ok && k < expectedRe.length; k++) {
+            int match = -1;
+            for (int j = 0; j < re.length && match < 0; j++) {
+                double size = Math.max(Math.hypot(expectedRe[k], expectedIm[k]), Double.MIN_NORMAL);
+                if (!used[j] && Math.hypot(re[j] - expectedRe[k], im[j] - expectedIm[k]) <= tolerance * size) match = j;
+            }
+            ok = match >= 0;
+            if (ok) used[match] = true;
+        }
+        check(name, ok, Arrays.toString(re) + " + i " + Arrays.toString(im));
+    }
+
+    private static boolean throwsIllegalArgument(Runnable action) {
+        try {
+            action.run();
+            return false;
+        } catch (IllegalArgumentException expected) {
+            return true;
+        }
+    }
+
+    private static void check(String name, boolean ok, String detail) {
+        if (ok) return;
+        System.out.println("FAIL " + name + (detail.isEmpty() ? "" : ": " + detail));
+        failures++;
+    }
+}
@@ -0,0 +1,266 @@
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+// All complex roots of a real polynomial by Aberth-Ehrlich simultaneous iteration, started
+// from circles given by the Newton polygon of the coefficient magnitudes. If the iteration
+// fails to settle, the roots are taken as eigenvalues of the balanced companion matrix, found
+// by EigenSolver's Hessenberg QR.
+// Coefficients are in ascending order: coefficients[i] multiplies x^i.
+final class PolynomialRootFinder {
+    static final int PARALLEL_DEGREE = 512;
+    private static final int MAX_ITERATIONS = 200;
+    private static final int CHUNK = 64;
+    private static final double EPS = Math.ulp(1.0);
+
+    private PolynomialRootFinder() {
+    }
+
+    // Writes the roots to re/im and returns how many there are (the true degree).
+    static int findRoots(double[] coefficients, double[] re, double[] im) {
+        int high = coefficients.length - 1;
+        while (high >= 0 && coefficients[high] == 0) high--;
+        if (high <= 0) return 0;
+        if (re.length < high || im.length < high) {
+            throw new IllegalArgumentException("Root arrays must hold " + high + " entries");
+        }
+        int low = 0;
+        while (coefficients[low] == 0) {
+            re[low] = 0;
+            im[low] = 0;
+            low++;
+        }
+        int n = high - low;
+        double[] a = Arrays.copyOfRange(coefficients, low, high + 1);
+        if (n == 1) {
+            re[low] = -a[0] / a[1];
+            im[low] = 0;
+        } else if (n > 0 && !aberth(a, n, re, im, low)) {
+            companionRoots(a, n, re, im, low);
+        }
+        return high;
+    }
+
+    private static boolean aberth(double[] a, int n, double[] re, double[] im, int offset) {
+        double[] zr = new double[n];
+        double[] zi = new double[n];
+        initialGuesses(a, n, zr, zi);
+        boolean[] converged = new boolean[n];
+        boolean parallel = n >= PARALLEL_DEGREE;
+        double[] wr = parallel ? new double[n] : null;
+        double[] wi = parallel ? new double[n] : null;
+        double[] scratch = new double[3];
+        TaskContext context = TaskContext.current();
+        context.begin(n);
+        int settled = 0;
+
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            context.checkCancelled();
+            if (parallel) {
+                // Jacobi-style sweep: every correction reads the previous iterate.
+                IntStream.range(0, (n + CHUNK - 1) / CHUNK).parallel().forEach(chunk -> {
+                    double[] local = new double[3];
+                    int end = Math.min(n, (chunk + 1) * CHUNK);
+                    for (int i = chunk * CHUNK; i < end; i++) {
+                        if (converged[i]) {
+                            wr[i] = 0;
+                            wi[i] = 0;
+                            continue;
+                        }
+                        aberthCorrection(a, n, zr, zi, i, local);
+                        wr[i] = local[0];
+                        wi[i] = local[1];
+                        converged[i] = local[2] != 0;
+                    }
+                });
+                for (int i = 0; i < n; i++) {
+                    zr[i] -= wr[i];
+                    zi[i] -= wi[i];
+                }
+            } else {
+                // Gauss-Seidel sweep: later roots already see this sweep's updates.
+                for (int i = 0; i < n; i++) {
+                    if (converged[i]) continue;
+                    aberthCorrection(a, n, zr, zi, i, scratch);
+                    zr[i] -= scratch[0];
+                    zi[i] -= scratch[1];
+                    converged[i] = scratch[2] != 0;
+                }
+            }
+            int count = countTrue(converged);
+            context.worked(count - settled);
+            settled = count;
+            if (count == n) {
+                System.arraycopy(zr, 0, re, offset, n);
+                System.arraycopy(zi, 0, im, offset, n);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // out = {correction re, correction im, 1 if the root has converged}
+    private static void aberthCorrection(double[] a, int n, double[] zr, double[] zi, int i, double[] out) {
+        double xr = zr[i];
+        double xi = zi[i];
+        newtonRatio(a, n, xr, xi, out);
+        double nr = out[0];
+        double ni = out[1];
+        if (out[2] != 0) {
+            out[0] = 0;
+            out[1] = 0;
+            return;
+        }
+        double sr = 0;
+        double si = 0;
+        for (int j = 0; j < n; j++) {
+            if (j == i) continue;
+            double dr = xr - zr[j];
+            double di = xi - zi[j];
+            double d = dr * dr + di * di;
+            if (d == 0) continue;
+            sr += dr / d;
+            si -= di / d;
+        }
+        // w = N / (1 - N * S)
+        double denR = 1 - (nr * sr - ni * si);
+        double denI = -(nr * si + ni * sr);
+        double den = denR * denR + denI * denI;
+        double wr;
+        double wi;
+        if (den == 0) {
+            wr = nr;
+            wi = ni;
+        } else {
+            wr = (nr * denR + ni * denI) / den;
+            wi = (ni * denR - nr * denI) / den;
+        }
+        out[0] = wr;
+        out[1] = wi;
+        out[2] = Math.hypot(wr, wi) <= EPS * Math.hypot(xr, xi) ? 1 : 0;
+    }
+
+    // out = {p(z)/p'(z) re, im, 1 if |p(z)| is within rounding error of zero}. Points outside
+    // the unit disk use the reversed polynomial so high degrees cannot overflow.
+    private static void newtonRatio(double[] a, int n, double zr, double zi, double[] out) {
+        double modulus = Math.hypot(zr, zi);
+        if (modulus <= 1) {
+            double pr = a[n], pi = 0, dr = 0, di = 0;
+            double bound = Math.abs(a[n]);
+            for (int k = n - 1; k >= 0; k--) {
+                double t = dr * zr - di * zi + pr;
+                di = dr * zi + di * zr + pi;
+                dr = t;
+                t = pr * zr - pi * zi + a[k];
+                pi = pr * zi + pi * zr;
+                pr = t;
+                bound = bound * modulus + Math.abs(a[k]);
+            }
+            if (Math.hypot(pr, pi) <= 4 * n * EPS * bound) {
+                out[0] = 0;
+                out[1] = 0;
+                out[2] = 1;
+                return;
+            }
+            divide(pr, pi, dr, di, modulus, out);
+        } else {
+            double d = zr * zr + zi * zi;
+            double wr = zr / d;
+            double wi = -zi / d;
+            double inverse = 1 / modulus;
+            double qr = a[0], qi = 0, dqr = 0, dqi = 0;
+            double bound = Math.abs(a[0]);
+            for (int k = 1; k <= n; k++) {
+                double t = dqr * wr - dqi * wi + qr;
+                dqi = dqr * wi + dqi * wr + qi;
+                dqr = t;
+                t = qr * wr - qi * wi + a[k];
+                qi = qr * wi + qi * wr;
+                qr = t;
+                bound = bound * inverse + Math.abs(a[k]);
+            }
+            if (Math.hypot(qr, qi) <= 4 * n * EPS * bound) {
+                out[0] = 0;
+                out[1] = 0;
+                out[2] = 1;
+                return;
+            }
+            // p/p' = z / (n - w q'(w) / q(w))
+            double q = qr * qr + qi * qi;
+            double fr = (dqr * qr + dqi * qi) / q;
+            double fi = (dqi * qr - dqr * qi) / q;
+            double gr = n - (wr * fr - wi * fi);
+            double gi = -(wr * fi + wi * fr);
+            divide(zr, zi, gr, gi, modulus, out);
+        }
+        out[2] = 0;
+    }
+
+    private static void divide(double xr, double xi, double yr, double yi, double modulus, double[] out) {
+        double d = yr * yr + yi * yi;
+        if (d == 0) {
+            // Stationary point: nudge the approximation instead of dividing by zero.
+            out[0] = EPS * (1 + modulus);
+            out[1] = EPS * (1 + modulus);
+            return;
+        }
+        out[0] = (xr * yr + xi * yi) / d;
+        out[1] = (xi * yr - xr * yi) / d;
+    }
+
+    // Places the starting points on the circles whose radii come from the upper convex hull
+    // of (i, log|a_i|), which tracks the root moduli even when they span many magnitudes.
+    private static void initialGuesses(double[] a, int n, double[] zr, double[] zi) {
+        double[] logs = new double[n + 1];
+        int[] hull = new int[n + 1];
+        int size = 0;
+        for (int i = 0; i <= n; i++) {
+            if (a[i] == 0) continue;
+            logs[i] = Math.log(Math.abs(a[i]));
+            while (size >= 2) {
+                int i0 = hull[size - 2];
+                int i1 = hull[size - 1];
+                double cross = (i1 - i0) * (logs[i] - logs[i0]) - (logs[i1] - logs[i0]) * (i - i0);
+                if (cross < 0) break;
+                size--;
+            }
+            hull[size++] = i;
+        }
+        int root = 0;
+        for (int k = 0; k + 1 < size; k++) {
+            int i0 = hull[k];
+            int i1 = hull[k + 1];
+            int count = i1 - i0;
+            double radius = Math.exp((logs[i0] - logs[i1]) / count);
+            for (int j = 0; j < count; j++) {
+                double angle = 2 * Math.PI * j / count + 2 * Math.PI * k / n + 0.4;
+                zr[root] = radius * Math.cos(angle);
+                zi[root] = radius * Math.sin(angle);
+                root++;
+            }
+        }
+    }
+
+    private static void companionRoots(double[] a, int n, double[] re, double[] im, int offset) {
+        double[][] h = new double[n][n];
+        for (int j = 0; j < n; j++) {
+            h[0][j] = -a[n - 1 - j] / a[n];
+        }
+        for (int i = 1; i < n; i++) {
+            h[i][i - 1] = 1;
+        }
+        EigenSolver.balance(h);
+        double[] wr = new double[n];
+        double[] wi = new double[n];
+        EigenSolver.hessenbergEigenvalues(h, wr, wi);
+        System.arraycopy(wr, 0, re, offset, n);
+        System.arraycopy(wi, 0, im, offset, n);
+    }
+
+    private static int countTrue(boolean[] flags) {
+        int count = 0;
+        for (boolean flag : flags) {
+            if (flag) count++;
+        }
+        return count;
+    }
+}
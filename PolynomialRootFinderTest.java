@@ -0,0 +1,146 @@
+import java.util.Random;
+
+// Checks PolynomialRootFinder on polynomials with known roots (real, complex, zero, spread
+// over many magnitudes, roots of unity of high degree) and on random polynomials by backward
+// error, plus degenerate input: degree 0 and 1, high zero coefficients and short root arrays.
+// Run with "java PolynomialRootFinderTest"; exits with status 1 on a failure.
+final class PolynomialRootFinderTest {
+    private static int failures;
+
+    private PolynomialRootFinderTest() {
+    }
+
+    public static void main(String[] args) {
+        expect("degree 1", new double[]{-3, 2}, new double[]{1.5}, new double[]{0});
+        expect("x^2 + 1", new double[]{1, 0, 1}, new double[]{0, 0}, new double[]{1, -1});
+        expect("x^3 (x - 2)", new double[]{0, 0, 0, -2, 1}, new double[]{0, 0, 0, 2}, new double[4]);
+        expect("high zero coefficients", new double[]{6, -5, 1, 0, 0}, new double[]{2, 3}, new double[2]);
+
+        Random random = new Random(17);
+        for (int trial = 0; trial < 50; trial++) {
+            // Conjugate pairs and real roots, expanded into real coefficients.
+            int pairs = random.nextInt(6);
+            int reals = 1 + random.nextInt(6);
+            double[] re = new double[2 * pairs + reals];
+            double[] im = new double[re.length];
+            double[] coefficients = {1};
+            for (int k = 0; k < pairs; k++) {
+                re[2 * k] = re[2 * k + 1] = random.nextGaussian();
+                im[2 * k] = 0.5 + random.nextDouble();
+                im[2 * k + 1] = -im[2 * k];
+                double modulus = re[2 * k] * re[2 * k] + im[2 * k] * im[2 * k];
+                coefficients = PolynomialArithmetic.direct(coefficients, new double[]{modulus, -2 * re[2 * k], 1});
+            }
+            for (int k = 2 * pairs; k < re.length; k++) {
+                re[k] = k - 2 * pairs + random.nextDouble() / 2;
+                coefficients = PolynomialArithmetic.direct(coefficients, new double[]{-re[k], 1});
+            }
+            expect("known roots, trial " + trial, coefficients, re, im);
+        }
+
+        // Roots 10^-8 .. 10^8: the starting circles have to follow the Newton polygon.
+        double[] spread = new double[9];
+        double[] coefficients = {1};
+        for (int k = 0; k < spread.length; k++) {
+            spread[k] = Math.pow(10, 2 * k - 8);
+            coefficients = PolynomialArithmetic.direct(coefficients, new double[]{-spread[k], 1});
+        }
+        expect("roots from 1e-8 to 1e8", coefficients, spread, new double[spread.length]);
+
+        int n = 1000;
+        double[] unity = new double[n + 1];
+        unity[0] = -1;
+        unity[n] = 1;
+        double[] ur = new double[n];
+        double[] ui = new double[n];
+        int count = PolynomialRootFinder.findRoots(unity, ur, ui);
+        double worst = 0;
+        for (int k = 0; k < count; k++) {
+            worst = Math.max(worst, Math.abs(Math.hypot(ur[k], ui[k]) - 1));
+        }
+        check("x^1000 - 1", count == n && worst <= 1e-12, "count " + count + ", worst |z| - 1 " + worst);
+
+        for (int degree : new int[]{10, 100, 700}) {
+            double[] a = new double[degree + 1];
+            for (int i = 0; i <= degree; i++) {
+                a[i] = random.nextGaussian();
+            }
+            double[] rr = new double[degree];
+            double[] ri = new double[degree];
+            PolynomialRootFinder.findRoots(a, rr, ri);
+            double error = 0;
+            for (int k = 0; k < degree; k++) {
+                error = Math.max(error, backwardError(a, rr[k], ri[k]));
+            }
+            check("random degree " + degree + " backward error", error <= 16 * degree * Math.ulp(1.0), "worst " + error);
+        }
+
+        check("constant", PolynomialRootFinder.findRoots(new double[]{5}, new double[0], new double[0]) == 0, "");
+        check("zero polynomial", PolynomialRootFinder.findRoots(new double[]{0, 0, 0}, new double[0], new double[0]) == 0, "");
+        check("empty coefficients", PolynomialRootFinder.findRoots(new double[0], new double[0], new double[0]) == 0, "");
+        boolean thrown = false;
+        try {
+            PolynomialRootFinder.findRoots(new double[]{1, 2, 3}, new double[1], new double[1]);
+        } catch (IllegalArgumentException expected) {
+            thrown = true;
+        }
+        check("root arrays too short", thrown, "");
+
+        System.out.println(failures == 0 ? "All checks passed" : failures + " checks failed");
+        if (failures > 0) System.exit(1);
+    }
+
+    // Every expected root has a distinct computed root within 1e-9 relative of it.
+    private static void expect(String name, double[] coefficients, double[] re, double[] im) {
+        double[] rr = new double[re.length];
+        double[] ri = new double[re.length];
+        int count = PolynomialRootFinder.findRoots(coefficients, rr, ri);
+        boolean ok = count == re.length;
+        boolean[] used = new boolean[count];
+        for (int k = 0; ok && k < re.length; k++) {
+            int best = -1;
+            double distance = Double.MAX_VALUE;
+            for (int j = 0; j < count; j++) {
+                double d = Math.hypot(rr[j] - re[k], ri[j] - im[k]);
+                if (!used[j] && d < distance) {
+                    distance = d;
+                    best = j;
+                }
+            }
+            // Zero roots are split off exactly.
+            ok = best >= 0 && distance <= 1e-9 * Math.hypot(re[k], im[k]);
+            if (ok) used[best] = true;
+        }
+        check(name, ok, "count " + count);
+    }
+
+    // |p(z)| / sum |a_i| |z|^i, through the reversed polynomial at 1/z outside the unit disk so
+    // that neither sum overflows.
+    private static double backwardError(double[] a, double zr, double zi) {
+        double modulus = Math.hypot(zr, zi);
+        boolean reversed = modulus > 1;
+        if (reversed) {
+            double m2 = modulus * modulus;
+            zr /= m2;
+            zi = -zi / m2;
+            modulus = 1 / modulus;
+        }
+        double pr = 0;
+        double pi = 0;
+        double sum = 0;
+        for (int k = 0; k < a.length; k++) {
+            double c = a[reversed ? k : a.length - 1 - k];
+            double t = pr * zr - pi * zi + c;
+            pi = pr * zi + pi * zr;
+            pr = t;
+            sum = sum * modulus + Math.abs(c);
+        }
+        return Math.hypot(pr, pi) / sum;
+    }
+
+    private static void check(String name, boolean ok, String detail) {
+        if (ok) return;
+        System.out.println("FAIL " + name + (detail.isEmpty() ? "" : ": " + detail));
+        failures++;
+    }
+}
@@ -0,0 +1,100 @@
+import java.util.Arrays;
+
+// z = M^-1 r for an approximation M of the system matrix.
+interface Preconditioner {
+    void apply(double[] r, double[] z);
+
+    static Preconditioner identity() {
+        return (r, z) -> System.arraycopy(r, 0, z, 0, r.length);
+    }
+
+    static Preconditioner jacobi(SparseMatrix a) {
+        return new Jacobi(a);
+    }
+
+    static Preconditioner ilu0(SparseMatrix a) {
+        return new Ilu0(a);
+    }
+
+    final class Jacobi implements Preconditioner {
+        private final double[] inverseDiagonal;
+
+        Jacobi(SparseMatrix a) {
+            double[] diagonal = a.diagonal();
+            inverseDiagonal = new double[diagonal.length];
+            for (int i = 0; i < diagonal.length; i++) {
+                inverseDiagonal[i] = diagonal[i] == 0 ? 1.0 : 1.0 / diagonal[i];
+            }
+        }
+
+        @Override
+        public void apply(double[] r, double[] z) {
+            for (int i = 0; i < r.length; i++) {
+                z[i] = r[i] * inverseDiagonal[i];
+            }
+        }
+    }
+
+    // Incomplete LU with the sparsity pattern of A: the unit lower factor and the upper
+    // factor share one value array laid out exactly like A's CSR values.
+    final class Ilu0 implements Preconditioner {
+        private final int n;
+        private final int[] rowPointers;
+        private final int[] columnIndices;
+        private final int[] diagonal;
+        private final double[] lu;
+
+        Ilu0(SparseMatrix a) {
+            if (!a.isSquare()) throw new IllegalArgumentException("ILU(0) needs a square matrix");
+            n = a.rows();
+            rowPointers = a.rowPointers();
+            columnIndices = a.columnIndices();
+            lu = a.values().clone();
+            diagonal = new int[n];
+            int[] position = new int[n];
+            Arrays.fill(position, -1);
+            for (int i = 0; i < n; i++) {
+                int from = rowPointers[i];
+                int to = rowPointers[i + 1];
+                for (int k = from; k < to; k++) {
+                    position[columnIndices[k]] = k;
+                }
+                int k = from;
+                for (; k < to && columnIndices[k] < i; k++) {
+                    int c = columnIndices[k];
+                    double factor = lu[k] / lu[diagonal[c]];
+                    lu[k] = factor;
+                    for (int u = diagonal[c] + 1; u < rowPointers[c + 1]; u++) {
+                        int target = position[columnIndices[u]];
+                        if (target >= 0) lu[target] -= factor * lu[u];
+                    }
+                }
+                if (k == to || columnIndices[k] != i || lu[k] == 0) {
+                    throw new IllegalArgumentException("ILU(0) needs a nonzero diagonal in row " + (i + 1));
+                }
+                diagonal[i] = k;
+                for (int m = from; m < to; m++) {
+                    position[columnIndices[m]] = -1;
+                }
+            }
+        }
+
+        @Override
+        public void apply(double[] r, double[] z) {
+            for (int i = 0; i < n; i++) {
+                double sum = r[i];
+                for (int k = rowPointers[i]; k < diagonal[i]; k++) {
+                    sum -= lu[k] * z[columnIndices[k]];
+                }
+                z[i] = sum;
+            }
+            for (int i = n - 1; i >= 0; i--) {
+                double sum = z[i];
+                for (int k = diagonal[i] + 1; k < rowPointers[i + 1]; k++) {
+                    sum -= lu[k] * z[columnIndices[k]];
+                }
+                z[i] = sum / lu[diagonal[i]];
+            }
+        }
+    }
+}
@@ -0,0 +1,356 @@
+import java.math.BigInteger;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Memoizes expensive results (products, determinants, LU factorizations, solutions) under a
+// content key: the operation name plus a 128-bit fingerprint of the operands, so equal inputs
+// hit whatever object they arrive in. Entries are weighed by their approximate size in bytes
+// and held to a memory budget with W-TinyLFU: new entries land in a small LRU window, and
+// entries leaving the window only displace main-space entries that have been asked for less
+// often, as estimated by a count-min sketch. One-off results therefore cannot flush results
+// that keep being reused.
+//
+// Cached values are shared, so callers must treat them as read-only. Loads run outside the
+// lock; two threads missing on the same key at once both compute it.
+final class ResultCache {
+    static final long DEFAULT_BUDGET_MB = 64;
+    private static final long ENTRY_OVERHEAD = 96;
+    private static final int WINDOW_PERCENT = 1;
+
+    static final class Key {
+        private final String operation;
+        private final long high;
+        private final long low;
+
+        private Key(String operation, long high, long low) {
+            this.operation = operation;
+            this.high = high;
+            this.low = low;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return high == other.high && low == other.low && operation.equals(other.operation);
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (high ^ (high >>> 32));
+        }
+
+        @Override
+        public String toString() {
+            return operation + "@" + Long.toHexString(high) + Long.toHexString(low);
+        }
+    }
+
+    static final class Stats {
+        final long hits;
+        final long misses;
+        final long evictions;
+        final long rejections;
+        final int entries;
+        final long bytes;
+        final long budget;
+
+        private Stats(long hits, long misses, long evictions, long rejections, int entries, long bytes, long budget) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.rejections = rejections;
+            this.entries = entries;
+            this.bytes = bytes;
+            this.budget = budget;
+        }
+
+        double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0 : (double) hits / requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d hits, %d misses (%.1f%% hit rate), %d entries using %.1f of %.1f MB, "
+                            + "%d evicted, %d not admitted",
+                    hits, misses, 100 * hitRate(), entries, bytes / 1048576.0, budget / 1048576.0,
+                    evictions, rejections);
+        }
+    }
+
+    private static final class Entry {
+        final Key key;
+        final Object value;
+        final long weight;
+
+        Entry(Key key, Object value, long weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    private final long budget;
+    private final long windowBudget;
+    private final LinkedHashMap<Key, Entry> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<Key, Entry> main = new LinkedHashMap<>(64, 0.75f, true);
+    private final FrequencySketch sketch = new FrequencySketch();
+    private long windowBytes;
+    private long mainBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long rejections;
+
+    ResultCache(long budgetBytes) {
+        if (budgetBytes < 0) throw new IllegalArgumentException("Cache budget must not be negative");
+        this.budget = budgetBytes;
+        this.windowBudget = budgetBytes * WINDOW_PERCENT / 100;
+    }
+
+    // Budget from the mathsolver.cache.mb system property, 64 MB if unset.
+    static ResultCache withDefaultBudget() {
+        return new ResultCache(Long.getLong("mathsolver.cache.mb", DEFAULT_BUDGET_MB) << 20);
+    }
+
+    // Returns the cached result for key, or computes, caches and returns it. Exceptions from
+    // the computation propagate and nothing is cached.
+    @SuppressWarnings("unchecked")
+    <T> T get(Key key, Supplier<T> computation) {
+        synchronized (this) {
+            sketch.increment(key);
+            Entry entry = window.get(key);
+            if (entry == null) entry = main.get(key);
+            if (entry != null) {
+                hits++;
+                return (T) entry.value;
+            }
+            misses++;
+        }
+        T value = computation.get();
+        put(key, value);
+        return value;
+    }
+
+    synchronized void clear() {
+        window.clear();
+        main.clear();
+        windowBytes = 0;
+        mainBytes = 0;
+    }
+
+    synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, rejections, window.size() + main.size(),
+                windowBytes + mainBytes, budget);
+    }
+
+    private synchronized void put(Key key, Object value) {
+        if (window.containsKey(key) || main.containsKey(key)) return;
+        Entry entry = new Entry(key, value, weigh(value) + ENTRY_OVERHEAD);
+        window.put(key, entry);
+        windowBytes += entry.weight;
+        while (windowBytes > windowBudget && !window.isEmpty()) {
+            Iterator<Entry> eldest = window.values().iterator();
+            Entry candidate = eldest.next();
+            eldest.remove();
+            windowBytes -= candidate.weight;
+            admit(candidate);
+        }
+    }
+
+    // A candidate that does not fit displaces least recently used main entries only if it is
+    // more frequent than every one of them; otherwise the candidate itself is dropped.
+    private void admit(Entry candidate) {
+        long mainBudget = budget - windowBudget;
+        if (candidate.weight > mainBudget) {
+            rejections++;
+            return;
+        }
+        long needed = mainBytes + candidate.weight - mainBudget;
+        if (needed > 0) {
+            int frequency = sketch.frequency(candidate.key);
+            long freed = 0;
+            int victims = 0;
+            for (Entry victim : main.values()) {
+                if (freed >= needed) break;
+                if (sketch.frequency(victim.key) >= frequency) {
+                    rejections++;
+                    return;
+                }
+                freed += victim.weight;
+                victims++;
+            }
+            Iterator<Entry> lru = main.values().iterator();
+            for (int i = 0; i < victims; i++) {
+                mainBytes -= lru.next().weight;
+                lru.remove();
+                evictions++;
+            }
+        }
+        main.put(candidate.key, candidate);
+        mainBytes += candidate.weight;
+    }
+
+    // ---- Keys ----
+
+    // Operands may be matrices, sparse matrices, double or int arrays, numbers or strings.
+    static Key key(String operation, Object... operands) {
+        Fingerprint fingerprint = new Fingerprint();
+        fingerprint.add(operation.hashCode());
+        for (Object operand : operands) {
+            fingerprint.add(operand);
+        }
+        return new Key(operation, fingerprint.high(), fingerprint.low());
+    }
+
+    // Two independently seeded multiply-rotate streams, each finished with a 64-bit mixer.
+    private static final class Fingerprint {
+        private long a = 0x243F6A8885A308D3L;
+        private long b = 0x13198A2E03707344L;
+        private long count;
+
+        void add(long v) {
+            a = Long.rotateLeft(a ^ (v * 0x9E3779B97F4A7C15L), 29) * 0xBF58476D1CE4E5B9L;
+            b = Long.rotateLeft(b + (v * 0xC2B2AE3D27D4EB4FL), 31) * 0x94D049BB133111EBL;
+            count++;
+        }
+
+        void add(Object operand) {
+            if (operand instanceof Matrix) {
+                Matrix m = (Matrix) operand;
+                add(m.getClass().getName().hashCode());
+                add(((long) m.rows() << 32) | m.cols());
+                if (m instanceof IntMatrix) {
+                    for (int v : ((IntMatrix) m).rowMajorData()) add(v);
+                } else if (m instanceof LongMatrix) {
+                    for (long v : ((LongMatrix) m).rowMajorData()) add(v);
+                } else if (m instanceof DoubleMatrix) {
+                    add(((DoubleMatrix) m).rowMajorData());
+                } else {
+                    for (int i = 0; i < m.rows(); i++) {
+                        for (int j = 0; j < m.cols(); j++) {
+                            add(Double.doubleToLongBits(m.getDouble(i, j)));
+                        }
+                    }
+                }
+            } else if (operand instanceof SparseMatrix) {
+                SparseMatrix m = (SparseMatrix) operand;
+                add(((long) m.rows() << 32) | m.cols());
+                add(m.rowPointers());
+                add(m.columnIndices());
+                add(m.values());
+            } else if (operand instanceof double[]) {
+                add((double[]) operand);
+            } else if (operand instanceof int[]) {
+                add((int[]) operand);
+            } else if (operand instanceof Number || operand instanceof String || operand instanceof Enum) {
+                add(operand.toString().hashCode());
+            } else {
+                throw new IllegalArgumentException("Cannot fingerprint " + operand);
+            }
+        }
+
+        void add(double[] values) {
+            add(values.length);
+            for (double v : values) add(Double.doubleToLongBits(v));
+        }
+
+        void add(int[] values) {
+            add(values.length);
+            for (int v : values) add(v);
+        }
+
+        long high() {
+            return mix(a ^ count);
+        }
+
+        long low() {
+            return mix(b + count);
+        }
+
+        private static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+
+    // ---- Sizes ----
+
+    private static long weigh(Object value) {
+        if (value instanceof IntMatrix) return 4L * cells((Matrix) value);
+        if (value instanceof Matrix) return 8L * cells((Matrix) value);
+        if (value instanceof LUDecomposition) {
+            long n = ((LUDecomposition) value).size();
+            return 8 * n * n + 4 * n;
+        }
+        if (value instanceof double[]) return 8L * ((double[]) value).length;
+        if (value instanceof IterativeSolver.Result) return 8L * ((IterativeSolver.Result) value).solution.length;
+        if (value instanceof MixedPrecisionSolver.Result) return 8L * ((MixedPrecisionSolver.Result) value).solution.length;
+        if (value instanceof BigInteger) return ((BigInteger) value).bitLength() / 8 + 16;
+        if (value instanceof RootSet) return 20L * ((RootSet) value).size();
+        if (value instanceof ModularSolver.Solution) {
+            ModularSolver.Solution solution = (ModularSolver.Solution) value;
+            long bytes = solution.denominator.bitLength() / 8 + 16;
+            for (BigInteger numerator : solution.numerators) {
+                bytes += numerator.bitLength() / 8 + 16;
+            }
+            return bytes;
+        }
+        return 16;
+    }
+
+    private static long cells(Matrix m) {
+        return (long) m.rows() * m.cols();
+    }
+
+    // Count-min sketch of 4-bit counters, four per key, packed sixteen to a long. Counters are
+    // halved after every SAMPLE increments so that old popularity fades.
+    private static final class FrequencySketch {
+        private static final int WIDTH = 1 << 10;
+        private static final int SAMPLE = 10 * WIDTH * 16;
+        private final long[] table = new long[WIDTH];
+        private int additions;
+
+        void increment(Key key) {
+            int hash = spread(key);
+            for (int i = 0; i < 4; i++) {
+                int index = index(hash, i);
+                int shift = shift(hash, i);
+                if (((table[index] >>> shift) & 0xF) < 15) table[index] += 1L << shift;
+            }
+            if (++additions == SAMPLE) {
+                for (int i = 0; i < WIDTH; i++) {
+                    table[i] = (table[i] >>> 1) & 0x7777777777777777L;
+                }
+                additions /= 2;
+            }
+        }
+
+        int frequency(Key key) {
+            int hash = spread(key);
+            int min = 15;
+            for (int i = 0; i < 4; i++) {
+                min = Math.min(min, (int) ((table[index(hash, i)] >>> shift(hash, i)) & 0xF));
+            }
+            return min;
+        }
+
+        private static int spread(Key key) {
+            return (int) (key.low ^ (key.low >>> 32));
+        }
+
+        private static int index(int hash, int i) {
+            int h = (hash + i * 0x9E3779B9) * 0x85EBCA6B;
+            return (h ^ (h >>> 16)) & (WIDTH - 1);
+        }
+
+        // Each of the four hash functions owns a quarter of every word.
+        private static int shift(int hash, int i) {
+            return (i << 4) + (((hash >>> (i << 2)) & 3) << 2);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Fixed-point rendering of real and complex values straight into a StringBuilder, without
+// going through java.util.Formatter. Stateless, so one instance can be shared freely.
+final class RootFormatter {
+    static final RootFormatter DEFAULT = new RootFormatter(4);
+
+    private static final double LONG_PATH_LIMIT = 1e15;
+
+    private final int decimals;
+    private final long scale;
+
+    RootFormatter(int decimals) {
+        if (decimals < 0 || decimals > 9) throw new IllegalArgumentException("Decimals must be between 0 and 9");
+        this.decimals = decimals;
+        long s = 1;
+        for (int i = 0; i < decimals; i++) {
+            s *= 10;
+        }
+        this.scale = s;
+    }
+
+    StringBuilder appendFixed(StringBuilder sb, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) return sb.append(value);
+        double abs = Math.abs(value);
+        if (abs >= LONG_PATH_LIMIT) {
+            return sb.append(new BigDecimal(value).setScale(decimals, RoundingMode.HALF_UP).toPlainString());
+        }
+        long scaled = Math.round(abs * scale);
+        if (value < 0 && scaled != 0) sb.append('-');
+        sb.append(scaled / scale);
+        if (decimals > 0) {
+            sb.append('.');
+            long fraction = scaled % scale;
+            for (long place = scale / 10; place > fraction && place > 1; place /= 10) {
+                sb.append('0');
+            }
+            sb.append(fraction);
+        }
+        return sb;
+    }
+
+    StringBuilder appendComplex(StringBuilder sb, double re, double im) {
+        appendFixed(sb, re);
+        if (im == 0) return sb;
+        sb.append(im < 0 ? " - " : " + ");
+        return appendFixed(sb, Math.abs(im)).append('i');
+    }
+
+    StringBuilder appendRoots(StringBuilder sb, RootSet roots) {
+        for (int i = 0; i < roots.size(); i++) {
+            appendComplex(sb, roots.real(i), roots.imaginary(i));
+            if (roots.multiplicity(i) > 1) {
+                sb.append(" (multiplicity ").append(roots.multiplicity(i)).append(')');
+            }
+            sb.append('\n');
+        }
+        return sb;
+    }
+}
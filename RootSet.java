@@ -0,0 +1,300 @@
+import java.util.Arrays;
+
+// Distinct roots of a polynomial, or eigenvalues of a matrix, as parallel primitive arrays,
+// each with its multiplicity. Text is produced only when a RootFormatter renders the set.
+final class RootSet {
+    static final RootSet EMPTY = new RootSet(new double[0], new double[0], new int[0]);
+    // Relative backward error to allow for eigenvalues from iterative solvers: generous against
+    // what they reach on clustered eigenvalues.
+    static final double ITERATIVE_BACKWARD_ERROR = 1e-11;
+    // Past this, e^(1/k) is too coarse to tell a multiple root from distinct neighbours.
+    private static final int MAX_MULTIPLICITY = 16;
+    private static final double ISOLATION = 4;
+    // Slack on the scatter a k-fold root shows under the measured backward error, and on the
+    // rounding error a confirmed root may leave in p and its derivatives.
+    private static final double SCATTER = 16;
+    private static final double CONFIRMATION = 4;
+    private static final int POLISH_STEPS = 4;
+
+    private final double[] re;
+    private final double[] im;
+    private final int[] multiplicity;
+
+    RootSet(double[] re, double[] im, int[] multiplicity) {
+        if (re.length != im.length || re.length != multiplicity.length) {
+            throw new IllegalArgumentException("Root arrays must have equal length");
+        }
+        this.re = re;
+        this.im = im;
+        this.multiplicity = multiplicity;
+    }
+
+    static RootSet of(double... real) {
+        int[] ones = new int[real.length];
+        Arrays.fill(ones, 1);
+        return new RootSet(real, new double[real.length], ones);
+    }
+
+    // Groups approximations that lie within tolerance * max(1, |z|) of each other into one root
+    // at their centroid, and snaps imaginary parts that are negligible against the real part.
+    static RootSet clustered(double[] re, double[] im, int count, double tolerance) {
+        return clustered(re, im, count, tolerance, 0);
+    }
+
+    // As above for approximations with relative backward error about backwardError, as from an
+    // iterative eigenvalue solver (ITERATIVE_BACKWARD_ERROR). Those place the k copies of a
+    // k-fold root about backwardError^(1/k) apart, so k neighbours count as one root when all
+    // lie within that times max(1, |centroid|) of their centroid and the next root lies well
+    // outside them. From each root the smallest such k among its nearest neighbours is taken,
+    // so distinct roots that merely crowd together are not swept into one. A real polynomial's
+    // multiple real root comes back as a scatter about the axis, so a centroid that close to
+    // the axis is taken as real.
+    static RootSet clustered(double[] re, double[] im, int count, double tolerance, double backwardError) {
+        return cluster(re, im, count, tolerance, backwardError, null);
+    }
+
+    // Approximate roots of the real polynomial with ascending coefficients, from any solver. As
+    // above, but the scatter allowed is what a k-fold root shows under the approximations' own
+    // backward error, and a cluster only becomes one root once confirmed against the
+    // polynomial, so close but distinct roots stay apart.
+    static RootSet clustered(double[] coefficients, double[] re, double[] im, int count, double tolerance) {
+        return cluster(re, im, count, tolerance, 0, coefficients);
+    }
+
+    private static RootSet cluster(double[] re, double[] im, int count, double tolerance, double backwardError,
+                                   double[] coefficients) {
+        double[] x = new double[count];
+        double[] y = new double[count];
+        for (int k = 0; k < count; k++) {
+            x[k] = re[k];
+            y[k] = Math.abs(im[k]) <= 1e-12 * Math.max(1, Math.abs(re[k])) ? 0 : im[k];
+        }
+        // Polynomials and matrices here are real, so non-real roots come in conjugate pairs. One
+        // whose conjugate has no approximation nearer than its own imaginary part is real, and
+        // the imaginary part is error.
+        for (int k = 0; k < count; k++) {
+            if (y[k] == 0) continue;
+            double reach = y[k] * y[k];
+            boolean paired = false;
+            for (int j = 0; j < count && !paired; j++) {
+                double dx = x[j] - x[k];
+                double dy = im[j] + y[k];
+                paired = j != k && dx * dx + dy * dy < reach;
+            }
+            if (!paired) y[k] = 0;
+        }
+        double[] r = new double[count];
+        double[] i = new double[count];
+        int[] m = new int[count];
+        boolean[] taken = new boolean[count];
+        int size = 0;
+        int[] nearest = new int[MAX_MULTIPLICITY + 1];
+        double[] distance = new double[MAX_MULTIPLICITY + 1];
+        for (int seed = 0; seed < count; seed++) {
+            if (taken[seed]) continue;
+            // The MAX_MULTIPLICITY + 1 nearest roots still free, the seed first, by insertion.
+            int available = 0;
+            for (int k = 0; k < count; k++) {
+                if (taken[k]) continue;
+                double d = k == seed ? -1 : Math.hypot(x[k] - x[seed], y[k] - y[seed]);
+                if (available == nearest.length && d >= distance[available - 1]) continue;
+                int j = Math.min(available, nearest.length - 1);
+                while (j > 0 && distance[j - 1] > d) {
+                    nearest[j] = nearest[j - 1];
+                    distance[j] = distance[j - 1];
+                    j--;
+                }
+                nearest[j] = k;
+                distance[j] = d;
+                if (available < nearest.length) available++;
+            }
+            int members = 1;
+            double cx = x[seed];
+            double cy = y[seed];
+            double snap = 1e-12 * Math.max(1, Math.abs(cx));
+            for (int k = 2; k <= Math.min(available, MAX_MULTIPLICITY); k++) {
+                double sx = 0;
+                double sy = 0;
+                for (int j = 0; j < k; j++) {
+                    sx += x[nearest[j]];
+                    sy += y[nearest[j]];
+                }
+                sx /= k;
+                sy /= k;
+                double scale = Math.max(1, Math.hypot(sx, sy));
+                double spread = 0;
+                for (int j = 0; j < k; j++) {
+                    spread = Math.max(spread, Math.hypot(x[nearest[j]] - sx, y[nearest[j]] - sy));
+                }
+                boolean isolated = k == available || Math.hypot(x[nearest[k]] - sx, y[nearest[k]] - sy)
+                        > ISOLATION * Math.max(spread, tolerance * scale);
+                if (!isolated) continue;
+                if (coefficients != null) {
+                    double[] root = confirmed(coefficients, x, y, nearest, k, sx, sy, spread, tolerance * scale);
+                    if (root == null) continue;
+                    members = k;
+                    cx = root[0];
+                    cy = root[1];
+                    snap = 0;
+                    break;
+                }
+                double radius = Math.max(tolerance, Math.pow(backwardError, 1.0 / k)) * scale;
+                if (spread <= radius) {
+                    members = k;
+                    cx = sx;
+                    cy = sy;
+                    snap = radius;
+                    break;
+                }
+            }
+            int first = size++;
+            if (members == 1 && available > MAX_MULTIPLICITY
+                    && distance[MAX_MULTIPLICITY] <= tolerance * Math.max(1, Math.hypot(cx, cy))) {
+                // More repeats than the window holds, as in the spectrum of an identity: take every
+                // free root within tolerance of the seed.
+                double reach = tolerance * Math.max(1, Math.hypot(cx, cy));
+                double sx = 0;
+                double sy = 0;
+                members = 0;
+                for (int k = 0; k < count; k++) {
+                    if (!taken[k] && Math.hypot(x[k] - x[seed], y[k] - y[seed]) <= reach) {
+                        taken[k] = true;
+                        sx += x[k];
+                        sy += y[k];
+                        members++;
+                    }
+                }
+                cx = sx / members;
+                cy = sy / members;
+            } else {
+                for (int j = 0; j < members; j++) {
+                    taken[nearest[j]] = true;
+                }
+            }
+            r[first] = cx;
+            i[first] = Math.abs(cy) <= snap ? 0 : cy;
+            m[first] = members;
+        }
+        return new RootSet(Arrays.copyOf(r, size), Arrays.copyOf(i, size), Arrays.copyOf(m, size));
+    }
+
+    // Whether the approximations nearest[0..k), centred on (cx, cy), are one k-fold root of the
+    // polynomial a. A k-fold root z perturbed by a relative backward error e scatters by about
+    // (e sum |a_i| |z|^i / |p^(k)(z) / k!|)^(1/k), with e measured on the approximations. A
+    // cluster within that is polished by Newton on p^(k-1), where z is a simple root, and
+    // accepted when p, p', ..., p^(k-1) all vanish there to rounding error. Two distinct roots
+    // d apart pass the first test for small d but not the second: p at their midpoint is
+    // (d / 2)^2 times the rest of p. Returns the polished root, or null.
+    private static double[] confirmed(double[] a, double[] x, double[] y, int[] nearest, int k,
+                                      double cx, double cy, double spread, double tolerance) {
+        double roundoff = (a.length - 1) * Math.ulp(1.0);
+        double error = roundoff;
+        for (int j = 0; j < k; j++) {
+            error = Math.max(error, residual(a, x[nearest[j]], y[nearest[j]]));
+        }
+        if (Math.abs(cy) <= spread) cy = 0;
+        double[] tr = new double[k + 1];
+        double[] ti = new double[k + 1];
+        double[] bound = new double[k + 1];
+        taylor(a, cx, cy, k, tr, ti, bound);
+        double scatter = Math.pow(SCATTER * error * bound[0] / Math.hypot(tr[k], ti[k]), 1.0 / k);
+        if (!(spread <= Math.max(scatter, tolerance))) return null;
+
+        double zx = cx;
+        double zy = cy;
+        for (int step = 0; step < POLISH_STEPS; step++) {
+            double dr = k * tr[k];
+            double di = k * ti[k];
+            double d2 = dr * dr + di * di;
+            if (d2 == 0) break;
+            double ux = (tr[k - 1] * dr + ti[k - 1] * di) / d2;
+            double uy = (ti[k - 1] * dr - tr[k - 1] * di) / d2;
+            zx -= ux;
+            zy -= uy;
+            taylor(a, zx, zy, k, tr, ti, bound);
+            if (Math.hypot(ux, uy) <= Math.ulp(Math.hypot(zx, zy))) break;
+        }
+        if (Math.hypot(zx - cx, zy - cy) > Math.max(spread, tolerance)) return null;
+        for (int j = 0; j < k; j++) {
+            if (Math.hypot(tr[j], ti[j]) > CONFIRMATION * roundoff * bound[j]) return null;
+        }
+        return new double[] {zx, zy};
+    }
+
+    // |p(z)| / sum |a_i| |z|^i, the relative backward error of z as a root of p.
+    private static double residual(double[] a, double zx, double zy) {
+        double pr = 0;
+        double pi = 0;
+        double sum = 0;
+        double modulus = Math.hypot(zx, zy);
+        for (int i = a.length - 1; i >= 0; i--) {
+            double t = pr * zx - pi * zy + a[i];
+            pi = pr * zy + pi * zx;
+            pr = t;
+            sum = sum * modulus + Math.abs(a[i]);
+        }
+        return sum == 0 ? 0 : Math.hypot(pr, pi) / sum;
+    }
+
+    // The Taylor coefficients p^(j)(z) / j! for j <= k by repeated synthetic division, and the
+    // same for the polynomial with coefficients |a_i| at |z|, which bounds their rounding error.
+    private static void taylor(double[] a, double zx, double zy, int k, double[] tr, double[] ti, double[] bound) {
+        int n = a.length - 1;
+        double[] br = a.clone();
+        double[] bi = new double[n + 1];
+        double[] b = new double[n + 1];
+        for (int i = 0; i <= n; i++) {
+            b[i] = Math.abs(a[i]);
+        }
+        double modulus = Math.hypot(zx, zy);
+        for (int j = 0; j <= k; j++) {
+            for (int i = n - 1; i >= j; i--) {
+                double t = br[i] + br[i + 1] * zx - bi[i + 1] * zy;
+                bi[i] += br[i + 1] * zy + bi[i + 1] * zx;
+                br[i] = t;
+                b[i] += b[i + 1] * modulus;
+            }
+            tr[j] = br[j];
+            ti[j] = bi[j];
+            bound[j] = b[j];
+        }
+    }
+
+    int size() {
+        return re.length;
+    }
+
+    boolean isEmpty() {
+        return re.length == 0;
+    }
+
+    // Number of roots counted with multiplicity.
+    int degree() {
+        int degree = 0;
+        for (int m : multiplicity) {
+            degree += m;
+        }
+        return degree;
+    }
+
+    double real(int index) {
+        return re[index];
+    }
+
+    double imaginary(int index) {
+        return im[index];
+    }
+
+    int multiplicity(int index) {
+        return multiplicity[index];
+    }
+
+    boolean isReal(int index) {
+        return im[index] == 0;
+    }
+
+    @Override
+    public String toString() {
+        return RootFormatter.DEFAULT.appendRoots(new StringBuilder(), this).toString();
+    }
+}
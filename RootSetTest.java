@@ -0,0 +1,119 @@
+import java.util.Arrays;
+import java.util.Random;
+
+// Checks that RootSet merges the approximations of a multiple root into one root of the right
+// multiplicity, whichever solver produced them, and that close but distinct roots stay apart
+// and real roots stay real. Run with "java RootSetTest"; exits with status 1 on a failure.
+final class RootSetTest {
+    private static int failures;
+
+    private RootSetTest() {
+    }
+
+    public static void main(String[] args) {
+        // (x - c)^k through the closed forms (k = 2, 3) and Aberth (k >= 4).
+        for (double c : new double[]{2, -1.5, 0.1, 1000, 0.001}) {
+            for (int k = 2; k <= 9; k++) {
+                expect("(x - " + c + ")^" + k, roots(repeat(c, k)), new double[]{c}, new int[]{k});
+            }
+        }
+        expect("(x - 1)^3 (x + 2)^2 (x - 5)", roots(1, 1, 1, -2, -2, 5), new double[]{-2, 1, 5}, new int[]{2, 3, 1});
+        expect("x^3 (x - 1)", roots(0, 0, 0, 1), new double[]{0, 1}, new int[]{3, 1});
+        RootSet pair = MathCore.polynomialRoots(new double[]{1, 0, 2, 0, 1});
+        check("(x^2 + 1)^2", pair.size() == 2 && pair.multiplicity(0) == 2 && pair.multiplicity(1) == 2
+                && Math.abs(Math.abs(pair.imaginary(0)) - 1) < 1e-9 && Math.abs(pair.real(0)) < 1e-9, pair);
+
+        // Distinct roots a relative 1e-6 apart are resolvable in double precision and must
+        // neither merge nor pick up imaginary parts.
+        for (double s : new double[]{0.01, 1, 100}) {
+            for (double gap : new double[]{1e-6, 1e-5, 1e-4}) {
+                double t = s * (1 + gap);
+                expectDistinct("quadratic " + s + ", +" + gap, roots(s, t), new double[]{s, t});
+                expectDistinct("cubic " + s + ", +" + gap, roots(s, t, 5 * s), new double[]{s, t, 5 * s});
+                expectDistinct("quartic " + s + ", +" + gap, roots(s, t, 5 * s, 7 * s), new double[]{s, t, 5 * s, 7 * s});
+            }
+        }
+        double[] wilkinson = new double[12];
+        for (int i = 0; i < wilkinson.length; i++) {
+            wilkinson[i] = i + 1;
+        }
+        expectDistinct("Wilkinson 12", roots(wilkinson), wilkinson);
+
+        Random random = new Random(7);
+        for (int trial = 0; trial < 200; trial++) {
+            double[] coefficients = new double[2 + random.nextInt(60)];
+            for (int i = 0; i < coefficients.length; i++) {
+                coefficients[i] = random.nextGaussian();
+            }
+            RootSet set = MathCore.polynomialRoots(coefficients);
+            check("random degree " + (coefficients.length - 1) + " has no multiple roots",
+                    set.size() == coefficients.length - 1, set);
+        }
+
+        // More equal eigenvalues than the neighbour window holds.
+        double[] ones = repeat(1, 40);
+        RootSet identity = RootSet.clustered(ones, new double[40], 40, 1e-9);
+        check("40 equal eigenvalues", identity.size() == 1 && identity.multiplicity(0) == 40, identity);
+
+        System.out.println(failures == 0 ? "All checks passed" : failures + " checks failed");
+        if (failures > 0) System.exit(1);
+    }
+
+    // Roots of the monic polynomial with the given real roots.
+    private static RootSet roots(double... real) {
+        double[] coefficients = {1};
+        for (double r : real) {
+            coefficients = PolynomialArithmetic.direct(coefficients, new double[]{-r, 1});
+        }
+        return MathCore.polynomialRoots(coefficients);
+    }
+
+    private static double[] repeat(double value, int count) {
+        double[] values = new double[count];
+        Arrays.fill(values, value);
+        return values;
+    }
+
+    // Real roots, in increasing order, with their multiplicities.
+    private static void expect(String name, RootSet set, double[] values, int[] multiplicities) {
+        boolean ok = set.size() == values.length;
+        Integer[] order = sortedByReal(set);
+        for (int k = 0; ok && k < values.length; k++) {
+            int index = order[k];
+            ok = set.isReal(index) && set.multiplicity(index) == multiplicities[k]
+                    && Math.abs(set.real(index) - values[k]) <= 1e-6 * Math.max(1, Math.abs(values[k]));
+        }
+        check(name, ok, set);
+    }
+
+    // Simple real roots, each to within a tenth of the gap to its neighbour.
+    private static void expectDistinct(String name, RootSet set, double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        boolean ok = set.size() == sorted.length;
+        Integer[] order = sortedByReal(set);
+        for (int k = 0; ok && k < sorted.length; k++) {
+            int index = order[k];
+            double gap = Double.MAX_VALUE;
+            if (k > 0) gap = sorted[k] - sorted[k - 1];
+            if (k + 1 < sorted.length) gap = Math.min(gap, sorted[k + 1] - sorted[k]);
+            ok = set.isReal(index) && set.multiplicity(index) == 1 && Math.abs(set.real(index) - sorted[k]) <= gap / 10;
+        }
+        check(name, ok, set);
+    }
+
+    private static Integer[] sortedByReal(RootSet set) {
+        Integer[] order = new Integer[set.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(set.real(a), set.real(b)));
+        return order;
+    }
+
+    private static void check(String name, boolean ok, RootSet set) {
+        if (ok) return;
+        System.out.println("FAIL " + name + ": " + set.toString().replace('\n', ' '));
+        failures++;
+    }
+}
@@ -0,0 +1,5 @@
+class SingularMatrixException extends RuntimeException {
+    public SingularMatrixException() {
+        super("Matrix is singular");
+    }
+}
@@ -0,0 +1,262 @@
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+// Compressed sparse row storage. Memory and every product are O(nnz). The CSR arrays of
+// transpose() are the CSC arrays of this matrix, so column-oriented consumers use that.
+final class SparseMatrix {
+    private static final int PARALLEL_ROWS = 1 << 15;
+
+    private final int rows;
+    private final int cols;
+    private final int[] rowPointers;
+    private final int[] columnIndices;
+    private final double[] values;
+
+    private SparseMatrix(int rows, int cols, int[] rowPointers, int[] columnIndices, double[] values) {
+        this.rows = rows;
+        this.cols = cols;
+        this.rowPointers = rowPointers;
+        this.columnIndices = columnIndices;
+        this.values = values;
+    }
+
+    // Wraps existing CSR arrays; column indices must be sorted within each row.
+    static SparseMatrix fromCsr(int rows, int cols, int[] rowPointers, int[] columnIndices, double[] values) {
+        if (rowPointers.length != rows + 1 || columnIndices.length != values.length
+                || rowPointers[rows] != values.length) {
+            throw new IllegalArgumentException("Inconsistent CSR arrays");
+        }
+        return new SparseMatrix(rows, cols, rowPointers, columnIndices, values);
+    }
+
+    static SparseMatrix fromCsc(int rows, int cols, int[] columnPointers, int[] rowIndices, double[] values) {
+        return fromCsr(cols, rows, columnPointers, rowIndices, values).transpose();
+    }
+
+    static SparseMatrix fromDense(DoubleMatrix dense) {
+        Builder builder = new Builder(dense.rows(), dense.cols());
+        for (int i = 0; i < dense.rows(); i++) {
+            for (int j = 0; j < dense.cols(); j++) {
+                builder.add(i, j, dense.get(i, j));
+            }
+        }
+        return builder.build();
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    int cols() {
+        return cols;
+    }
+
+    int nonZeros() {
+        return values.length;
+    }
+
+    boolean isSquare() {
+        return rows == cols;
+    }
+
+    int[] rowPointers() {
+        return rowPointers;
+    }
+
+    int[] columnIndices() {
+        return columnIndices;
+    }
+
+    double[] values() {
+        return values;
+    }
+
+    double get(int row, int col) {
+        int k = find(row, col);
+        return k < 0 ? 0.0 : values[k];
+    }
+
+    // Position of (row, col) in the value array, or -1 when it is not stored.
+    int find(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            throw new IndexOutOfBoundsException("(" + row + ", " + col + ") outside " + rows + "x" + cols);
+        }
+        int k = Arrays.binarySearch(columnIndices, rowPointers[row], rowPointers[row + 1], col);
+        return k < 0 ? -1 : k;
+    }
+
+    double[] diagonal() {
+        double[] diagonal = new double[Math.min(rows, cols)];
+        for (int i = 0; i < diagonal.length; i++) {
+            diagonal[i] = get(i, i);
+        }
+        return diagonal;
+    }
+
+    // y = A x
+    void multiply(double[] x, double[] y) {
+        if (x.length != cols || y.length != rows) throw new IllegalArgumentException("Vector length mismatch");
+        if (rows >= PARALLEL_ROWS) {
+            IntStream.range(0, rows).parallel().forEach(i -> y[i] = rowDot(i, x));
+        } else {
+            for (int i = 0; i < rows; i++) {
+                y[i] = rowDot(i, x);
+            }
+        }
+    }
+
+    double[] multiply(double[] x) {
+        double[] y = new double[rows];
+        multiply(x, y);
+        return y;
+    }
+
+    // y = A^T x without forming the transpose.
+    void multiplyTransposed(double[] x, double[] y) {
+        if (x.length != rows || y.length != cols) throw new IllegalArgumentException("Vector length mismatch");
+        Arrays.fill(y, 0.0);
+        for (int i = 0; i < rows; i++) {
+            double xi = x[i];
+            if (xi == 0) continue;
+            for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+                y[columnIndices[k]] += values[k] * xi;
+            }
+        }
+    }
+
+    SparseMatrix transpose() {
+        int[] pointers = new int[cols + 1];
+        for (int c : columnIndices) {
+            pointers[c + 1]++;
+        }
+        for (int j = 0; j < cols; j++) {
+            pointers[j + 1] += pointers[j];
+        }
+        int[] next = Arrays.copyOf(pointers, cols);
+        int[] indices = new int[values.length];
+        double[] transposed = new double[values.length];
+        for (int i = 0; i < rows; i++) {
+            for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+                int slot = next[columnIndices[k]]++;
+                indices[slot] = i;
+                transposed[slot] = values[k];
+            }
+        }
+        return new SparseMatrix(cols, rows, pointers, indices, transposed);
+    }
+
+    DoubleMatrix toDense() {
+        DoubleMatrix dense = new DoubleMatrix(rows, cols);
+        for (int i = 0; i < rows; i++) {
+            for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+                dense.set(i, columnIndices[k], values[k]);
+            }
+        }
+        return dense;
+    }
+
+    private double rowDot(int row, double[] x) {
+        double sum = 0;
+        for (int k = rowPointers[row]; k < rowPointers[row + 1]; k++) {
+            sum += values[k] * x[columnIndices[k]];
+        }
+        return sum;
+    }
+
+    @Override
+    public String toString() {
+        return "SparseMatrix[" + rows + "x" + cols + ", nnz=" + values.length + "]";
+    }
+
+    // Collects (row, col, value) triplets in any order. Explicit zeros are dropped and
+    // duplicates are summed when the CSR arrays are built.
+    static final class Builder {
+        private final int rows;
+        private final int cols;
+        private int[] tripletRows;
+        private int[] tripletCols;
+        private double[] tripletValues;
+        private int size;
+
+        Builder(int rows, int cols) {
+            this(rows, cols, 16);
+        }
+
+        Builder(int rows, int cols, int expectedNonZeros) {
+            if (rows < 0 || cols < 0) throw new IllegalArgumentException("Matrix dimensions must not be negative");
+            this.rows = rows;
+            this.cols = cols;
+            int capacity = Math.max(expectedNonZeros, 16);
+            tripletRows = new int[capacity];
+            tripletCols = new int[capacity];
+            tripletValues = new double[capacity];
+        }
+
+        Builder add(int row, int col, double value) {
+            if (row < 0 || row >= rows || col < 0 || col >= cols) {
+                throw new IndexOutOfBoundsException("(" + row + ", " + col + ") outside " + rows + "x" + cols);
+            }
+            if (value == 0) return this;
+            if (size == tripletValues.length) {
+                int capacity = size + (size >> 1);
+                tripletRows = Arrays.copyOf(tripletRows, capacity);
+                tripletCols = Arrays.copyOf(tripletCols, capacity);
+                tripletValues = Arrays.copyOf(tripletValues, capacity);
+            }
+            tripletRows[size] = row;
+            tripletCols[size] = col;
+            tripletValues[size] = value;
+            size++;
+            return this;
+        }
+
+        SparseMatrix build() {
+            // Two stable counting sorts, by column and then by row, leave the triplets in
+            // row-major order in O(nnz + rows + cols).
+            int[] columnStarts = new int[cols + 1];
+            for (int k = 0; k < size; k++) {
+                columnStarts[tripletCols[k] + 1]++;
+            }
+            for (int j = 0; j < cols; j++) {
+                columnStarts[j + 1] += columnStarts[j];
+            }
+            int[] byColumn = new int[size];
+            for (int k = 0; k < size; k++) {
+                byColumn[columnStarts[tripletCols[k]]++] = k;
+            }
+
+            int[] pointers = new int[rows + 1];
+            for (int k = 0; k < size; k++) {
+                pointers[tripletRows[k] + 1]++;
+            }
+            for (int i = 0; i < rows; i++) {
+                pointers[i + 1] += pointers[i];
+            }
+            int[] next = Arrays.copyOf(pointers, rows);
+            int[] indices = new int[size];
+            double[] sorted = new double[size];
+            for (int k : byColumn) {
+                int slot = next[tripletRows[k]]++;
+                indices[slot] = tripletCols[k];
+                sorted[slot] = tripletValues[k];
+            }
+
+            int write = 0;
+            int[] compactPointers = new int[rows + 1];
+            for (int i = 0; i < rows; i++) {
+                for (int k = pointers[i]; k < pointers[i + 1]; k++) {
+                    if (write > compactPointers[i] && indices[write - 1] == indices[k]) {
+                        sorted[write - 1] += sorted[k];
+                    } else {
+                        indices[write] = indices[k];
+                        sorted[write] = sorted[k];
+                        write++;
+                    }
+                }
+                compactPointers[i + 1] = write;
+            }
+            return new SparseMatrix(rows, cols, compactPointers,
+                    Arrays.copyOf(indices, write), Arrays.copyOf(sorted, write));
+        }
+    }
+}
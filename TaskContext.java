@@ -0,0 +1,48 @@
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+
+// Cooperative cancellation and progress reporting for long computations. A scheduler binds a
+// context to the thread running a task; engines fetch it once on entry with current(), hand it
+// to any helper threads, and poll it inside their loops. Outside a task current() returns a
+// context whose methods do nothing.
+abstract class TaskContext {
+    static final TaskContext NONE = new TaskContext() {
+    };
+
+    private static final ThreadLocal<TaskContext> CURRENT = new ThreadLocal<>();
+
+    static TaskContext current() {
+        TaskContext context = CURRENT.get();
+        return context == null ? NONE : context;
+    }
+
+    static <T> T callWith(TaskContext context, Callable<T> computation) throws Exception {
+        TaskContext previous = CURRENT.get();
+        CURRENT.set(context);
+        try {
+            return computation.call();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    boolean isCancelled() {
+        return false;
+    }
+
+    final void checkCancelled() {
+        if (isCancelled()) throw new CancellationException("Computation cancelled");
+    }
+
+    // Declares how many units of work the computation will report through worked().
+    void begin(long totalWork) {
+    }
+
+    // Thread-safe; may be called from helper threads.
+    void worked(long work) {
+    }
+}
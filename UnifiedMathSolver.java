@@ -2,9 +2,14 @@ import javax.swing.*;
 import javax.swing.border.TitledBorder;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 public class UnifiedMathSolver extends JFrame {
     private CardLayout cardLayout;
@@ -13,6 +18,8 @@ public class UnifiedMathSolver extends JFrame {
     private MatrixOperationsPanel matrixPanel;
     private PolynomialSolverPanel polynomialPanel;
     private LinearEquationSolverPanel linearEquationPanel;
+    private final ComputationScheduler scheduler = new ComputationScheduler();
+    private final ResultCache cache = ResultCache.withDefaultBudget();
 
     public UnifiedMathSolver() {
         initComponents();
@@ -40,6 +47,28 @@ public class UnifiedMathSolver extends JFrame {
         }
         
         menuBar.add(appsMenu);
+
+        JMenu cacheMenu = new JMenu("Cache");
+        JMenuItem statisticsItem = new JMenuItem("Statistics...");
+        statisticsItem.addActionListener(e -> JOptionPane.showMessageDialog(this, cache.stats().toString(),
+                "Result Cache", JOptionPane.INFORMATION_MESSAGE));
+        JMenuItem clearItem = new JMenuItem("Clear");
+        clearItem.addActionListener(e -> cache.clear());
+        cacheMenu.add(statisticsItem);
+        cacheMenu.add(clearItem);
+        menuBar.add(cacheMenu);
+
+        JMenu metricsMenu = new JMenu("Metrics");
+        JCheckBoxMenuItem recordItem = new JCheckBoxMenuItem("Record Metrics", OperationMetrics.isEnabled());
+        recordItem.addActionListener(e -> OperationMetrics.setEnabled(recordItem.isSelected()));
+        JMenuItem showMetricsItem = new JMenuItem("Show Metrics...");
+        showMetricsItem.addActionListener(e -> showMetrics());
+        JMenuItem resetMetricsItem = new JMenuItem("Reset");
+        resetMetricsItem.addActionListener(e -> OperationMetrics.reset());
+        metricsMenu.add(recordItem);
+        metricsMenu.add(showMetricsItem);
+        metricsMenu.add(resetMetricsItem);
+        menuBar.add(metricsMenu);
         setJMenuBar(menuBar);
 
         cardLayout = new CardLayout();
@@ -55,15 +84,40 @@ public class UnifiedMathSolver extends JFrame {
         mainPanel.add(polynomialPanel, "Polynomial Solver");
         mainPanel.add(linearEquationPanel, "Linear Equation Solver");
         
-        add(mainPanel);
+        add(mainPanel, BorderLayout.CENTER);
+        add(new ComputationStatusBar(scheduler), BorderLayout.SOUTH);
     }
 
     private void switchPanel(String panelName) {
         cardLayout.show(mainPanel, panelName);
     }
 
+    // The snapshot includes operations still running, so it stays useful while one appears hung.
+    private void showMetrics() {
+        Object[] options = {"Refresh", "Save...", "Close"};
+        while (true) {
+            JTextArea textArea = new JTextArea(OperationMetrics.snapshot(), 25, 110);
+            textArea.setEditable(false);
+            textArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+            int choice = JOptionPane.showOptionDialog(this, new JScrollPane(textArea), "Operation Metrics",
+                    JOptionPane.DEFAULT_OPTION, JOptionPane.PLAIN_MESSAGE, null, options, options[0]);
+            if (choice == 1) {
+                JFileChooser chooser = new JFileChooser();
+                if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) continue;
+                try {
+                    OperationMetrics.dump(chooser.getSelectedFile().toPath());
+                } catch (IOException ex) {
+                    JOptionPane.showMessageDialog(this, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            } else if (choice != 0) {
+                return;
+            }
+        }
+    }
+
     class ScientificCalculatorPanel extends JPanel {
         private JTextField inputField1, inputField2;
+        private JTextField expressionField, variablesField;
         private JLabel resultLabel;
 
         public ScientificCalculatorPanel() {
@@ -73,19 +127,27 @@ public class UnifiedMathSolver extends JFrame {
         private void initComponents() {
             setLayout(new BorderLayout(5, 5));
             
-            JPanel inputPanel = new JPanel(new GridLayout(2, 2, 5, 5));
+            JPanel inputPanel = new JPanel(new GridLayout(4, 2, 5, 5));
             inputField1 = new JTextField();
             inputField2 = new JTextField();
+            expressionField = new JTextField();
+            variablesField = new JTextField();
+            expressionField.addActionListener(e -> evaluateExpression());
+            variablesField.addActionListener(e -> evaluateExpression());
             inputPanel.add(new JLabel("Number 1:"));
             inputPanel.add(inputField1);
             inputPanel.add(new JLabel("Number 2:"));
             inputPanel.add(inputField2);
+            inputPanel.add(new JLabel("Expression (e.g. sin(x)^2 + log(y)):"));
+            inputPanel.add(expressionField);
+            inputPanel.add(new JLabel("Variables (e.g. x = 1, y = 2):"));
+            inputPanel.add(variablesField);
 
-            JPanel buttonPanel = new JPanel(new GridLayout(3, 3, 5, 5));
+            JPanel buttonPanel = new JPanel(new GridLayout(3, 4, 5, 5));
             String[] buttons = {
                 "Add", "Subtract", "Multiply",
                 "Divide", "Square Root", "Power",
-                "Exit"
+                "Evaluate", "Evaluate File...", "Exit"
             };
 
             for (String buttonText : buttons) {
@@ -103,9 +165,163 @@ public class UnifiedMathSolver extends JFrame {
             add(resultPanel, BorderLayout.SOUTH);
         }
 
+        // The compiled expression is cached by its text, so re-evaluating the same formula
+        // with new variable values skips parsing.
+        private void evaluateExpression() {
+            try {
+                Expression expression = Expression.compile(expressionField.getText().trim());
+                double[] values = new double[expression.variableCount()];
+                bindVariables(expression, variablesField.getText(), values, new boolean[values.length]);
+                double result = expression.evaluate(values);
+                if (Double.isNaN(result) || Double.isInfinite(result)) {
+                    throw new ArithmeticException("The result is undefined (division by zero or a value outside a function's domain)");
+                }
+                resultLabel.setText("Result: " + result);
+            } catch (IllegalArgumentException ex) {
+                JOptionPane.showMessageDialog(this, ex.getMessage(), "Input Error", JOptionPane.ERROR_MESSAGE);
+            } catch (ArithmeticException ex) {
+                JOptionPane.showMessageDialog(this, ex.getMessage(), "Math Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+
+        // Parses "name = value" pairs separated by commas or semicolons into the expression's
+        // slots. Slots already marked bound are left alone; any still unbound afterwards is an error.
+        private void bindVariables(Expression expression, String text, double[] values, boolean[] bound) {
+            for (String binding : text.split("[,;]")) {
+                if (binding.isBlank()) continue;
+                int equals = binding.indexOf('=');
+                if (equals < 0) throw new IllegalArgumentException("Expected name = value, found \"" + binding.trim() + "\"");
+                String name = binding.substring(0, equals).trim();
+                String value = binding.substring(equals + 1).trim();
+                int slot = expression.slot(name);
+                if (slot < 0 || bound[slot]) continue;
+                try {
+                    values[slot] = Double.parseDouble(value);
+                } catch (NumberFormatException ex) {
+                    throw new IllegalArgumentException("Invalid value for " + name + ": " + value);
+                }
+                bound[slot] = true;
+            }
+            String[] names = expression.variables();
+            for (int i = 0; i < names.length; i++) {
+                if (!bound[i]) throw new IllegalArgumentException("No value given for variable " + names[i]);
+            }
+        }
+
+        // Applies an operation to columns c1 and c2 of a data file, or the expression with c1, c2, ...
+        // bound to the columns and any other variables taken from the Variables field. Rows that
+        // fail are counted and reported rather than stopping the run.
+        private void evaluateFile() {
+            JFileChooser chooser = new JFileChooser();
+            if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+            Path file = chooser.getSelectedFile().toPath();
+            String expressionChoice = "Expression (columns are c1, c2, ...)";
+            List<Object> choices = new ArrayList<>();
+            choices.add(expressionChoice);
+            for (ColumnEvaluator.Operation operation : ColumnEvaluator.Operation.values()) {
+                choices.add(operation);
+            }
+            Object choice = JOptionPane.showInputDialog(this, "Apply to every row of " + file.getFileName() + ":",
+                    "Evaluate File", JOptionPane.PLAIN_MESSAGE, null, choices.toArray(), choices.get(0));
+            if (choice == null) return;
+
+            ComputationScheduler.Computation<ColumnEvaluator.Result> computation;
+            if (choice == expressionChoice) {
+                Expression expression;
+                double[] constants;
+                try {
+                    expression = Expression.compile(expressionField.getText().trim());
+                    constants = new double[expression.variableCount()];
+                    boolean[] bound = new boolean[constants.length];
+                    String[] names = expression.variables();
+                    for (int i = 0; i < names.length; i++) {
+                        bound[i] = ColumnEvaluator.columnIndex(names[i]) >= 0;
+                    }
+                    bindVariables(expression, variablesField.getText(), constants, bound);
+                } catch (IllegalArgumentException ex) {
+                    JOptionPane.showMessageDialog(this, ex.getMessage(), "Input Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                computation = () -> {
+                    double[][] data = MatrixIO.readColumns(file);
+                    return ColumnEvaluator.evaluate(expression, ColumnEvaluator.bindColumns(expression, data), constants);
+                };
+            } else {
+                ColumnEvaluator.Operation operation = (ColumnEvaluator.Operation) choice;
+                computation = () -> {
+                    double[][] data = MatrixIO.readColumns(file);
+                    if (data.length < operation.operands) {
+                        throw new IllegalArgumentException(operation + " needs " + operation.operands + " column(s)");
+                    }
+                    return ColumnEvaluator.apply(operation, data[0], operation.operands == 2 ? data[1] : null);
+                };
+            }
+            String title = "Evaluating " + file.getFileName();
+            ComputationScheduler.Computation<ColumnEvaluator.Result> evaluation = computation;
+            scheduler.submit(title, () -> OperationMetrics.record("columns.evaluate", evaluation::compute, file.getFileName()),
+                    result -> displayColumnResult(result, title), this::showFailure);
+        }
+
+        private void displayColumnResult(ColumnEvaluator.Result result, String title) {
+            StringBuilder sb = new StringBuilder();
+            sb.append("Evaluated ").append(result.rows()).append(" rows.\n");
+            if (result.errorCount == 0) {
+                sb.append("Every row succeeded.\n");
+            } else {
+                sb.append(result.errorCount).append(" rows failed:\n");
+                for (byte code = ColumnEvaluator.DIVISION_BY_ZERO; code <= ColumnEvaluator.UNDEFINED; code++) {
+                    int count = result.count(code);
+                    if (count > 0) sb.append("  ").append(ColumnEvaluator.describe(code)).append(": ").append(count).append('\n');
+                }
+                sb.append("First failure on row ").append(result.firstError() + 1).append(".\n");
+            }
+            int preview = Math.min(result.rows(), 20);
+            if (preview > 0) sb.append("\nFirst ").append(preview).append(" results:\n");
+            for (int i = 0; i < preview; i++) {
+                sb.append(i + 1).append(": ");
+                if (result.errors[i] == ColumnEvaluator.OK) {
+                    sb.append(result.values[i]);
+                } else {
+                    sb.append("error (").append(ColumnEvaluator.describe(result.errors[i])).append(')');
+                }
+                sb.append('\n');
+            }
+            JTextArea textArea = new JTextArea(sb.toString(), Math.min(sb.length() / 20 + 1, 20), 40);
+            textArea.setEditable(false);
+            Object[] options = {"Export...", "Close"};
+            int choice = JOptionPane.showOptionDialog(this, new JScrollPane(textArea), title, JOptionPane.DEFAULT_OPTION,
+                    JOptionPane.PLAIN_MESSAGE, null, options, options[1]);
+            if (choice == 0) exportColumn(result);
+        }
+
+        // Failed rows are written as NaN.
+        private void exportColumn(ColumnEvaluator.Result result) {
+            JFileChooser chooser = new JFileChooser();
+            if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+            Path file = chooser.getSelectedFile().toPath();
+            scheduler.submit("Saving " + file.getFileName(), () -> {
+                MatrixIO.write(file, DoubleMatrix.wrap(result.values, result.rows(), 1));
+                return file;
+            }, saved -> { }, this::showFailure);
+        }
+
+        private void showFailure(Exception ex) {
+            boolean expected = ex instanceof IllegalArgumentException || ex instanceof IOException;
+            JOptionPane.showMessageDialog(this, expected ? ex.getMessage() : "Computation failed: " + ex.getMessage(),
+                    "Error", JOptionPane.ERROR_MESSAGE);
+        }
+
         private class ButtonClickListener implements ActionListener {
             public void actionPerformed(ActionEvent e) {
                 String command = e.getActionCommand();
+                if (command.equals("Evaluate")) {
+                    evaluateExpression();
+                    return;
+                }
+                if (command.equals("Evaluate File...")) {
+                    evaluateFile();
+                    return;
+                }
                 try {
                     double num1 = 0, num2 = 0, result = 0;
                     
@@ -158,9 +374,23 @@ public class UnifiedMathSolver extends JFrame {
 
     class MatrixOperationsPanel extends JPanel {
         private JTextField rowsField, colsField;
-        private JPanel matrixAPanel, matrixBPanel;
+        private MatrixTable matrixATable, matrixBTable;
         private JButton createButton, addButton, subtractButton, multiplyButton;
         private JButton transposeAButton, transposeBButton, detAButton, detBButton;
+        private JButton importAButton, importBButton, exportAButton, exportBButton;
+        private JButton inverseAButton, inverseBButton;
+        private JButton multiplyFilesButton, transposeFileButton, determinantFileButton;
+        private JButton eigenAButton, eigenBButton, singularAButton, singularBButton;
+        private JTextField expressionField;
+        private JButton evaluateButton;
+        // From this size on, determinants come from the incrementally updated factorization
+        // rather than exact integer elimination.
+        private static final int INCREMENTAL_SIZE = 100;
+        // Factorizations kept between edits, so a determinant or inverse after changing a few
+        // entries costs O(n^2); they are used on the scheduler, so access holds trackerLock.
+        private final Object trackerLock = new Object();
+        private IncrementalInverse trackerA, trackerB;
+        private static final int DISPLAY_LIMIT = 200_000;
 
         public MatrixOperationsPanel() {
             initComponents();
@@ -179,16 +409,21 @@ public class UnifiedMathSolver extends JFrame {
             
             createButton = new JButton("Create Matrices");
             inputPanel.add(createButton);
+            inputPanel.add(new JLabel("Expression (e.g. A*B' + 2*A):"));
+            expressionField = new JTextField(16);
+            inputPanel.add(expressionField);
+            evaluateButton = new JButton("Evaluate");
+            inputPanel.add(evaluateButton);
             add(inputPanel, BorderLayout.NORTH);
             
             JPanel matricesContainer = new JPanel(new GridLayout(1, 2));
-            matrixAPanel = createMatrixPanel("Matrix A");
-            matrixBPanel = createMatrixPanel("Matrix B");
-            matricesContainer.add(matrixAPanel);
-            matricesContainer.add(matrixBPanel);
+            matrixATable = new MatrixTable(new MatrixTableModel(0, 0));
+            matrixBTable = new MatrixTable(new MatrixTableModel(0, 0));
+            matricesContainer.add(createMatrixPanel("Matrix A", matrixATable));
+            matricesContainer.add(createMatrixPanel("Matrix B", matrixBTable));
             add(matricesContainer, BorderLayout.CENTER);
             
-            JPanel operationsPanel = new JPanel(new GridLayout(2, 4));
+            JPanel operationsPanel = new JPanel(new GridLayout(5, 4));
             addButton = new JButton("Add (A+B)");
             subtractButton = new JButton("Subtract (A-B)");
             multiplyButton = new JButton("Multiply (A×B)");
@@ -196,6 +431,19 @@ public class UnifiedMathSolver extends JFrame {
             transposeBButton = new JButton("Transpose B");
             detAButton = new JButton("Determinant A");
             detBButton = new JButton("Determinant B");
+            inverseAButton = new JButton("Inverse A");
+            inverseBButton = new JButton("Inverse B");
+            importAButton = new JButton("Import A...");
+            importBButton = new JButton("Import B...");
+            exportAButton = new JButton("Export A...");
+            exportBButton = new JButton("Export B...");
+            multiplyFilesButton = new JButton("Multiply Files...");
+            transposeFileButton = new JButton("Transpose File...");
+            determinantFileButton = new JButton("Determinant of File...");
+            eigenAButton = new JButton("Eigenvalues A");
+            eigenBButton = new JButton("Eigenvalues B");
+            singularAButton = new JButton("Singular Values A");
+            singularBButton = new JButton("Singular Values B");
             
             operationsPanel.add(addButton);
             operationsPanel.add(subtractButton);
@@ -204,10 +452,25 @@ public class UnifiedMathSolver extends JFrame {
             operationsPanel.add(transposeBButton);
             operationsPanel.add(detAButton);
             operationsPanel.add(detBButton);
+            operationsPanel.add(inverseAButton);
+            operationsPanel.add(inverseBButton);
+            operationsPanel.add(importAButton);
+            operationsPanel.add(importBButton);
+            operationsPanel.add(exportAButton);
+            operationsPanel.add(exportBButton);
+            operationsPanel.add(multiplyFilesButton);
+            operationsPanel.add(transposeFileButton);
+            operationsPanel.add(determinantFileButton);
+            operationsPanel.add(eigenAButton);
+            operationsPanel.add(eigenBButton);
+            operationsPanel.add(singularAButton);
+            operationsPanel.add(singularBButton);
             
             add(operationsPanel, BorderLayout.SOUTH);
             
             createButton.addActionListener(e -> createMatrices());
+            expressionField.addActionListener(e -> evaluateExpression());
+            evaluateButton.addActionListener(e -> evaluateExpression());
             addButton.addActionListener(e -> performOperation("add"));
             subtractButton.addActionListener(e -> performOperation("subtract"));
             multiplyButton.addActionListener(e -> performOperation("multiply"));
@@ -215,11 +478,25 @@ public class UnifiedMathSolver extends JFrame {
             transposeBButton.addActionListener(e -> transposeMatrix('B'));
             detAButton.addActionListener(e -> calculateDeterminant('A'));
             detBButton.addActionListener(e -> calculateDeterminant('B'));
+            inverseAButton.addActionListener(e -> calculateInverse('A'));
+            inverseBButton.addActionListener(e -> calculateInverse('B'));
+            importAButton.addActionListener(e -> importMatrix('A'));
+            importBButton.addActionListener(e -> importMatrix('B'));
+            exportAButton.addActionListener(e -> exportMatrix(getMatrix('A')));
+            exportBButton.addActionListener(e -> exportMatrix(getMatrix('B')));
+            multiplyFilesButton.addActionListener(e -> multiplyFiles());
+            transposeFileButton.addActionListener(e -> transposeFile());
+            determinantFileButton.addActionListener(e -> determinantOfFile());
+            eigenAButton.addActionListener(e -> calculateEigenvalues('A'));
+            eigenBButton.addActionListener(e -> calculateEigenvalues('B'));
+            singularAButton.addActionListener(e -> calculateSingularValues('A'));
+            singularBButton.addActionListener(e -> calculateSingularValues('B'));
         }
 
-        private JPanel createMatrixPanel(String title) {
-            JPanel panel = new JPanel();
+        private JPanel createMatrixPanel(String title, MatrixTable table) {
+            JPanel panel = new JPanel(new BorderLayout());
             panel.setBorder(new TitledBorder(title));
+            panel.add(new JScrollPane(table), BorderLayout.CENTER);
             return panel;
         }
 
@@ -228,224 +505,290 @@ public class UnifiedMathSolver extends JFrame {
                 int rows = Integer.parseInt(rowsField.getText());
                 int cols = Integer.parseInt(colsField.getText());
                 
-                matrixAPanel.removeAll();
-                matrixAPanel.setLayout(new GridLayout(rows, cols));
-                for (int i = 0; i < rows * cols; i++) {
-                    matrixAPanel.add(new JTextField(5));
-                }
-                
-                matrixBPanel.removeAll();
-                matrixBPanel.setLayout(new GridLayout(rows, cols));
-                for (int i = 0; i < rows * cols; i++) {
-                    matrixBPanel.add(new JTextField(5));
-                }
-                
-                matrixAPanel.revalidate();
-                matrixAPanel.repaint();
-                matrixBPanel.revalidate();
-                matrixBPanel.repaint();
-            } catch (NumberFormatException ex) {
+                matrixATable.commitEdit();
+                matrixBTable.commitEdit();
+                matrixATable.getModel().resize(rows, cols);
+                matrixBTable.getModel().resize(rows, cols);
+            } catch (IllegalArgumentException ex) {
                 showError("Please enter valid dimensions");
             }
         }
 
-        private int[][] getMatrix(JPanel panel, int rows, int cols) {
-            int[][] matrix = new int[rows][cols];
-            Component[] components = panel.getComponents();
-            int index = 0;
-            try {
-                for (int i = 0; i < rows; i++) {
-                    for (int j = 0; j < cols; j++) {
-                        matrix[i][j] = Integer.parseInt(((JTextField) components[index++]).getText());
-                    }
-                }
-            } catch (NumberFormatException ex) {
-                showError("Please enter valid integers in all matrix cells");
-                return null;
-            }
-            return matrix;
+        private IntMatrix getMatrix(char matrix) {
+            MatrixTable table = matrix == 'A' ? matrixATable : matrixBTable;
+            table.commitEdit();
+            return table.getModel().toMatrix();
         }
 
         private void performOperation(String operation) {
-            try {
-                int rows = Integer.parseInt(rowsField.getText());
-                int cols = Integer.parseInt(colsField.getText());
-                
-                int[][] a = getMatrix(matrixAPanel, rows, cols);
-                int[][] b = getMatrix(matrixBPanel, rows, cols);
-                if (a == null || b == null) return;
-                
-                int[][] result = null;
-                String title = "";
-                
-                switch (operation) {
-                    case "add":
-                        result = addMatrices(a, b);
-                        title = "Matrix Addition Result";
-                        break;
-                    case "subtract":
-                        result = subtractMatrices(a, b);
-                        title = "Matrix Subtraction Result";
-                        break;
-                    case "multiply":
-                        if (cols != Integer.parseInt(rowsField.getText())) {
-                            showError("For multiplication, columns of A must equal rows of B");
-                            return;
-                        }
-                        result = multiplyMatrices(a, b);
-                        title = "Matrix Multiplication Result";
-                        break;
-                }
-                
-                if (result != null) {
-                    displayMatrix(result, title);
-                }
-            } catch (NumberFormatException ex) {
-                showError("Invalid matrix dimensions");
+            IntMatrix a = getMatrix('A');
+            IntMatrix b = getMatrix('B');
+            if (a.rows() == 0 || a.cols() == 0) {
+                showError("Please create the matrices first");
+                return;
             }
+            
+            ComputationScheduler.Computation<Matrix> computation;
+            String title;
+            
+            switch (operation) {
+                case "add":
+                    computation = () -> a.plus(b);
+                    title = "Matrix Addition Result";
+                    break;
+                case "subtract":
+                    computation = () -> a.minus(b);
+                    title = "Matrix Subtraction Result";
+                    break;
+                case "multiply":
+                    if (a.cols() != b.rows()) {
+                        showError("For multiplication, columns of A must equal rows of B");
+                        return;
+                    }
+                    computation = () -> MathCore.multiply(a, b, cache);
+                    title = "Matrix Multiplication Result";
+                    break;
+                default:
+                    return;
+            }
+            
+            ComputationScheduler.Computation<Matrix> instrumented =
+                    () -> OperationMetrics.record("matrix." + operation, computation::compute, a, b);
+            scheduler.submit(title, instrumented, result -> displayMatrix(result, title), this::showFailure);
         }
 
-        private void transposeMatrix(char matrix) {
+        // The whole expression is evaluated in one go: sums are fused, transposes become views
+        // and products accumulate into the result, so no intermediate matrices are built.
+        private void evaluateExpression() {
+            IntMatrix a = getMatrix('A');
+            IntMatrix b = getMatrix('B');
+            MatrixExpr expr;
             try {
-                int rows = Integer.parseInt(rowsField.getText());
-                int cols = Integer.parseInt(colsField.getText());
-                
-                int[][] m = matrix == 'A' ? 
-                    getMatrix(matrixAPanel, rows, cols) : 
-                    getMatrix(matrixBPanel, rows, cols);
-                
-                if (m == null) return;
-                
-                int[][] transposed = transposeMatrix(m);
-                displayMatrix(transposed, "Transposed Matrix " + matrix);
-            } catch (NumberFormatException ex) {
-                showError("Invalid matrix dimensions");
+                expr = MatrixExpr.parse(expressionField.getText(), Map.of("A", a, "B", b));
+            } catch (IllegalArgumentException ex) {
+                showError(ex.getMessage());
+                return;
             }
+            String title = "Result of " + expressionField.getText().trim();
+            scheduler.submit(title, () -> OperationMetrics.record("matrix.expression", expr::evaluate, a, b),
+                    result -> displayMatrix(result, title), this::showFailure);
         }
 
-        private void calculateDeterminant(char matrix) {
-            try {
-                int rows = Integer.parseInt(rowsField.getText());
-                int cols = Integer.parseInt(colsField.getText());
-                
-                if (rows != cols) {
-                    showError("Matrix must be square to calculate determinant");
-                    return;
-                }
-                
-                int[][] m = matrix == 'A' ? 
-                    getMatrix(matrixAPanel, rows, cols) : 
-                    getMatrix(matrixBPanel, rows, cols);
-                
-                if (m == null) return;
-                
-                int determinant = calculateDeterminant(m);
-                JOptionPane.showMessageDialog(this, "Determinant: " + determinant,
-                        "Determinant of Matrix " + matrix, JOptionPane.INFORMATION_MESSAGE);
-            } catch (NumberFormatException ex) {
-                showError("Invalid matrix dimensions");
-            }
+        private void transposeMatrix(char matrix) {
+            IntMatrix m = getMatrix(matrix);
+            String title = "Transposed Matrix " + matrix;
+            scheduler.submit(title, () -> OperationMetrics.record("matrix.transpose", m::transpose, m),
+                    result -> displayMatrix(result, title), this::showFailure);
         }
 
-        private void displayMatrix(int[][] matrix, String title) {
-            StringBuilder sb = new StringBuilder();
-            for (int[] row : matrix) {
-                for (int val : row) {
-                    sb.append(val).append("\t");
-                }
-                sb.append("\n");
+        private void calculateDeterminant(char matrix) {
+            IntMatrix m = getMatrix(matrix);
+            if (!m.isSquare()) {
+                showError("Matrix must be square to calculate determinant");
+                return;
             }
             
-            JTextArea textArea = new JTextArea(sb.toString(), matrix.length, matrix[0].length * 4);
-            textArea.setEditable(false);
-            JScrollPane scrollPane = new JScrollPane(textArea);
-            JOptionPane.showMessageDialog(this, scrollPane, title, JOptionPane.PLAIN_MESSAGE);
+            String title = "Determinant of Matrix " + matrix;
+            if (m.rows() >= INCREMENTAL_SIZE) {
+                scheduler.submit(title, () -> OperationMetrics.record("matrix.determinant.incremental",
+                        () -> withTracker(matrix, m, this::describeDeterminant), m),
+                        text -> JOptionPane.showMessageDialog(this, text, title, JOptionPane.INFORMATION_MESSAGE),
+                        this::showFailure);
+                return;
+            }
+            ComputationScheduler.Computation<Number> computation =
+                    () -> OperationMetrics.record("matrix.determinant", () -> MathCore.determinant(m, cache), m);
+            scheduler.submit(title, computation, determinant -> JOptionPane.showMessageDialog(this,
+                    "Determinant: " + determinant, title, JOptionPane.INFORMATION_MESSAGE), this::showFailure);
         }
 
-        private void showError(String message) {
-            JOptionPane.showMessageDialog(this, message, "Error", JOptionPane.ERROR_MESSAGE);
+        private void calculateInverse(char matrix) {
+            IntMatrix m = getMatrix(matrix);
+            if (m.rows() == 0 || !m.isSquare()) {
+                showError("Matrix must be square to calculate its inverse");
+                return;
+            }
+            String title = "Inverse of Matrix " + matrix;
+            scheduler.submit(title, () -> OperationMetrics.record("matrix.inverse",
+                    () -> withTracker(matrix, m, IncrementalInverse::inverse), m),
+                    result -> displayMatrix(result, title), this::showFailure);
         }
 
-        private int[][] addMatrices(int[][] a, int[][] b) {
-            int rows = a.length;
-            int cols = a[0].length;
-            int[][] result = new int[rows][cols];
-            for (int i = 0; i < rows; i++) {
-                for (int j = 0; j < cols; j++) {
-                    result[i][j] = a[i][j] + b[i][j];
+        // Runs query against the matrix's kept factorization after bringing it up to date with m.
+        private <T> T withTracker(char matrix, IntMatrix m, Function<IncrementalInverse, T> query) {
+            DoubleMatrix values = m.toDoubleMatrix();
+            synchronized (trackerLock) {
+                IncrementalInverse tracker = matrix == 'A' ? trackerA : trackerB;
+                if (tracker == null || tracker.size() != m.rows()) {
+                    tracker = new IncrementalInverse(values);
+                    if (matrix == 'A') {
+                        trackerA = tracker;
+                    } else {
+                        trackerB = tracker;
+                    }
+                } else {
+                    tracker.syncTo(values);
                 }
+                return query.apply(tracker);
             }
-            return result;
         }
 
-        private int[][] subtractMatrices(int[][] a, int[][] b) {
-            int rows = a.length;
-            int cols = a[0].length;
-            int[][] result = new int[rows][cols];
-            for (int i = 0; i < rows; i++) {
-                for (int j = 0; j < cols; j++) {
-                    result[i][j] = a[i][j] - b[i][j];
-                }
-            }
-            return result;
-        }
-
-        private int[][] multiplyMatrices(int[][] a, int[][] b) {
-            int rowsA = a.length;
-            int colsA = a[0].length;
-            int colsB = b[0].length;
-            int[][] result = new int[rowsA][colsB];
-            for (int i = 0; i < rowsA; i++) {
-                for (int j = 0; j < colsB; j++) {
-                    for (int k = 0; k < colsA; k++) {
-                        result[i][j] += a[i][k] * b[k][j];
-                    }
-                }
+        // Large determinants overflow a double, so they are shown from log |det|.
+        private String describeDeterminant(IncrementalInverse tracker) {
+            String value = MathCore.formatDeterminant(tracker.determinantSign(), tracker.logAbsDeterminant());
+            return "Determinant ≈ " + value + "\n(floating point; edits since the last calculation are applied as "
+                    + "rank-one updates)";
+        }
+
+        private void calculateEigenvalues(char matrix) {
+            IntMatrix m = getMatrix(matrix);
+            if (m.rows() == 0 || !m.isSquare()) {
+                showError("Matrix must be square to calculate eigenvalues");
+                return;
             }
-            return result;
+            String title = "Eigenvalues of Matrix " + matrix;
+            scheduler.submit(title, () -> OperationMetrics.record("matrix.eigenvalues",
+                    () -> MathCore.eigenvalues(m, cache), m),
+                    values -> showText(RootFormatter.DEFAULT.appendRoots(new StringBuilder(), values).toString(), title),
+                    this::showFailure);
         }
 
-        private int[][] transposeMatrix(int[][] matrix) {
-            int rows = matrix.length;
-            int cols = matrix[0].length;
-            int[][] result = new int[cols][rows];
-            for (int i = 0; i < rows; i++) {
-                for (int j = 0; j < cols; j++) {
-                    result[j][i] = matrix[i][j];
-                }
+        private void calculateSingularValues(char matrix) {
+            IntMatrix m = getMatrix(matrix);
+            if (m.rows() == 0 || m.cols() == 0) {
+                showError("Please create the matrices first");
+                return;
             }
-            return result;
+            String title = "Singular Values of Matrix " + matrix;
+            scheduler.submit(title, () -> OperationMetrics.record("matrix.singular",
+                    () -> MathCore.singularValues(m, cache), m),
+                    sigma -> showText(describeSingularValues(sigma), title), this::showFailure);
         }
 
-        private int calculateDeterminant(int[][] matrix) {
-            int n = matrix.length;
-            if (n == 1) return matrix[0][0];
-            if (n == 2) {
-                return matrix[0][0] * matrix[1][1] - matrix[0][1] * matrix[1][0];
+        // Largest first, followed by the 2-norm condition number sigma_max / sigma_min.
+        private String describeSingularValues(double[] sigma) {
+            StringBuilder sb = new StringBuilder();
+            for (double s : sigma) {
+                RootFormatter.DEFAULT.appendFixed(sb, s).append('\n');
             }
-            
-            int determinant = 0;
-            for (int i = 0; i < n; i++) {
-                determinant += Math.pow(-1, i) * matrix[0][i] 
-                    * calculateDeterminant(getSubmatrix(matrix, 0, i));
+            double largest = sigma[0];
+            double smallest = sigma[sigma.length - 1];
+            if (smallest <= largest * sigma.length * Math.ulp(1.0)) {
+                sb.append("\nRank deficient: the condition number is infinite");
+            } else {
+                sb.append(String.format("\nCondition number: %.4g", largest / smallest));
             }
-            return determinant;
-        }
-
-        private int[][] getSubmatrix(int[][] matrix, int row, int col) {
-            int n = matrix.length;
-            int[][] submatrix = new int[n-1][n-1];
-            int r = 0;
-            for (int i = 0; i < n; i++) {
-                if (i == row) continue;
-                int c = 0;
-                for (int j = 0; j < n; j++) {
-                    if (j == col) continue;
-                    submatrix[r][c++] = matrix[i][j];
-                }
-                r++;
+            return sb.toString();
+        }
+
+        private void showText(String text, String title) {
+            JTextArea textArea = new JTextArea(text, Math.min(20, text.split("\n", -1).length), 30);
+            textArea.setEditable(false);
+            JOptionPane.showMessageDialog(this, new JScrollPane(textArea), title, JOptionPane.INFORMATION_MESSAGE);
+        }
+
+        // Files are read and written on the scheduler; .csv, .mtx (Matrix Market) and .mxb (binary).
+        private void importMatrix(char matrix) {
+            JFileChooser chooser = new JFileChooser();
+            if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+            Path file = chooser.getSelectedFile().toPath();
+            MatrixTable table = matrix == 'A' ? matrixATable : matrixBTable;
+            table.commitEdit();
+            scheduler.submit("Loading " + file.getFileName(), () -> MatrixIO.readIntMatrix(file), loaded -> {
+                table.getModel().setMatrix(loaded);
+                rowsField.setText(String.valueOf(loaded.rows()));
+                colsField.setText(String.valueOf(loaded.cols()));
+            }, this::showFailure);
+        }
+
+        // Whole-file operations on .mxb matrices, streamed tile by tile so that matrices far larger
+        // than the heap never enter the editor.
+        private void multiplyFiles() {
+            Path a = chooseFile("Matrix A (.mxb)", false);
+            Path b = a == null ? null : chooseFile("Matrix B (.mxb)", false);
+            Path out = b == null ? null : chooseFile("Save A×B as (.mxb)", true);
+            if (out == null) return;
+            scheduler.submit("Multiplying " + a.getFileName() + " by " + b.getFileName(), () ->
+                    OperationMetrics.record("matrix.multiply.file", () -> {
+                        try (OutOfCoreMatrix x = OutOfCoreMatrix.open(a); OutOfCoreMatrix y = OutOfCoreMatrix.open(b);
+                             OutOfCoreMatrix product = OutOfCoreMatrix.multiply(x, y, out)) {
+                            return product.rows() + "×" + product.cols();
+                        }
+                    }, a.getFileName(), b.getFileName()),
+                    shape -> showMessage("Wrote the " + shape + " product to " + out.getFileName(), "Multiply Files"),
+                    this::showFailure);
+        }
+
+        private void transposeFile() {
+            Path a = chooseFile("Matrix (.mxb)", false);
+            Path out = a == null ? null : chooseFile("Save the transpose as (.mxb)", true);
+            if (out == null) return;
+            scheduler.submit("Transposing " + a.getFileName(), () ->
+                    OperationMetrics.record("matrix.transpose.file", () -> {
+                        try (OutOfCoreMatrix x = OutOfCoreMatrix.open(a);
+                             OutOfCoreMatrix transposed = OutOfCoreMatrix.transpose(x, out)) {
+                            return transposed.rows() + "×" + transposed.cols();
+                        }
+                    }, a.getFileName()),
+                    shape -> showMessage("Wrote the " + shape + " transpose to " + out.getFileName(), "Transpose File"),
+                    this::showFailure);
+        }
+
+        private void determinantOfFile() {
+            Path a = chooseFile("Matrix (.mxb)", false);
+            if (a == null) return;
+            scheduler.submit("Factoring " + a.getFileName(), () ->
+                    OperationMetrics.record("matrix.determinant.file", () -> OutOfCoreMatrix.logDeterminant(a),
+                            a.getFileName()),
+                    log -> showMessage("Determinant ≈ " + MathCore.formatDeterminant((int) log[0], log[1])
+                            + "\n(floating point, by out-of-core LU)", "Determinant of " + a.getFileName()),
+                    this::showFailure);
+        }
+
+        private Path chooseFile(String title, boolean save) {
+            JFileChooser chooser = new JFileChooser();
+            chooser.setDialogTitle(title);
+            int choice = save ? chooser.showSaveDialog(this) : chooser.showOpenDialog(this);
+            return choice == JFileChooser.APPROVE_OPTION ? chooser.getSelectedFile().toPath() : null;
+        }
+
+        private void showMessage(String message, String title) {
+            JOptionPane.showMessageDialog(this, message, title, JOptionPane.INFORMATION_MESSAGE);
+        }
+
+        private void exportMatrix(Matrix matrix) {
+            JFileChooser chooser = new JFileChooser();
+            if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+            Path file = chooser.getSelectedFile().toPath();
+            scheduler.submit("Saving " + file.getFileName(), () -> {
+                MatrixIO.write(file, matrix);
+                return file;
+            }, saved -> { }, this::showFailure);
+        }
+
+        private void displayMatrix(Matrix matrix, String title) {
+            Object message;
+            if ((long) matrix.rows() * matrix.cols() <= DISPLAY_LIMIT) {
+                JTextArea textArea = new JTextArea(matrix.toText(), matrix.rows(), matrix.cols() * 4);
+                textArea.setEditable(false);
+                message = new JScrollPane(textArea);
+            } else {
+                message = "The result is " + matrix.rows() + "×" + matrix.cols() + ". Export it to a file to view it.";
             }
-            return submatrix;
+            Object[] options = {"Export...", "Close"};
+            int choice = JOptionPane.showOptionDialog(this, message, title, JOptionPane.DEFAULT_OPTION,
+                    JOptionPane.PLAIN_MESSAGE, null, options, options[1]);
+            if (choice == 0) exportMatrix(matrix);
+        }
+
+        private void showError(String message) {
+            JOptionPane.showMessageDialog(this, message, "Error", JOptionPane.ERROR_MESSAGE);
+        }
+
+        private void showFailure(Exception ex) {
+            boolean expected = ex instanceof ArithmeticException || ex instanceof IOException
+                    || ex instanceof SingularMatrixException;
+            showError(expected ? ex.getMessage() : "Computation failed: " + ex.getMessage());
         }
     }
 
@@ -453,6 +796,10 @@ public class UnifiedMathSolver extends JFrame {
         private JTextField degreeField;
         private JPanel coefficientsPanel;
         private JTextArea resultArea;
+        private JTextField pField;
+        private JTextField qField;
+        private JComboBox<MathCore.PolynomialOperation> operationCombo;
+        private static final int DISPLAY_LIMIT = 1000;
 
         public PolynomialSolverPanel() {
             initComponents();
@@ -479,9 +826,28 @@ public class UnifiedMathSolver extends JFrame {
             add(coefficientsScrollPane, BorderLayout.CENTER);
 
             JPanel bottomPanel = new JPanel(new BorderLayout());
+            JPanel controlsPanel = new JPanel(new GridLayout(0, 1));
             JButton solveButton = new JButton("Solve Equation");
             solveButton.addActionListener(this::solveAction);
-            bottomPanel.add(solveButton, BorderLayout.NORTH);
+            controlsPanel.add(solveButton);
+
+            // Arithmetic on two polynomials typed as coefficient lists, highest degree first.
+            JPanel arithmeticPanel = new JPanel(new FlowLayout());
+            arithmeticPanel.add(new JLabel("P:"));
+            pField = new JTextField(12);
+            pField.setToolTipText("Coefficients, highest degree first, e.g. 1 -3 2");
+            arithmeticPanel.add(pField);
+            arithmeticPanel.add(new JLabel("Q:"));
+            qField = new JTextField(12);
+            qField.setToolTipText("Coefficients, highest degree first, or the points to evaluate P at");
+            arithmeticPanel.add(qField);
+            operationCombo = new JComboBox<>(MathCore.PolynomialOperation.values());
+            arithmeticPanel.add(operationCombo);
+            JButton computeButton = new JButton("Compute");
+            computeButton.addActionListener(this::computeAction);
+            arithmeticPanel.add(computeButton);
+            controlsPanel.add(arithmeticPanel);
+            bottomPanel.add(controlsPanel, BorderLayout.NORTH);
             
             resultArea = new JTextArea(10, 30);
             resultArea.setEditable(false);
@@ -532,129 +898,108 @@ public class UnifiedMathSolver extends JFrame {
 					coefficients[i] = coefficientsList.get(coefficientsList.size() - 1 - i);
 				}
 				
-				String equation = generatePolynomialEquation(coefficients);
+				String equation = MathCore.formatPolynomial(coefficients);
 				resultArea.setText("Equation: " + equation + "\n\n");
 				
-				String[] roots = solvePolynomialEquation(coefficients);
-				if (roots.length == 0) {
-					resultArea.append("Error: Polynomial degree not supported. Only quadratic and cubic equations are supported.");
-				} else {
-					resultArea.append("Roots:\n");
-					for (String root : roots) {
-						resultArea.append(root + "\n");
-					}
-				}
+				scheduler.submit("Finding roots", () -> OperationMetrics.record("polynomial.roots",
+						() -> MathCore.polynomialRoots(coefficients), coefficients),
+						this::displayRoots, this::showSolveError);
 			} catch (NumberFormatException ex) {
 				JOptionPane.showMessageDialog(this, "Please enter valid numbers for all coefficients",
 											"Invalid Input", JOptionPane.ERROR_MESSAGE);
 			} catch (Exception ex) {
-				JOptionPane.showMessageDialog(this, "Error solving equation: " + ex.getMessage(),
-											"Error", JOptionPane.ERROR_MESSAGE);
+				showSolveError(ex);
 			}
 		}
 
-		private static String generatePolynomialEquation(double[] coefficients) {
-			StringBuilder equation = new StringBuilder();
-			for (int i = coefficients.length - 1; i >= 0; i--) {
-				if (coefficients[i] != 0) {
-					if (equation.length() > 0) {
-						equation.append(" + ");
-					}
-					equation.append(String.format("%.2f", coefficients[i]));
-					if (i > 0) {
-						equation.append("x^").append(i);
-					}
-				}
+		private void displayRoots(RootSet roots) {
+			if (roots.isEmpty()) {
+				resultArea.append("Error: A constant polynomial has no roots to find.");
+			} else {
+				resultArea.append(RootFormatter.DEFAULT.appendRoots(new StringBuilder("Roots:\n"), roots).toString());
 			}
-			return equation.toString();
 		}
 
-		private static String[] solvePolynomialEquation(double[] coefficients) {
-			int degree = coefficients.length - 1;
-			if (degree == 2) {
-				double a = coefficients[2];
-				double b = coefficients[1];
-				double c = coefficients[0];
-				double discriminant = b * b - 4 * a * c;
-
-				if (discriminant > 0) {
-					double root1 = (-b + Math.sqrt(discriminant)) / (2 * a);
-					double root2 = (-b - Math.sqrt(discriminant)) / (2 * a);
-					return new String[]{
-						String.format("%.4f", root1),
-						String.format("%.4f", root2)
-					};
-				} else if (discriminant == 0) {
-					double root = -b / (2 * a);
-					return new String[]{ String.format("%.4f", root) };
-				} else {
-					double realPart = -b / (2 * a);
-					double imaginaryPart = Math.sqrt(-discriminant) / (2 * a);
-					return new String[]{
-						String.format("%.4f + %.4fi", realPart, imaginaryPart),
-						String.format("%.4f - %.4fi", realPart, imaginaryPart)
-					};
+		private void showSolveError(Exception ex) {
+			JOptionPane.showMessageDialog(this, "Error solving equation: " + ex.getMessage(),
+										"Error", JOptionPane.ERROR_MESSAGE);
+		}
+
+		private void computeAction(ActionEvent e) {
+			MathCore.PolynomialOperation operation = (MathCore.PolynomialOperation) operationCombo.getSelectedItem();
+			try {
+				double[] p = MathCore.parseNumbers(pField.getText());
+				double[] q = operation.usesQ() ? MathCore.parseNumbers(qField.getText()) : new double[]{0};
+				resultArea.setText(operation + "\n\n");
+				scheduler.submit("Computing " + operation, () -> OperationMetrics.record("polynomial." + operation.shortName,
+						() -> operation.apply(p, q), p, q),
+						outputs -> displayArithmetic(operation, outputs), this::showComputeError);
+			} catch (IllegalArgumentException ex) {
+				JOptionPane.showMessageDialog(this, ex.getMessage(), "Invalid Input", JOptionPane.ERROR_MESSAGE);
+			}
+		}
+
+		// Coefficients in full, highest degree first, so they can be pasted back into P or Q;
+		// short polynomials are written out as well.
+		private void displayArithmetic(MathCore.PolynomialOperation operation, double[][] outputs) {
+			StringBuilder sb = new StringBuilder();
+			for (int i = 0; i < outputs.length; i++) {
+				double[] values = outputs[i];
+				sb.append(operation.outputs[i]).append(": ");
+				if (values.length > DISPLAY_LIMIT) {
+					sb.append(MathCore.formatNumbers(Arrays.copyOf(values, DISPLAY_LIMIT)))
+							.append(" ... (").append(values.length).append(" in all)\n");
+					continue;
 				}
-			} else if (degree == 3) {
-				double a = coefficients[3];
-				double b = coefficients[2];
-				double c = coefficients[1];
-				double d = coefficients[0];
-
-				double p = c/a - b*b/(3*a*a);
-				double q = (2*b*b*b)/(27*a*a*a) - (b*c)/(3*a*a) + d/a;
-				double discriminant = q*q/4 + p*p*p/27;
-
-				if (discriminant > 0) {
-					double u = Math.cbrt(-q/2 + Math.sqrt(discriminant));
-					double v = Math.cbrt(-q/2 - Math.sqrt(discriminant));
-					double realRoot = u + v - b/(3*a);
-					double realPartComplex = -(u + v)/2 - b/(3*a);
-					double imaginaryPart = (u - v) * Math.sqrt(3)/2;
-					return new String[]{
-						String.format("%.4f", realRoot),
-						String.format("%.4f + %.4fi", realPartComplex, imaginaryPart),
-						String.format("%.4f - %.4fi", realPartComplex, imaginaryPart)
-					};
-				} else {
-					double r = Math.sqrt(-p*p*p/27);
-					double theta = Math.acos(-q/(2*r));
-					double root1 = 2*Math.cbrt(r)*Math.cos(theta/3) - b/(3*a);
-					double root2 = 2*Math.cbrt(r)*Math.cos((theta + 2*Math.PI)/3) - b/(3*a);
-					double root3 = 2*Math.cbrt(r)*Math.cos((theta + 4*Math.PI)/3) - b/(3*a);
-					return new String[]{
-						String.format("%.4f", root1),
-						String.format("%.4f", root2),
-						String.format("%.4f", root3)
-					};
+				sb.append(MathCore.formatNumbers(values)).append('\n');
+				if (operation != MathCore.PolynomialOperation.EVALUATE && values.length <= 12) {
+					double[] ascending = new double[values.length];
+					for (int j = 0; j < values.length; j++) {
+						ascending[j] = values[values.length - 1 - j];
+					}
+					sb.append("  = ").append(MathCore.formatPolynomial(ascending)).append('\n');
 				}
-			} else {
-				return new String[0];
 			}
+			resultArea.append(sb.toString());
+		}
+
+		private void showComputeError(Exception ex) {
+			JOptionPane.showMessageDialog(this, "Error computing " + operationCombo.getSelectedItem() + ": " + ex.getMessage(),
+										"Error", JOptionPane.ERROR_MESSAGE);
 		}
 	}
 	class LinearEquationSolverPanel extends JPanel {
         private JComboBox<Integer> variableCombo;
+		private JComboBox<MathCore.LinearMethod> methodCombo;
+		private JComboBox<MathCore.PreconditionerType> preconditionerCombo;
 		private JPanel equationsPanel;
 		private JTextArea resultArea;
 		private int numVariables = 2;
+		private static final int DISPLAY_LIMIT = 1000;
+		// Typed systems get one field per coefficient; anything larger comes from a file.
+		private static final int MAX_FIELD_VARIABLES = 20;
 
 		public LinearEquationSolverPanel() {
 			initComponents();
 		}
 
 		private void initComponents() {
-			setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-			setTitle("Linear Equation Solver");
 			setLayout(new BorderLayout());
 			setPreferredSize(new Dimension(600, 400));
 
 			// Top panel for variable selection
 			JPanel topPanel = new JPanel(new FlowLayout());
 			topPanel.add(new JLabel("Select number of variables:"));
-			variableCombo = new JComboBox<>(new Integer[]{2, 3});
+			variableCombo = new JComboBox<>(new Integer[]{2, 3, 4, 5, 6, 8, 10});
+			variableCombo.setEditable(true);
 			variableCombo.addActionListener(e -> updateEquationFields());
 			topPanel.add(variableCombo);
+			topPanel.add(new JLabel("Method:"));
+			methodCombo = new JComboBox<>(MathCore.LinearMethod.values());
+			topPanel.add(methodCombo);
+			topPanel.add(new JLabel("Preconditioner:"));
+			preconditionerCombo = new JComboBox<>(MathCore.PreconditionerType.values());
+			topPanel.add(preconditionerCombo);
 
 			add(topPanel, BorderLayout.NORTH);
 
@@ -666,22 +1011,40 @@ public class UnifiedMathSolver extends JFrame {
 
 			// Bottom panel with solve button and results
 			JPanel bottomPanel = new JPanel(new BorderLayout());
+			JPanel buttonPanel = new JPanel(new GridLayout(1, 2));
 			JButton solveButton = new JButton("Solve System");
 			solveButton.addActionListener(e -> solveEquations());
-			bottomPanel.add(solveButton, BorderLayout.NORTH);
+			buttonPanel.add(solveButton);
+			JButton loadButton = new JButton("Solve From File...");
+			loadButton.addActionListener(e -> solveFromFile());
+			buttonPanel.add(loadButton);
+			bottomPanel.add(buttonPanel, BorderLayout.NORTH);
 			
 			resultArea = new JTextArea(8, 30);
 			resultArea.setEditable(false);
 			bottomPanel.add(new JScrollPane(resultArea), BorderLayout.CENTER);
 
 			add(bottomPanel, BorderLayout.SOUTH);
-
-			pack();
-			setLocationRelativeTo(null);
 		}
 
 		private void updateEquationFields() {
-			numVariables = (Integer) variableCombo.getSelectedItem();
+			try {
+				int selected = Integer.parseInt(String.valueOf(variableCombo.getSelectedItem()).trim());
+				if (selected < 1) throw new NumberFormatException();
+				if (selected > MAX_FIELD_VARIABLES) {
+					JOptionPane.showMessageDialog(this, "At most " + MAX_FIELD_VARIABLES
+							+ " variables can be typed in; use Solve From File... for larger systems",
+							"Input Error", JOptionPane.ERROR_MESSAGE);
+					variableCombo.setSelectedItem(numVariables);
+					return;
+				}
+				if (selected == numVariables && equationsPanel.getComponentCount() == selected) return;
+				numVariables = selected;
+			} catch (NumberFormatException ex) {
+				JOptionPane.showMessageDialog(this, "Please enter a valid positive number of variables",
+											 "Input Error", JOptionPane.ERROR_MESSAGE);
+				return;
+			}
 			equationsPanel.removeAll();
 			
 			for (int i = 0; i < numVariables; i++) {
@@ -700,14 +1063,12 @@ public class UnifiedMathSolver extends JFrame {
 			
 			equationsPanel.revalidate();
 			equationsPanel.repaint();
-			pack();
 		}
 
 		private void solveEquations() {
 			try {
-				double[][] coefficients = new double[numVariables][numVariables];
+				SparseMatrix.Builder coefficients = new SparseMatrix.Builder(numVariables, numVariables);
 				double[] constants = new double[numVariables];
-				int componentIndex = 0;
 
 				// Collect input values
 				for (int i = 0; i < numVariables; i++) {
@@ -717,7 +1078,7 @@ public class UnifiedMathSolver extends JFrame {
 						
 						for (int j = 0; j < numVariables; j++) {
 							JTextField coeffField = (JTextField) equationPanel.getComponent(2 + j * 2);
-							coefficients[i][j] = Double.parseDouble(coeffField.getText());
+							coefficients.add(i, j, Double.parseDouble(coeffField.getText()));
 						}
 						
 						JTextField constField = (JTextField) equationPanel.getComponent(equationPanel.getComponentCount() - 1);
@@ -726,72 +1087,115 @@ public class UnifiedMathSolver extends JFrame {
 				}
 
 				// Solve equations
-				double[] solution = solveLinearEquations(coefficients, constants);
-				displaySolution(solution);
+				LinearSystem system = new LinearSystem(coefficients.build(), constants);
+				solveInBackground("Solving", () -> system);
 
 			} catch (NumberFormatException ex) {
 				JOptionPane.showMessageDialog(this, "Please enter valid numbers in all fields",
 											 "Input Error", JOptionPane.ERROR_MESSAGE);
-			} catch (SingularMatrixException ex) {
-				resultArea.setText("No unique solution exists.\nThe system of equations is singular.");
+			} catch (IllegalArgumentException ex) {
+				showSolveError(ex);
 			}
 		}
 
-		private double[] solveLinearEquations(double[][] coefficients, double[] constants) throws SingularMatrixException {
-			double determinant = calculateDeterminant(coefficients);
-			
-			if (Math.abs(determinant) < 1e-10) {
-				throw new SingularMatrixException();
-			}
+		// The file holds the augmented matrix [A | b]: n rows, n + 1 columns, in any MatrixIO format.
+		private void solveFromFile() {
+			JFileChooser chooser = new JFileChooser();
+			if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+			Path file = chooser.getSelectedFile().toPath();
+			solveInBackground("Solving " + file.getFileName(), () -> LinearSystem.fromAugmented(MatrixIO.readSparse(file)));
+		}
 
-			double[] solution = new double[numVariables];
-			
-			for (int i = 0; i < numVariables; i++) {
-				double[][] modified = replaceColumn(coefficients, constants, i);
-				solution[i] = calculateDeterminant(modified) / determinant;
+		private void solveInBackground(String name, ComputationScheduler.Computation<LinearSystem> input) {
+			MathCore.LinearMethod method = (MathCore.LinearMethod) methodCombo.getSelectedItem();
+			MathCore.PreconditionerType preconditioner = (MathCore.PreconditionerType) preconditionerCombo.getSelectedItem();
+			if (method == MathCore.LinearMethod.LU) {
+				scheduler.submit(name + " by LU", () -> {
+					LinearSystem system = input.compute();
+					return OperationMetrics.record("linear.lu", () -> MathCore.solveDirect(system, cache), system);
+				},
+						this::displaySolution, this::showSolveError);
+			} else if (method == MathCore.LinearMethod.EXACT) {
+				scheduler.submit(name + " exactly", () -> {
+					LinearSystem system = input.compute();
+					return OperationMetrics.record("linear.exact", () -> MathCore.solveExact(system, cache), system);
+				},
+						this::displayExactSolution, this::showSolveError);
+			} else if (method == MathCore.LinearMethod.MIXED) {
+				scheduler.submit(name + " in mixed precision", () -> {
+					LinearSystem system = input.compute();
+					return OperationMetrics.record("linear.mixed", () -> MathCore.solveMixed(system, cache), system);
+				},
+						this::displayMixedSolution, this::showSolveError);
+			} else {
+				scheduler.submit(name + " by " + method, () -> {
+					LinearSystem system = input.compute();
+					return OperationMetrics.record("linear." + method.shortName,
+							() -> MathCore.solveIterative(system, method, preconditioner, cache), system, preconditioner);
+				},
+						this::displayIterativeSolution, this::showSolveError);
 			}
-			
-			return solution;
 		}
 
-		private double calculateDeterminant(double[][] matrix) {
-			if (matrix.length == 2) {
-				return matrix[0][0] * matrix[1][1] - matrix[0][1] * matrix[1][0];
+		private void showSolveError(Exception ex) {
+			if (ex instanceof SingularMatrixException) {
+				resultArea.setText("No unique solution exists.\nThe system of equations is singular.");
 			} else {
-				return matrix[0][0] * (matrix[1][1] * matrix[2][2] - matrix[1][2] * matrix[2][1])
-					 - matrix[0][1] * (matrix[1][0] * matrix[2][2] - matrix[1][2] * matrix[2][0])
-					 + matrix[0][2] * (matrix[1][0] * matrix[2][1] - matrix[1][1] * matrix[2][0]);
+				resultArea.setText(ex.getMessage());
 			}
 		}
 
-		private double[][] replaceColumn(double[][] matrix, double[] column, int colIndex) {
-			int n = matrix.length;
-			double[][] result = new double[n][n];
+		private void displaySolution(double[] solution) {
+			DecimalFormat df = new DecimalFormat("0.####");
+			StringBuilder sb = new StringBuilder("Solution:\n");
 			
-			for (int i = 0; i < n; i++) {
-				System.arraycopy(matrix[i], 0, result[i], 0, n);
-				result[i][colIndex] = column[i];
+			int shown = Math.min(solution.length, DISPLAY_LIMIT);
+			for (int i = 0; i < shown; i++) {
+				sb.append("x").append(i + 1).append(" = ").append(df.format(solution[i])).append("\n");
+			}
+			if (shown < solution.length) {
+				sb.append("... ").append(solution.length - shown).append(" more\n");
 			}
 			
-			return result;
+			resultArea.setText(sb.toString());
 		}
 
-		private void displaySolution(double[] solution) {
+		private void displayExactSolution(ModularSolver.Solution solution) {
 			DecimalFormat df = new DecimalFormat("0.####");
-			StringBuilder sb = new StringBuilder("Solution:\n");
+			StringBuilder sb = new StringBuilder("Exact solution:\n");
 			
-			for (int i = 0; i < solution.length; i++) {
-				sb.append("x").append(i + 1).append(" = ").append(df.format(solution[i])).append("\n");
+			int shown = Math.min(solution.size(), DISPLAY_LIMIT);
+			for (int i = 0; i < shown; i++) {
+				String exact = solution.format(i);
+				sb.append("x").append(i + 1).append(" = ").append(exact);
+				if (exact.indexOf('/') >= 0) sb.append("  (≈ ").append(df.format(solution.value(i))).append(")");
+				sb.append("\n");
+			}
+			if (shown < solution.size()) {
+				sb.append("... ").append(solution.size() - shown).append(" more\n");
 			}
+			sb.append("\nReconstructed from ").append(solution.primes).append(" primes");
 			
 			resultArea.setText(sb.toString());
 		}
 
-		private static class SingularMatrixException extends RuntimeException {
-			public SingularMatrixException() {
-				super("Matrix is singular");
+		private void displayMixedSolution(MixedPrecisionSolver.Result result) {
+			displaySolution(result.solution);
+			resultArea.append(String.format("\nCondition estimate %.3g, backward error %.2e\n%d refinement steps in %s precision",
+					result.conditionEstimate, result.backwardError, result.refinements,
+					result.fellBack ? "double" : "single"));
+			if (result.digitsLost() >= 8) {
+				resultArea.append(String.format("\nWarning: about %.0f of 16 significant digits may be lost to conditioning",
+						result.digitsLost()));
 			}
 		}
+
+		private void displayIterativeSolution(IterativeSolver.Result result) {
+			displaySolution(result.solution);
+			resultArea.append(String.format("\n%s after %d iterations (relative residual %.2e)",
+					result.converged ? "Converged" : "Did not converge", result.iterations,
+					result.relativeResidual));
+		}
     }
     public static void main(String[] args) {
         SwingUtilities.invokeLater(() -> new UnifiedMathSolver().setVisible(true));